@@ -0,0 +1,74 @@
+package swp391.fa25.swp391.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cấu hình rate limit endpoint auth (rate-limit.*)
+ *
+ * Mỗi policy có tối đa 2 giới hạn token bucket: theo IP và theo subject (username / email).
+ * Giới hạn để trống = không áp dụng. Bucket đầy capacity token, hồi refill-tokens token mỗi refill-period
+ * (hồi đều theo thời gian, không dồn theo từng chu kỳ).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    // memory = bucket trong JVM, db = bảng RATE_LIMIT_BUCKET dùng chung giữa các node
+    private String store = "memory";
+
+    // Chỉ bật khi chạy sau reverse proxy tự ghi X-Forwarded-For, nếu không client tự đặt IP được
+    private boolean trustForwardedFor = false;
+
+    private long sweepIntervalMs = 60000;
+
+    private Map<String, Policy> policies = new HashMap<>();
+
+    @Data
+    public static class Policy {
+        private Limit perIp;
+        private Limit perSubject;
+    }
+
+    @Data
+    public static class Limit {
+        private int capacity;
+        private int refillTokens; // 0 = bằng capacity
+        private Duration refillPeriod = Duration.ofMinutes(1);
+
+        public double tokensPerMilli() {
+            int tokens = refillTokens > 0 ? refillTokens : capacity;
+            return (double) tokens / Math.max(1, refillPeriod.toMillis());
+        }
+
+        /**
+         * Thời gian để bucket rỗng hồi đầy - bucket không dùng lâu hơn mức này tương đương chưa từng tồn tại
+         */
+        public long millisToFull() {
+            return (long) Math.ceil(capacity / tokensPerMilli());
+        }
+    }
+
+    /**
+     * Thời gian hồi đầy lâu nhất trong các policy → ngưỡng xóa bucket nhàn rỗi
+     */
+    public long maxMillisToFull() {
+        long max = 0;
+        for (Policy policy : policies.values()) {
+            if (policy.getPerIp() != null) {
+                max = Math.max(max, policy.getPerIp().millisToFull());
+            }
+            if (policy.getPerSubject() != null) {
+                max = Math.max(max, policy.getPerSubject().millisToFull());
+            }
+        }
+        return max;
+    }
+}
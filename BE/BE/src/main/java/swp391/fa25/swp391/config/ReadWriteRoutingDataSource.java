@@ -0,0 +1,54 @@
+package swp391.fa25.swp391.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * ⭐ Route connection theo loại transaction
+ *
+ * - @Transactional(readOnly = true) → replica (nếu {@link ReplicaLagMonitor} cho phép)
+ * - còn lại (ghi, không có transaction) → primary
+ *
+ * Phải được bọc trong LazyConnectionDataSourceProxy: connection thật chỉ được lấy ở câu SQL
+ * đầu tiên, lúc đó cờ readOnly của transaction đã được set.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryWrites;
+    private final Counter replicaReads;
+    private final Counter fallbackReads;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.primaryWrites = routeCounter(meterRegistry, "primary", "read-write");
+        this.replicaReads = routeCounter(meterRegistry, "replica", "read-only");
+        this.fallbackReads = routeCounter(meterRegistry, "primary", "replica-fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryWrites.increment();
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.isUsable()) {
+            fallbackReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Số connection được route theo pool đích")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package swp391.fa25.swp391.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cấu hình read replica (app.datasource.replica.*)
+ * enabled = false → chỉ dùng 1 datasource spring.datasource như trước
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.replica")
+@Data
+public class ReplicaDataSourceProperties {
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+
+    // Replica trễ quá ngưỡng (hoặc không kết nối được) → read-only transaction chạy trên primary
+    private long maxLagSeconds = 5;
+    private long checkIntervalMs = 5000;
+
+    // Query trả về độ trễ (giây) đo trên replica; để trống = chỉ kiểm tra kết nối
+    // Mặc định: Always On readable secondary
+    private String lagQuery = "SELECT ISNULL(MAX(secondary_lag_seconds), 0) " +
+            "FROM sys.dm_hadr_database_replica_states WHERE is_local = 1";
+}
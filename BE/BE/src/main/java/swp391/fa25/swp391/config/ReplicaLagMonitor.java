@@ -0,0 +1,70 @@
+package swp391.fa25.swp391.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * ⭐ Theo dõi độ trễ của read replica
+ *
+ * Chạy định kỳ trên pool replica (không qua routing). Replica chỉ được dùng khi lần kiểm tra
+ * gần nhất thành công và lag <= maxLagSeconds; ngược lại read-only transaction quay về primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReplicaDataSourceProperties properties;
+
+    private volatile boolean usable = false;
+    private volatile double lagSeconds = -1;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaDataSourceProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+        this.properties = properties;
+
+        Gauge.builder("datasource.replica.lag.seconds", this, monitor -> monitor.lagSeconds)
+                .description("Độ trễ replica đo được lần gần nhất (-1 = không đo được)")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("1 nếu read-only transaction đang được route sang replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            String lagQuery = properties.getLagQuery();
+            if (lagQuery == null || lagQuery.isBlank()) {
+                replicaJdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                lagSeconds = 0;
+            } else {
+                Number lag = replicaJdbcTemplate.queryForObject(lagQuery, Number.class);
+                lagSeconds = lag != null ? lag.doubleValue() : 0;
+            }
+            usable = lagSeconds <= properties.getMaxLagSeconds();
+        } catch (Exception e) {
+            lagSeconds = -1;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica check failed: {}", e.getMessage());
+            }
+        }
+
+        if (wasUsable != usable) {
+            log.warn("Replica {} (lag {}s, max {}s)", usable ? "back in rotation" : "taken out of rotation",
+                    lagSeconds, properties.getMaxLagSeconds());
+        }
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+}
@@ -0,0 +1,37 @@
+package swp391.fa25.swp391.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import swp391.fa25.swp391.constants.SoftDelete;
+
+import java.util.function.Supplier;
+
+/**
+ * ⭐ Tạm tắt filter soft delete trong Session hiện tại
+ *
+ * Dùng cho các truy vấn cần thấy cả dòng đã xóa (backfill, job bảo trì);
+ * filter được bật lại ngay sau khi work chạy xong.
+ */
+@Component
+public class SoftDeleteFilter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> T includingDeleted(Supplier<T> work) {
+        Session session = entityManager.unwrap(Session.class);
+        boolean enabled = session.getEnabledFilter(SoftDelete.FILTER) != null;
+        if (enabled) {
+            session.disableFilter(SoftDelete.FILTER);
+        }
+        try {
+            return work.get();
+        } finally {
+            if (enabled) {
+                session.enableFilter(SoftDelete.FILTER);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package swp391.fa25.swp391.constants;
+
+/**
+ * Hibernate second-level cache region names
+ * Kích thước và TTL của từng region cấu hình trong resources/ehcache.xml
+ */
+public class CacheRegions {
+
+    // ==================== ENTITY / COLLECTION REGIONS ====================
+    public static final String TOPOLOGY = "topology";                        // Facility, Station, Point (không Charger)
+    public static final String SUBSCRIPTION_PLANS = "subscription-plans";
+
+    // ==================== QUERY REGIONS ====================
+    public static final String TOPOLOGY_QUERIES = "topology-queries";
+    public static final String SUBSCRIPTION_PLAN_QUERIES = "subscription-plan-queries";
+
+    // ==================== CROSS-NODE INVALIDATION (CacheInvalidationBus) ====================
+    // TOPOLOGY / SUBSCRIPTION_PLANS ở trên cũng là region của bus
+    public static final String ACCOUNTS = "accounts";                        // key = username
+    public static final String NOTIFICATION_UNREAD = "notification-unread";  // key = employeeId
+    public static final String REVOKED_TOKENS = "revoked-tokens";            // key = jti@expiresAtMs
+    public static final String RESERVATION_CALENDAR = "reservation-calendar"; // key = chargingPointId@yyyy-MM-dd
+    public static final String CHARGER_STATUS = "charger-status";            // key = chargerId@status
+
+    // ==================== QUERY HINTS ====================
+    public static final String HINT_CACHEABLE = "org.hibernate.cacheable";
+    public static final String HINT_CACHE_REGION = "org.hibernate.cacheRegion";
+
+    private CacheRegions() {
+    }
+}
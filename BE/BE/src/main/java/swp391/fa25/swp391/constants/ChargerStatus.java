@@ -0,0 +1,68 @@
+package swp391.fa25.swp391.constants;
+
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ⭐ Trạng thái Charger + các bước chuyển hợp lệ - xem {@link swp391.fa25.swp391.service.ChargerStateMachine}
+ *
+ * active      → booked (đặt chỗ / giữ chỗ hàng chờ), using (quét QR sạc ngay), maintenance, inactive
+ * booked      → active (hủy / hết hạn / nhả giữ chỗ), using (đến sạc đúng reservation), maintenance (sự cố)
+ * using       → active (kết thúc sạc), maintenance (sự cố khi đang sạc)
+ * maintenance → active, inactive
+ * inactive    → active, maintenance
+ *
+ * Log sự kiện lưu ordinal (TINYINT) → chỉ thêm trạng thái mới ở CUỐI enum.
+ */
+@Getter
+public enum ChargerStatus implements StatusCode {
+    ACTIVE("active", "available"),
+    BOOKED("booked", "reserved"),
+    USING("using", "charging", "in_use"),
+    MAINTENANCE("maintenance"),
+    INACTIVE("inactive");
+
+    private static final Map<ChargerStatus, Set<ChargerStatus>> TRANSITIONS = new EnumMap<>(ChargerStatus.class);
+
+    static {
+        TRANSITIONS.put(ACTIVE, EnumSet.of(BOOKED, USING, MAINTENANCE, INACTIVE));
+        TRANSITIONS.put(BOOKED, EnumSet.of(ACTIVE, USING, MAINTENANCE));
+        TRANSITIONS.put(USING, EnumSet.of(ACTIVE, MAINTENANCE));
+        TRANSITIONS.put(MAINTENANCE, EnumSet.of(ACTIVE, INACTIVE));
+        TRANSITIONS.put(INACTIVE, EnumSet.of(ACTIVE, MAINTENANCE));
+    }
+
+    private final String code;
+    private final List<String> aliases;
+
+    ChargerStatus(String code, String... aliases) {
+        this.code = code;
+        this.aliases = List.of(aliases);
+    }
+
+    public boolean canTransitionTo(ChargerStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    /**
+     * Trạng thái từ chuỗi lưu trong CHARGER.STATUS (không phân biệt hoa thường, nhận cả alias); null nếu không nhận ra
+     */
+    public static ChargerStatus fromCode(String value) {
+        if (value == null) {
+            return null;
+        }
+        String key = value.trim().toLowerCase(Locale.ROOT);
+        for (ChargerStatus status : values()) {
+            if (status.code.equals(key) || status.aliases.contains(key)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
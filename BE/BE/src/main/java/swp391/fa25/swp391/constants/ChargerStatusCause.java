@@ -0,0 +1,16 @@
+package swp391.fa25.swp391.constants;
+
+/**
+ * Nguồn gốc 1 lần đổi trạng thái charger (cột CAUSE của CHARGER_STATUS_EVENT, lưu ordinal → chỉ thêm ở CUỐI)
+ * REF_ID đi kèm: RESERVATION / RESERVATION_EXPIRY → reservation id, WAITLIST → waitlist entry id,
+ * INCIDENT → incident report id, còn lại null
+ */
+public enum ChargerStatusCause {
+    CREATED,
+    ADMIN,
+    RESERVATION,
+    RESERVATION_EXPIRY,
+    SESSION,
+    WAITLIST,
+    INCIDENT
+}
@@ -0,0 +1,25 @@
+package swp391.fa25.swp391.constants;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Trạng thái IncidentReport
+ */
+@Getter
+public enum IncidentStatus implements StatusCode {
+    PENDING("pending"),
+    IN_PROGRESS("in_progress", "in-progress", "processing"),
+    RESOLVED("resolved"),
+    CLOSED("closed"),
+    REJECTED("rejected");
+
+    private final String code;
+    private final List<String> aliases;
+
+    IncidentStatus(String code, String... aliases) {
+        this.code = code;
+        this.aliases = List.of(aliases);
+    }
+}
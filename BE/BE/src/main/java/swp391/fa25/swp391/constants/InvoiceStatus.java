@@ -0,0 +1,24 @@
+package swp391.fa25.swp391.constants;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Trạng thái Invoice (mã trùng với PaymentStatus.INVOICE_*)
+ */
+@Getter
+public enum InvoiceStatus implements StatusCode {
+    UNPAID(PaymentStatus.INVOICE_UNPAID),
+    PAID(PaymentStatus.INVOICE_PAID),
+    OVERDUE(PaymentStatus.INVOICE_OVERDUE),
+    CANCELLED(PaymentStatus.INVOICE_CANCELLED, "canceled");
+
+    private final String code;
+    private final List<String> aliases;
+
+    InvoiceStatus(String code, String... aliases) {
+        this.code = code;
+        this.aliases = List.of(aliases);
+    }
+}
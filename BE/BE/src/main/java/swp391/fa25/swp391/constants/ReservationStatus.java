@@ -0,0 +1,24 @@
+package swp391.fa25.swp391.constants;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Trạng thái Reservation
+ */
+@Getter
+public enum ReservationStatus implements StatusCode {
+    ACTIVE("active", "confirmed", "booked"),
+    FULFILLED("fulfilled", "completed"),
+    CANCELLED("cancelled", "canceled"),
+    EXPIRED("expired");
+
+    private final String code;
+    private final List<String> aliases;
+
+    ReservationStatus(String code, String... aliases) {
+        this.code = code;
+        this.aliases = List.of(aliases);
+    }
+}
@@ -0,0 +1,22 @@
+package swp391.fa25.swp391.constants;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Trạng thái ChargingSession
+ */
+@Getter
+public enum SessionStatus implements StatusCode {
+    CHARGING("charging", "using", "active"),
+    COMPLETED("completed", "inactive", "stopped");
+
+    private final String code;
+    private final List<String> aliases;
+
+    SessionStatus(String code, String... aliases) {
+        this.code = code;
+        this.aliases = List.of(aliases);
+    }
+}
@@ -0,0 +1,18 @@
+package swp391.fa25.swp391.constants;
+
+/**
+ * Hibernate filter ẩn dòng đã soft delete (IS_DELETED = 1)
+ *
+ * Filter được bật sẵn cho mọi Session (autoEnabled) trên Facility, ChargingStation, ChargingPoint,
+ * Charger, IncidentReport. Điều kiện là literal (không tham số) để SQL Server dùng được
+ * filtered index "... WHERE IS_DELETED = 0" (xem resources/sql/soft_delete_filtered_indexes.sql).
+ * Load theo id / association (session.getCharger()) không bị lọc → lịch sử vẫn thấy dòng đã xóa.
+ */
+public class SoftDelete {
+
+    public static final String FILTER = "liveRows";
+    public static final String CONDITION = "IS_DELETED = 0";
+
+    private SoftDelete() {
+    }
+}
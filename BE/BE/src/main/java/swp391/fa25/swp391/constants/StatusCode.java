@@ -0,0 +1,18 @@
+package swp391.fa25.swp391.constants;
+
+import java.util.List;
+
+/**
+ * Enum trạng thái có mã lưu DB chuẩn hóa (lowercase, ngắn)
+ * Dùng với {@link swp391.fa25.swp391.entity.converter.StatusCodeConverter} để mọi cách viết
+ * (hoa/thường, tên cũ) đều được ghi xuống DB cùng 1 mã → query so sánh bằng (=) dùng được index.
+ */
+public interface StatusCode {
+
+    String getCode();
+
+    /**
+     * Các cách viết cũ được map về mã này (vd: session 'using' → 'charging')
+     */
+    List<String> getAliases();
+}
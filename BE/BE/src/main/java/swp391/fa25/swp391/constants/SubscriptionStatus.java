@@ -0,0 +1,24 @@
+package swp391.fa25.swp391.constants;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Trạng thái PlanRegistration (mã trùng với PaymentStatus.SUBSCRIPTION_*)
+ */
+@Getter
+public enum SubscriptionStatus implements StatusCode {
+    PENDING(PaymentStatus.SUBSCRIPTION_PENDING),
+    ACTIVE(PaymentStatus.SUBSCRIPTION_ACTIVE),
+    EXPIRED(PaymentStatus.SUBSCRIPTION_EXPIRED),
+    CANCELLED(PaymentStatus.SUBSCRIPTION_CANCELLED, "canceled");
+
+    private final String code;
+    private final List<String> aliases;
+
+    SubscriptionStatus(String code, String... aliases) {
+        this.code = code;
+        this.aliases = List.of(aliases);
+    }
+}
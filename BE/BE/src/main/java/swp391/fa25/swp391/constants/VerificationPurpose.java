@@ -0,0 +1,9 @@
+package swp391.fa25.swp391.constants;
+
+/**
+ * Loại mã xác thực gửi qua email - cùng 1 subject (email) có thể giữ song song 1 mã cho mỗi loại
+ */
+public enum VerificationPurpose {
+    EMAIL_VERIFICATION,
+    PASSWORD_RESET
+}
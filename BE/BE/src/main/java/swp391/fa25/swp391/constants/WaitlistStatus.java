@@ -0,0 +1,17 @@
+package swp391.fa25.swp391.constants;
+
+/**
+ * Trạng thái lượt chờ sạc tại trạm (STATION_WAITLIST)
+ *
+ * WAITING → OFFERED (được giữ 1 charger vừa rảnh) → ACCEPTED (thành reservation)
+ *                                                 → DECLINED / EXPIRED (charger chuyển cho người kế tiếp)
+ * WAITING / OFFERED → CANCELLED (driver rời hàng chờ)
+ */
+public enum WaitlistStatus {
+    WAITING,
+    OFFERED,
+    ACCEPTED,
+    DECLINED,
+    EXPIRED,
+    CANCELLED
+}
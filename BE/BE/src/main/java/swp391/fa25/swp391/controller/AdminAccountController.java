@@ -97,6 +97,7 @@ public class AdminAccountController {
             // Toggle status: active <-> locked (lowercase)
             String newStatus = "active".equalsIgnoreCase(account.getStatus()) ? "locked" : "active";
             account.setStatus(newStatus);
+            account.revokeTokens(); // token đang dùng hết hiệu lực ngay (kể cả khi mở khóa lại)
 
             Account updatedAccount = accountService.save(account);
             AccountResponse response = buildFullAccountResponse(updatedAccount);
@@ -0,0 +1,59 @@
+package swp391.fa25.swp391.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.service.AnalyticsCube;
+import swp391.fa25.swp391.service.AnalyticsCubeService;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ⭐ 1 endpoint duy nhất cho các biểu đồ dashboard Admin (đọc từ analytics cube in-memory)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminAnalyticsController {
+
+    private final AnalyticsCubeService analyticsCubeService;
+
+    /**
+     * Slice/dice bằng filter, roll-up bằng groupBy (bỏ trống = tổng toàn bộ)
+     * groupBy: facility, station, day, plan, status (phân cách bằng dấu phẩy)
+     * VD: GET /api/admin/analytics/cube?groupBy=facility,day&from=2025-01-01&to=2025-01-31&status=completed
+     */
+    @GetMapping("/cube")
+    public ResponseEntity<ApiResponse> queryCube(
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) Integer facilityId,
+            @RequestParam(required = false) Integer stationId,
+            @RequestParam(required = false) Integer planId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Set<AnalyticsCube.Dimension> dimensions = EnumSet.noneOf(AnalyticsCube.Dimension.class);
+        if (groupBy != null) {
+            for (String name : groupBy) {
+                try {
+                    dimensions.add(AnalyticsCube.Dimension.valueOf(name.trim().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest().body(ApiResponse.error(
+                            "Unknown dimension '" + name + "'. Use facility, station, day, plan or status"));
+                }
+            }
+        }
+
+        AnalyticsCube.Filter filter = new AnalyticsCube.Filter(facilityId, stationId, planId, status, from, to);
+        List<AnalyticsCube.Row> rows = analyticsCubeService.query(filter, dimensions);
+        return ResponseEntity.ok(ApiResponse.success(String.format("Found %d rows", rows.size()), rows));
+    }
+}
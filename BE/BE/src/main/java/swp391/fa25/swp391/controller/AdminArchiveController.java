@@ -0,0 +1,48 @@
+package swp391.fa25.swp391.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.service.SessionArchiveService;
+
+/**
+ * ⭐ Quản lý archive charging session cho Admin
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/archive")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminArchiveController {
+
+    private final SessionArchiveService sessionArchiveService;
+
+    /**
+     * Số session hot / archive
+     * GET /api/admin/archive/sessions/stats
+     */
+    @GetMapping("/sessions/stats")
+    public ResponseEntity<ApiResponse> getSessionStats() {
+        return ResponseEntity.ok(ApiResponse.success("Session archive statistics",
+                sessionArchiveService.getStatistics()));
+    }
+
+    /**
+     * Chạy archive ngay (không chờ lịch đêm)
+     * POST /api/admin/archive/sessions/run
+     */
+    @PostMapping("/sessions/run")
+    public ResponseEntity<ApiResponse> runSessionArchive() {
+        log.info("📊 [ADMIN] Run charging session archival");
+        try {
+            long archived = sessionArchiveService.archiveOldSessions();
+            return ResponseEntity.ok(ApiResponse.success("Archived " + archived + " sessions", archived));
+        } catch (Exception e) {
+            log.error("Session archival failed", e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error archiving sessions: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package swp391.fa25.swp391.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.service.SecondLevelCacheService;
+
+/**
+ * ⭐ Quản lý second-level cache cho Admin
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminCacheController {
+
+    private final SecondLevelCacheService cacheService;
+
+    /**
+     * Hit/miss theo region
+     * GET /api/admin/cache/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse> getStats() {
+        return ResponseEntity.ok(ApiResponse.success("Cache statistics", cacheService.getRegionStatistics()));
+    }
+
+    /**
+     * Evict thủ công (sau khi sửa dữ liệu trực tiếp trong DB)
+     * POST /api/admin/cache/evict?region=topology  (bỏ region = evict tất cả)
+     */
+    @PostMapping("/evict")
+    public ResponseEntity<ApiResponse> evict(@RequestParam(required = false) String region) {
+        log.info("📊 [ADMIN] Evict second-level cache region {}", region != null ? region : "ALL");
+        try {
+            cacheService.evict(region);
+            return ResponseEntity.ok(ApiResponse.success("Cache evicted", region));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
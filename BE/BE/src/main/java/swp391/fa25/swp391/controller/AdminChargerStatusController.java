@@ -0,0 +1,81 @@
+package swp391.fa25.swp391.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import swp391.fa25.swp391.constants.ChargerStatus;
+import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.dto.response.ChargerStatusAtResponse;
+import swp391.fa25.swp391.dto.response.ChargerStatusEventResponse;
+import swp391.fa25.swp391.service.ChargerStateMachine;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ⭐ Lịch sử trạng thái charger (log sự kiện của máy trạng thái)
+ * Thời gian truyền dạng ISO local date-time: 2025-11-20T18:05:00
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/chargers")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminChargerStatusController {
+
+    private final ChargerStateMachine chargerStateMachine;
+
+    /**
+     * Trạng thái hiện tại của mọi charger (snapshot trong bộ nhớ)
+     * GET /api/admin/chargers/status
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ApiResponse> getCurrentStatuses() {
+        Map<Integer, String> statuses = new TreeMap<>();
+        chargerStateMachine.currentAll().forEach((id, status) -> statuses.put(id, status.getCode()));
+        return ResponseEntity.ok(ApiResponse.success(String.format("Found %d chargers", statuses.size()), statuses));
+    }
+
+    /**
+     * Replay các lần đổi trạng thái của 1 charger trong [from, to)
+     * GET /api/admin/chargers/5/status-history?from=2025-11-20T00:00:00&to=2025-11-21T00:00:00
+     */
+    @GetMapping("/{id}/status-history")
+    public ResponseEntity<ApiResponse> getStatusHistory(
+            @PathVariable Integer id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("'from' must be before 'to'"));
+        }
+        List<ChargerStatusEventResponse> events = chargerStateMachine.replay(id, from, to);
+        return ResponseEntity.ok(ApiResponse.success(String.format("Found %d status changes", events.size()), events));
+    }
+
+    /**
+     * Trạng thái các charger (của 1 trạm hoặc tất cả) tại 1 thời điểm
+     * GET /api/admin/chargers/status-at?at=2025-11-20T18:05:00&stationId=1
+     */
+    @GetMapping("/status-at")
+    public ResponseEntity<ApiResponse> getStatusAt(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam(required = false) Integer stationId) {
+        if (at.isAfter(LocalDateTime.now())) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("'at' must not be in the future"));
+        }
+        try {
+            log.info("🕓 [ADMIN] Charger statuses at {} (station {})", at, stationId);
+            ChargerStatusAtResponse response = chargerStateMachine.statesAt(at, stationId);
+            return ResponseEntity.ok(ApiResponse.success(
+                    String.format("%d of %d chargers were %s", response.getAvailableChargerIds().size(),
+                            response.getChargers().size(), ChargerStatus.ACTIVE.getCode()),
+                    response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
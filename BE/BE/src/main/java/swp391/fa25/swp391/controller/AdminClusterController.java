@@ -0,0 +1,34 @@
+package swp391.fa25.swp391.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.service.ClusterJobService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ⭐ Trạng thái lease của scheduled job khi chạy nhiều node
+ */
+@RestController
+@RequestMapping("/api/admin/cluster")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminClusterController {
+
+    private final ClusterJobService clusterJobService;
+
+    /**
+     * Node hiện tại + owner / hạn lease / run đã xong của từng job (shard)
+     * GET /api/admin/cluster/jobs
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<ApiResponse> getJobLeases() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("nodeId", clusterJobService.getNodeId());
+        data.put("leases", clusterJobService.getLeases());
+        return ResponseEntity.ok(ApiResponse.success("Cluster job leases", data));
+    }
+}
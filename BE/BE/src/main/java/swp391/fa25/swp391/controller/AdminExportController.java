@@ -0,0 +1,89 @@
+package swp391.fa25.swp391.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import swp391.fa25.swp391.service.ExportService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * ⭐ Export lịch sử cho Admin (stream thẳng ra response, không giới hạn số dòng)
+ * format = csv | ndjson
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * GET /api/admin/export/sessions?format=csv&from=2025-01-01&to=2025-12-31&facilityId=1&status=completed
+     */
+    @GetMapping("/sessions")
+    public void exportSessions(
+            @RequestParam(defaultValue = ExportService.FORMAT_CSV) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer facilityId,
+            @RequestParam(required = false) String status,
+            HttpServletResponse response) throws IOException {
+        if (!prepare(response, format, "sessions")) {
+            return;
+        }
+        log.info("📤 [ADMIN] Exporting sessions as {} (from={}, to={}, facility={}, status={})",
+                format, from, to, facilityId, status);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        exportService.exportSessions(from, to, facilityId, blankToNull(status), format, writer);
+    }
+
+    /**
+     * GET /api/admin/export/invoices?format=ndjson&from=2025-01-01&to=2025-12-31&status=paid
+     */
+    @GetMapping("/invoices")
+    public void exportInvoices(
+            @RequestParam(defaultValue = ExportService.FORMAT_CSV) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer facilityId,
+            @RequestParam(required = false) String status,
+            HttpServletResponse response) throws IOException {
+        if (!prepare(response, format, "invoices")) {
+            return;
+        }
+        log.info("📤 [ADMIN] Exporting invoices as {} (from={}, to={}, facility={}, status={})",
+                format, from, to, facilityId, status);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        exportService.exportInvoices(from, to, facilityId, blankToNull(status), format, writer);
+    }
+
+    private boolean prepare(HttpServletResponse response, String format, String name) throws IOException {
+        if (!ExportService.isSupportedFormat(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "format must be 'csv' or 'ndjson'");
+            return false;
+        }
+        boolean csv = ExportService.FORMAT_CSV.equalsIgnoreCase(format);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "-" + LocalDate.now() + (csv ? ".csv" : ".ndjson") + "\"");
+        return true;
+    }
+
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,77 @@
+package swp391.fa25.swp391.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import swp391.fa25.swp391.constants.PaymentStatus;
+import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.entity.RevenueLedger;
+import swp391.fa25.swp391.service.RevenueLedgerService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ⭐ Dashboard doanh thu cho Admin - đọc từ revenue ledger
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/revenue")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminRevenueController {
+
+    private final RevenueLedgerService revenueLedgerService;
+
+    /**
+     * Tổng doanh thu theo status (paid / unpaid / overdue)
+     * GET /api/admin/revenue/summary?from=2025-01-01&to=2025-01-31
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse> getSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("📊 [ADMIN] Revenue summary from {} to {}", from, to);
+
+        Map<String, BigDecimal> summary = new LinkedHashMap<>();
+        for (String status : List.of(PaymentStatus.INVOICE_PAID, PaymentStatus.INVOICE_UNPAID,
+                PaymentStatus.INVOICE_OVERDUE)) {
+            summary.put(status, from != null && to != null
+                    ? revenueLedgerService.getTotalRevenueByStatus(status, from, to)
+                    : revenueLedgerService.getTotalRevenueByStatus(status));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Revenue summary", summary));
+    }
+
+    /**
+     * Các dòng ledger theo ngày (có thể lọc theo facility)
+     * GET /api/admin/revenue/ledger?from=2025-01-01&to=2025-01-31&facilityId=1
+     */
+    @GetMapping("/ledger")
+    public ResponseEntity<ApiResponse> getLedger(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer facilityId) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("'from' must be before 'to'"));
+        }
+        List<RevenueLedger> rows = revenueLedgerService.getLedger(from, to, facilityId);
+        return ResponseEntity.ok(ApiResponse.success(String.format("Found %d ledger rows", rows.size()), rows));
+    }
+
+    /**
+     * Dựng lại ledger từ bảng INVOICE
+     * POST /api/admin/revenue/rebuild
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<ApiResponse> rebuild() {
+        log.info("📊 [ADMIN] Rebuilding revenue ledger");
+        int invoiceCount = revenueLedgerService.rebuildFromInvoices();
+        return ResponseEntity.ok(ApiResponse.success("Revenue ledger rebuilt from " + invoiceCount + " invoices"));
+    }
+}
@@ -0,0 +1,100 @@
+package swp391.fa25.swp391.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.dto.response.ChargerUtilizationResponse;
+import swp391.fa25.swp391.dto.response.UtilizationHeatmapCell;
+import swp391.fa25.swp391.service.ChargerUtilizationService;
+
+import java.util.List;
+
+/**
+ * ⭐ Analytics mức sử dụng charger (đọc từ rollup theo giờ)
+ * Khoảng thời gian truyền bằng epoch milliseconds: from (bao gồm), to (không bao gồm)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/utilization")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminUtilizationController {
+
+    private static final int MAX_RANKING_SIZE = 100;
+
+    private final ChargerUtilizationService utilizationService;
+
+    /**
+     * Heatmap theo giờ
+     * GET /api/admin/utilization/heatmap?from=1735689600000&to=1738368000000&stationId=1
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<ApiResponse> getHeatmap(
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(required = false) Integer stationId,
+            @RequestParam(required = false) Integer pointId,
+            @RequestParam(required = false) Integer chargerId) {
+        if (from >= to) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("'from' must be before 'to'"));
+        }
+        List<UtilizationHeatmapCell> cells =
+                utilizationService.getHeatmap(from, to, stationId, pointId, chargerId);
+        return ResponseEntity.ok(ApiResponse.success(String.format("Found %d hourly buckets", cells.size()), cells));
+    }
+
+    /**
+     * Top-N charger được dùng nhiều nhất
+     * GET /api/admin/utilization/top?from=...&to=...&limit=10
+     */
+    @GetMapping("/top")
+    public ResponseEntity<ApiResponse> getTopChargers(
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(required = false) Integer stationId,
+            @RequestParam(required = false) Integer pointId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ranking(from, to, stationId, pointId, limit, true);
+    }
+
+    /**
+     * Bottom-N charger ít được dùng nhất
+     * GET /api/admin/utilization/bottom?from=...&to=...&limit=10
+     */
+    @GetMapping("/bottom")
+    public ResponseEntity<ApiResponse> getBottomChargers(
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(required = false) Integer stationId,
+            @RequestParam(required = false) Integer pointId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ranking(from, to, stationId, pointId, limit, false);
+    }
+
+    /**
+     * Dựng lại rollup từ lịch sử session
+     * POST /api/admin/utilization/backfill
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<ApiResponse> backfill() {
+        log.info("📊 [ADMIN] Backfilling charger utilization");
+        long processed = utilizationService.backfill();
+        return ResponseEntity.ok(ApiResponse.success("Utilization backfilled from " + processed + " sessions"));
+    }
+
+    private ResponseEntity<ApiResponse> ranking(long from, long to, Integer stationId, Integer pointId,
+                                                int limit, boolean mostUsed) {
+        if (from >= to) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("'from' must be before 'to'"));
+        }
+        if (limit < 1 || limit > MAX_RANKING_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("limit must be between 1 and " + MAX_RANKING_SIZE));
+        }
+        List<ChargerUtilizationResponse> chargers =
+                utilizationService.getRanking(from, to, stationId, pointId, limit, mostUsed);
+        return ResponseEntity.ok(ApiResponse.success(String.format("Found %d chargers", chargers.size()), chargers));
+    }
+}
@@ -1,12 +1,15 @@
 package swp391.fa25.swp391.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -25,11 +28,16 @@ import swp391.fa25.swp391.entity.StationEmployee;
 import swp391.fa25.swp391.repository.AccountRepository;
 import swp391.fa25.swp391.repository.DriverRepository;
 import swp391.fa25.swp391.repository.StationEmployeeRepository;
+import swp391.fa25.swp391.security.AuthRateLimiter;
+import swp391.fa25.swp391.security.AuthenticatedPrincipal;
+import swp391.fa25.swp391.security.BoundedPasswordEncoder;
 import swp391.fa25.swp391.security.JwtTokenProvider;
+import swp391.fa25.swp391.security.TokenDenylist;
 import swp391.fa25.swp391.service.AuthService;
 import swp391.fa25.swp391.service.EmailVerificationService;
 import swp391.fa25.swp391.service.PasswordResetService;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 
@@ -37,6 +45,7 @@ import java.util.Optional;
  * Authentication Controller
  * Handles login, register, and social login endpoints
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -51,13 +60,20 @@ public class AuthController {
     private final StationEmployeeRepository stationEmployeeRepository;
     private final EmailVerificationService emailVerificationService;
     private final PasswordResetService passwordResetService;
+    private final AuthRateLimiter authRateLimiter;
+    private final TokenDenylist tokenDenylist;
 
     /**
      * Login endpoint
      * POST /api/auth/login
      */
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<ApiResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        Optional<Duration> retryAfter = authRateLimiter.check(AuthRateLimiter.LOGIN, httpRequest, request.getUsername());
+        if (retryAfter.isPresent()) {
+            return tooManyRequests(retryAfter.get());
+        }
+
         try {
             System.out.println("🔑 Login attempt for username: " + request.getUsername());
 
@@ -145,6 +161,18 @@ public class AuthController {
             System.out.println("✅ Login successful for user: " + request.getUsername());
             return ResponseEntity.ok(ApiResponse.success("Login successful", loginResponse));
 
+        } catch (BoundedPasswordEncoder.BusyException e) {
+            log.warn("⏳ Password hashing busy, rejected login: {}", request.getUsername());
+            return serviceBusy();
+        } catch (InternalAuthenticationServiceException e) {
+            // DaoAuthenticationProvider bọc lỗi encoder khi user không tồn tại (nhánh chống timing attack)
+            if (e.getCause() instanceof BoundedPasswordEncoder.BusyException) {
+                log.warn("⏳ Password hashing busy, rejected login: {}", request.getUsername());
+                return serviceBusy();
+            }
+            System.err.println("❌ Login error: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Login failed: " + e.getMessage()));
         } catch (BadCredentialsException e) {
             System.err.println("❌ Invalid credentials for username: " + request.getUsername());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -161,7 +189,13 @@ public class AuthController {
      * POST /api/auth/register
      */
     @PostMapping("/register")
-    public ResponseEntity<ApiResponse> registerDriver(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<ApiResponse> registerDriver(@Valid @RequestBody RegisterRequest request,
+                                                      HttpServletRequest httpRequest) {
+        Optional<Duration> retryAfter = authRateLimiter.check(AuthRateLimiter.REGISTER, httpRequest, request.getEmail());
+        if (retryAfter.isPresent()) {
+            return tooManyRequests(retryAfter.get());
+        }
+
         try {
             System.out.println("📝 Driver registration attempt for username: " + request.getUsername());
 
@@ -171,6 +205,9 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Driver registered successfully", response));
 
+        } catch (BoundedPasswordEncoder.BusyException e) {
+            log.warn("⏳ Password hashing busy, rejected registration: {}", request.getUsername());
+            return serviceBusy();
         } catch (RuntimeException e) {
             System.err.println("❌ Registration error: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -279,18 +316,47 @@ public class AuthController {
      */
     @PostMapping("/logout")
     public ResponseEntity<ApiResponse> logout() {
-        // JWT tokens are stateless, so logout is handled client-side by removing the token
-        // This endpoint is optional and mainly for consistency
+        // Thu hồi token đang dùng: mọi node từ chối token này ngay, token ở thiết bị khác vẫn dùng được
+        AuthenticatedPrincipal.current().ifPresent(tokenDenylist::revoke);
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok(ApiResponse.success("Logged out successfully"));
     }
 
+    /**
+     * Logout khỏi mọi thiết bị: tăng token version → mọi token đã cấp của account bị từ chối
+     * POST /api/auth/logout-all
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<ApiResponse> logoutAll() {
+        Optional<AuthenticatedPrincipal> principal = AuthenticatedPrincipal.current();
+        if (principal.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Not authenticated"));
+        }
+        Account account = accountRepository.findById(principal.get().getAccountId())
+                .orElse(null);
+        if (account == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("Account not found"));
+        }
+        account.revokeTokens();
+        accountRepository.save(account);
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.ok(ApiResponse.success("Logged out from all devices"));
+    }
+
     /**
      * Verify email with verification code
      * POST /api/auth/verify-email
      */
     @PostMapping("/verify-email")
-    public ResponseEntity<ApiResponse> verifyEmail(@Valid @RequestBody VerifyEmailRequest request) {
+    public ResponseEntity<ApiResponse> verifyEmail(@Valid @RequestBody VerifyEmailRequest request,
+                                                   HttpServletRequest httpRequest) {
+        Optional<Duration> retryAfter = authRateLimiter.check(AuthRateLimiter.CODE_CHECK, httpRequest, request.getEmail());
+        if (retryAfter.isPresent()) {
+            return tooManyRequests(retryAfter.get());
+        }
+
         try {
             System.out.println("📧 Email verification attempt for: " + request.getEmail());
             
@@ -315,7 +381,13 @@ public class AuthController {
      * POST /api/auth/resend-verification
      */
     @PostMapping("/resend-verification")
-    public ResponseEntity<ApiResponse> resendVerification(@RequestBody Map<String, String> request) {
+    public ResponseEntity<ApiResponse> resendVerification(@RequestBody Map<String, String> request,
+                                                          HttpServletRequest httpRequest) {
+        Optional<Duration> retryAfter = authRateLimiter.check(AuthRateLimiter.EMAIL_SEND, httpRequest, request.get("email"));
+        if (retryAfter.isPresent()) {
+            return tooManyRequests(retryAfter.get());
+        }
+
         try {
             String email = request.get("email");
             if (email == null || email.trim().isEmpty()) {
@@ -346,7 +418,13 @@ public class AuthController {
      * POST /api/auth/forgot-password
      */
     @PostMapping("/forgot-password")
-    public ResponseEntity<ApiResponse> forgotPassword(@RequestBody Map<String, String> request) {
+    public ResponseEntity<ApiResponse> forgotPassword(@RequestBody Map<String, String> request,
+                                                      HttpServletRequest httpRequest) {
+        Optional<Duration> retryAfter = authRateLimiter.check(AuthRateLimiter.EMAIL_SEND, httpRequest, request.get("email"));
+        if (retryAfter.isPresent()) {
+            return tooManyRequests(retryAfter.get());
+        }
+
         try {
             String email = request.get("email");
             if (email == null || email.trim().isEmpty()) {
@@ -377,7 +455,13 @@ public class AuthController {
      * POST /api/auth/verify-otp
      */
     @PostMapping("/verify-otp")
-    public ResponseEntity<ApiResponse> verifyOtp(@RequestBody Map<String, String> request) {
+    public ResponseEntity<ApiResponse> verifyOtp(@RequestBody Map<String, String> request,
+                                                 HttpServletRequest httpRequest) {
+        Optional<Duration> retryAfter = authRateLimiter.check(AuthRateLimiter.CODE_CHECK, httpRequest, request.get("email"));
+        if (retryAfter.isPresent()) {
+            return tooManyRequests(retryAfter.get());
+        }
+
         try {
             String email = request.get("email");
             String otp = request.get("otp");
@@ -412,7 +496,13 @@ public class AuthController {
      * POST /api/auth/reset-password
      */
     @PostMapping("/reset-password")
-    public ResponseEntity<ApiResponse> resetPassword(@RequestBody Map<String, String> request) {
+    public ResponseEntity<ApiResponse> resetPassword(@RequestBody Map<String, String> request,
+                                                     HttpServletRequest httpRequest) {
+        Optional<Duration> retryAfter = authRateLimiter.check(AuthRateLimiter.CODE_CHECK, httpRequest, request.get("email"));
+        if (retryAfter.isPresent()) {
+            return tooManyRequests(retryAfter.get());
+        }
+
         try {
             String email = request.get("email");
             String otp = request.get("otp");
@@ -446,4 +536,23 @@ public class AuthController {
                     .body(ApiResponse.error("Failed to reset password"));
         }
     }
+
+    /**
+     * 429 kèm Retry-After (giây) khi vượt rate limit
+     */
+    private ResponseEntity<ApiResponse> tooManyRequests(Duration retryAfter) {
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(ApiResponse.error("Too many requests. Please try again in " + seconds + " seconds"));
+    }
+
+    /**
+     * 503 khi pool băm mật khẩu đầy (login / đăng ký dồn dập)
+     */
+    private ResponseEntity<ApiResponse> serviceBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("Server is busy, please try again shortly"));
+    }
 }
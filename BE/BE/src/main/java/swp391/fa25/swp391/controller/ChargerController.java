@@ -140,9 +140,6 @@ public class ChargerController {
             if (request.getConnectorType() != null) {
                 existingCharger.setConnectorType(request.getConnectorType());
             }
-            if (request.getStatus() != null) {
-                existingCharger.setStatus(request.getStatus());
-            }
             if (request.getChargingPointId() != null) {
                 ChargingPoint chargingPoint = chargingPointService.findById(request.getChargingPointId())
                         .orElseThrow(() -> new RuntimeException("Charging point not found"));
@@ -150,6 +147,12 @@ public class ChargerController {
             }
 
             Charger updatedCharger = chargerService.updateCharger(existingCharger);
+
+            // Status đi qua máy trạng thái (kiểm tra bước chuyển + ghi log sự kiện)
+            if (request.getStatus() != null && !request.getStatus().equalsIgnoreCase(updatedCharger.getStatus())) {
+                chargerService.updateStatus(id, request.getStatus().toLowerCase());
+                updatedCharger = chargerService.findById(id).orElse(updatedCharger);
+            }
             ChargerResponse response = buildChargerResponse(updatedCharger);
 
             return ResponseEntity.ok(ApiResponse.success("Charger updated successfully", response));
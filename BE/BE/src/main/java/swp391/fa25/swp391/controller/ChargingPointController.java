@@ -14,7 +14,7 @@ import swp391.fa25.swp391.dto.response.ChargingPointResponse;
 import swp391.fa25.swp391.entity.Charger;
 import swp391.fa25.swp391.entity.ChargingPoint;
 import swp391.fa25.swp391.entity.ChargingStation;
-import swp391.fa25.swp391.security.CustomUserDetails;
+import swp391.fa25.swp391.security.AuthenticatedPrincipal;
 import swp391.fa25.swp391.service.ChargerService;
 import swp391.fa25.swp391.service.ChargingPointService;
 
@@ -192,7 +192,7 @@ public class ChargingPointController {
     public ResponseEntity<?> updatePointStatus(
             @PathVariable Integer id,
             @Valid @RequestBody StatusUpdateRequest request,
-            @AuthenticationPrincipal CustomUserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
         try {
             chargingPointService.updatePointStatus(id, request.getStatus());
             return ResponseEntity.ok(
@@ -215,7 +215,7 @@ public class ChargingPointController {
     @PostMapping("/charging-points/{id}/start")
     public ResponseEntity<?> startUsingPoint(
             @PathVariable Integer id,
-            @AuthenticationPrincipal CustomUserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
         try {
             // Find available charger in this charging point
             List<Charger> chargers = chargerService.findByChargingPointId(id);
@@ -247,7 +247,7 @@ public class ChargingPointController {
     @PostMapping("/charging-points/{id}/stop")
     public ResponseEntity<?> stopUsingPoint(
             @PathVariable Integer id,
-            @AuthenticationPrincipal CustomUserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
         try {
             // Find in-use charger in this charging point
             List<Charger> chargers = chargerService.findByChargingPointId(id);
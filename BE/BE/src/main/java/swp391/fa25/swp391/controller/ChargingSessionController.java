@@ -14,6 +14,7 @@ import swp391.fa25.swp391.dto.request.StopChargingSessionRequest;
 import swp391.fa25.swp391.dto.response.ApiResponse;
 import swp391.fa25.swp391.dto.response.ChargingSessionListResponse;
 import swp391.fa25.swp391.dto.response.ChargingSessionResponse;
+import swp391.fa25.swp391.dto.response.CursorPage;
 import swp391.fa25.swp391.entity.Charger;
 import swp391.fa25.swp391.entity.ChargingPoint;
 import swp391.fa25.swp391.entity.ChargingSession;
@@ -132,16 +133,27 @@ public class ChargingSessionController {
 
     /**
      * Lấy tất cả charging sessions (cho admin dashboard)
+     * ⭐ Mặc định: keyset pagination theo (startTime, id) - truyền nextCursor của trang trước vào cursor
+     * withTotal=true để lấy thêm tổng số session (tốn 1 câu COUNT)
+     * page > 0 (không có cursor): offset pagination kiểu cũ, giữ cho client cũ
      */
     @GetMapping
     public ResponseEntity<?> getAllSessions(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "100") int size) {
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "100") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
         try {
             if (size <= 0 || size > 1000) {
                 size = 100;
             }
 
+            if (page == null || page == 0 || cursor != null) {
+                CursorPage<ChargingSession> result = chargingSessionService.findSessionsKeyset(null, cursor, size);
+                return ResponseEntity.ok(ApiResponse.success("All sessions retrieved successfully",
+                        toListResponse(result, withTotal ? chargingSessionRepository.count() : null)));
+            }
+
             Pageable pageable = PageRequest.of(page, size);
             Page<ChargingSession> sessionPage = chargingSessionRepository.findAll(pageable);
 
@@ -156,6 +168,8 @@ public class ChargingSessionController {
 
             return ResponseEntity.ok(ApiResponse.success("All sessions retrieved successfully", listResponse));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error fetching sessions: " + e.getMessage()));
@@ -233,17 +247,25 @@ public class ChargingSessionController {
     }
     /**
      * Lấy tất cả sessions của driver (có pagination)
+     * ⭐ Mặc định keyset pagination (cursor), page > 0 không có cursor: offset kiểu cũ
      */
     @GetMapping("/driver/{driverId}")
     public ResponseEntity<?> getDriverSessions(
             @PathVariable Integer driverId,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
             if (size <= 0 || size > 100) {
                 size = 10;
             }
 
+            if (page == null || page == 0 || cursor != null) {
+                CursorPage<ChargingSession> result = chargingSessionService.findSessionsKeyset(driverId, cursor, size);
+                return ResponseEntity.ok(ApiResponse.success("Sessions retrieved successfully",
+                        toListResponse(result, null)));
+            }
+
             Pageable pageable = PageRequest.of(page, size);
             // ⬅️ Service trả về Page<Entity>
             Page<ChargingSession> sessionPage =
@@ -261,6 +283,8 @@ public class ChargingSessionController {
 
             return ResponseEntity.ok(ApiResponse.success("Sessions retrieved successfully", listResponse));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error fetching sessions: " + e.getMessage()));
@@ -500,6 +524,19 @@ public class ChargingSessionController {
      * Helper method để chuyển đổi ChargingSession Entity sang ChargingSessionResponse DTO
      * (Logic này được di chuyển từ Service sang Controller/Mapper)
      */
+    private ChargingSessionListResponse toListResponse(CursorPage<ChargingSession> page, Long total) {
+        List<ChargingSessionResponse> responses = page.getItems().stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+
+        return ChargingSessionListResponse.builder()
+                .sessions(responses)
+                .totalSessions(total != null ? total.intValue() : null)
+                .nextCursor(page.getNextCursor())
+                .hasMore(page.getHasMore())
+                .build();
+    }
+
     private ChargingSessionResponse mapToResponse(ChargingSession session) {
         Long durationMinutes = null;
         Integer chargedPercentage = null;
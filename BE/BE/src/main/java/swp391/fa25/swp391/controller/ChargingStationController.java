@@ -16,7 +16,7 @@ import swp391.fa25.swp391.dto.response.ChargingStationResponse;
 import swp391.fa25.swp391.entity.ChargingPoint;
 import swp391.fa25.swp391.entity.ChargingStation;
 import swp391.fa25.swp391.entity.Facility;
-import swp391.fa25.swp391.security.CustomUserDetails;
+import swp391.fa25.swp391.security.AuthenticatedPrincipal;
 import swp391.fa25.swp391.service.IService.IChargingStationService;
 
 import java.util.List;
@@ -243,7 +243,7 @@ public class ChargingStationController {
     public ResponseEntity<?> updateStationStatus(
             @PathVariable Integer id,
             @Valid @RequestBody StatusUpdateRequest request,
-            @AuthenticationPrincipal CustomUserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
         try {
             chargingStationService.updateStationStatus(id, request.getStatus());
             return ResponseEntity.ok(
@@ -51,6 +51,7 @@ public class DriverController {
     /**
      * Create reservation (when user clicks reserve button and confirms)
      * Start time is set to NOW, end time is NOW + duration
+     * ⭐ startTime trong request → đặt trước khung [startTime, startTime + durationMinutes)
      * POST /api/drivers/{driverId}/reservations
      */
     @PostMapping("/{driverId}/reservations")
@@ -62,6 +63,13 @@ public class DriverController {
             // Validate driver exists
             Driver driver = validateDriver(driverId);
 
+            // ⭐ Khung giữ chỗ: có startTime → đặt trước [startTime, startTime + duration), không có → giữ chỗ ngay
+            LocalDateTime startTime = request.getStartTime() != null ? request.getStartTime() : LocalDateTime.now();
+            LocalDateTime endTime = request.getStartTime() != null
+                    ? startTime.plusMinutes(request.getDurationMinutes())
+                    : startTime.plusMinutes(RESERVATION_DURATION_MINUTES);
+            boolean advance = request.getStartTime() != null && request.getStartTime().isAfter(LocalDateTime.now());
+
             // ⭐ NEW: Support both chargerId (new) and chargingPointId (backward compatibility)
             Charger charger = null;
             ChargingPoint chargingPoint = null;
@@ -71,8 +79,8 @@ public class DriverController {
                 charger = chargerService.findById(request.getChargerId())
                         .orElseThrow(() -> new RuntimeException("Charger not found with ID: " + request.getChargerId()));
                 
-                // Validate charger is available
-                if (!"active".equalsIgnoreCase(charger.getStatus())) {
+                // Validate charger is available (đặt trước: service kiểm tra charger không ngưng hoạt động)
+                if (!advance && !"active".equalsIgnoreCase(charger.getStatus())) {
                     throw new RuntimeException("Charger is not available for reservation");
                 }
                 
@@ -87,11 +95,14 @@ public class DriverController {
                         chargingPoint.getId(), "active");
                 
                 if (availableChargers.isEmpty()) {
-                    throw new RuntimeException("No available chargers in this charging point");
+                    if (!advance) {
+                        throw new RuntimeException("No available chargers in this charging point");
+                    }
+                    // Đặt trước: giữ chỗ theo point, charger chọn lúc bắt đầu sạc
+                } else {
+                    charger = availableChargers.get(0); // Auto-select first available
                 }
                 
-                charger = availableChargers.get(0); // Auto-select first available
-                
             } else {
                 throw new RuntimeException("Either chargerId or chargingPointId must be provided");
             }
@@ -101,13 +112,13 @@ public class DriverController {
 
             // Validate time slot availability (check both charger and point)
             Integer pointIdForValidation = chargingPoint.getId();
-            ResponseEntity<?> timeValidation = validateReservationTime(request, pointIdForValidation);
+            ResponseEntity<?> timeValidation = validateReservationTime(pointIdForValidation, startTime, endTime);
             if (timeValidation != null) {
                 return timeValidation;
             }
 
             // FIX: Gọi createReservation() từ service (service tự update charger/point status)
-            Reservation savedReservation = createAndSaveReservation(driver, chargingPoint, charger, vehicle, request);
+            Reservation savedReservation = createAndSaveReservation(driver, chargingPoint, charger, vehicle, startTime, endTime);
 
             // Build response
             ReservationResponse response = buildReservationResponse(savedReservation);
@@ -223,15 +234,15 @@ public class DriverController {
     /**
      * Validate reservation time slot
      */
-    private ResponseEntity<?> validateReservationTime(ReservationRequest request, Integer chargingPointId) {
-        // Calculate time slot
-        LocalDateTime startTime = LocalDateTime.now();
-        LocalDateTime endTime = startTime.plusMinutes(RESERVATION_DURATION_MINUTES);
-
-        // Validate overlapping reservations
-        if (hasOverlappingReservation(chargingPointId, startTime, endTime)) {
+    private ResponseEntity<?> validateReservationTime(Integer chargingPointId, LocalDateTime startTime, LocalDateTime endTime) {
+        // Validate overlapping reservations (bitmap lịch đặt chỗ, service kiểm tra lại khi khóa lịch)
+        if (!endTime.isAfter(startTime)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Reservation end time must be after start time");
+        }
+        if (!reservationService.isSlotFree(chargingPointId, startTime, endTime)) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body("This charging point is already reserved for the next hour");
+                    .body("This charging point is already reserved for this time slot");
         }
 
         return null;
@@ -280,28 +291,13 @@ public class DriverController {
                 .anyMatch(r -> r.getStartTime().isBefore(now) && r.getEndTime().isAfter(now));
     }
 
-    /**
-     * Check for overlapping reservations
-     */
-    private boolean hasOverlappingReservation(Integer chargingPointId, LocalDateTime startTime, LocalDateTime endTime) {
-        List<Reservation> reservations = reservationService.findByChargingPointId(chargingPointId);
-        
-        return reservations.stream()
-                .filter(r -> STATUS_ACTIVE.equalsIgnoreCase(r.getStatus()))
-                .anyMatch(r -> {
-                    return !(endTime.isBefore(r.getStartTime()) || startTime.isAfter(r.getEndTime()));
-                });
-    }
-
     /**
      * Create and save a new reservation
      * KHÔNG ĐỘNG VÀO CHARGING POINT/CHARGER - Service tự xử lý
      */
     private Reservation createAndSaveReservation(Driver driver, ChargingPoint chargingPoint,
-                                                 Charger charger, Vehicle vehicle, ReservationRequest request) {
-
-        LocalDateTime startTime = LocalDateTime.now();
-        LocalDateTime endTime = startTime.plusMinutes(RESERVATION_DURATION_MINUTES);
+                                                 Charger charger, Vehicle vehicle,
+                                                 LocalDateTime startTime, LocalDateTime endTime) {
 
         // Build reservation entity
         Reservation reservation = buildReservationEntity(driver, chargingPoint, charger, vehicle, startTime, endTime);
@@ -13,7 +13,7 @@ import swp391.fa25.swp391.dto.response.ApiResponse;
 import swp391.fa25.swp391.dto.response.FacilityResponse;
 import swp391.fa25.swp391.entity.Admin;
 import swp391.fa25.swp391.entity.Facility;
-import swp391.fa25.swp391.security.CustomUserDetails;
+import swp391.fa25.swp391.security.AuthenticatedPrincipal;
 import swp391.fa25.swp391.service.IService.IAdminService;
 import swp391.fa25.swp391.service.IService.IFacilityService;
 
@@ -36,10 +36,10 @@ public class FacilityController {
     @PostMapping("/profile")
     public ResponseEntity<?> createFacility(
             @Valid @RequestBody FacilityRequest request,
-            @AuthenticationPrincipal CustomUserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
         try {
             // Get current admin
-            Admin currentAdmin = getCurrentAdmin(userDetails);
+            Admin currentAdmin = getCurrentAdmin(principal);
 
             // Create new facility
             Facility newFacility = buildFacilityFromRequest(request, currentAdmin);
@@ -65,13 +65,12 @@ public class FacilityController {
     public ResponseEntity<?> updateFacility(
             @PathVariable Integer id,
             @Valid @RequestBody FacilityRequest request,
-            @AuthenticationPrincipal CustomUserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
         try {
             Facility existingFacility = facilityService.findById(id);
-            Admin currentAdmin = getCurrentAdmin(userDetails);
 
             // Check ownership
-            if (!hasPermission(existingFacility, currentAdmin)) {
+            if (!hasPermission(existingFacility, principal)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.error("You don't have permission to update this facility"));
             }
@@ -137,13 +136,12 @@ public class FacilityController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteFacility(
             @PathVariable Integer id,
-            @AuthenticationPrincipal CustomUserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
         try {
             Facility existingFacility = facilityService.findById(id);
-            Admin currentAdmin = getCurrentAdmin(userDetails);
 
             // Check ownership
-            if (!hasPermission(existingFacility, currentAdmin)) {
+            if (!hasPermission(existingFacility, principal)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.error("You don't have permission to delete this facility"));
             }
@@ -166,13 +164,12 @@ public class FacilityController {
     public ResponseEntity<?> updateFacilityStatus(
             @PathVariable Integer id,
             @Valid @RequestBody StatusUpdateRequest request,
-            @AuthenticationPrincipal CustomUserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
         try {
             Facility facility = facilityService.findById(id);
-            Admin currentAdmin = getCurrentAdmin(userDetails);
 
             // Check ownership
-            if (!hasPermission(facility, currentAdmin)) {
+            if (!hasPermission(facility, principal)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.error("You don't have permission to update this facility"));
             }
@@ -198,9 +195,11 @@ public class FacilityController {
     /**
      * Get current admin from authenticated user details
      */
-    private Admin getCurrentAdmin(CustomUserDetails userDetails) {
-        Integer accountId = userDetails.getAccount().getId();
-        return adminService.findByAccountId(accountId);
+    private Admin getCurrentAdmin(AuthenticatedPrincipal principal) {
+        if (principal.getAdminId() == null) {
+            throw new RuntimeException("Current user is not an admin");
+        }
+        return adminService.findById(principal.getAdminId());
     }
 
     /**
@@ -251,8 +250,9 @@ public class FacilityController {
     /**
      * Check if admin has permission to modify facility
      */
-    private boolean hasPermission(Facility facility, Admin admin) {
+    private boolean hasPermission(Facility facility, AuthenticatedPrincipal principal) {
+        // adminId lấy từ JWT claim, không cần load Admin
         return facility.getAdmin() != null &&
-                facility.getAdmin().getId().equals(admin.getId());
+                facility.getAdmin().getId().equals(principal.getAdminId());
     }
 }
\ No newline at end of file
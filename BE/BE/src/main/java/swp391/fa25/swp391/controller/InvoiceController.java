@@ -4,9 +4,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.dto.response.CursorPage;
 import swp391.fa25.swp391.dto.response.InvoiceDetailResponse;
 import swp391.fa25.swp391.entity.Charger;
 import swp391.fa25.swp391.entity.ChargingPoint;
+import swp391.fa25.swp391.entity.ChargingSession;
 import swp391.fa25.swp391.entity.Driver;
 import swp391.fa25.swp391.entity.Invoice;
 import swp391.fa25.swp391.service.InvoiceService;
@@ -21,6 +23,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,6 +38,8 @@ public class InvoiceController {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final int DAYS_GRACE_PERIOD = 7; // Đồng bộ với InvoiceService
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
 
     // ==================== EXISTING ENDPOINTS (giữ nguyên) ====================
 
@@ -51,16 +56,22 @@ public class InvoiceController {
 
     /**
      * ⭐ Admin endpoint to get all invoices
+     * Truyền size (và cursor của trang trước) để dùng keyset pagination theo (issueDate, id)
      */
     @GetMapping("/admin/all")
-    public ResponseEntity<?> getAllInvoicesForAdmin() {
+    public ResponseEntity<?> getAllInvoicesForAdmin(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
         try {
+            if (size != null) {
+                return ResponseEntity.ok(ApiResponse.success("Retrieved invoice page",
+                        toDetailPage(invoiceService.findInvoicesKeyset(null, cursor, clampPageSize(size)))));
+            }
+
             List<Invoice> invoices = invoiceService.findAll();
             
             // ⭐ Map to DTO to avoid circular reference
-            List<InvoiceDetailResponse> responses = invoices.stream()
-                    .map(this::mapToDetailResponse)
-                    .collect(Collectors.toList());
+            List<InvoiceDetailResponse> responses = toDetailResponses(invoices);
             
             return ResponseEntity.ok(ApiResponse.success(
                     String.format("Found %d invoices", invoices.size()), 
@@ -73,16 +84,25 @@ public class InvoiceController {
     }
 
     @GetMapping("/driver/{driverId}")
-    public ResponseEntity<?> getInvoicesByDriver(@PathVariable Integer driverId) {
+    public ResponseEntity<?> getInvoicesByDriver(
+            @PathVariable Integer driverId,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
         try {
+            // ⭐ Keyset pagination khi có size
+            if (size != null) {
+                return ResponseEntity.ok(ApiResponse.success("Retrieved driver invoice page",
+                        toDetailPage(invoiceService.findInvoicesKeyset(driverId, cursor, clampPageSize(size)))));
+            }
+
             List<Invoice> invoices = invoiceService.findByDriverId(driverId);
 
             // ⭐ Map sang DTO với timeline info
-            List<InvoiceDetailResponse> responses = invoices.stream()
-                    .map(this::mapToDetailResponse)
-                    .collect(Collectors.toList());
+            List<InvoiceDetailResponse> responses = toDetailResponses(invoices);
 
             return ResponseEntity.ok(ApiResponse.success("Retrieved driver invoices", responses));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Error retrieving invoices: " + e.getMessage()));
@@ -95,8 +115,11 @@ public class InvoiceController {
             Invoice invoice = invoiceService.findById(id)
                     .orElseThrow(() -> new RuntimeException("Invoice not found"));
 
+            // ⭐ Gộp session đã archive (invoice.getSessions() chỉ đọc bảng live).
+            // Collection phía mappedBy, request chỉ đọc → không flush ghi gì xuống DB
+            invoice.setSessions(invoiceServiceImpl.findInvoiceSessions(invoice));
+
             // ⭐ Eager load sessions with their relationships
-            invoice.getSessions().size(); // Force Hibernate to load sessions
             invoice.getSessions().forEach(session -> {
                 // Load charger and its relationships
                 if (session.getCharger() != null) {
@@ -133,9 +156,7 @@ public class InvoiceController {
             List<Invoice> invoices = invoiceService.findByDriverIdAndStatus(driverId, "unpaid");
 
             // ⭐ Map sang DTO với timeline info
-            List<InvoiceDetailResponse> responses = invoices.stream()
-                    .map(this::mapToDetailResponse)
-                    .collect(Collectors.toList());
+            List<InvoiceDetailResponse> responses = toDetailResponses(invoices);
 
             return ResponseEntity.ok(ApiResponse.success("Retrieved unpaid invoices", responses));
         } catch (Exception e) {
@@ -150,9 +171,7 @@ public class InvoiceController {
             List<Invoice> invoices = invoiceService.findByDriverIdAndStatus(driverId, "overdue");
 
             // ⭐ Map sang DTO với timeline info
-            List<InvoiceDetailResponse> responses = invoices.stream()
-                    .map(this::mapToDetailResponse)
-                    .collect(Collectors.toList());
+            List<InvoiceDetailResponse> responses = toDetailResponses(invoices);
 
             return ResponseEntity.ok(ApiResponse.success("Retrieved overdue invoices", responses));
         } catch (Exception e) {
@@ -324,7 +343,7 @@ public class InvoiceController {
     @PostMapping("/admin/generate-all")
     public ResponseEntity<?> generateAllInvoices() {
         try {
-            invoiceServiceImpl.generateMonthlyInvoices();
+            invoiceServiceImpl.runJobNow(InvoiceService.JOB_MONTHLY_INVOICES);
             return ResponseEntity.ok(ApiResponse.success(
                     "Monthly invoice generation triggered. Check logs for details.", null
             ));
@@ -337,7 +356,7 @@ public class InvoiceController {
     @PostMapping("/admin/check-overdue")
     public ResponseEntity<?> checkOverdueInvoices() {
         try {
-            invoiceServiceImpl.checkOverdueInvoices();
+            invoiceServiceImpl.runJobNow(InvoiceService.JOB_OVERDUE_CHECK);
             return ResponseEntity.ok(ApiResponse.success(
                     "Overdue check completed. Check logs for details.", null
             ));
@@ -353,7 +372,7 @@ public class InvoiceController {
     @PostMapping("/admin/send-reminders")
     public ResponseEntity<?> sendReminders() {
         try {
-            invoiceServiceImpl.sendPaymentReminders();
+            invoiceServiceImpl.runJobNow(InvoiceService.JOB_PAYMENT_REMINDERS);
             return ResponseEntity.ok(ApiResponse.success(
                     "Payment reminders sent. Check logs for details.", null
             ));
@@ -369,7 +388,7 @@ public class InvoiceController {
     @PostMapping("/admin/check-suspensions")
     public ResponseEntity<?> checkSuspensions() {
         try {
-            invoiceServiceImpl.suspendOverdueAccounts();
+            invoiceServiceImpl.runJobNow(InvoiceService.JOB_ACCOUNT_SUSPENSION);
             return ResponseEntity.ok(ApiResponse.success(
                     "Suspension check completed. Check logs for details.", null
             ));
@@ -384,7 +403,33 @@ public class InvoiceController {
     /**
      * ⭐ Map Invoice entity sang InvoiceDetailResponse DTO với timeline info
      */
+    private CursorPage<InvoiceDetailResponse> toDetailPage(CursorPage<Invoice> page) {
+        return CursorPage.<InvoiceDetailResponse>builder()
+                .items(toDetailResponses(page.getItems()))
+                .nextCursor(page.getNextCursor())
+                .hasMore(page.getHasMore())
+                .build();
+    }
+
+    private int clampPageSize(int size) {
+        return size <= 0 || size > MAX_PAGE_SIZE ? DEFAULT_PAGE_SIZE : size;
+    }
+
+    private List<InvoiceDetailResponse> toDetailResponses(List<Invoice> invoices) {
+        Map<Integer, List<ChargingSession>> sessions = invoiceServiceImpl.findSessionsByInvoices(invoices);
+        return invoices.stream()
+                .map(invoice -> mapToDetailResponse(invoice, sessions.get(invoice.getId())))
+                .collect(Collectors.toList());
+    }
+
     private InvoiceDetailResponse mapToDetailResponse(Invoice invoice) {
+        return mapToDetailResponse(invoice, invoiceServiceImpl.findInvoiceSessions(invoice));
+    }
+
+    /**
+     * @param sessions session live + archive của invoice (xem InvoiceService.findSessionsByInvoices)
+     */
+    private InvoiceDetailResponse mapToDetailResponse(Invoice invoice, List<ChargingSession> sessions) {
         Instant now = Instant.now();
 
         // Calculate timeline
@@ -443,8 +488,8 @@ public class InvoiceController {
         
         // Map charging sessions
         java.util.List<InvoiceDetailResponse.SessionSummary> sessionSummaries = null;
-        if (invoice.getSessions() != null && !invoice.getSessions().isEmpty()) {
-            sessionSummaries = invoice.getSessions().stream()
+        if (sessions != null && !sessions.isEmpty()) {
+            sessionSummaries = sessions.stream()
                     .map(session -> {
                         String duration = null;
                         if (session.getStartTime() != null && session.getEndTime() != null) {
@@ -3,12 +3,14 @@ package swp391.fa25.swp391.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.view.RedirectView;
 import swp391.fa25.swp391.constants.PaymentStatus;
 import swp391.fa25.swp391.entity.*;
 import swp391.fa25.swp391.repository.*;
+import swp391.fa25.swp391.service.RevenueLedgerService;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
@@ -30,6 +32,7 @@ public class MockVNPayController {
     private final SubscriptionPlanRepository subscriptionPlanRepository;
     private final DriverRepository driverRepository;
     private final PlanRegistrationRepository planRegistrationRepository;
+    private final RevenueLedgerService revenueLedgerService;
 
     /**
      * Mock payment gateway page - Auto approve after 2 seconds
@@ -63,6 +66,7 @@ public class MockVNPayController {
      * Mock payment callback - Called when user "completes" payment
      */
     @GetMapping("/callback-success")
+    @Transactional
     public RedirectView mockSuccessCallback(@RequestParam String transactionId) {
         try {
             log.info("💳 [MOCK VNPAY] Processing payment for transaction: {}", transactionId);
@@ -76,11 +80,13 @@ public class MockVNPayController {
                 // Update invoice
                 Invoice invoice = invoiceRepository.findById(referenceId)
                         .orElseThrow(() -> new RuntimeException("Invoice not found"));
+                String oldInvoiceStatus = invoice.getStatus();
                 invoice.setStatus(PaymentStatus.INVOICE_PAID);
                 invoice.setPaymentMethod(PaymentStatus.PAYMENT_METHOD_VNPAY);
                 invoice.setPaidDate(LocalDateTime.now().toInstant(java.time.ZoneOffset.UTC));
                 invoice.setPaymentReference("MOCK_VNPAY_" + System.currentTimeMillis());
                 invoiceRepository.save(invoice);
+                revenueLedgerService.recordStatusChange(invoice, oldInvoiceStatus);
                 
                 log.info("✅ [MOCK VNPAY] Invoice {} paid successfully", referenceId);
 
@@ -4,11 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import swp391.fa25.swp391.entity.Notification;
+import swp391.fa25.swp391.dto.response.CursorPage;
+import swp391.fa25.swp391.dto.response.NotificationInboxItem;
 import swp391.fa25.swp391.service.EmergencyNotificationService;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -18,32 +18,37 @@ import java.util.Map;
 @Slf4j
 public class NotificationController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final EmergencyNotificationService notificationService;
 
     /**
-     * Lấy tất cả thông báo chưa đọc
-     * GET /api/employee/notifications/unread
+     * Thông báo chưa đọc của employee đang đăng nhập (keyset pagination)
+     * GET /api/employee/notifications/unread?size=20&cursor=...
      */
     @GetMapping("/unread")
-    public ResponseEntity<List<Notification>> getUnreadNotifications() {
+    public ResponseEntity<CursorPage<NotificationInboxItem>> getUnreadNotifications(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
         log.info("📬 [API] Fetching unread notifications");
-        List<Notification> notifications = notificationService.getUnreadNotifications();
-        return ResponseEntity.ok(notifications);
+        return ResponseEntity.ok(notificationService.getInbox(true, cursor, clampPageSize(size)));
     }
 
     /**
-     * Lấy tất cả thông báo (cả đã đọc và chưa đọc)
-     * GET /api/employee/notifications
+     * Tất cả thông báo (cả đã đọc và chưa đọc) của employee đang đăng nhập (keyset pagination)
+     * GET /api/employee/notifications?size=20&cursor=...
      */
     @GetMapping
-    public ResponseEntity<List<Notification>> getAllNotifications() {
+    public ResponseEntity<CursorPage<NotificationInboxItem>> getAllNotifications(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
         log.info("📬 [API] Fetching all notifications");
-        List<Notification> notifications = notificationService.getAllNotifications();
-        return ResponseEntity.ok(notifications);
+        return ResponseEntity.ok(notificationService.getInbox(false, cursor, clampPageSize(size)));
     }
 
     /**
-     * Đếm số thông báo chưa đọc
+     * Đếm số thông báo chưa đọc - NotificationBell poll endpoint này, số đếm được cache theo employee
      * GET /api/employee/notifications/count
      */
     @GetMapping("/count")
@@ -74,7 +79,18 @@ public class NotificationController {
      */
     @PutMapping("/read-all")
     public ResponseEntity<String> markAllAsRead() {
-        notificationService.markAllAsRead();
-        return ResponseEntity.ok("All notifications marked as read");
+        try {
+            notificationService.markAllAsRead();
+            return ResponseEntity.ok("All notifications marked as read");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private int clampPageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
     }
 }
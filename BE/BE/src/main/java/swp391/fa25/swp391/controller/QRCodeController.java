@@ -7,6 +7,7 @@ import swp391.fa25.swp391.dto.response.QRCodeResponse;
 import swp391.fa25.swp391.entity.Invoice;
 import swp391.fa25.swp391.service.InvoiceService;
 import swp391.fa25.swp391.service.QRCodeService;
+import swp391.fa25.swp391.service.RevenueLedgerService;
 
 /**
  * Controller xử lý QR code generation và verification
@@ -19,6 +20,7 @@ public class QRCodeController {
 
     private final QRCodeService qrCodeService;
     private final InvoiceService invoiceService;
+    private final RevenueLedgerService revenueLedgerService;
 
     /**
      * API để lấy QR code cho invoice
@@ -150,10 +152,12 @@ public class QRCodeController {
             }
 
             // Update invoice status
+            String oldStatus = invoice.getStatus();
             invoice.setStatus("paid");
             invoice.setPaidDate(java.time.Instant.now());
             invoice.setPaymentReference("MOCK-" + System.currentTimeMillis());
             invoiceService.save(invoice);
+            revenueLedgerService.recordStatusChange(invoice, oldStatus);
 
             // Reactivate account if suspended
             if ("suspended".equalsIgnoreCase(invoice.getDriver().getAccount().getStatus())) {
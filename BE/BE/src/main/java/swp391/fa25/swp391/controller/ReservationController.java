@@ -1,16 +1,22 @@
 package swp391.fa25.swp391.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.dto.response.AvailableSlotResponse;
 import swp391.fa25.swp391.dto.response.ReservationResponse;
+import swp391.fa25.swp391.dto.response.StationAvailabilityResponse;
 import swp391.fa25.swp391.entity.Reservation;
 import swp391.fa25.swp391.repository.ReservationRepository;
 import swp391.fa25.swp391.service.ReservationService;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -111,6 +117,50 @@ public class ReservationController {
         }
     }
 
+    /**
+     * ⭐ Khung trống từng charging point của trạm trong 1 ngày (mặc định hôm nay)
+     * GET /api/reservations/stations/{stationId}/availability?date=2025-11-20
+     */
+    @GetMapping("/stations/{stationId}/availability")
+    public ResponseEntity<ApiResponse> getStationAvailability(
+            @PathVariable Integer stationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            StationAvailabilityResponse availability = reservationService.getStationAvailability(
+                    stationId, date != null ? date : LocalDate.now());
+            return ResponseEntity.ok(ApiResponse.success("Retrieved station availability", availability));
+
+        } catch (Exception e) {
+            System.err.println("❌ Error fetching station availability: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving availability: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * ⭐ Khung trống sớm nhất đủ durationMinutes trên bất kỳ point nào của trạm
+     * GET /api/reservations/stations/{stationId}/first-available?from=2025-11-20T08:00:00&durationMinutes=60
+     */
+    @GetMapping("/stations/{stationId}/first-available")
+    public ResponseEntity<ApiResponse> getFirstAvailableSlot(
+            @PathVariable Integer stationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "60") int durationMinutes) {
+        try {
+            Optional<AvailableSlotResponse> slot = reservationService.findFirstAvailable(stationId, from, durationMinutes);
+            if (slot.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("No available slot in the booking horizon"));
+            }
+            return ResponseEntity.ok(ApiResponse.success("Found available slot", slot.get()));
+
+        } catch (Exception e) {
+            System.err.println("❌ Error finding available slot: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Error finding available slot: " + e.getMessage()));
+        }
+    }
+
     // ============================================
     // HELPER METHODS
     // ============================================
@@ -3,14 +3,12 @@ package swp391.fa25.swp391.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import swp391.fa25.swp391.dto.response.ApiResponse;
 import swp391.fa25.swp391.dto.response.EmployeeResponse;
 import swp391.fa25.swp391.entity.Account;
 import swp391.fa25.swp391.entity.StationEmployee;
-import swp391.fa25.swp391.repository.AccountRepository;
+import swp391.fa25.swp391.security.AuthenticatedPrincipal;
 import swp391.fa25.swp391.service.IService.IAccountService;
 import swp391.fa25.swp391.service.IService.IStationEmployeeService;
 
@@ -30,7 +28,6 @@ public class StationEmployeeController {
 
     private final IStationEmployeeService stationEmployeeService;
     private final IAccountService accountService;
-    private final AccountRepository accountRepository;
 
     /**
      * Get all station employees with pagination
@@ -68,16 +65,11 @@ public class StationEmployeeController {
     @GetMapping("/profile")
     public ResponseEntity<ApiResponse> getCurrentEmployeeProfile() {
         try {
-            // Get authenticated user
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-            
-            // Find account by username using repository
-            Account account = accountRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Account not found with username: " + username));
-            
-            // Find employee by account
-            StationEmployee employee = stationEmployeeService.findByAccountId(account.getId());
+            // employeeId có sẵn trong JWT claim, không cần tìm account theo username
+            Integer employeeId = AuthenticatedPrincipal.current()
+                    .map(AuthenticatedPrincipal::getEmployeeId)
+                    .orElseThrow(() -> new RuntimeException("Current user is not a station employee"));
+            StationEmployee employee = stationEmployeeService.findById(employeeId);
             
             EmployeeResponse response = buildEmployeeResponse(employee);
             return ResponseEntity.ok(ApiResponse.success("Profile retrieved successfully", response));
@@ -95,17 +87,13 @@ public class StationEmployeeController {
     public ResponseEntity<ApiResponse> updateCurrentEmployeeProfile(
             @RequestBody Map<String, String> request) {
         try {
-            // Get authenticated user
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-            
-            // Find account by username using repository
-            Account account = accountRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Account not found with username: " + username));
-            
-            // Find employee by account
-            StationEmployee employee = stationEmployeeService.findByAccountId(account.getId());
-            
+            // employeeId có sẵn trong JWT claim, không cần tìm account theo username
+            Integer employeeId = AuthenticatedPrincipal.current()
+                    .map(AuthenticatedPrincipal::getEmployeeId)
+                    .orElseThrow(() -> new RuntimeException("Current user is not a station employee"));
+            StationEmployee employee = stationEmployeeService.findById(employeeId);
+            Account account = employee.getAccount();
+
             // Update account fields if provided
             if (request.containsKey("fullName")) {
                 account.setFullName(request.get("fullName"));
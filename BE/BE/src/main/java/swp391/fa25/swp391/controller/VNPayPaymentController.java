@@ -14,6 +14,7 @@ import swp391.fa25.swp391.entity.*;
 import swp391.fa25.swp391.repository.*;
 import swp391.fa25.swp391.service.VNPayService;
 import swp391.fa25.swp391.service.EmailService;
+import swp391.fa25.swp391.service.RevenueLedgerService;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -33,6 +34,7 @@ public class VNPayPaymentController {
     private final DriverRepository driverRepository;
     private final PlanRegistrationRepository planRegistrationRepository;
     private final EmailService emailService;
+    private final RevenueLedgerService revenueLedgerService;
 
     /**
      * Create VNPay payment for subscription
@@ -188,10 +190,12 @@ public class VNPayPaymentController {
                     // Update invoice status
                     Invoice invoice = invoiceRepository.findById(referenceId)
                             .orElseThrow(() -> new RuntimeException("Invoice not found"));
+                    String oldInvoiceStatus = invoice.getStatus();
                     invoice.setStatus(PaymentStatus.INVOICE_PAID);
                     invoice.setPaymentMethod(PaymentStatus.PAYMENT_METHOD_VNPAY);
                     invoice.setPaidDate(LocalDateTime.now().toInstant(java.time.ZoneOffset.UTC));
                     invoiceRepository.save(invoice);
+                    revenueLedgerService.recordStatusChange(invoice, oldInvoiceStatus);
                     
                     log.info("✅ Invoice {} paid successfully via VNPay", referenceId);
 
@@ -5,13 +5,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import swp391.fa25.swp391.dto.request.VehicleRequest;
 import swp391.fa25.swp391.dto.response.ApiResponse;
 import swp391.fa25.swp391.dto.response.VehicleResponse;
 import swp391.fa25.swp391.entity.Driver;
 import swp391.fa25.swp391.entity.Vehicle;
+import swp391.fa25.swp391.security.AuthenticatedPrincipal;
 import swp391.fa25.swp391.service.IService.IDriverService;
 import swp391.fa25.swp391.service.IService.IVehicleService;
 
@@ -39,27 +39,24 @@ public class VehicleController {
     @PostMapping("/register")
     public ResponseEntity<?> registerVehicle(
             @Valid @RequestBody VehicleRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
 
         try {
-            if (userDetails == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(ApiResponse.error("Authentication required"));
             }
 
-            String username = userDetails.getUsername();
-
-            // Tìm driver theo username
-            Optional<Driver> driverOpt = driverService.findByUsername(username);
-            if (driverOpt.isEmpty()) {
+            // driverId có sẵn trong JWT, không cần tìm driver theo username
+            if (principal.getDriverId() == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(ApiResponse.error("Driver not found"));
             }
 
-            Driver driver = driverOpt.get();
+            Driver driver = driverService.getReference(principal.getDriverId());
 
             // Kiểm tra số lượng xe hiện tại của driver
-            int currentVehicleCount = vehicleService.countByDriverId(driver.getId());
+            int currentVehicleCount = vehicleService.countByDriverId(principal.getDriverId());
             if (currentVehicleCount >= MAX_VEHICLES_PER_DRIVER) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(ApiResponse.error("Maximum vehicle limit reached. You can only register up to " + MAX_VEHICLES_PER_DRIVER + " vehicles."));
@@ -91,8 +88,8 @@ public class VehicleController {
                     .model(savedVehicle.getModel())
                     .chargingPort(savedVehicle.getChargingPort())
                     .batteryCapacity(savedVehicle.getBatteryCapacity())
-                    .driverId(driver.getId())
-                    .driverName(driver.getAccount().getUsername())
+                    .driverId(principal.getDriverId())
+                    .driverName(principal.getUsername())
                     .build();
 
             Map<String, Object> responseData = new HashMap<>();
@@ -113,23 +110,19 @@ public class VehicleController {
      * GET /api/vehicles/my-vehicles
      */
     @GetMapping("/my-vehicles")
-    public ResponseEntity<?> getMyVehicles(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<?> getMyVehicles(@AuthenticationPrincipal AuthenticatedPrincipal principal) {
         try {
-            if (userDetails == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(ApiResponse.error("Authentication required"));
             }
 
-            String username = userDetails.getUsername();
-
-            Optional<Driver> driverOpt = driverService.findByUsername(username);
-            if (driverOpt.isEmpty()) {
+            if (principal.getDriverId() == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(ApiResponse.error("Driver not found"));
             }
 
-            Driver driver = driverOpt.get();
-            List<Vehicle> vehicles = vehicleService.findByDriverId(driver.getId());
+            List<Vehicle> vehicles = vehicleService.findByDriverId(principal.getDriverId());
 
             List<VehicleResponse> vehicleResponses = vehicles.stream()
                     .map(v -> VehicleResponse.builder()
@@ -139,8 +132,8 @@ public class VehicleController {
                             .model(v.getModel())
                             .chargingPort(v.getChargingPort())
                             .batteryCapacity(v.getBatteryCapacity())
-                            .driverId(driver.getId())
-                            .driverName(driver.getAccount().getUsername())
+                            .driverId(principal.getDriverId())
+                            .driverName(principal.getUsername())
                             .build())
                     .toList();
 
@@ -164,16 +157,14 @@ public class VehicleController {
     @GetMapping("/{vehicleId}")
     public ResponseEntity<?> getVehicleById(
             @PathVariable Integer vehicleId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
 
         try {
-            if (userDetails == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(ApiResponse.error("Authentication required"));
             }
 
-            String username = userDetails.getUsername();
-
             Optional<Vehicle> vehicleOpt = vehicleService.findById(vehicleId);
             if (vehicleOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -183,7 +174,7 @@ public class VehicleController {
             Vehicle vehicle = vehicleOpt.get();
 
             // Kiểm tra quyền: chỉ driver sở hữu mới xem được
-            if (!vehicle.getDriver().getAccount().getUsername().equals(username)) {
+            if (!vehicle.getDriver().getId().equals(principal.getDriverId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.error("You don't have permission to view this vehicle"));
             }
@@ -196,7 +187,7 @@ public class VehicleController {
                     .chargingPort(vehicle.getChargingPort())
                     .batteryCapacity(vehicle.getBatteryCapacity())
                     .driverId(vehicle.getDriver().getId())
-                    .driverName(vehicle.getDriver().getAccount().getUsername())
+                    .driverName(principal.getUsername())
                     .build();
 
             return ResponseEntity.ok(ApiResponse.success("Vehicle retrieved successfully", vehicleResponse));
@@ -215,16 +206,14 @@ public class VehicleController {
     public ResponseEntity<?> updateVehicle(
             @PathVariable Integer vehicleId,
             @Valid @RequestBody VehicleRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
 
         try {
-            if (userDetails == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(ApiResponse.error("Authentication required"));
             }
 
-            String username = userDetails.getUsername();
-
             Optional<Vehicle> vehicleOpt = vehicleService.findById(vehicleId);
             if (vehicleOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -234,7 +223,7 @@ public class VehicleController {
             Vehicle vehicle = vehicleOpt.get();
 
             // Kiểm tra quyền
-            if (!vehicle.getDriver().getAccount().getUsername().equals(username)) {
+            if (!vehicle.getDriver().getId().equals(principal.getDriverId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.error("You don't have permission to update this vehicle"));
             }
@@ -264,7 +253,7 @@ public class VehicleController {
                     .chargingPort(updatedVehicle.getChargingPort())
                     .batteryCapacity(updatedVehicle.getBatteryCapacity())
                     .driverId(updatedVehicle.getDriver().getId())
-                    .driverName(updatedVehicle.getDriver().getAccount().getUsername())
+                    .driverName(principal.getUsername())
                     .build();
 
             return ResponseEntity.ok(ApiResponse.success("Vehicle updated successfully", vehicleResponse));
@@ -282,16 +271,14 @@ public class VehicleController {
     @DeleteMapping("/{vehicleId}")
     public ResponseEntity<?> deleteVehicle(
             @PathVariable Integer vehicleId,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
 
         try {
-            if (userDetails == null) {
+            if (principal == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(ApiResponse.error("Authentication required"));
             }
 
-            String username = userDetails.getUsername();
-
             Optional<Vehicle> vehicleOpt = vehicleService.findById(vehicleId);
             if (vehicleOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -301,7 +288,7 @@ public class VehicleController {
             Vehicle vehicle = vehicleOpt.get();
 
             // Kiểm tra quyền
-            if (!vehicle.getDriver().getAccount().getUsername().equals(username)) {
+            if (!vehicle.getDriver().getId().equals(principal.getDriverId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(ApiResponse.error("You don't have permission to delete this vehicle"));
             }
@@ -0,0 +1,165 @@
+package swp391.fa25.swp391.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import swp391.fa25.swp391.dto.response.ApiResponse;
+import swp391.fa25.swp391.dto.response.WaitlistEntryResponse;
+import swp391.fa25.swp391.security.AuthenticatedPrincipal;
+import swp391.fa25.swp391.service.StationWaitlistService;
+
+import java.util.List;
+
+/**
+ * REST Controller cho hàng chờ sạc theo trạm
+ * Driver vào hàng khi trạm hết charger rảnh; charger rảnh được giữ cho driver kế tiếp trong thời gian ngắn
+ * driverId trên request phải khớp driver trong JWT (khác → 403)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/waitlist")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class WaitlistController {
+
+    private final StationWaitlistService waitlistService;
+
+    /**
+     * Vào hàng chờ của trạm
+     * POST /api/waitlist/stations/{stationId}?driverId=1&vehicleId=2
+     */
+    @PostMapping("/stations/{stationId}")
+    public ResponseEntity<ApiResponse> joinWaitlist(
+            @PathVariable Integer stationId,
+            @RequestParam Integer driverId,
+            @RequestParam Integer vehicleId,
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
+        ResponseEntity<ApiResponse> denied = checkDriver(principal, driverId);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            WaitlistEntryResponse entry = waitlistService.join(stationId, driverId, vehicleId);
+            log.info("Driver {} joined waitlist of station {}", driverId, stationId);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Joined waitlist", entry));
+
+        } catch (Exception e) {
+            log.warn("Error joining waitlist of station {} for driver {}: {}", stationId, driverId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Error joining waitlist: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Lượt chờ đang mở của driver (vị trí trong hàng / charger đang được giữ)
+     * GET /api/waitlist/drivers/{driverId}
+     */
+    @GetMapping("/drivers/{driverId}")
+    public ResponseEntity<ApiResponse> getDriverWaitlist(
+            @PathVariable Integer driverId,
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
+        ResponseEntity<ApiResponse> denied = checkDriver(principal, driverId);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            List<WaitlistEntryResponse> entries = waitlistService.getOpenEntries(driverId);
+            return ResponseEntity.ok(ApiResponse.success(
+                    "Retrieved " + entries.size() + " waitlist entries", entries));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving waitlist: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Nhận charger đang được giữ → tạo reservation
+     * POST /api/waitlist/{entryId}/accept?driverId=1
+     */
+    @PostMapping("/{entryId}/accept")
+    public ResponseEntity<ApiResponse> acceptOffer(
+            @PathVariable Long entryId,
+            @RequestParam Integer driverId,
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
+        ResponseEntity<ApiResponse> denied = checkDriver(principal, driverId);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            WaitlistEntryResponse entry = waitlistService.accept(entryId, driverId);
+            return ResponseEntity.ok(ApiResponse.success("Offer accepted", entry));
+
+        } catch (Exception e) {
+            log.warn("Error accepting waitlist offer {} for driver {}: {}", entryId, driverId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Error accepting offer: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Từ chối charger đang được giữ (chuyển cho người kế tiếp)
+     * POST /api/waitlist/{entryId}/decline?driverId=1
+     */
+    @PostMapping("/{entryId}/decline")
+    public ResponseEntity<ApiResponse> declineOffer(
+            @PathVariable Long entryId,
+            @RequestParam Integer driverId,
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
+        ResponseEntity<ApiResponse> denied = checkDriver(principal, driverId);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            WaitlistEntryResponse entry = waitlistService.decline(entryId, driverId);
+            return ResponseEntity.ok(ApiResponse.success("Offer declined", entry));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Error declining offer: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Rời hàng chờ
+     * DELETE /api/waitlist/{entryId}?driverId=1
+     */
+    @DeleteMapping("/{entryId}")
+    public ResponseEntity<ApiResponse> leaveWaitlist(
+            @PathVariable Long entryId,
+            @RequestParam Integer driverId,
+            @AuthenticationPrincipal AuthenticatedPrincipal principal) {
+        ResponseEntity<ApiResponse> denied = checkDriver(principal, driverId);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            WaitlistEntryResponse entry = waitlistService.leave(entryId, driverId);
+            return ResponseEntity.ok(ApiResponse.success("Left waitlist", entry));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Error leaving waitlist: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Kiểm tra quyền: chỉ chính driver trong JWT mới thao tác trên hàng chờ của mình
+     * @return response lỗi (401/403), hoặc null nếu hợp lệ
+     */
+    private ResponseEntity<ApiResponse> checkDriver(AuthenticatedPrincipal principal, Integer driverId) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Authentication required"));
+        }
+        if (principal.getDriverId() == null || !principal.getDriverId().equals(driverId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("You don't have permission to access this driver's waitlist"));
+        }
+        return null;
+    }
+}
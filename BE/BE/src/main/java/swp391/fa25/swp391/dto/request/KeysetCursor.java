@@ -0,0 +1,82 @@
+package swp391.fa25.swp391.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * ⭐ Cursor cho keyset pagination: (giá trị sort, id) của dòng cuối trang trước
+ * Được encode Base64URL để client coi như token "opaque", không tự sửa được ý nghĩa
+ * Giá trị sort NULL (vd session chưa có startTime) được encode bằng NULL_VALUE, decode ra null
+ */
+@Data
+@AllArgsConstructor
+public class KeysetCursor {
+    private static final String SEPARATOR = "|";
+    private static final String NULL_VALUE = "~";
+
+    private String sortValue; // ISO-8601 của LocalDateTime hoặc Instant, NULL_VALUE nếu null
+    private Integer id;
+
+    public static String encode(LocalDateTime sortValue, Integer id) {
+        return encode(sortValue != null ? sortValue.toString() : NULL_VALUE, id);
+    }
+
+    public static String encode(Instant sortValue, Integer id) {
+        return encode(sortValue != null ? sortValue.toString() : NULL_VALUE, id);
+    }
+
+    /**
+     * Decode token từ client. Trả về null nếu token rỗng (trang đầu).
+     * @throws IllegalArgumentException nếu token không hợp lệ
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(raw.substring(0, separator), Integer.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * @return null nếu dòng cuối trang trước có sort key NULL
+     */
+    public LocalDateTime asLocalDateTime() {
+        if (NULL_VALUE.equals(sortValue)) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(sortValue);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * @return null nếu dòng cuối trang trước có sort key NULL
+     */
+    public Instant asInstant() {
+        if (NULL_VALUE.equals(sortValue)) {
+            return null;
+        }
+        try {
+            return Instant.parse(sortValue);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String encode(String sortValue, Integer id) {
+        String raw = sortValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,6 @@
 package swp391.fa25.swp391.dto.request;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -7,6 +8,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 /**
  * Request DTO for creating a new reservation
  */
@@ -28,4 +31,8 @@ public class ReservationRequest {
     @NotNull(message = "Duration is required")
     @Positive(message = "Duration must be positive")
     private Integer durationMinutes; // Duration in minutes (e.g., 30, 60, 120)
+
+    // ⭐ Đặt trước: giờ bắt đầu trong tương lai (bỏ trống = giữ chỗ ngay từ bây giờ)
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startTime;
 }
@@ -0,0 +1,35 @@
+package swp391.fa25.swp391.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Trạng thái các charger tại 1 thời điểm (dựng lại từ log sự kiện)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChargerStatusAtResponse {
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime at;
+
+    private Integer stationId;                // null = toàn hệ thống
+    private List<Integer> availableChargerIds; // các charger 'active' tại thời điểm at
+    private List<ChargerState> chargers;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChargerState {
+        private Integer chargerId;
+        private String status;
+    }
+}
@@ -0,0 +1,28 @@
+package swp391.fa25.swp391.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 1 lần đổi trạng thái charger trong log sự kiện (replay)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChargerStatusEventResponse {
+    private Long id;
+    private Integer chargerId;
+    private String fromStatus; // null = charger mới tạo
+    private String toStatus;
+    private String cause;
+    private Long refId;        // reservation / waitlist entry / incident report id tùy cause
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime occurredAt;
+}
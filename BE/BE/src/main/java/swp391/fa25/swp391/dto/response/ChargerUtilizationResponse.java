@@ -0,0 +1,25 @@
+package swp391.fa25.swp391.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChargerUtilizationResponse {
+    private Integer chargerId;
+    private Integer chargingPointId;
+    private Integer stationId;
+    private Long occupancySeconds;
+    private Long chargingSeconds;
+    private Long idleSeconds;
+    private BigDecimal kwh;
+    private BigDecimal revenue;
+    private Long sessionCount;
+    private Double utilization; // occupancy / tổng thời gian của khoảng (0..1)
+}
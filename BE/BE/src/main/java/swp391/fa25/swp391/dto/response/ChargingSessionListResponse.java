@@ -17,5 +17,7 @@ import java.util.List;
 @AllArgsConstructor
 public class ChargingSessionListResponse {
     private List<ChargingSessionResponse> sessions;
-    private Integer totalSessions;
+    private Integer totalSessions; // null khi dùng keyset pagination mà không yêu cầu withTotal
+    private String nextCursor;     // ⭐ Token cho trang tiếp theo (null = hết dữ liệu)
+    private Boolean hasMore;
 }
\ No newline at end of file
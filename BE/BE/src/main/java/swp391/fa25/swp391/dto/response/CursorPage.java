@@ -0,0 +1,22 @@
+package swp391.fa25.swp391.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ⭐ 1 trang kết quả keyset pagination
+ * nextCursor = null khi đã hết dữ liệu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private Boolean hasMore;
+}
@@ -0,0 +1,30 @@
+package swp391.fa25.swp391.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * ⭐ 1 dòng export invoice - được tạo trực tiếp từ JPQL constructor expression
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceExportRow {
+    private Integer invoiceId;
+    private Integer driverId;
+    private Instant issueDate;
+    private Instant dueDate;
+    private Instant paidDate;
+    private LocalDate billingStartDate;
+    private LocalDate billingEndDate;
+    private BigDecimal totalCost;
+    private String status;
+    private String paymentMethod;
+    private String paymentReference;
+    private Integer planId;
+}
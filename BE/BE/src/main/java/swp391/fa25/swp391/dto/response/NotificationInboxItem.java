@@ -0,0 +1,32 @@
+package swp391.fa25.swp391.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * ⭐ 1 dòng inbox của employee - tạo trực tiếp từ JPQL constructor expression (NotificationRecipient JOIN Notification)
+ * id là id của notification (giữ tương thích với PUT /api/employee/notifications/{id}/read)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationInboxItem {
+    private Long id;
+    private String type;
+    private String title;
+    private String message;
+    private Long relatedSessionId;
+    private Long relatedChargerId;
+    private Long relatedDriverId;
+    private Integer facilityId;
+    private Boolean isRead;
+    private LocalDateTime readAt;
+    private LocalDateTime createdAt;
+
+    @JsonIgnore
+    private Integer recipientId; // id dòng inbox - dùng làm tie-breaker cho cursor
+}
@@ -0,0 +1,36 @@
+package swp391.fa25.swp391.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * ⭐ 1 dòng export session - được tạo trực tiếp từ JPQL constructor expression
+ * (không load entity nên persistence context không phình khi stream)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionExportRow {
+    private Integer sessionId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String status;
+    private Integer driverId;
+    private Integer vehicleId;
+    private Integer chargerId;
+    private String chargerCode;
+    private Integer chargingPointId;
+    private Integer stationId;
+    private Integer facilityId;
+    private Integer startPercentage;
+    private Integer endPercentage;
+    private BigDecimal kwhUsed;
+    private BigDecimal startFee;
+    private BigDecimal overusePenalty;
+    private BigDecimal cost;
+    private Integer invoiceId;
+}
@@ -0,0 +1,47 @@
+package swp391.fa25.swp391.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Khung giờ còn trống để đặt trước của từng charging point trong 1 trạm, 1 ngày
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StationAvailabilityResponse {
+    private Integer stationId;
+    private LocalDate date;
+    private Integer slotMinutes;
+    private List<PointAvailability> points;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PointAvailability {
+        private Integer chargingPointId;
+        private String chargingPointName;
+        private List<TimeWindow> freeWindows;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TimeWindow {
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime start;
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime end;
+    }
+}
@@ -0,0 +1,24 @@
+package swp391.fa25.swp391.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UtilizationHeatmapCell {
+    private LocalDateTime bucketStart; // Đầu giờ
+    private Long occupancySeconds;
+    private Long chargingSeconds;
+    private Long idleSeconds;
+    private BigDecimal kwh;
+    private BigDecimal revenue;
+    private Long sessionCount;
+    private Double utilization; // occupancy / (số charger trong phạm vi × 3600)
+}
@@ -0,0 +1,29 @@
+package swp391.fa25.swp391.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Lượt chờ sạc tại trạm: vị trí trong hàng (WAITING) hoặc charger đang được giữ cho driver (OFFERED)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntryResponse {
+    private Long entryId;
+    private Integer stationId;
+    private Integer driverId;
+    private Integer vehicleId;
+    private String status;
+    private Integer priority;
+    private Long position;           // Số lượt đứng trước (chỉ khi WAITING)
+    private Instant joinedAt;
+    private Integer offeredChargerId;
+    private Instant offerExpiresAt;
+    private Long reservationId;      // Reservation tạo ra khi nhận offer
+}
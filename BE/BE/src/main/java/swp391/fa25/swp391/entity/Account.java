@@ -7,10 +7,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.entity.listener.CacheInvalidationListener;
 import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners(CacheInvalidationListener.class)
 @Table(name = "ACCOUNT")
 @Data
 @NoArgsConstructor
@@ -76,6 +78,15 @@ public class Account {
     @Column(name = "DELETED_BY", length = 255)
     private String deletedBy;
 
+    // ⭐ Claim "tv" trong JWT phải khớp: tăng lên để thu hồi mọi token đã cấp (khóa, đổi mật khẩu, xóa)
+    @Column(name = "TOKEN_VERSION")
+    @ColumnDefault("0")
+    private Integer tokenVersion = 0;
+
+    public void revokeTokens() {
+        tokenVersion = (tokenVersion == null ? 0 : tokenVersion) + 1;
+    }
+
 
 
     @OneToOne(mappedBy = "account", fetch = FetchType.LAZY)
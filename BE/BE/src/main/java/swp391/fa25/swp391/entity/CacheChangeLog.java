@@ -0,0 +1,39 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ⭐ Change log cho {@link swp391.fa25.swp391.service.DbChangeLogInvalidationBus}
+ *
+ * Ghi trong cùng transaction với dữ liệu đổi (rollback thì không có dòng), các node poll theo
+ * ID tăng dần (kèm theo dõi id bị nhảy qua). Dòng cũ hơn retention (theo PUBLISHED_AT_MS) bị xóa định kỳ.
+ * PUBLISHED_AT_MS là epoch millis để không phụ thuộc time zone của từng node / DB.
+ */
+@Entity
+@Table(name = "CACHE_CHANGE_LOG", indexes = {
+        @Index(name = "IX_CACHE_CHANGE_LOG_PUBLISHED", columnList = "PUBLISHED_AT_MS")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class CacheChangeLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "REGION", nullable = false, length = 50)
+    private String region;
+
+    @Column(name = "ENTITY_KEY", length = 100)
+    private String entityKey; // null = cả region
+
+    @Column(name = "ORIGIN_NODE", nullable = false, length = 100)
+    private String originNode;
+
+    @Column(name = "PUBLISHED_AT_MS", nullable = false)
+    private Long publishedAtMs;
+}
@@ -4,12 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.constants.SoftDelete;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
+// Không cache second-level: STATUS đổi liên tục (session, reservation, bulk UPDATE khi hết hạn)
 @Entity
+@Filter(name = SoftDelete.FILTER)
 @Table(name = "CHARGER")
 @Data
 @NoArgsConstructor
@@ -35,7 +39,7 @@ public class Charger {
     @Column(name = "STATUS", length = 50)
     private String status;
 
-    @Column(name = "IS_DELETED")
+    @Column(name = "IS_DELETED", nullable = false)
     private Boolean isDeleted = false;
 
     @Column(name = "DELETED_AT")
@@ -0,0 +1,53 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import swp391.fa25.swp391.constants.ChargerStatus;
+import swp391.fa25.swp391.constants.ChargerStatusCause;
+
+import java.time.Instant;
+
+/**
+ * ⭐ 1 lần đổi trạng thái charger (append-only) - xem {@link swp391.fa25.swp391.service.ChargerStateMachine}
+ *
+ * Dòng gọn: id charger + 2 trạng thái + cause dạng TINYINT, không FK / không chuỗi.
+ * FROM_STATUS null = charger mới tạo. Trạng thái tại thời điểm t = TO_STATUS của sự kiện cuối cùng ≤ t.
+ */
+@Entity
+@Table(name = "CHARGER_STATUS_EVENT", indexes = {
+        @Index(name = "IX_CHARGER_STATUS_EVENT_CHARGER_TIME", columnList = "CHARGER_ID, OCCURRED_AT"),
+        @Index(name = "IX_CHARGER_STATUS_EVENT_TIME", columnList = "OCCURRED_AT")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ChargerStatusEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "charger_status_event_seq")
+    @SequenceGenerator(name = "charger_status_event_seq", sequenceName = "charger_status_event_seq", allocationSize = 50)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "CHARGER_ID", nullable = false)
+    private Integer chargerId;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "FROM_STATUS")
+    private ChargerStatus fromStatus;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "TO_STATUS", nullable = false)
+    private ChargerStatus toStatus;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "CAUSE", nullable = false)
+    private ChargerStatusCause cause;
+
+    @Column(name = "REF_ID")
+    private Long refId;
+
+    @Column(name = "OCCURRED_AT", nullable = false)
+    private Instant occurredAt;
+}
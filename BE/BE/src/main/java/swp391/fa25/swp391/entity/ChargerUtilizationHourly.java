@@ -0,0 +1,64 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * ⭐ Rollup mức sử dụng charger theo giờ
+ * Mỗi dòng = 1 charger trong 1 giờ (BUCKET_START đã truncate về đầu giờ).
+ * POINT_ID / STATION_ID được lưu sẵn (denormalized) để rollup theo point/station
+ * chỉ cần GROUP BY trên bảng nhỏ này, không phải JOIN charging_session.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "CHARGER_UTILIZATION_HOURLY",
+        uniqueConstraints = @UniqueConstraint(
+                name = "UX_CHARGER_UTIL_BUCKET",
+                columnNames = {"BUCKET_START", "CHARGER_ID"}),
+        indexes = {
+                @Index(name = "IX_CHARGER_UTIL_STATION", columnList = "STATION_ID, BUCKET_START"),
+                @Index(name = "IX_CHARGER_UTIL_POINT", columnList = "POINT_ID, BUCKET_START")
+        })
+public class ChargerUtilizationHourly {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "UTIL_ID", nullable = false)
+    private Long id;
+
+    @Column(name = "BUCKET_START", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "CHARGER_ID", nullable = false)
+    private Integer chargerId;
+
+    @Column(name = "POINT_ID")
+    private Integer pointId;
+
+    @Column(name = "STATION_ID")
+    private Integer stationId;
+
+    @Column(name = "OCCUPANCY_SECONDS", nullable = false)
+    private Long occupancySeconds = 0L;
+
+    @Column(name = "CHARGING_SECONDS", nullable = false)
+    private Long chargingSeconds = 0L;
+
+    @Column(name = "IDLE_SECONDS", nullable = false)
+    private Long idleSeconds = 0L;
+
+    @Column(name = "KWH", precision = 18, scale = 4, nullable = false)
+    private BigDecimal kwh = BigDecimal.ZERO;
+
+    @Column(name = "REVENUE", precision = 18, scale = 2, nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "SESSION_COUNT", nullable = false)
+    private Integer sessionCount = 0;
+}
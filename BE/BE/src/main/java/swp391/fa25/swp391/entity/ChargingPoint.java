@@ -4,12 +4,21 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.constants.SoftDelete;
+import swp391.fa25.swp391.entity.listener.CacheInvalidationListener;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(CacheInvalidationListener.class)
+@Filter(name = SoftDelete.FILTER)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TOPOLOGY)
 @Table(name = "CHARGING_POINT")
 @Data
 @NoArgsConstructor
@@ -31,7 +40,7 @@ public class ChargingPoint {
     @Column(name = "PRICE_PER_KWH", precision = 18, scale = 2)
     private BigDecimal pricePerKwh;
 
-    @Column(name = "IS_DELETED")
+    @Column(name = "IS_DELETED", nullable = false)
     private Boolean isDeleted = false;
 
     @Column(name = "DELETED_AT")
@@ -7,18 +7,27 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.entity.converter.SessionStatusConverter;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "charging_session")
+@Table(name = "charging_session", indexes = {
+        @Index(name = "IX_SESSION_START_ID", columnList = "START_TIME DESC, SESSION_ID DESC"),
+        @Index(name = "IX_SESSION_DRIVER_START_ID", columnList = "DRIVER_ID, START_TIME DESC, SESSION_ID DESC"),
+        @Index(name = "IX_SESSION_DRIVER_STATUS_START", columnList = "DRIVER_ID, STATUS, START_TIME"),
+        @Index(name = "IX_SESSION_CHARGER_STATUS", columnList = "CHARGER_ID, STATUS"),
+        @Index(name = "IX_SESSION_STATUS_END", columnList = "STATUS, END_TIME"),
+        @Index(name = "IX_SESSION_END", columnList = "END_TIME")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class ChargingSession {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "charging_session_seq")
+    @SequenceGenerator(name = "charging_session_seq", sequenceName = "charging_session_seq", allocationSize = 50)
     @Column(name = "SESSION_ID")
     private Integer id;
 
@@ -45,6 +54,7 @@ public class ChargingSession {
 
     @Nationalized
     @Column(name = "STATUS", length = 50)
+    @Convert(converter = SessionStatusConverter.class)
     private String status;
 
     @Column(name = "START_PERCENTAGE")
@@ -72,7 +82,9 @@ public class ChargingSession {
     @JoinColumn(name = "INVOICE_ID")
     @JsonIgnoreProperties({"driver", "sessions", "planAtBilling"})
     private Invoice invoice;
-    @OneToOne(optional = true)
+    // ManyToOne thay vì OneToOne: OneToOne sinh UNIQUE(RESERVATION_ID) chỉ cho phép 1 NULL (walk-in).
+    // 1 reservation → tối đa 1 session do filtered unique index (sql/charging_session_reservation_unique.sql)
+    @ManyToOne(optional = true)
     @JoinColumn(name = "RESERVATION_ID", referencedColumnName = "id")
     private Reservation reservation;
 
@@ -0,0 +1,149 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.entity.converter.SessionStatusConverter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * ⭐ Cold tier của charging_session
+ * Session đã completed + đã xuất invoice và cũ hơn horizon được SessionArchiveService chuyển sang đây
+ * (INSERT ... SELECT rồi DELETE theo batch) để bảng live và index của nó luôn nhỏ.
+ *
+ * - SESSION_ID giữ nguyên id gốc (không generate) → cursor keyset (startTime, id) dùng chung 2 tier
+ * - FK lưu dạng cột scalar để copy set-based; association chỉ đọc (insertable/updatable = false)
+ * - ARCHIVE_MONTH (yyyymm theo END_TIME) để truy vấn / dọn dẹp theo tháng
+ */
+@Entity
+@Table(name = "CHARGING_SESSION_ARCHIVE", indexes = {
+        @Index(name = "IX_SESSION_ARCHIVE_DRIVER_START_ID", columnList = "DRIVER_ID, START_TIME DESC, SESSION_ID DESC"),
+        @Index(name = "IX_SESSION_ARCHIVE_START_ID", columnList = "START_TIME DESC, SESSION_ID DESC"),
+        @Index(name = "IX_SESSION_ARCHIVE_INVOICE", columnList = "INVOICE_ID"),
+        @Index(name = "IX_SESSION_ARCHIVE_MONTH", columnList = "ARCHIVE_MONTH")
+})
+@Data
+@NoArgsConstructor
+public class ChargingSessionArchive {
+    @Id
+    @Column(name = "SESSION_ID")
+    private Integer id;
+
+    @Column(name = "START_TIME")
+    private LocalDateTime startTime;
+
+    @Column(name = "END_TIME")
+    private LocalDateTime endTime;
+
+    @Column(name = "OVERUSEDTIME", precision = 10, scale = 2)
+    private BigDecimal overusedTime;
+
+    @Column(name = "KWH_USED", precision = 18, scale = 2)
+    private BigDecimal kwhUsed;
+
+    @Column(name = "COST", precision = 18, scale = 2)
+    private BigDecimal cost;
+
+    @Column(name = "START_FEE", precision = 18, scale = 2)
+    private BigDecimal startFee;
+
+    @Column(name = "OVERUSE_PENALTY", precision = 18, scale = 2)
+    private BigDecimal overusePenalty;
+
+    @Nationalized
+    @Column(name = "STATUS", length = 50)
+    @Convert(converter = SessionStatusConverter.class)
+    private String status;
+
+    @Column(name = "START_PERCENTAGE")
+    private Integer startPercentage;
+
+    @Column(name = "END_PERCENTAGE")
+    private Integer endPercentage;
+
+    @Column(name = "DRIVER_ID")
+    private Integer driverId;
+
+    @Column(name = "VEHICLE_ID")
+    private Integer vehicleId;
+
+    @Column(name = "CHARGER_ID")
+    private Integer chargerId;
+
+    @Column(name = "INVOICE_ID")
+    private Integer invoiceId;
+
+    @Column(name = "RESERVATION_ID")
+    private Long reservationId;
+
+    @Column(name = "STARTED_BY_EMPLOYEE_ID")
+    private Integer startedByEmployeeId;
+
+    @Column(name = "ENDED_BY_EMPLOYEE_ID")
+    private Integer endedByEmployeeId;
+
+    @Column(name = "ARCHIVED_AT", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Column(name = "ARCHIVE_MONTH", nullable = false)
+    private Integer archiveMonth;
+
+    // ========== READ-ONLY ASSOCIATIONS ==========
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "DRIVER_ID", insertable = false, updatable = false)
+    private Driver driver;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "VEHICLE_ID", insertable = false, updatable = false)
+    private Vehicle vehicle;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "CHARGER_ID", insertable = false, updatable = false)
+    private Charger charger;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "INVOICE_ID", insertable = false, updatable = false)
+    private Invoice invoice;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "RESERVATION_ID", referencedColumnName = "id", insertable = false, updatable = false)
+    private Reservation reservation;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "STARTED_BY_EMPLOYEE_ID", insertable = false, updatable = false)
+    private StationEmployee startedByEmployee;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ENDED_BY_EMPLOYEE_ID", insertable = false, updatable = false)
+    private StationEmployee endedByEmployee;
+
+    /**
+     * Dựng lại ChargingSession (transient, không persist) để các API lịch sử / mapper dùng chung 1 kiểu
+     */
+    public ChargingSession toSession() {
+        ChargingSession session = new ChargingSession();
+        session.setId(id);
+        session.setStartTime(startTime);
+        session.setEndTime(endTime);
+        session.setOverusedTime(overusedTime);
+        session.setKwhUsed(kwhUsed);
+        session.setCost(cost);
+        session.setStartFee(startFee);
+        session.setOverusePenalty(overusePenalty);
+        session.setStatus(status);
+        session.setStartPercentage(startPercentage);
+        session.setEndPercentage(endPercentage);
+        session.setDriver(driver);
+        session.setVehicle(vehicle);
+        session.setCharger(charger);
+        session.setInvoice(invoice);
+        session.setReservation(reservation);
+        session.setStartedByEmployee(startedByEmployee);
+        session.setEndedByEmployee(endedByEmployee);
+        return session;
+    }
+}
@@ -4,12 +4,21 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.constants.SoftDelete;
+import swp391.fa25.swp391.entity.listener.CacheInvalidationListener;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(CacheInvalidationListener.class)
+@Filter(name = SoftDelete.FILTER)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TOPOLOGY)
 @Table(name = "CHARGING_STATION")
 @Data
 @NoArgsConstructor
@@ -35,7 +44,7 @@ public class ChargingStation {
     @Column(name = "STATUS", length = 50)
     private String status;
 
-    @Column(name = "IS_DELETED")
+    @Column(name = "IS_DELETED", nullable = false)
     private Boolean isDeleted = false;
 
     @Column(name = "DELETED_AT")
@@ -50,6 +59,7 @@ public class ChargingStation {
     private Facility facility;
 
     @OneToMany(mappedBy = "station")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TOPOLOGY)
     private List<ChargingPoint> chargingPoints= new ArrayList<>();
 
 
@@ -6,11 +6,22 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.constants.SoftDelete;
+import swp391.fa25.swp391.entity.listener.CacheInvalidationListener;
 import java.util.List;
 import java.util.ArrayList;
 
 @Entity
+@EntityListeners(CacheInvalidationListener.class)
+@FilterDef(name = SoftDelete.FILTER, defaultCondition = SoftDelete.CONDITION, autoEnabled = true)
+@Filter(name = SoftDelete.FILTER)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TOPOLOGY)
 @Table(name = "FACILITY")
 @Data
 @NoArgsConstructor
@@ -45,7 +56,7 @@ public class Facility {
     @Column(name = "STATUS", length = 50)
     private String status;
 
-    @Column(name = "IS_DELETED")
+    @Column(name = "IS_DELETED", nullable = false)
     private Boolean isDeleted = false;
 
     @Column(name = "DELETED_AT")
@@ -61,6 +72,7 @@ public class Facility {
     private Admin admin;
 
     @OneToMany(mappedBy = "facility")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TOPOLOGY)
     @JsonIgnoreProperties({"facility"})
     private List<ChargingStation> chargingStations = new ArrayList<>();
 
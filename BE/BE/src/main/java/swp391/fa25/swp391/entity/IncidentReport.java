@@ -8,7 +8,10 @@ import lombok.Setter;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.Filter;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.constants.SoftDelete;
+import swp391.fa25.swp391.entity.converter.IncidentStatusConverter;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -16,7 +19,10 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "INCIDENT_REPORT")
+@Filter(name = SoftDelete.FILTER)
+@Table(name = "INCIDENT_REPORT", indexes = {
+        @Index(name = "IX_INCIDENT_STATUS_DATE", columnList = "STATUS, REPORT_DATE")
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,6 +49,7 @@ public class IncidentReport {
 
     @Nationalized
     @Column(name = "STATUS", length = 50)
+    @Convert(converter = IncidentStatusConverter.class)
     private String status; // PENDING, IN_PROGRESS, RESOLVED, CLOSED, REJECTED
 
     // Thêm trường để phân biệt loại báo cáo: "USER_REPORTED", "SYSTEM_DETECTED", "EMPLOYEE_REPORTED"
@@ -115,7 +122,7 @@ public class IncidentReport {
 
     // Metadata
     @Builder.Default
-    @Column(name = "IS_DELETED")
+    @Column(name = "IS_DELETED", nullable = false)
     private Boolean isDeleted = false;
 
     @Column(name = "DELETED_AT")
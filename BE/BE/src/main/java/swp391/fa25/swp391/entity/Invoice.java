@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.entity.converter.InvoiceStatusConverter;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -15,11 +16,17 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "INVOICE")
+@Table(name = "INVOICE", indexes = {
+        @Index(name = "IX_INVOICE_ISSUE_ID", columnList = "ISSUE_DATE DESC, INVOICE_ID DESC"),
+        @Index(name = "IX_INVOICE_DRIVER_ISSUE_ID", columnList = "DRIVER_ID, ISSUE_DATE DESC, INVOICE_ID DESC"),
+        @Index(name = "IX_INVOICE_DRIVER_STATUS_ISSUE", columnList = "DRIVER_ID, STATUS, ISSUE_DATE"),
+        @Index(name = "IX_INVOICE_STATUS_DUE", columnList = "STATUS, DUE_DATE")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Invoice {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_seq")
+    @SequenceGenerator(name = "invoice_seq", sequenceName = "invoice_seq", allocationSize = 50)
     @Column(name = "INVOICE_ID", nullable = false)
     private Integer id;
 
@@ -48,6 +55,7 @@ public class Invoice {
 
     @Nationalized
     @Column(name = "STATUS", length = 50)
+    @Convert(converter = InvoiceStatusConverter.class)
     private String status; // UNPAID, PAID, OVERDUE
 
 
@@ -72,4 +80,4 @@ public class Invoice {
     @JoinColumn(name = "PLAN_ID")
     @JsonIgnoreProperties({"planRegistrations"})
     private SubscriptionPlan planAtBilling;
-}
\ No newline at end of file
+}
\ No newline at end of file
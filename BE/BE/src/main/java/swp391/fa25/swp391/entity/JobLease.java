@@ -0,0 +1,55 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * ⭐ Lease trong DB cho scheduled job khi chạy nhiều node
+ *
+ * 1 dòng / job (hoặc / shard của job: "invoice.monthly#3"). Node nào UPDATE được dòng lúc lease
+ * đã hết hạn (LOCKED_UNTIL <= now) thì giữ lease. FENCING_TOKEN tăng mỗi lần có owner mới,
+ * nên node mất lease (chạy quá LOCKED_UNTIL) không ghi đè được kết quả của owner sau.
+ *
+ * PENDING_RUN / COMPLETED_RUN: run key (vd "2026-10", "2026-10-19") của lần chạy đã được yêu cầu / đã xong.
+ * Shard có PENDING_RUN khác COMPLETED_RUN và lease hết hạn sẽ được node khác nhận lại (failover).
+ * SCHEDULED_RUN: kỳ theo lịch gần nhất đã mở - mỗi kỳ chỉ mở 1 lần dù nhiều node cùng trigger.
+ */
+@Entity
+@Table(name = "JOB_LEASE")
+@Getter
+@Setter
+@NoArgsConstructor
+public class JobLease {
+    @Id
+    @Column(name = "LEASE_NAME", length = 100)
+    private String name;
+
+    @Column(name = "OWNER", length = 100)
+    private String owner;
+
+    @Column(name = "LOCKED_AT")
+    private Instant lockedAt;
+
+    @Column(name = "LOCKED_UNTIL")
+    private Instant lockedUntil;
+
+    @Column(name = "FENCING_TOKEN", nullable = false)
+    private Long fencingToken = 0L;
+
+    @Column(name = "PENDING_RUN", length = 50)
+    private String pendingRun;
+
+    @Column(name = "COMPLETED_RUN", length = 50)
+    private String completedRun;
+
+    @Column(name = "SCHEDULED_RUN", length = 50)
+    private String scheduledRun;
+
+    public JobLease(String name) {
+        this.name = name;
+    }
+}
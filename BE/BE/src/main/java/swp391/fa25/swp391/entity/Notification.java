@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 @Builder
 public class Notification {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -35,6 +36,16 @@ public class Notification {
     @Column(name = "related_driver_id")
     private Long relatedDriverId;
 
+    /**
+     * Người nhận: facility (mọi employee của facility), 1 employee, hoặc cả 2 null = toàn hệ thống.
+     * Trạng thái đã đọc theo từng người nằm ở NotificationRecipient, isRead / readAt bên dưới là cột cũ.
+     */
+    @Column(name = "facility_id")
+    private Integer facilityId;
+
+    @Column(name = "employee_id")
+    private Integer employeeId;
+
     @Column(name = "is_read", nullable = false)
     @Builder.Default
     private Boolean isRead = false;
@@ -0,0 +1,55 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * ⭐ Inbox: 1 dòng cho mỗi (notification, employee nhận)
+ * Notification gửi cho facility được fan-out thành 1 dòng / employee của facility lúc tạo,
+ * nên trạng thái đã đọc là riêng từng người và mark-all-read chỉ là 1 câu UPDATE theo EMPLOYEE_ID.
+ *
+ * CREATED_AT copy từ notification để keyset pagination (createdAt, id) chạy trên 1 index.
+ */
+@Entity
+@Table(name = "NOTIFICATION_RECIPIENT", indexes = {
+        @Index(name = "IX_NOTIF_RECIPIENT_EMP_CREATED_ID", columnList = "EMPLOYEE_ID, CREATED_AT DESC, ID DESC"),
+        @Index(name = "IX_NOTIF_RECIPIENT_EMP_READ", columnList = "EMPLOYEE_ID, IS_READ")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "UX_NOTIF_RECIPIENT_NOTIF_EMP", columnNames = {"NOTIFICATION_ID", "EMPLOYEE_ID"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationRecipient {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_recipient_seq")
+    @SequenceGenerator(name = "notification_recipient_seq", sequenceName = "notification_recipient_seq", allocationSize = 50)
+    @Column(name = "ID")
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "NOTIFICATION_ID", nullable = false)
+    private Notification notification;
+
+    @Column(name = "EMPLOYEE_ID", nullable = false)
+    private Integer employeeId;
+
+    @Column(name = "IS_READ", nullable = false)
+    private Boolean isRead = false;
+
+    @Column(name = "READ_AT")
+    private LocalDateTime readAt;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+
+    public NotificationRecipient(Notification notification, Integer employeeId) {
+        this.notification = notification;
+        this.employeeId = employeeId;
+        this.createdAt = notification.getCreatedAt();
+    }
+}
@@ -1,36 +0,0 @@
-// entity/PasswordResetToken.java
-package swp391.fa25.swp391.entity;
-
-import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.time.LocalDateTime;
-
-@Entity
-@Table(name = "password_reset_tokens")
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class PasswordResetToken {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Integer id;
-
-    @Column(nullable = false)
-    private String email;
-
-    @Column(nullable = false)
-    private String otp;
-
-    @Column(nullable = false)
-    private LocalDateTime expiryTime;
-
-    @Column(nullable = false)
-    private boolean used = false;
-
-    @Column(nullable = false)
-    private LocalDateTime createdAt = LocalDateTime.now();
-}
\ No newline at end of file
@@ -6,10 +6,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.entity.converter.SubscriptionStatusConverter;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "PLAN_REGISTRATION")
+@Table(name = "PLAN_REGISTRATION", indexes = {
+        @Index(name = "IX_PLAN_REG_DRIVER_STATUS_END", columnList = "DRIVER_ID, STATUS, END_DATE"),
+        @Index(name = "IX_PLAN_REG_STATUS_END", columnList = "STATUS, END_DATE")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,6 +31,7 @@ public class PlanRegistration {
 
     @Nationalized
     @Column(name = "STATUS", length = 50)
+    @Convert(converter = SubscriptionStatusConverter.class)
     private String status;
 
     @ManyToOne
@@ -0,0 +1,31 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ⭐ Token bucket dùng chung giữa các node cho {@link swp391.fa25.swp391.service.DbRateLimiter}
+ *
+ * Chỉ đọc / ghi qua JdbcTemplate (1 câu UPDATE có điều kiện / request), entity để ddl-auto tạo bảng.
+ * UPDATED_AT_MS là epoch millis, dòng nhàn rỗi lâu hơn thời gian hồi đầy bị xóa định kỳ.
+ */
+@Entity
+@Table(name = "RATE_LIMIT_BUCKET", indexes = {
+        @Index(name = "IX_RATE_LIMIT_BUCKET_UPDATED", columnList = "UPDATED_AT_MS")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class RateLimitBucket {
+    @Id
+    @Column(name = "BUCKET_KEY", length = 300)
+    private String bucketKey;
+
+    @Column(name = "TOKENS", nullable = false)
+    private Double tokens;
+
+    @Column(name = "UPDATED_AT_MS", nullable = false)
+    private Long updatedAtMs;
+}
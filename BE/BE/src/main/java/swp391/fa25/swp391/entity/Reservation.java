@@ -5,18 +5,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import swp391.fa25.swp391.entity.converter.ReservationStatusConverter;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "RESERVATION")
+@Table(name = "RESERVATION", indexes = {
+        @Index(name = "IX_RESERVATION_DRIVER_STATUS_START", columnList = "driver_id, status, start_time"),
+        @Index(name = "IX_RESERVATION_POINT_STATUS_START", columnList = "charging_point_id, status, start_time"),
+        @Index(name = "IX_RESERVATION_STATUS_END", columnList = "status, end_time")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Reservation {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "start_time")
@@ -25,7 +31,13 @@ public class Reservation {
     @Column(name = "end_time")
     private LocalDateTime endTime;
     
+    @Convert(converter = ReservationStatusConverter.class)
     private String status;
+
+    // ⭐ true khi chính reservation này đã chuyển charger / point sang BOOKED → hủy / hết hạn mới được nhả
+    // (đặt ngay: lúc tạo; đặt trước: job bật khi tới giờ check-in)
+    @Column(name = "status_held")
+    private Boolean statusHeld;
     
     @ManyToOne
     @JoinColumn(name = "driver_id")
@@ -0,0 +1,40 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * ⭐ Bitmap slot đã đặt của 1 charging point trong 1 ngày - xem {@link swp391.fa25.swp391.service.ReservationCalendar}
+ *
+ * Mỗi lần đặt / hủy chỉ ghi lại 1 dòng (40 byte) của đúng ngày đó thay vì quét reservation.
+ * Booking khóa dòng (UPDLOCK) trước khi kiểm tra trùng → 2 node đặt cùng slot chỉ 1 node thành công.
+ */
+@Entity
+@Table(name = "RESERVATION_CALENDAR_DAY", uniqueConstraints = {
+        @UniqueConstraint(name = "UX_RESERVATION_CALENDAR_POINT_DAY", columnNames = {"CHARGING_POINT_ID", "CALENDAR_DAY"})
+}, indexes = {
+        @Index(name = "IX_RESERVATION_CALENDAR_DAY", columnList = "CALENDAR_DAY")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReservationCalendarDay {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "CHARGING_POINT_ID", nullable = false)
+    private Integer chargingPointId;
+
+    // DAY là từ khóa (H2 / SQL chuẩn) → đặt tên cột CALENDAR_DAY
+    @Column(name = "CALENDAR_DAY", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "SLOTS", nullable = false, length = 64)
+    private byte[] slots;
+}
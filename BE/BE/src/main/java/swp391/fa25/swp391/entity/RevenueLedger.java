@@ -0,0 +1,58 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Nationalized;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * ⭐ Sổ doanh thu đã tổng hợp sẵn (materialized)
+ * Mỗi dòng = tổng tiền invoice theo (ngày phát hành, facility, plan, status).
+ * Được cập nhật trong cùng transaction với việc tạo/đổi trạng thái invoice,
+ * dashboard chỉ cần đọc vài dòng thay vì SUM toàn bảng INVOICE.
+ *
+ * FACILITY_ID = 0: phần không gắn với facility (phí gói tháng)
+ * PLAN_ID = 0: invoice không có plan lúc tính tiền
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "REVENUE_LEDGER",
+        uniqueConstraints = @UniqueConstraint(
+                name = "UX_REVENUE_LEDGER_BUCKET",
+                columnNames = {"LEDGER_DATE", "FACILITY_ID", "PLAN_ID", "STATUS"}),
+        indexes = @Index(name = "IX_REVENUE_LEDGER_STATUS", columnList = "STATUS, LEDGER_DATE"))
+public class RevenueLedger {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "LEDGER_ID", nullable = false)
+    private Long id;
+
+    @Column(name = "LEDGER_DATE", nullable = false)
+    private LocalDate ledgerDate;
+
+    @Column(name = "FACILITY_ID", nullable = false)
+    private Integer facilityId;
+
+    @Column(name = "PLAN_ID", nullable = false)
+    private Integer planId;
+
+    @Nationalized
+    @Column(name = "STATUS", length = 50, nullable = false)
+    private String status;
+
+    @Column(name = "TOTAL_AMOUNT", precision = 15, scale = 2, nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "INVOICE_COUNT", nullable = false)
+    private Integer invoiceCount = 0;
+
+    @Column(name = "UPDATED_AT")
+    private Instant updatedAt;
+}
@@ -0,0 +1,36 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * ⭐ JWT đã thu hồi riêng lẻ (logout) - xem {@link swp391.fa25.swp391.security.TokenDenylist}
+ *
+ * Chỉ giữ tới lúc token tự hết hạn (EXPIRES_AT), sau đó token bị từ chối bởi chữ ký / hạn nên dòng bị dọn.
+ * Bảng chỉ đọc lúc khởi động để dựng denylist trong bộ nhớ, request không query bảng này.
+ */
+@Entity
+@Table(name = "REVOKED_TOKEN", indexes = {
+        @Index(name = "IX_REVOKED_TOKEN_EXPIRES", columnList = "EXPIRES_AT")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class RevokedToken {
+    @Id
+    @Column(name = "JTI", length = 36)
+    private String jti;
+
+    @Column(name = "ACCOUNT_ID", nullable = false)
+    private Integer accountId;
+
+    @Column(name = "EXPIRES_AT", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "REVOKED_AT", nullable = false)
+    private Instant revokedAt;
+}
@@ -0,0 +1,65 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import swp391.fa25.swp391.constants.WaitlistStatus;
+
+import java.time.Instant;
+
+/**
+ * ⭐ 1 lượt chờ charger tại trạm - xem {@link swp391.fa25.swp391.service.StationWaitlistService}
+ *
+ * Thứ tự phục vụ: PRIORITY giảm dần, cùng priority thì ai vào trước được trước.
+ * Đổi trạng thái luôn là UPDATE có điều kiện trên STATUS → 2 node không cùng offer / chốt 1 lượt.
+ */
+@Entity
+@Table(name = "STATION_WAITLIST", indexes = {
+        @Index(name = "IX_STATION_WAITLIST_QUEUE", columnList = "STATION_ID, STATUS, PRIORITY, JOINED_AT"),
+        @Index(name = "IX_STATION_WAITLIST_DRIVER", columnList = "DRIVER_ID, STATUS"),
+        @Index(name = "IX_STATION_WAITLIST_OFFER_EXPIRES", columnList = "STATUS, OFFER_EXPIRES_AT")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class StationWaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "STATION_ID", nullable = false)
+    private Integer stationId;
+
+    @Column(name = "DRIVER_ID", nullable = false)
+    private Integer driverId;
+
+    @Column(name = "VEHICLE_ID", nullable = false)
+    private Integer vehicleId;
+
+    @Column(name = "PRIORITY", nullable = false)
+    private int priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private WaitlistStatus status;
+
+    @Column(name = "JOINED_AT", nullable = false)
+    private Instant joinedAt;
+
+    @Column(name = "OFFERED_CHARGER_ID")
+    private Integer offeredChargerId;
+
+    @Column(name = "OFFERED_AT")
+    private Instant offeredAt;
+
+    @Column(name = "OFFER_EXPIRES_AT")
+    private Instant offerExpiresAt;
+
+    @Column(name = "CLOSED_AT")
+    private Instant closedAt;
+
+    @Column(name = "RESERVATION_ID")
+    private Long reservationId;
+}
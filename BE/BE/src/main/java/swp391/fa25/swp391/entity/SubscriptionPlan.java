@@ -4,12 +4,18 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Nationalized;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.entity.listener.CacheInvalidationListener;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(CacheInvalidationListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.SUBSCRIPTION_PLANS)
 @Table(name = "SUBSCRIPTION_PLAN")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,47 @@
+package swp391.fa25.swp391.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import swp391.fa25.swp391.constants.VerificationPurpose;
+
+import java.time.Instant;
+
+/**
+ * ⭐ Mã xác thực đang chờ dùng (xác thực email, OTP đổi mật khẩu) - xem DbVerificationCodeStore
+ *
+ * Unique (PURPOSE, SUBJECT): mỗi email giữ 1 mã / loại, tra cứu và consume là 1 seek trên index.
+ * Mã đã dùng bị xóa ngay, mã hết hạn bị job dọn theo index EXPIRES_AT.
+ */
+@Entity
+@Table(name = "VERIFICATION_CODE", uniqueConstraints = {
+        @UniqueConstraint(name = "UX_VERIFICATION_CODE_PURPOSE_SUBJECT", columnNames = {"PURPOSE", "SUBJECT"})
+}, indexes = {
+        @Index(name = "IX_VERIFICATION_CODE_EXPIRES", columnList = "EXPIRES_AT")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class VerificationCode {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "PURPOSE", nullable = false, length = 30)
+    private VerificationPurpose purpose;
+
+    @Column(name = "SUBJECT", nullable = false, length = 255)
+    private String subject;
+
+    @Column(name = "CODE", nullable = false, length = 20)
+    private String code;
+
+    @Column(name = "EXPIRES_AT", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,15 @@
+package swp391.fa25.swp391.entity.converter;
+
+import jakarta.persistence.Converter;
+import swp391.fa25.swp391.constants.IncidentStatus;
+
+/**
+ * Chuẩn hóa IncidentReport.status theo {@link IncidentStatus}
+ */
+@Converter
+public class IncidentStatusConverter extends StatusCodeConverter<IncidentStatus> {
+
+    public IncidentStatusConverter() {
+        super(IncidentStatus.class);
+    }
+}
@@ -0,0 +1,15 @@
+package swp391.fa25.swp391.entity.converter;
+
+import jakarta.persistence.Converter;
+import swp391.fa25.swp391.constants.InvoiceStatus;
+
+/**
+ * Chuẩn hóa Invoice.status theo {@link InvoiceStatus}
+ */
+@Converter
+public class InvoiceStatusConverter extends StatusCodeConverter<InvoiceStatus> {
+
+    public InvoiceStatusConverter() {
+        super(InvoiceStatus.class);
+    }
+}
@@ -0,0 +1,15 @@
+package swp391.fa25.swp391.entity.converter;
+
+import jakarta.persistence.Converter;
+import swp391.fa25.swp391.constants.ReservationStatus;
+
+/**
+ * Chuẩn hóa Reservation.status theo {@link ReservationStatus}
+ */
+@Converter
+public class ReservationStatusConverter extends StatusCodeConverter<ReservationStatus> {
+
+    public ReservationStatusConverter() {
+        super(ReservationStatus.class);
+    }
+}
@@ -0,0 +1,15 @@
+package swp391.fa25.swp391.entity.converter;
+
+import jakarta.persistence.Converter;
+import swp391.fa25.swp391.constants.SessionStatus;
+
+/**
+ * Chuẩn hóa ChargingSession.status theo {@link SessionStatus}
+ */
+@Converter
+public class SessionStatusConverter extends StatusCodeConverter<SessionStatus> {
+
+    public SessionStatusConverter() {
+        super(SessionStatus.class);
+    }
+}
@@ -0,0 +1,45 @@
+package swp391.fa25.swp391.entity.converter;
+
+import jakarta.persistence.AttributeConverter;
+import swp391.fa25.swp391.constants.StatusCode;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ⭐ Chuẩn hóa cột STATUS về mã của enum trước khi ghi xuống DB
+ *
+ * Field trong entity vẫn là String (API/JSON không đổi), nhưng giá trị lưu luôn là mã chuẩn
+ * ('CHARGING', 'using' → 'charging'), nên repository so sánh bằng status = 'x' thay vì
+ * LOWER(status) = 'x' và index (owner, status, time) được dùng để seek.
+ * Giá trị không nhận ra được giữ nguyên (chỉ trim + lowercase) để không mất dữ liệu.
+ */
+public abstract class StatusCodeConverter<E extends Enum<E> & StatusCode> implements AttributeConverter<String, String> {
+
+    private final Map<String, String> codes = new HashMap<>();
+
+    protected StatusCodeConverter(Class<E> statusType) {
+        for (E status : statusType.getEnumConstants()) {
+            codes.put(status.getCode(), status.getCode());
+            codes.put(status.name().toLowerCase(Locale.ROOT), status.getCode());
+            for (String alias : status.getAliases()) {
+                codes.put(alias, status.getCode());
+            }
+        }
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        String key = attribute.trim().toLowerCase(Locale.ROOT);
+        return codes.getOrDefault(key, key);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String dbData) {
+        return dbData;
+    }
+}
@@ -0,0 +1,15 @@
+package swp391.fa25.swp391.entity.converter;
+
+import jakarta.persistence.Converter;
+import swp391.fa25.swp391.constants.SubscriptionStatus;
+
+/**
+ * Chuẩn hóa PlanRegistration.status theo {@link SubscriptionStatus}
+ */
+@Converter
+public class SubscriptionStatusConverter extends StatusCodeConverter<SubscriptionStatus> {
+
+    public SubscriptionStatusConverter() {
+        super(SubscriptionStatus.class);
+    }
+}
@@ -0,0 +1,61 @@
+package swp391.fa25.swp391.entity.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.entity.Account;
+import swp391.fa25.swp391.entity.ChargingPoint;
+import swp391.fa25.swp391.entity.ChargingStation;
+import swp391.fa25.swp391.entity.Facility;
+import swp391.fa25.swp391.entity.SubscriptionPlan;
+import swp391.fa25.swp391.service.CacheInvalidationBus;
+
+/**
+ * ⭐ Publish thay đổi của entity được cache trên từng node lên {@link CacheInvalidationBus}
+ *
+ * - Topology / SubscriptionPlan: key "TênEntity#id" (cùng region chứa nhiều loại entity)
+ * - Account: key username (cache principal theo username)
+ *
+ * Chỉ bắt được ghi qua EntityManager - bulk UPDATE (JPQL @Modifying) phải tự publishRegion.
+ * Hibernate tạo listener qua Spring (SpringBeanContainer); bus lấy lazy để không vòng với EntityManagerFactory.
+ */
+@Component
+public class CacheInvalidationListener {
+
+    private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+
+    public CacheInvalidationListener(ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus == null) {
+            return;
+        }
+        switch (entity) {
+            case Facility facility -> bus.publish(CacheRegions.TOPOLOGY, entityKey("Facility", facility.getId()));
+            case ChargingStation station ->
+                    bus.publish(CacheRegions.TOPOLOGY, entityKey("ChargingStation", station.getId()));
+            case ChargingPoint point -> bus.publish(CacheRegions.TOPOLOGY, entityKey("ChargingPoint", point.getId()));
+            case SubscriptionPlan plan ->
+                    bus.publish(CacheRegions.SUBSCRIPTION_PLANS, entityKey("SubscriptionPlan", plan.getId()));
+            case Account account -> bus.publish(CacheRegions.ACCOUNTS, account.getUsername());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Key region TOPOLOGY / SUBSCRIPTION_PLANS - dùng chung cho code tự publish sau bulk UPDATE
+     */
+    public static String entityKey(String entityName, Integer id) {
+        return entityName + "#" + id;
+    }
+}
@@ -2,6 +2,7 @@ package swp391.fa25.swp391.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import swp391.fa25.swp391.entity.Account;
 
@@ -71,4 +72,19 @@ public interface AccountRepository extends JpaRepository<Account, Integer> {
 
     @Query("SELECT a FROM Account a WHERE a.email = :email AND (a.isDeleted = false OR a.isDeleted IS NULL)")
     Optional<Account> findByEmailNotDeleted(String email);
+
+    // ========== TOKEN CHECK (JwtAuthenticationFilter) ==========
+    interface TokenState {
+        Integer getId();
+        Integer getTokenVersion();
+        Boolean getIsDeleted();
+        String getStatus();
+    }
+
+    /**
+     * Chỉ các cột cần để kiểm tra token còn hiệu lực, không load entity
+     */
+    @Query("SELECT a.id AS id, a.tokenVersion AS tokenVersion, a.isDeleted AS isDeleted, a.status AS status " +
+            "FROM Account a WHERE a.username = :username")
+    Optional<TokenState> findTokenStateByUsername(@Param("username") String username);
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package swp391.fa25.swp391.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.constants.WaitlistStatus;
 import swp391.fa25.swp391.entity.Charger;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,12 +49,105 @@ public interface ChargerRepository extends JpaRepository<Charger, Integer> {
     List<Charger> findByChargingPointIdAndStatus(Integer chargingPointId, String status);
 
     // ========== SOFT DELETE METHODS ==========
-    @Query("SELECT c FROM Charger c WHERE (c.isDeleted = false OR c.isDeleted IS NULL)")
+    // Điều kiện IS_DELETED = 0 do filter SoftDelete.FILTER thêm vào mọi query trên Charger
+    @Query("SELECT c FROM Charger c")
     List<Charger> findAllNotDeleted();
 
-    @Query("SELECT c FROM Charger c WHERE c.id = :id AND (c.isDeleted = false OR c.isDeleted IS NULL)")
+    @Query("SELECT c FROM Charger c WHERE c.id = :id")
     Optional<Charger> findByIdNotDeleted(Integer id);
 
-    @Query("SELECT c FROM Charger c WHERE c.chargingPoint.id = :chargingPointId AND (c.isDeleted = false OR c.isDeleted IS NULL)")
+    @Query("SELECT c FROM Charger c WHERE c.chargingPoint.id = :chargingPointId")
     List<Charger> findByChargingPointIdNotDeleted(Integer chargingPointId);
+
+    /**
+     * ⭐ Danh sách [chargerId, pointId, stationId] của các charger chưa xóa trong phạm vi (nullable filter)
+     * Chỉ lấy id, không load entity - dùng cho utilization analytics
+     */
+    @Query("SELECT c.id, p.id, p.station.id FROM Charger c JOIN c.chargingPoint p " +
+            "WHERE (:stationId IS NULL OR p.station.id = :stationId) " +
+            "AND (:pointId IS NULL OR p.id = :pointId)")
+    List<Object[]> findChargerScopeNotDeleted(@Param("stationId") Integer stationId,
+                                              @Param("pointId") Integer pointId);
+
+    // ========== STATION WAITLIST ==========
+
+    /**
+     * [chargerId, chargingPointId, pointStatus] các charger đang ở trạng thái status của trạm
+     * (không load entity, không khóa - hàng chờ chỉ khóa charger được chọn)
+     */
+    @Query("SELECT c.id, p.id, p.status FROM Charger c JOIN c.chargingPoint p " +
+            "WHERE p.station.id = :stationId AND c.status = :status ORDER BY c.id")
+    List<Object[]> findCandidatesByStationIdAndStatus(@Param("stationId") Integer stationId,
+                                                      @Param("status") String status);
+
+    // ========== SET-BASED STATUS (reservation expiry) ==========
+    // Charger không nằm trong second-level cache nên bulk UPDATE không cần evict / báo node khác
+    // Chỉ nhả charger không còn reservation ACTIVE nào đang giữ (status_held) và không đang giữ cho offer hàng chờ
+
+    /**
+     * Đọc + khóa các charger được nhả → UPDATE ngay sau đó đổi đúng các dòng này, log sự kiện đúng các id này
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c.id FROM Charger c WHERE c.id IN :ids AND c.status = :status " +
+            "AND NOT EXISTS (SELECT r.id FROM Reservation r " +
+            "WHERE r.charger.id = c.id AND r.status = :reservationStatus AND r.statusHeld = true) " +
+            "AND NOT EXISTS (SELECT w.id FROM StationWaitlistEntry w " +
+            "WHERE w.offeredChargerId = c.id AND w.status = :offered)")
+    List<Integer> findReleasableIdsForUpdate(@Param("ids") Collection<Integer> ids,
+                                             @Param("status") String status,
+                                             @Param("reservationStatus") String reservationStatus,
+                                             @Param("offered") WaitlistStatus offered);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Charger c SET c.status = :to WHERE c.id IN :ids AND c.status = :from " +
+            "AND NOT EXISTS (SELECT r.id FROM Reservation r " +
+            "WHERE r.charger.id = c.id AND r.status = :reservationStatus AND r.statusHeld = true) " +
+            "AND NOT EXISTS (SELECT w.id FROM StationWaitlistEntry w " +
+            "WHERE w.offeredChargerId = c.id AND w.status = :offered)")
+    int releaseByIdIn(@Param("ids") Collection<Integer> ids,
+                      @Param("from") String from,
+                      @Param("to") String to,
+                      @Param("reservationStatus") String reservationStatus,
+                      @Param("offered") WaitlistStatus offered);
+
+    /**
+     * Đọc + khóa dòng charger để đổi trạng thái giữ chỗ (2 node không cùng giữ 1 charger)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Charger c WHERE c.id = :id")
+    Optional<Charger> findByIdForUpdate(@Param("id") Integer id);
+
+    // ========== STATUS SNAPSHOT (ChargerStateMachine) ==========
+
+    /**
+     * [chargerId, status] của mọi charger chưa xóa (không load entity, không qua query cache)
+     */
+    @Query("SELECT c.id, c.status FROM Charger c")
+    List<Object[]> findAllIdAndStatus();
+
+    /**
+     * Backfill IS_DELETED NULL → false (chạy với filter soft delete đã tắt)
+     */
+    @Modifying
+    @Query("UPDATE Charger c SET c.isDeleted = false WHERE c.isDeleted IS NULL")
+    int backfillIsDeleted();
+
+    // ========== CASCADE SOFT DELETE (set-based) ==========
+    // Bulk UPDATE: Hibernate tự evict region topology + invalidate query cache của bảng bị sửa
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Charger c SET c.isDeleted = true, c.deletedAt = :deletedAt, c.deletedBy = :deletedBy " +
+            "WHERE c.isDeleted = false AND c.chargingPoint.id IN " +
+            "(SELECT p.id FROM ChargingPoint p WHERE p.station.id = :stationId)")
+    int softDeleteByStationId(@Param("stationId") Integer stationId,
+                              @Param("deletedAt") Instant deletedAt,
+                              @Param("deletedBy") String deletedBy);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Charger c SET c.isDeleted = true, c.deletedAt = :deletedAt, c.deletedBy = :deletedBy " +
+            "WHERE c.isDeleted = false AND c.chargingPoint.id IN " +
+            "(SELECT p.id FROM ChargingPoint p JOIN p.station s WHERE s.facility.id = :facilityId)")
+    int softDeleteByFacilityId(@Param("facilityId") Integer facilityId,
+                               @Param("deletedAt") Instant deletedAt,
+                               @Param("deletedBy") String deletedBy);
 }
@@ -0,0 +1,48 @@
+package swp391.fa25.swp391.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.entity.ChargerStatusEvent;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository cho CHARGER_STATUS_EVENT - truy vấn theo charger là seek trên (CHARGER_ID, OCCURRED_AT)
+ */
+@Repository
+public interface ChargerStatusEventRepository extends JpaRepository<ChargerStatusEvent, Long> {
+
+    /**
+     * Replay: các lần đổi trạng thái của 1 charger trong [from, to)
+     */
+    @Query("SELECT e FROM ChargerStatusEvent e WHERE e.chargerId = :chargerId " +
+            "AND e.occurredAt >= :from AND e.occurredAt < :to ORDER BY e.occurredAt, e.id")
+    List<ChargerStatusEvent> findHistory(@Param("chargerId") Integer chargerId,
+                                         @Param("from") Instant from,
+                                         @Param("to") Instant to);
+
+    /**
+     * Sự kiện cuối cùng ≤ at của từng charger (mỗi charger 1 seek ngược trên index)
+     */
+    @Query("SELECT e FROM ChargerStatusEvent e WHERE e.chargerId IN :chargerIds AND e.occurredAt = " +
+            "(SELECT MAX(x.occurredAt) FROM ChargerStatusEvent x WHERE x.chargerId = e.chargerId AND x.occurredAt <= :at)")
+    List<ChargerStatusEvent> findLastAtOrBefore(@Param("chargerIds") Collection<Integer> chargerIds,
+                                                @Param("at") Instant at);
+
+    /**
+     * Sự kiện đầu tiên > at của từng charger (FROM_STATUS = trạng thái tại at khi không còn sự kiện cũ hơn)
+     */
+    @Query("SELECT e FROM ChargerStatusEvent e WHERE e.chargerId IN :chargerIds AND e.occurredAt = " +
+            "(SELECT MIN(x.occurredAt) FROM ChargerStatusEvent x WHERE x.chargerId = e.chargerId AND x.occurredAt > :at)")
+    List<ChargerStatusEvent> findFirstAfter(@Param("chargerIds") Collection<Integer> chargerIds,
+                                            @Param("at") Instant at);
+
+    @Modifying
+    @Query("DELETE FROM ChargerStatusEvent e WHERE e.occurredAt < :before")
+    int purgeBefore(@Param("before") Instant before);
+}
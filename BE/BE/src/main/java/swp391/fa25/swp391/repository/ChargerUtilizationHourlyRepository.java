@@ -0,0 +1,72 @@
+package swp391.fa25.swp391.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.entity.ChargerUtilizationHourly;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChargerUtilizationHourlyRepository extends JpaRepository<ChargerUtilizationHourly, Long> {
+
+    /**
+     * ⭐ Cộng dồn vào bucket (giờ, charger) có sẵn
+     * Trả về 0 nếu bucket chưa tồn tại
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ChargerUtilizationHourly u SET " +
+            "u.occupancySeconds = u.occupancySeconds + :occupancy, " +
+            "u.chargingSeconds = u.chargingSeconds + :charging, " +
+            "u.idleSeconds = u.idleSeconds + :idle, " +
+            "u.kwh = u.kwh + :kwh, " +
+            "u.revenue = u.revenue + :revenue, " +
+            "u.sessionCount = u.sessionCount + :sessions " +
+            "WHERE u.bucketStart = :bucketStart AND u.chargerId = :chargerId")
+    int addToBucket(@Param("bucketStart") LocalDateTime bucketStart,
+                    @Param("chargerId") Integer chargerId,
+                    @Param("occupancy") long occupancy,
+                    @Param("charging") long charging,
+                    @Param("idle") long idle,
+                    @Param("kwh") BigDecimal kwh,
+                    @Param("revenue") BigDecimal revenue,
+                    @Param("sessions") int sessions);
+
+    /**
+     * Heatmap: tổng theo từng giờ trong khoảng [from, to), lọc theo station/point/charger (nullable)
+     * Kết quả: [bucketStart, occupancy, charging, idle, kwh, revenue, sessionCount]
+     */
+    @Query("SELECT u.bucketStart, SUM(u.occupancySeconds), SUM(u.chargingSeconds), SUM(u.idleSeconds), " +
+            "SUM(u.kwh), SUM(u.revenue), SUM(u.sessionCount) " +
+            "FROM ChargerUtilizationHourly u " +
+            "WHERE u.bucketStart >= :from AND u.bucketStart < :to " +
+            "AND (:stationId IS NULL OR u.stationId = :stationId) " +
+            "AND (:pointId IS NULL OR u.pointId = :pointId) " +
+            "AND (:chargerId IS NULL OR u.chargerId = :chargerId) " +
+            "GROUP BY u.bucketStart ORDER BY u.bucketStart")
+    List<Object[]> sumByHour(@Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to,
+                             @Param("stationId") Integer stationId,
+                             @Param("pointId") Integer pointId,
+                             @Param("chargerId") Integer chargerId);
+
+    /**
+     * Tổng theo từng charger trong khoảng [from, to) (cho top/bottom-N)
+     * Kết quả: [chargerId, occupancy, charging, idle, kwh, revenue, sessionCount]
+     */
+    @Query("SELECT u.chargerId, SUM(u.occupancySeconds), SUM(u.chargingSeconds), SUM(u.idleSeconds), " +
+            "SUM(u.kwh), SUM(u.revenue), SUM(u.sessionCount) " +
+            "FROM ChargerUtilizationHourly u " +
+            "WHERE u.bucketStart >= :from AND u.bucketStart < :to " +
+            "AND (:stationId IS NULL OR u.stationId = :stationId) " +
+            "AND (:pointId IS NULL OR u.pointId = :pointId) " +
+            "GROUP BY u.chargerId")
+    List<Object[]> sumByCharger(@Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to,
+                                @Param("stationId") Integer stationId,
+                                @Param("pointId") Integer pointId);
+}
@@ -1,10 +1,19 @@
 package swp391.fa25.swp391.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.constants.CacheRegions;
 import swp391.fa25.swp391.entity.ChargingPoint;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,12 +39,66 @@ public interface ChargingPointRepository extends JpaRepository<ChargingPoint, In
     List<ChargingPoint> findByStationId(Integer stationId);
 
     // ========== SOFT DELETE METHODS ==========
-    @Query("SELECT p FROM ChargingPoint p WHERE (p.isDeleted = false OR p.isDeleted IS NULL)")
+    // Điều kiện IS_DELETED = 0 do filter SoftDelete.FILTER thêm vào mọi query trên ChargingPoint
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.TOPOLOGY_QUERIES)})
+    @Query("SELECT p FROM ChargingPoint p")
     List<ChargingPoint> findAllNotDeleted();
 
-    @Query("SELECT p FROM ChargingPoint p WHERE p.id = :id AND (p.isDeleted = false OR p.isDeleted IS NULL)")
+    @Query("SELECT p FROM ChargingPoint p WHERE p.id = :id")
     Optional<ChargingPoint> findByIdNotDeleted(Integer id);
 
-    @Query("SELECT p FROM ChargingPoint p WHERE p.station.id = :stationId AND (p.isDeleted = false OR p.isDeleted IS NULL)")
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.TOPOLOGY_QUERIES)})
+    @Query("SELECT p FROM ChargingPoint p WHERE p.station.id = :stationId")
     List<ChargingPoint> findByStationIdNotDeleted(Integer stationId);
-}
\ No newline at end of file
+
+    /**
+     * Backfill IS_DELETED NULL → false (chạy với filter soft delete đã tắt)
+     */
+    @Modifying
+    @Query("UPDATE ChargingPoint p SET p.isDeleted = false WHERE p.isDeleted IS NULL")
+    int backfillIsDeleted();
+
+    // ========== CASCADE SOFT DELETE (set-based) ==========
+    // Bulk UPDATE: Hibernate tự evict region topology + invalidate query cache của bảng bị sửa
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ChargingPoint p SET p.isDeleted = true, p.deletedAt = :deletedAt, p.deletedBy = :deletedBy " +
+            "WHERE p.isDeleted = false AND p.station.id = :stationId")
+    int softDeleteByStationId(@Param("stationId") Integer stationId,
+                              @Param("deletedAt") Instant deletedAt,
+                              @Param("deletedBy") String deletedBy);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ChargingPoint p SET p.isDeleted = true, p.deletedAt = :deletedAt, p.deletedBy = :deletedBy " +
+            "WHERE p.isDeleted = false AND p.station.id IN " +
+            "(SELECT s.id FROM ChargingStation s WHERE s.facility.id = :facilityId)")
+    int softDeleteByFacilityId(@Param("facilityId") Integer facilityId,
+                               @Param("deletedAt") Instant deletedAt,
+                               @Param("deletedBy") String deletedBy);
+
+    // ========== SET-BASED STATUS (reservation expiry) ==========
+    // Bulk UPDATE: Hibernate evict region topology local, node khác nhận key ChargingPoint#id qua bus
+    // Chỉ nhả point không còn reservation ACTIVE nào đang giữ (status_held). Offer hàng chờ chỉ giữ charger, không giữ point
+
+    /**
+     * Đọc + khóa các point được nhả → UPDATE ngay sau đó đổi đúng các dòng này
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM ChargingPoint p WHERE p.id IN :ids AND p.status = :status " +
+            "AND NOT EXISTS (SELECT r.id FROM Reservation r " +
+            "WHERE r.chargingPoint.id = p.id AND r.status = :reservationStatus AND r.statusHeld = true)")
+    List<Integer> findReleasableIdsForUpdate(@Param("ids") Collection<Integer> ids,
+                                             @Param("status") String status,
+                                             @Param("reservationStatus") String reservationStatus);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ChargingPoint p SET p.status = :to WHERE p.id IN :ids AND p.status = :from " +
+            "AND NOT EXISTS (SELECT r.id FROM Reservation r " +
+            "WHERE r.chargingPoint.id = p.id AND r.status = :reservationStatus AND r.statusHeld = true)")
+    int releaseByIdIn(@Param("ids") Collection<Integer> ids,
+                      @Param("from") String from,
+                      @Param("to") String to,
+                      @Param("reservationStatus") String reservationStatus);
+}
@@ -0,0 +1,131 @@
+package swp391.fa25.swp391.repository;
+
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.dto.response.SessionExportRow;
+import swp391.fa25.swp391.entity.ChargingSessionArchive;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository cho CHARGING_SESSION_ARCHIVE (cold tier của charging_session)
+ * Các query đọc giữ cùng shape với ChargingSessionRepository để service gộp 2 tier
+ */
+@Repository
+public interface ChargingSessionArchiveRepository extends JpaRepository<ChargingSessionArchive, Integer> {
+
+    /**
+     * ⭐ Copy set-based 1 batch session từ bảng live sang archive
+     * ARCHIVE_MONTH = yyyymm theo END_TIME
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO ChargingSessionArchive (id, startTime, endTime, overusedTime, kwhUsed, cost, startFee, " +
+            "overusePenalty, status, startPercentage, endPercentage, driverId, vehicleId, chargerId, invoiceId, " +
+            "reservationId, startedByEmployeeId, endedByEmployeeId, archivedAt, archiveMonth) " +
+            "SELECT cs.id, cs.startTime, cs.endTime, cs.overusedTime, cs.kwhUsed, cs.cost, cs.startFee, " +
+            "cs.overusePenalty, cs.status, cs.startPercentage, cs.endPercentage, d.id, v.id, c.id, i.id, " +
+            "r.id, se.id, ee.id, :archivedAt, YEAR(cs.endTime) * 100 + MONTH(cs.endTime) " +
+            "FROM ChargingSession cs " +
+            "LEFT JOIN cs.driver d LEFT JOIN cs.vehicle v LEFT JOIN cs.charger c LEFT JOIN cs.invoice i " +
+            "LEFT JOIN cs.reservation r LEFT JOIN cs.startedByEmployee se LEFT JOIN cs.endedByEmployee ee " +
+            "WHERE cs.id IN :ids")
+    int copyFromLive(@Param("ids") Collection<Integer> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    List<ChargingSessionArchive> findByDriverIdOrderByStartTimeDesc(Integer driverId);
+
+    // ========== KEYSET PAGINATION (startTime DESC, id DESC) ==========
+    // Sort key NULL: SQL Server xếp NULL nhỏ nhất → nằm cuối khi DESC; cursor NULL chỉ còn các dòng NULL có id nhỏ hơn
+
+    @Query("SELECT a FROM ChargingSessionArchive a ORDER BY a.startTime DESC, a.id DESC")
+    List<ChargingSessionArchive> findFirstKeysetPage(Pageable limit);
+
+    @Query("SELECT a FROM ChargingSessionArchive a " +
+            "WHERE a.startTime < :startTime OR (a.startTime = :startTime AND a.id < :id) " +
+            "OR (a.startTime IS NULL AND (:startTime IS NOT NULL OR a.id < :id)) " +
+            "ORDER BY a.startTime DESC, a.id DESC")
+    List<ChargingSessionArchive> findKeysetPageAfter(@Param("startTime") LocalDateTime startTime,
+                                                     @Param("id") Integer id,
+                                                     Pageable limit);
+
+    @Query("SELECT a FROM ChargingSessionArchive a WHERE a.driverId = :driverId " +
+            "ORDER BY a.startTime DESC, a.id DESC")
+    List<ChargingSessionArchive> findFirstKeysetPageByDriver(@Param("driverId") Integer driverId, Pageable limit);
+
+    @Query("SELECT a FROM ChargingSessionArchive a WHERE a.driverId = :driverId " +
+            "AND (a.startTime < :startTime OR (a.startTime = :startTime AND a.id < :id) " +
+            "OR (a.startTime IS NULL AND (:startTime IS NOT NULL OR a.id < :id))) " +
+            "ORDER BY a.startTime DESC, a.id DESC")
+    List<ChargingSessionArchive> findKeysetPageByDriverAfter(@Param("driverId") Integer driverId,
+                                                             @Param("startTime") LocalDateTime startTime,
+                                                             @Param("id") Integer id,
+                                                             Pageable limit);
+
+    // ========== EXPORT / ANALYTICS ==========
+
+    /**
+     * ⭐ Stream session archive cho export (cùng cột với ChargingSessionRepository.streamForExport)
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT new swp391.fa25.swp391.dto.response.SessionExportRow(" +
+            "a.id, a.startTime, a.endTime, a.status, a.driverId, a.vehicleId, a.chargerId, c.chargerCode, " +
+            "p.id, st.id, f.id, a.startPercentage, a.endPercentage, a.kwhUsed, a.startFee, a.overusePenalty, " +
+            "a.cost, a.invoiceId) " +
+            "FROM ChargingSessionArchive a " +
+            "LEFT JOIN a.charger c LEFT JOIN c.chargingPoint p LEFT JOIN p.station st LEFT JOIN st.facility f " +
+            "WHERE (:from IS NULL OR a.startTime >= :from) " +
+            "AND (:to IS NULL OR a.startTime < :to) " +
+            "AND (:facilityId IS NULL OR f.id = :facilityId) " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "ORDER BY a.id")
+    Stream<SessionExportRow> streamForExport(@Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("facilityId") Integer facilityId,
+                                             @Param("status") String status);
+
+    /**
+     * Tổng cost session archive của 1 invoice, gom theo facility. Kết quả: [facilityId, sumCost]
+     */
+    @Query("SELECT st.facility.id, COALESCE(SUM(a.cost), 0) FROM ChargingSessionArchive a " +
+            "JOIN a.charger c JOIN c.chargingPoint p JOIN p.station st " +
+            "WHERE a.invoiceId = :invoiceId " +
+            "GROUP BY st.facility.id")
+    List<Object[]> sumCostByFacilityForInvoice(@Param("invoiceId") Integer invoiceId);
+
+    /**
+     * Session archive của các invoice (IX_SESSION_ARCHIVE_INVOICE) - gộp với invoice.getSessions() khi hiển thị
+     */
+    List<ChargingSessionArchive> findByInvoiceIdIn(Collection<Integer> invoiceIds);
+
+    /**
+     * Stream fact cho analytics cube, cùng shape với ChargingSessionRepository.streamCubeFacts
+     * Kết quả: [facilityId, stationId, startTime, endTime, status, kwhUsed, cost, overusePenalty, planAtBillingId, sessionId]
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT f.id, st.id, a.startTime, a.endTime, a.status, a.kwhUsed, a.cost, a.overusePenalty, pl.id, a.id " +
+            "FROM ChargingSessionArchive a " +
+            "LEFT JOIN a.charger c LEFT JOIN c.chargingPoint p LEFT JOIN p.station st LEFT JOIN st.facility f " +
+            "LEFT JOIN a.invoice i LEFT JOIN i.planAtBilling pl " +
+            "WHERE a.endTime IS NOT NULL")
+    Stream<Object[]> streamCubeFacts();
+
+    /**
+     * Keyset theo id - dùng cho backfill charger utilization
+     */
+    List<ChargingSessionArchive> findByEndTimeBeforeAndIdGreaterThanOrderByIdAsc(
+            LocalDateTime endedBefore, Integer afterId, Pageable pageable);
+}
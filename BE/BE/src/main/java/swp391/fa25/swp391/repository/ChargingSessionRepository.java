@@ -4,15 +4,21 @@ package swp391.fa25.swp391.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import swp391.fa25.swp391.dto.response.SessionExportRow;
 import swp391.fa25.swp391.entity.ChargingSession;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository cho ChargingSession
@@ -53,27 +59,27 @@ public interface ChargingSessionRepository extends JpaRepository<ChargingSession
 
 
     /**
-     * Tìm session ĐANG ACTIVE của driver (status = using)
+     * Tìm session ĐANG ACTIVE của driver (status = charging)
      * Business critical - phải đảm bảo chỉ có 1 session active
      */
     @Query("SELECT cs FROM ChargingSession cs " +
-            "WHERE cs.driver.id = :driverId AND cs.status = 'using'")
+            "WHERE cs.driver.id = :driverId AND cs.status = 'charging'")
     Optional<ChargingSession> findActiveSessionByDriverId(@Param("driverId") Integer driverId);
 
     /**
-     * Tìm session ĐANG ACTIVE tại charger (status = using)
+     * Tìm session ĐANG ACTIVE tại charger (status = charging)
      * Kiểm tra charger có đang được sử dụng không
      */
     @Query("SELECT cs FROM ChargingSession cs " +
-            "WHERE cs.charger.id = :chargerId AND cs.status = 'using'")
+            "WHERE cs.charger.id = :chargerId AND cs.status = 'charging'")
     Optional<ChargingSession> findActiveSessionByChargerId(@Param("chargerId") Integer chargerId);
 
 
     /**
-     * Tính tổng doanh thu của driver (chỉ session đã kết thúc = inactive với cost > 0)
+     * Tính tổng doanh thu của driver (chỉ session đã kết thúc = completed)
      */
     @Query("SELECT COALESCE(SUM(cs.cost), 0) FROM ChargingSession cs " +
-            "WHERE cs.driver.id = :driverId AND cs.status = 'inactive'")
+            "WHERE cs.driver.id = :driverId AND cs.status = 'completed'")
     BigDecimal calculateTotalCostByDriver(@Param("driverId") Integer driverId);
 
 // Thêm vào interface ChargingSessionRepository
@@ -98,4 +104,113 @@ public interface ChargingSessionRepository extends JpaRepository<ChargingSession
             LocalDateTime startTime,
             LocalDateTime endTime
     );
+
+    /**
+     * ⭐ Tổng cost các session của 1 invoice, gom theo facility
+     * Dùng để phân bổ doanh thu invoice vào revenue ledger
+     * Kết quả: [facilityId, sumCost]
+     */
+    @Query("SELECT st.facility.id, COALESCE(SUM(cs.cost), 0) FROM ChargingSession cs " +
+            "JOIN cs.charger c JOIN c.chargingPoint p JOIN p.station st " +
+            "WHERE cs.invoice.id = :invoiceId " +
+            "GROUP BY st.facility.id")
+    List<Object[]> sumCostByFacilityForInvoice(@Param("invoiceId") Integer invoiceId);
+
+    /**
+     * ⭐ Các session đã kết thúc trước mốc, keyset theo id - dùng cho backfill analytics (mỗi trang 1 transaction)
+     */
+    List<ChargingSession> findByStatusAndEndTimeBeforeAndIdGreaterThanOrderByIdAsc(
+            String status, LocalDateTime endedBefore, Integer afterId, Pageable pageable);
+
+    /**
+     * ⭐ Stream session cho export (forward-only cursor, fetch size 500, read-only)
+     * Phải được gọi trong transaction và đóng Stream sau khi dùng
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT new swp391.fa25.swp391.dto.response.SessionExportRow(" +
+            "cs.id, cs.startTime, cs.endTime, cs.status, d.id, v.id, c.id, c.chargerCode, p.id, st.id, f.id, " +
+            "cs.startPercentage, cs.endPercentage, cs.kwhUsed, cs.startFee, cs.overusePenalty, cs.cost, i.id) " +
+            "FROM ChargingSession cs " +
+            "LEFT JOIN cs.driver d LEFT JOIN cs.vehicle v LEFT JOIN cs.invoice i " +
+            "LEFT JOIN cs.charger c LEFT JOIN c.chargingPoint p LEFT JOIN p.station st LEFT JOIN st.facility f " +
+            "WHERE (:from IS NULL OR cs.startTime >= :from) " +
+            "AND (:to IS NULL OR cs.startTime < :to) " +
+            "AND (:facilityId IS NULL OR f.id = :facilityId) " +
+            "AND (:status IS NULL OR cs.status = :status) " +
+            "ORDER BY cs.id")
+    Stream<SessionExportRow> streamForExport(@Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("facilityId") Integer facilityId,
+                                             @Param("status") String status);
+
+    // ========== KEYSET PAGINATION (startTime DESC, id DESC) ==========
+    // Sort key NULL: SQL Server xếp NULL nhỏ nhất → nằm cuối khi DESC; cursor NULL chỉ còn các dòng NULL có id nhỏ hơn
+    // Pageable chỉ dùng để LIMIT (PageRequest.of(0, size)), trả về List nên không chạy COUNT
+
+    @Query("SELECT cs FROM ChargingSession cs ORDER BY cs.startTime DESC, cs.id DESC")
+    List<ChargingSession> findFirstKeysetPage(Pageable limit);
+
+    @Query("SELECT cs FROM ChargingSession cs " +
+            "WHERE cs.startTime < :startTime OR (cs.startTime = :startTime AND cs.id < :id) " +
+            "OR (cs.startTime IS NULL AND (:startTime IS NOT NULL OR cs.id < :id)) " +
+            "ORDER BY cs.startTime DESC, cs.id DESC")
+    List<ChargingSession> findKeysetPageAfter(@Param("startTime") LocalDateTime startTime,
+                                              @Param("id") Integer id,
+                                              Pageable limit);
+
+    @Query("SELECT cs FROM ChargingSession cs WHERE cs.driver.id = :driverId " +
+            "ORDER BY cs.startTime DESC, cs.id DESC")
+    List<ChargingSession> findFirstKeysetPageByDriver(@Param("driverId") Integer driverId, Pageable limit);
+
+    @Query("SELECT cs FROM ChargingSession cs WHERE cs.driver.id = :driverId " +
+            "AND (cs.startTime < :startTime OR (cs.startTime = :startTime AND cs.id < :id) " +
+            "OR (cs.startTime IS NULL AND (:startTime IS NOT NULL OR cs.id < :id))) " +
+            "ORDER BY cs.startTime DESC, cs.id DESC")
+    List<ChargingSession> findKeysetPageByDriverAfter(@Param("driverId") Integer driverId,
+                                                      @Param("startTime") LocalDateTime startTime,
+                                                      @Param("id") Integer id,
+                                                      Pageable limit);
+
+    /**
+     * ⭐ Stream dữ liệu session đã kết thúc cho analytics cube (rebuild / replay)
+     * Kết quả: [facilityId, stationId, startTime, endTime, status, kwhUsed, cost, overusePenalty, planAtBillingId, sessionId]
+     * fromEnd = null → tất cả; ngược lại chỉ session có endTime >= fromEnd (seek trên IX_SESSION_END)
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT f.id, st.id, cs.startTime, cs.endTime, cs.status, cs.kwhUsed, cs.cost, cs.overusePenalty, pl.id, cs.id " +
+            "FROM ChargingSession cs " +
+            "LEFT JOIN cs.charger c LEFT JOIN c.chargingPoint p LEFT JOIN p.station st LEFT JOIN st.facility f " +
+            "LEFT JOIN cs.invoice i LEFT JOIN i.planAtBilling pl " +
+            "WHERE cs.endTime IS NOT NULL AND (:fromEnd IS NULL OR cs.endTime >= :fromEnd)")
+    Stream<Object[]> streamCubeFacts(@Param("fromEnd") LocalDateTime fromEnd);
+
+    // ========== ARCHIVAL (hot → CHARGING_SESSION_ARCHIVE) ==========
+
+    /**
+     * ⭐ Id các session đủ điều kiện archive: đã completed, invoice đã chốt (paid / cancelled),
+     * kết thúc trước cutoff và không bị incident report nào tham chiếu (FK SESSION_ID)
+     * Pageable chỉ dùng để LIMIT batch
+     */
+    @Query("SELECT cs.id FROM ChargingSession cs JOIN cs.invoice i " +
+            "WHERE cs.status = :status AND cs.endTime < :cutoff AND i.status IN :invoiceStatuses " +
+            "AND NOT EXISTS (SELECT 1 FROM IncidentReport ir WHERE ir.relatedSession = cs) " +
+            "ORDER BY cs.id")
+    List<Integer> findArchivableIds(@Param("status") String status,
+                                    @Param("cutoff") LocalDateTime cutoff,
+                                    @Param("invoiceStatuses") Collection<String> invoiceStatuses,
+                                    Pageable limit);
+
+    /**
+     * Xóa khỏi bảng live các session đã có bản copy trong archive
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ChargingSession cs WHERE cs.id IN :ids " +
+            "AND EXISTS (SELECT 1 FROM ChargingSessionArchive a WHERE a.id = cs.id)")
+    int deleteArchivedByIds(@Param("ids") Collection<Integer> ids);
 }
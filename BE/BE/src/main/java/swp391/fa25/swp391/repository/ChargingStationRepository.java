@@ -1,10 +1,16 @@
 package swp391.fa25.swp391.repository;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.constants.CacheRegions;
 import swp391.fa25.swp391.entity.ChargingStation;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,15 +30,46 @@ public interface ChargingStationRepository extends JpaRepository<ChargingStation
     /**
      * ⭐ NEW: Find all stations by facility ID
      */
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.TOPOLOGY_QUERIES)})
     List<ChargingStation> findByFacility_Id(Integer facilityId);
 
     // ========== SOFT DELETE METHODS ==========
-    @Query("SELECT s FROM ChargingStation s WHERE (s.isDeleted = false OR s.isDeleted IS NULL)")
+    // Điều kiện IS_DELETED = 0 do filter SoftDelete.FILTER thêm vào mọi query trên ChargingStation
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.TOPOLOGY_QUERIES)})
+    @Query("SELECT s FROM ChargingStation s")
     List<ChargingStation> findAllNotDeleted();
 
-    @Query("SELECT s FROM ChargingStation s WHERE s.id = :id AND (s.isDeleted = false OR s.isDeleted IS NULL)")
+    @Query("SELECT s FROM ChargingStation s WHERE s.id = :id")
     Optional<ChargingStation> findByIdNotDeleted(Integer id);
 
-    @Query("SELECT s FROM ChargingStation s WHERE s.facility.id = :facilityId AND (s.isDeleted = false OR s.isDeleted IS NULL)")
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.TOPOLOGY_QUERIES)})
+    @Query("SELECT s FROM ChargingStation s WHERE s.facility.id = :facilityId")
     List<ChargingStation> findByFacilityIdNotDeleted(Integer facilityId);
-}
\ No newline at end of file
+
+    /**
+     * Backfill IS_DELETED NULL → false (chạy với filter soft delete đã tắt)
+     */
+    @Modifying
+    @Query("UPDATE ChargingStation s SET s.isDeleted = false WHERE s.isDeleted IS NULL")
+    int backfillIsDeleted();
+
+    // ========== CASCADE SOFT DELETE (set-based) ==========
+    // Bulk UPDATE: Hibernate tự evict region topology + invalidate query cache của bảng bị sửa
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ChargingStation s SET s.isDeleted = true, s.deletedAt = :deletedAt, s.deletedBy = :deletedBy " +
+            "WHERE s.isDeleted = false AND s.id = :stationId")
+    int softDeleteById(@Param("stationId") Integer stationId,
+                       @Param("deletedAt") Instant deletedAt,
+                       @Param("deletedBy") String deletedBy);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ChargingStation s SET s.isDeleted = true, s.deletedAt = :deletedAt, s.deletedBy = :deletedBy " +
+            "WHERE s.isDeleted = false AND s.facility.id = :facilityId")
+    int softDeleteByFacilityId(@Param("facilityId") Integer facilityId,
+                               @Param("deletedAt") Instant deletedAt,
+                               @Param("deletedBy") String deletedBy);
+}
@@ -23,7 +23,16 @@ public interface DriverRepository extends JpaRepository<Driver, Integer> {
      */
     @Query("SELECT DISTINCT d FROM Driver d " +
             "JOIN d.planRegistrations pr " +
-            "WHERE LOWER(pr.status) = 'active'")
+            "WHERE pr.status = 'active'")
     List<Driver> findAllWithActivePlan();
+
+    /**
+     * ⭐ Như findAllWithActivePlan nhưng chỉ 1 shard (driver id % shardCount == shardIndex) - job invoice chạy nhiều node
+     */
+    @Query("SELECT DISTINCT d FROM Driver d " +
+            "JOIN d.planRegistrations pr " +
+            "WHERE pr.status = 'active' AND MOD(d.id, :shardCount) = :shardIndex")
+    List<Driver> findAllWithActivePlanInShard(@Param("shardCount") int shardCount,
+                                              @Param("shardIndex") int shardIndex);
     List<Driver> findByAccountStatus(String status);
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package swp391.fa25.swp391.repository;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.constants.CacheRegions;
 import swp391.fa25.swp391.entity.Facility;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,9 +37,29 @@ public interface FacilityRepository extends JpaRepository<Facility, Integer> {
     List<Facility> findByAddressContaining(@Param("address") String address);
 
     // ========== SOFT DELETE METHODS ==========
-    @Query("SELECT f FROM Facility f WHERE (f.isDeleted = false OR f.isDeleted IS NULL)")
+    // Điều kiện IS_DELETED = 0 do filter SoftDelete.FILTER thêm vào mọi query trên Facility
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.TOPOLOGY_QUERIES)})
+    @Query("SELECT f FROM Facility f")
     List<Facility> findAllNotDeleted();
 
-    @Query("SELECT f FROM Facility f WHERE f.id = :id AND (f.isDeleted = false OR f.isDeleted IS NULL)")
+    @Query("SELECT f FROM Facility f WHERE f.id = :id")
     Optional<Facility> findByIdNotDeleted(Integer id);
-}
\ No newline at end of file
+
+    /**
+     * Backfill IS_DELETED NULL → false (chạy với filter soft delete đã tắt)
+     */
+    @Modifying
+    @Query("UPDATE Facility f SET f.isDeleted = false WHERE f.isDeleted IS NULL")
+    int backfillIsDeleted();
+
+    // ========== CASCADE SOFT DELETE (set-based) ==========
+    // Bulk UPDATE: Hibernate tự evict region topology + invalidate query cache của bảng bị sửa
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Facility f SET f.isDeleted = true, f.deletedAt = :deletedAt, f.deletedBy = :deletedBy " +
+            "WHERE f.isDeleted = false AND f.id = :facilityId")
+    int softDeleteById(@Param("facilityId") Integer facilityId,
+                       @Param("deletedAt") Instant deletedAt,
+                       @Param("deletedBy") String deletedBy);
+}
@@ -1,6 +1,7 @@
 package swp391.fa25.swp391.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -47,18 +48,26 @@ public interface IncidentReportRepository extends JpaRepository<IncidentReport,
             @Param("endDate") Instant endDate
     );
 
-    @Query("SELECT COUNT(ir) FROM IncidentReport ir WHERE LOWER(ir.status) = 'pending'")
+    @Query("SELECT COUNT(ir) FROM IncidentReport ir WHERE ir.status = 'pending'")
     Long countPendingReports();
 
     List<IncidentReport> findTop10ByOrderByReportDateDesc();
 
     // ========== SOFT DELETE METHODS ==========
-    @Query("SELECT ir FROM IncidentReport ir WHERE (ir.isDeleted = false OR ir.isDeleted IS NULL)")
+    // Điều kiện IS_DELETED = 0 do filter SoftDelete.FILTER thêm vào mọi query trên IncidentReport
+    @Query("SELECT ir FROM IncidentReport ir")
     List<IncidentReport> findAllNotDeleted();
 
-    @Query("SELECT ir FROM IncidentReport ir WHERE ir.id = :id AND (ir.isDeleted = false OR ir.isDeleted IS NULL)")
+    @Query("SELECT ir FROM IncidentReport ir WHERE ir.id = :id")
     Optional<IncidentReport> findByIdNotDeleted(Integer id);
 
-    @Query("SELECT ir FROM IncidentReport ir WHERE ir.point.id = :pointId AND (ir.isDeleted = false OR ir.isDeleted IS NULL)")
+    @Query("SELECT ir FROM IncidentReport ir WHERE ir.point.id = :pointId")
     List<IncidentReport> findByPointIdNotDeleted(Integer pointId);
-}
\ No newline at end of file
+
+    /**
+     * Backfill IS_DELETED NULL → false (chạy với filter soft delete đã tắt)
+     */
+    @Modifying
+    @Query("UPDATE IncidentReport ir SET ir.isDeleted = false WHERE ir.isDeleted IS NULL")
+    int backfillIsDeleted();
+}
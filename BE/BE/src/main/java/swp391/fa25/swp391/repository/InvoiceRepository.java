@@ -1,18 +1,23 @@
 package swp391.fa25.swp391.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
 
 import swp391.fa25.swp391.entity.Invoice;
 import swp391.fa25.swp391.entity.Driver;
 import swp391.fa25.swp391.entity.ChargingSession;
+import swp391.fa25.swp391.dto.response.InvoiceExportRow;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Integer> {
@@ -71,5 +76,53 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Integer> {
             @Param("status") String status
     );
 
+    /**
+     * ⭐ Stream invoice cho export (forward-only cursor, fetch size 500, read-only)
+     * Lọc facility: invoice có ít nhất 1 session tại facility đó
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT new swp391.fa25.swp391.dto.response.InvoiceExportRow(" +
+            "i.id, i.driver.id, i.issueDate, i.dueDate, i.paidDate, i.billingStartDate, i.billingEndDate, " +
+            "i.totalCost, i.status, i.paymentMethod, i.paymentReference, pl.id) " +
+            "FROM Invoice i LEFT JOIN i.planAtBilling pl " +
+            "WHERE (:from IS NULL OR i.issueDate >= :from) " +
+            "AND (:to IS NULL OR i.issueDate < :to) " +
+            "AND (:status IS NULL OR i.status = :status) " +
+            "AND (:facilityId IS NULL OR EXISTS (SELECT 1 FROM ChargingSession s " +
+            "     WHERE s.invoice = i AND s.charger.chargingPoint.station.facility.id = :facilityId)) " +
+            "ORDER BY i.id")
+    Stream<InvoiceExportRow> streamForExport(@Param("from") Instant from,
+                                             @Param("to") Instant to,
+                                             @Param("facilityId") Integer facilityId,
+                                             @Param("status") String status);
+
+    // ========== KEYSET PAGINATION (issueDate DESC, id DESC) ==========
+    // Sort key NULL: SQL Server xếp NULL nhỏ nhất → nằm cuối khi DESC; cursor NULL chỉ còn các dòng NULL có id nhỏ hơn
+
+    @Query("SELECT i FROM Invoice i ORDER BY i.issueDate DESC, i.id DESC")
+    List<Invoice> findFirstKeysetPage(Pageable limit);
 
-}
\ No newline at end of file
+    @Query("SELECT i FROM Invoice i " +
+            "WHERE i.issueDate < :issueDate OR (i.issueDate = :issueDate AND i.id < :id) " +
+            "OR (i.issueDate IS NULL AND (:issueDate IS NOT NULL OR i.id < :id)) " +
+            "ORDER BY i.issueDate DESC, i.id DESC")
+    List<Invoice> findKeysetPageAfter(@Param("issueDate") Instant issueDate,
+                                      @Param("id") Integer id,
+                                      Pageable limit);
+
+    @Query("SELECT i FROM Invoice i WHERE i.driver.id = :driverId " +
+            "ORDER BY i.issueDate DESC, i.id DESC")
+    List<Invoice> findFirstKeysetPageByDriver(@Param("driverId") Integer driverId, Pageable limit);
+
+    @Query("SELECT i FROM Invoice i WHERE i.driver.id = :driverId " +
+            "AND (i.issueDate < :issueDate OR (i.issueDate = :issueDate AND i.id < :id) " +
+            "OR (i.issueDate IS NULL AND (:issueDate IS NOT NULL OR i.id < :id))) " +
+            "ORDER BY i.issueDate DESC, i.id DESC")
+    List<Invoice> findKeysetPageByDriverAfter(@Param("driverId") Integer driverId,
+                                              @Param("issueDate") Instant issueDate,
+                                              @Param("id") Integer id,
+                                              Pageable limit);
+}
@@ -0,0 +1,84 @@
+package swp391.fa25.swp391.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.entity.JobLease;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository cho JOB_LEASE - mọi thao tác lease là 1 câu UPDATE có điều kiện (compare-and-set trên DB)
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    List<JobLease> findAllByOrderByNameAsc();
+
+    /**
+     * Lấy lease nếu đang trống / đã hết hạn. Trả về 1 nếu node này giữ lease.
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.lockedAt = :now, l.lockedUntil = :until, " +
+            "l.fencingToken = l.fencingToken + 1 " +
+            "WHERE l.name = :name AND (l.lockedUntil IS NULL OR l.lockedUntil <= :now)")
+    int tryLock(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") Instant now,
+                @Param("until") Instant until);
+
+    /**
+     * Như tryLock nhưng chỉ khi shard còn run chưa xong (PENDING_RUN khác COMPLETED_RUN)
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.lockedAt = :now, l.lockedUntil = :until, " +
+            "l.fencingToken = l.fencingToken + 1 " +
+            "WHERE l.name = :name AND l.pendingRun IS NOT NULL " +
+            "AND (l.completedRun IS NULL OR l.completedRun <> l.pendingRun) " +
+            "AND (l.lockedUntil IS NULL OR l.lockedUntil <= :now)")
+    int tryLockPendingRun(@Param("name") String name,
+                          @Param("owner") String owner,
+                          @Param("now") Instant now,
+                          @Param("until") Instant until);
+
+    /**
+     * Trả lease: giữ tới :until (lockAtLeastFor / retry delay) rồi node khác mới lấy được
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.lockedUntil = :until " +
+            "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token")
+    int unlock(@Param("name") String name,
+               @Param("owner") String owner,
+               @Param("token") Long token,
+               @Param("until") Instant until);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.completedRun = :runKey, l.lockedUntil = :now " +
+            "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token")
+    int completeRun(@Param("name") String name,
+                    @Param("owner") String owner,
+                    @Param("token") Long token,
+                    @Param("runKey") String runKey,
+                    @Param("now") Instant now);
+
+    /**
+     * Run chạy tay (run key yyyy-MM-dd'T'HH:mm:ss): mở nếu mới hơn run đang / đã yêu cầu
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.pendingRun = :runKey " +
+            "WHERE l.name IN :names AND (l.pendingRun IS NULL OR l.pendingRun < :runKey)")
+    int openRun(@Param("names") Collection<String> names, @Param("runKey") String runKey);
+
+    /**
+     * Run theo lịch (run key = kỳ: yyyy-MM-dd hoặc yyyy-MM): mở nếu kỳ mới hơn kỳ theo lịch đã mở (SCHEDULED_RUN).
+     * Node có cron trễ vài phút cùng kỳ → 0 dòng, không chạy lại; run chạy tay không chặn kỳ theo lịch.
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.pendingRun = :runKey, l.scheduledRun = :runKey " +
+            "WHERE l.name IN :names AND (l.scheduledRun IS NULL OR l.scheduledRun < :runKey)")
+    int openScheduledRun(@Param("names") Collection<String> names, @Param("runKey") String runKey);
+}
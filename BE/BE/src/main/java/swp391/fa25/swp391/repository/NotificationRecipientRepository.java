@@ -0,0 +1,68 @@
+package swp391.fa25.swp391.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.dto.response.NotificationInboxItem;
+import swp391.fa25.swp391.entity.NotificationRecipient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository cho inbox notification theo từng employee (NOTIFICATION_RECIPIENT)
+ */
+@Repository
+public interface NotificationRecipientRepository extends JpaRepository<NotificationRecipient, Integer> {
+
+    String INBOX_ITEM = "SELECT new swp391.fa25.swp391.dto.response.NotificationInboxItem(" +
+            "n.id, n.type, n.title, n.message, n.relatedSessionId, n.relatedChargerId, n.relatedDriverId, " +
+            "n.facilityId, r.isRead, r.readAt, r.createdAt, r.id) " +
+            "FROM NotificationRecipient r JOIN r.notification n ";
+
+    // ========== KEYSET PAGINATION (createdAt DESC, id DESC) ==========
+    // Sort key NULL: SQL Server xếp NULL nhỏ nhất → nằm cuối khi DESC; cursor NULL chỉ còn các dòng NULL có id nhỏ hơn
+    // unreadOnly = false → lấy cả đã đọc và chưa đọc
+
+    @Query(INBOX_ITEM +
+            "WHERE r.employeeId = :employeeId AND (:unreadOnly = false OR r.isRead = false) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<NotificationInboxItem> findFirstInboxPage(@Param("employeeId") Integer employeeId,
+                                                   @Param("unreadOnly") boolean unreadOnly,
+                                                   Pageable limit);
+
+    @Query(INBOX_ITEM +
+            "WHERE r.employeeId = :employeeId AND (:unreadOnly = false OR r.isRead = false) " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id) " +
+            "OR (r.createdAt IS NULL AND (:createdAt IS NOT NULL OR r.id < :id))) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<NotificationInboxItem> findInboxPageAfter(@Param("employeeId") Integer employeeId,
+                                                   @Param("unreadOnly") boolean unreadOnly,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Integer id,
+                                                   Pageable limit);
+
+    // ========== READ STATE ==========
+
+    long countByEmployeeIdAndIsReadFalse(Integer employeeId);
+
+    boolean existsByNotificationIdAndEmployeeId(Long notificationId, Integer employeeId);
+
+    @Modifying
+    @Query("UPDATE NotificationRecipient r SET r.isRead = true, r.readAt = :readAt " +
+            "WHERE r.notification.id = :notificationId AND r.employeeId = :employeeId AND r.isRead = false")
+    int markRead(@Param("notificationId") Long notificationId,
+                 @Param("employeeId") Integer employeeId,
+                 @Param("readAt") LocalDateTime readAt);
+
+    /**
+     * ⭐ Mark-all-read: 1 câu UPDATE, không load dòng nào lên memory
+     */
+    @Modifying
+    @Query("UPDATE NotificationRecipient r SET r.isRead = true, r.readAt = :readAt " +
+            "WHERE r.employeeId = :employeeId AND r.isRead = false")
+    int markAllRead(@Param("employeeId") Integer employeeId, @Param("readAt") LocalDateTime readAt);
+}
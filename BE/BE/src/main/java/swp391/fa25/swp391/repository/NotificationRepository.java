@@ -10,14 +10,7 @@ import java.util.List;
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
-    // Lấy tất cả thông báo chưa đọc
-    List<Notification> findByIsReadFalseOrderByCreatedAtDesc();
-    
-    // Lấy tất cả thông báo (bao gồm cả đã đọc)
-    List<Notification> findAllByOrderByCreatedAtDesc();
-    
-    // Đếm số thông báo chưa đọc
-    long countByIsReadFalse();
+    // Inbox / trạng thái đã đọc theo từng employee: NotificationRecipientRepository
     
     // Lấy thông báo theo loại
     List<Notification> findByTypeOrderByCreatedAtDesc(String type);
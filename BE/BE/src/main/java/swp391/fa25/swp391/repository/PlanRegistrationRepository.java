@@ -18,7 +18,7 @@ public interface PlanRegistrationRepository extends JpaRepository<PlanRegistrati
      */
     @Query("SELECT pr FROM PlanRegistration pr " +
             "WHERE pr.driver.id = :driverId " +
-            "AND LOWER(pr.status) = 'active' " +
+            "AND pr.status = 'active' " +
             "AND :currentDate BETWEEN pr.startDate AND pr.endDate")
     Optional<PlanRegistration> findActiveByDriverId(
             @Param("driverId") Integer driverId,
@@ -35,7 +35,7 @@ public interface PlanRegistrationRepository extends JpaRepository<PlanRegistrati
     List<PlanRegistration> findByDriverIdAndStatus(Integer driverId, String status);
 
     @Query("SELECT pr FROM PlanRegistration pr WHERE pr.driver.id = :driverId " +
-            "AND LOWER(pr.status) = 'active' " +
+            "AND pr.status = 'active' " +
             "AND pr.startDate <= :date AND pr.endDate >= :date")
     Optional<PlanRegistration> findActivePlanAtDate(
             @Param("driverId") Integer driverId,
@@ -44,7 +44,7 @@ public interface PlanRegistrationRepository extends JpaRepository<PlanRegistrati
 
 
     @Query("SELECT pr FROM PlanRegistration pr WHERE pr.endDate < :today " +
-            "AND LOWER(pr.status) = 'active'")
+            "AND pr.status = 'active'")
     List<PlanRegistration> findExpiredPlans(@Param("today") LocalDate today);
 
     /**
@@ -53,7 +53,7 @@ public interface PlanRegistrationRepository extends JpaRepository<PlanRegistrati
      */
     @Query("SELECT pr.plan.id, pr.plan.planName, COUNT(pr) " +
             "FROM PlanRegistration pr " +
-            "WHERE LOWER(pr.status) = LOWER(:status) " +
+            "WHERE pr.status = :status " +
             "GROUP BY pr.plan.id, pr.plan.planName " +
             "ORDER BY COUNT(pr) DESC")
     List<Object[]> countByPlanAndStatus(@Param("status") String status);
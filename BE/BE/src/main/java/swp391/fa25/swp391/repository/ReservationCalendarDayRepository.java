@@ -0,0 +1,35 @@
+package swp391.fa25.swp391.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.entity.ReservationCalendarDay;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository cho RESERVATION_CALENDAR_DAY - mọi truy vấn là seek trên unique (CHARGING_POINT_ID, CALENDAR_DAY)
+ */
+@Repository
+public interface ReservationCalendarDayRepository extends JpaRepository<ReservationCalendarDay, Long> {
+
+    List<ReservationCalendarDay> findByChargingPointIdInAndDay(Collection<Integer> chargingPointIds, LocalDate day);
+
+    /**
+     * Đọc + khóa dòng của ngày để kiểm tra trùng và ghi bitmap trong cùng transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM ReservationCalendarDay d WHERE d.chargingPointId = :pointId AND d.day = :day")
+    Optional<ReservationCalendarDay> findForUpdate(@Param("pointId") Integer pointId, @Param("day") LocalDate day);
+
+    @Modifying
+    @Query("DELETE FROM ReservationCalendarDay d WHERE d.day < :day")
+    int deleteByDayBefore(@Param("day") LocalDate day);
+}
@@ -1,6 +1,9 @@
 package swp391.fa25.swp391.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,6 +13,7 @@ import swp391.fa25.swp391.entity.Reservation;
 
 import java.time.Instant;
 import java.time.LocalDateTime; // ⭐ IMPORT LocalDateTime
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,7 +25,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
         List<Reservation> findByStatusAndEndTimeBefore(String status, LocalDateTime endTime);
 
         // ⭐ Tìm reservations sắp hết hạn (trong 5 phút)
-        @Query("SELECT r FROM Reservation r WHERE LOWER(r.status) = 'active' " +
+        @Query("SELECT r FROM Reservation r WHERE r.status = 'active' " +
                 "AND r.endTime BETWEEN :now AND :fiveMinutesLater")
         List<Reservation> findExpiringReservations(
                 @Param("now") Instant now,
@@ -116,7 +120,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
      * (Overlapping reservations)
      */
     @Query("SELECT r FROM Reservation r WHERE r.chargingPoint.id = :chargingPointId " +
-            "AND LOWER(r.status) = 'active' " +
+            "AND r.status = 'active' " +
             "AND r.startTime < :endTime " +
             "AND r.endTime > :startTime")
     List<Reservation> findConflictingReservations(
@@ -130,7 +134,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
      */
     @Query("SELECT r FROM Reservation r WHERE r.driver.id = :driverId " +
             "AND r.startTime > :currentTime " +
-            "AND LOWER(r.status) = 'active' " +
+            "AND r.status = 'active' " +
             "ORDER BY r.startTime ASC")
     List<Reservation> findUpcomingReservationsByDriver(
             @Param("driverId") Integer driverId,
@@ -141,7 +145,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
      * Tìm reservation đang diễn ra của driver (ACTIVE và trong khoảng thời gian)
      */
     @Query("SELECT r FROM Reservation r WHERE r.driver.id = :driverId " +
-            "AND LOWER(r.status) = 'active' " +
+            "AND r.status = 'active' " +
             "AND r.startTime <= :currentTime " +
             "AND r.endTime >= :currentTime")
     Optional<Reservation> findActiveReservationByDriver(
@@ -153,7 +157,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
      * Tìm reservation đã quá hạn chưa hoàn thành
      */
     @Query("SELECT r FROM Reservation r WHERE r.endTime < :currentTime " +
-            "AND LOWER(r.status) = 'active'")
+            "AND r.status = 'active'")
     List<Reservation> findExpiredActiveReservations(@Param("currentTime") LocalDateTime currentTime);
 
     /**
@@ -194,7 +198,64 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("statuses") List<String> statuses
     );
 
+    // ========== SET-BASED EXPIRY ==========
+
+    /**
+     * [reservationId, chargerId, chargingPointId, stationId, statusHeld] của reservation status đã quá end_time
+     * (chỉ lấy id, seek trên IX_RESERVATION_STATUS_END; charger / point null nếu không có)
+     */
+    @Query("SELECT r.id, c.id, p.id, s.id, r.statusHeld FROM Reservation r " +
+            "LEFT JOIN r.charger c LEFT JOIN r.chargingPoint p LEFT JOIN p.station s " +
+            "WHERE r.endTime < :now AND r.status = :status")
+    List<Object[]> findExpiredTargets(@Param("now") LocalDateTime now, @Param("status") String status);
+
+    /**
+     * from → to cho các id còn ở trạng thái from và đã quá end_time. Trả về số dòng đổi
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.status = :to " +
+            "WHERE r.id IN :ids AND r.status = :from AND r.endTime < :now")
+    int expireByIds(@Param("ids") Collection<Long> ids,
+                    @Param("from") String from,
+                    @Param("to") String to,
+                    @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.id FROM Reservation r WHERE r.id IN :ids AND r.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    /**
+     * Đọc + khóa reservation: hủy và job giữ chỗ đặt trước không chạy chồng lên nhau
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reservation r WHERE r.id = :id")
+    Optional<Reservation> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Reservation status tới giờ check-in (start_time <= startBy), chưa hết hạn, chưa giữ charger / point
+     */
+    @Query("SELECT r.id FROM Reservation r WHERE r.status = :status " +
+            "AND r.startTime <= :startBy AND r.endTime > :now " +
+            "AND (r.statusHeld IS NULL OR r.statusHeld = false) " +
+            "ORDER BY r.startTime ASC")
+    List<Long> findIdsDueForHold(@Param("status") String status,
+                                 @Param("startBy") LocalDateTime startBy,
+                                 @Param("now") LocalDateTime now);
+
+    /**
+     * Reservation (theo các status) của nhiều point chồng lên khoảng [from, to) - dựng bitmap lịch đặt chỗ
+     */
+    @Query("SELECT r FROM Reservation r WHERE r.chargingPoint.id IN :pointIds " +
+            "AND r.status IN :statuses " +
+            "AND r.startTime < :to " +
+            "AND r.endTime > :from")
+    List<Reservation> findOverlappingForPoints(
+            @Param("pointIds") List<Integer> pointIds,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("statuses") List<String> statuses
+    );
+
     // ⭐ Tìm reservation đang active
-    @Query("SELECT r FROM Reservation r WHERE r.startTime <= :now AND r.endTime > :now AND r.status = 'CONFIRMED'")
+    @Query("SELECT r FROM Reservation r WHERE r.startTime <= :now AND r.endTime > :now AND r.status = 'active'")
     List<Reservation> findActiveReservations(@Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package swp391.fa25.swp391.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.entity.RevenueLedger;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueLedgerRepository extends JpaRepository<RevenueLedger, Long> {
+
+    /**
+     * ⭐ Cộng dồn vào 1 bucket có sẵn (1 câu UPDATE, không đọc trước)
+     * Trả về số dòng bị ảnh hưởng: 0 nghĩa là bucket chưa tồn tại
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RevenueLedger r SET r.totalAmount = r.totalAmount + :amount, " +
+            "r.invoiceCount = r.invoiceCount + :count, r.updatedAt = :now " +
+            "WHERE r.ledgerDate = :day AND r.facilityId = :facilityId " +
+            "AND r.planId = :planId AND r.status = :status")
+    int addToBucket(@Param("day") LocalDate day,
+                    @Param("facilityId") Integer facilityId,
+                    @Param("planId") Integer planId,
+                    @Param("status") String status,
+                    @Param("amount") BigDecimal amount,
+                    @Param("count") int count,
+                    @Param("now") Instant now);
+
+    /**
+     * Tổng doanh thu theo status (đọc từ ledger)
+     */
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM RevenueLedger r WHERE r.status = :status")
+    BigDecimal sumByStatus(@Param("status") String status);
+
+    /**
+     * Tổng doanh thu theo status trong khoảng ngày
+     */
+    @Query("SELECT COALESCE(SUM(r.totalAmount), 0) FROM RevenueLedger r " +
+            "WHERE r.status = :status AND r.ledgerDate BETWEEN :from AND :to")
+    BigDecimal sumByStatusAndDateRange(@Param("status") String status,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to);
+
+    /**
+     * Các dòng ledger trong khoảng ngày (cho dashboard theo ngày/facility/plan)
+     */
+    List<RevenueLedger> findByLedgerDateBetweenOrderByLedgerDateAsc(LocalDate from, LocalDate to);
+
+    /**
+     * Các dòng ledger của 1 facility trong khoảng ngày
+     */
+    List<RevenueLedger> findByFacilityIdAndLedgerDateBetweenOrderByLedgerDateAsc(
+            Integer facilityId, LocalDate from, LocalDate to);
+}
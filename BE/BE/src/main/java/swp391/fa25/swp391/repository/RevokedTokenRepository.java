@@ -0,0 +1,24 @@
+package swp391.fa25.swp391.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.entity.RevokedToken;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository cho REVOKED_TOKEN - chỉ đọc lúc dựng denylist, ghi khi logout
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int purgeExpired(@Param("now") Instant now);
+}
@@ -38,4 +38,11 @@ public interface StationEmployeeRepository extends JpaRepository<StationEmployee
 
     @Query("SELECT e FROM StationEmployee e WHERE e.facility.id = :facilityId AND (e.isDeleted = false OR e.isDeleted IS NULL)")
     List<StationEmployee> findByFacilityIdNotDeleted(Integer facilityId);
+
+    // ========== NOTIFICATION RECIPIENTS (chỉ lấy id) ==========
+    @Query("SELECT e.id FROM StationEmployee e WHERE e.facility.id = :facilityId AND (e.isDeleted = false OR e.isDeleted IS NULL)")
+    List<Integer> findIdsByFacilityIdNotDeleted(@Param("facilityId") Integer facilityId);
+
+    @Query("SELECT e.id FROM StationEmployee e WHERE (e.isDeleted = false OR e.isDeleted IS NULL)")
+    List<Integer> findAllIdsNotDeleted();
 }
\ No newline at end of file
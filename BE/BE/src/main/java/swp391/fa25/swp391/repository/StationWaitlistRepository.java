@@ -0,0 +1,82 @@
+package swp391.fa25.swp391.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.constants.WaitlistStatus;
+import swp391.fa25.swp391.entity.StationWaitlistEntry;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository cho STATION_WAITLIST - chuyển trạng thái bằng UPDATE có điều kiện (trả về số dòng đổi)
+ */
+@Repository
+public interface StationWaitlistRepository extends JpaRepository<StationWaitlistEntry, Long> {
+
+    /**
+     * Đầu hàng chờ của trạm (seek trên IX_STATION_WAITLIST_QUEUE)
+     */
+    Optional<StationWaitlistEntry> findFirstByStationIdAndStatusOrderByPriorityDescJoinedAtAsc(
+            Integer stationId, WaitlistStatus status);
+
+    List<StationWaitlistEntry> findByDriverIdAndStatusInOrderByJoinedAtDesc(
+            Integer driverId, Collection<WaitlistStatus> statuses);
+
+    boolean existsByDriverIdAndStationIdAndStatusIn(
+            Integer driverId, Integer stationId, Collection<WaitlistStatus> statuses);
+
+    /**
+     * Số lượt đang chờ đứng trước (priority cao hơn, hoặc cùng priority nhưng vào trước)
+     */
+    @Query("SELECT COUNT(w) FROM StationWaitlistEntry w WHERE w.stationId = :stationId AND w.status = :status " +
+            "AND (w.priority > :priority OR (w.priority = :priority AND w.joinedAt < :joinedAt))")
+    long countAhead(@Param("stationId") Integer stationId,
+                    @Param("status") WaitlistStatus status,
+                    @Param("priority") int priority,
+                    @Param("joinedAt") Instant joinedAt);
+
+    @Query("SELECT DISTINCT w.stationId FROM StationWaitlistEntry w WHERE w.status = :status")
+    List<Integer> findStationIdsWithStatus(@Param("status") WaitlistStatus status);
+
+    @Query("SELECT w.id FROM StationWaitlistEntry w WHERE w.status = :status AND w.offerExpiresAt <= :now")
+    List<Long> findIdsOfferExpiredBefore(@Param("status") WaitlistStatus status, @Param("now") Instant now);
+
+    /**
+     * WAITING → OFFERED, giữ charger đến expiresAt. 0 = lượt đã bị node khác offer / driver đã rời hàng
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StationWaitlistEntry w SET w.status = swp391.fa25.swp391.constants.WaitlistStatus.OFFERED, " +
+            "w.offeredChargerId = :chargerId, w.offeredAt = :now, w.offerExpiresAt = :expiresAt " +
+            "WHERE w.id = :id AND w.status = swp391.fa25.swp391.constants.WaitlistStatus.WAITING")
+    int claimOffer(@Param("id") Long id,
+                   @Param("chargerId") Integer chargerId,
+                   @Param("now") Instant now,
+                   @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * from → to nếu lượt còn ở trạng thái from. 0 = đã bị chốt / hết hạn trước đó
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StationWaitlistEntry w SET w.status = :to, w.closedAt = :now " +
+            "WHERE w.id = :id AND w.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") WaitlistStatus from,
+                   @Param("to") WaitlistStatus to,
+                   @Param("now") Instant now);
+
+    /**
+     * OFFERED → EXPIRED chỉ khi đã quá hạn giữ (timer chạy sớm / lệch giờ giữa node không làm hết hạn oan)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StationWaitlistEntry w SET w.status = swp391.fa25.swp391.constants.WaitlistStatus.EXPIRED, " +
+            "w.closedAt = :now " +
+            "WHERE w.id = :id AND w.status = swp391.fa25.swp391.constants.WaitlistStatus.OFFERED " +
+            "AND w.offerExpiresAt <= :now")
+    int expireOffer(@Param("id") Long id, @Param("now") Instant now);
+}
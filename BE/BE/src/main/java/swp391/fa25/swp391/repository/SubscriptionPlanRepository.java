@@ -1,8 +1,11 @@
 package swp391.fa25.swp391.repository;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.constants.CacheRegions;
 import swp391.fa25.swp391.entity.SubscriptionPlan;
 
 import java.util.List;
@@ -24,20 +27,28 @@ public interface SubscriptionPlanRepository extends JpaRepository<SubscriptionPl
     /**
      * ⭐ Tìm gói Basic cho targetUserType cụ thể
      */
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.SUBSCRIPTION_PLAN_QUERIES)})
     Optional<SubscriptionPlan> findByIsDefaultAndTargetUserType(Boolean isDefault, String targetUserType);
 
     /**
      * ⭐ Tìm tất cả gói theo targetUserType
      */
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.SUBSCRIPTION_PLAN_QUERIES)})
     List<SubscriptionPlan> findByTargetUserType(String targetUserType);
 
     // ========== SOFT DELETE METHODS ==========
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.SUBSCRIPTION_PLAN_QUERIES)})
     @Query("SELECT s FROM SubscriptionPlan s WHERE (s.isDeleted = false OR s.isDeleted IS NULL)")
     List<SubscriptionPlan> findAllNotDeleted();
 
     @Query("SELECT s FROM SubscriptionPlan s WHERE s.id = :id AND (s.isDeleted = false OR s.isDeleted IS NULL)")
     Optional<SubscriptionPlan> findByIdNotDeleted(Integer id);
 
+    @QueryHints({@QueryHint(name = CacheRegions.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = CacheRegions.HINT_CACHE_REGION, value = CacheRegions.SUBSCRIPTION_PLAN_QUERIES)})
     @Query("SELECT s FROM SubscriptionPlan s WHERE s.targetUserType = :targetUserType AND (s.isDeleted = false OR s.isDeleted IS NULL)")
     List<SubscriptionPlan> findByTargetUserTypeNotDeleted(String targetUserType);
 }
\ No newline at end of file
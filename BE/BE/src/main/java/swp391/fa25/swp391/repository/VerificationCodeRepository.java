@@ -0,0 +1,52 @@
+package swp391.fa25.swp391.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import swp391.fa25.swp391.constants.VerificationPurpose;
+import swp391.fa25.swp391.entity.VerificationCode;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository cho VERIFICATION_CODE - ghi / consume là 1 câu lệnh trên unique (PURPOSE, SUBJECT)
+ */
+@Repository
+public interface VerificationCodeRepository extends JpaRepository<VerificationCode, Integer> {
+
+    Optional<VerificationCode> findByPurposeAndSubject(VerificationPurpose purpose, String subject);
+
+    /**
+     * Phát lại mã cho subject đã có dòng. Trả về 0 nếu chưa có → INSERT.
+     */
+    @Modifying
+    @Query("UPDATE VerificationCode v SET v.code = :code, v.expiresAt = :expiresAt, v.createdAt = :now " +
+            "WHERE v.purpose = :purpose AND v.subject = :subject")
+    int reissue(@Param("purpose") VerificationPurpose purpose,
+                @Param("subject") String subject,
+                @Param("code") String code,
+                @Param("expiresAt") Instant expiresAt,
+                @Param("now") Instant now);
+
+    /**
+     * Xóa mã nếu đúng và còn hạn. Trả về 1 nếu request này là request dùng mã.
+     */
+    @Modifying
+    @Query("DELETE FROM VerificationCode v WHERE v.purpose = :purpose AND v.subject = :subject " +
+            "AND v.code = :code AND v.expiresAt > :now")
+    int consume(@Param("purpose") VerificationPurpose purpose,
+                @Param("subject") String subject,
+                @Param("code") String code,
+                @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM VerificationCode v WHERE v.purpose = :purpose AND v.subject = :subject")
+    int invalidate(@Param("purpose") VerificationPurpose purpose, @Param("subject") String subject);
+
+    @Modifying
+    @Query("DELETE FROM VerificationCode v WHERE v.expiresAt <= :now")
+    int purgeExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,89 @@
+package swp391.fa25.swp391.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.repository.AccountRepository;
+import swp391.fa25.swp391.service.CacheInvalidationBus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ⭐ Cache (token version, trạng thái) theo username cho JwtAuthenticationFilter
+ *
+ * Trạng thái ổn định: kiểm tra token không tốn query nào. Mọi thay đổi Account (khóa, đổi mật khẩu, xóa)
+ * đi qua CacheInvalidationListener → {@link CacheInvalidationBus} region ACCOUNTS → xóa entry trên mọi node,
+ * request kế tiếp đọc lại 1 dòng projection từ primary.
+ *
+ * Load qua computeIfAbsent: remove() của invalidation chờ load đang chạy xong rồi mới xóa,
+ * nên kết quả đọc trước khi thay đổi commit không thể ghi đè lên lần invalidation đó.
+ * Entry có TTL (security.account-state.ttl-ms) làm chốt chặn khi mất sự kiện invalidation.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountStateCache {
+
+    private static final String STATUS_LOCKED = "locked";
+
+    record State(Integer accountId, int tokenVersion, boolean usable, long loadedAtMs) {
+    }
+
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Map<String, State> stateByUsername = new ConcurrentHashMap<>();
+
+    @Value("${security.account-state.ttl-ms:300000}")
+    private long ttlMs;
+
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(CacheRegions.ACCOUNTS, event -> {
+            if (event.wholeRegion()) {
+                stateByUsername.clear();
+            } else {
+                stateByUsername.remove(event.key());
+            }
+        });
+    }
+
+    /**
+     * Token còn hiệu lực: account còn tồn tại, chưa xóa / khóa, đúng account id và token version
+     */
+    public boolean isCurrent(AuthenticatedPrincipal principal) {
+        State state = get(principal.getUsername());
+        return state != null
+                && state.usable()
+                && state.accountId().equals(principal.getAccountId())
+                && state.tokenVersion() == principal.getTokenVersion();
+    }
+
+    private State get(String username) {
+        State cached = stateByUsername.computeIfAbsent(username, this::load);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAtMs() > ttlMs) {
+            // Hết hạn: chỉ xóa đúng entry đã đọc (không xóa entry mới hơn vừa được load)
+            stateByUsername.remove(username, cached);
+            cached = stateByUsername.computeIfAbsent(username, this::load);
+        }
+        return cached;
+    }
+
+    /**
+     * null (account không tồn tại) thì computeIfAbsent không lưu gì
+     */
+    private State load(String username) {
+        // Transaction read-write → primary: vừa khóa account xong không được đọc trạng thái cũ từ replica
+        return transactionTemplate.execute(status -> accountRepository.findTokenStateByUsername(username)
+                .map(row -> new State(
+                        row.getId(),
+                        row.getTokenVersion() == null ? 0 : row.getTokenVersion(),
+                        !Boolean.TRUE.equals(row.getIsDeleted()) && !STATUS_LOCKED.equalsIgnoreCase(row.getStatus()),
+                        System.currentTimeMillis()))
+                .orElse(null));
+    }
+}
@@ -0,0 +1,89 @@
+package swp391.fa25.swp391.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import swp391.fa25.swp391.config.RateLimitProperties;
+import swp391.fa25.swp391.service.RateLimiter;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * ⭐ Rate limit cho /api/auth: mỗi endpoint gắn 1 policy, kiểm tra bucket theo IP rồi theo subject
+ *
+ * - login: subject = username (chặn dò mật khẩu 1 tài khoản từ nhiều IP)
+ * - register: subject = email
+ * - email-send: forgot-password, resend-verification (mỗi request gửi 1 email SMTP)
+ * - code-check: verify-email, verify-otp, reset-password (chặn dò mã 6 số)
+ * IP bị chặn thì không tiêu token của subject.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthRateLimiter {
+
+    public static final String LOGIN = "login";
+    public static final String REGISTER = "register";
+    public static final String EMAIL_SEND = "email-send";
+    public static final String CODE_CHECK = "code-check";
+
+    private static final int MAX_SUBJECT_LENGTH = 254;
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @return thời gian chờ nếu request vượt giới hạn, rỗng nếu được đi tiếp
+     */
+    public Optional<Duration> check(String policyName, HttpServletRequest request, String subject) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        RateLimitProperties.Policy policy = properties.getPolicies().get(policyName);
+        if (policy == null) {
+            return Optional.empty();
+        }
+
+        Optional<Duration> retryAfter = acquire(policyName, "ip", clientIp(request), policy.getPerIp());
+        if (retryAfter.isPresent()) {
+            return retryAfter;
+        }
+        return acquire(policyName, "subject", normalizeSubject(subject), policy.getPerSubject());
+    }
+
+    private Optional<Duration> acquire(String policyName, String scope, String value, RateLimitProperties.Limit limit) {
+        if (limit == null || value == null) {
+            return Optional.empty();
+        }
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(policyName + ":" + scope + ":" + value, limit);
+        if (decision.allowed()) {
+            return Optional.empty();
+        }
+        meterRegistry.counter("auth.ratelimit.rejected", "policy", policyName, "scope", scope).increment();
+        log.warn("Rate limit {} exceeded for {} {}", policyName, scope, value);
+        return Optional.of(decision.retryAfter());
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                return forwarded.split(",")[0].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static String normalizeSubject(String subject) {
+        if (subject == null || subject.isBlank()) {
+            return null;
+        }
+        String normalized = subject.trim().toLowerCase(Locale.ROOT);
+        return normalized.length() > MAX_SUBJECT_LENGTH ? normalized.substring(0, MAX_SUBJECT_LENGTH) : normalized;
+    }
+}
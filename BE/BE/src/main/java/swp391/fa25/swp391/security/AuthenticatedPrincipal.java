@@ -0,0 +1,58 @@
+package swp391.fa25.swp391.security;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ⭐ Người gọi đã xác thực, dựng hoàn toàn từ claim của JWT (không query DB)
+ *
+ * Controller nhận qua @AuthenticationPrincipal AuthenticatedPrincipal (hoặc UserDetails như cũ),
+ * service lấy qua {@link #current()}. Id theo vai trò (driverId / employeeId / adminId, facilityId của employee)
+ * được resolve 1 lần lúc cấp token bởi {@link PrincipalResolver}.
+ */
+@Getter
+@Builder
+public class AuthenticatedPrincipal implements UserDetails {
+
+    private final Integer accountId;
+    private final String username;
+    private final String role;
+    private final Integer driverId;
+    private final Integer employeeId;
+    private final Integer adminId;
+    private final Integer facilityId;
+    private final int tokenVersion;
+    private final String tokenId;     // jti - thu hồi riêng token này khi logout
+    private final Instant expiresAt;  // hạn của token → giữ trong denylist tới lúc này
+
+    /**
+     * Principal của request hiện tại (rỗng nếu chưa đăng nhập / không phải JWT)
+     */
+    public static Optional<AuthenticatedPrincipal> current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedPrincipal principal) {
+            return Optional.of(principal);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + (role == null ? "" : role.toUpperCase())));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+}
@@ -7,42 +7,40 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
-
+/**
+ * ⭐ Xác thực Bearer JWT: principal dựng từ claim, không load Account.
+ * Token bị thu hồi bị loại không query DB: cả account (khóa / xóa, tăng token version) qua {@link AccountStateCache},
+ * riêng 1 token (logout) qua {@link TokenDenylist}.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider tokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final AccountStateCache accountStateCache;
+    private final TokenDenylist tokenDenylist;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-            String jwt = getJwtFromRequest(request);
-
-            if (jwt != null && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = null;
-                try {
-                    userDetails = userDetailsService.loadUserByUsername(username);
-                } catch (java.lang.Exception e) {
-                    throw new RuntimeException(e);
-                }
-
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
-
+        String jwt = getJwtFromRequest(request);
+
+        if (jwt != null) {
+            tokenProvider.parsePrincipal(jwt)
+                    .filter(principal -> !tokenDenylist.isRevoked(principal.getTokenId()))
+                    .filter(accountStateCache::isCurrent)
+                    .ifPresent(principal -> {
+                        UsernamePasswordAuthenticationToken authentication =
+                                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    });
+        }
 
         filterChain.doFilter(request, response);
     }
@@ -1,4 +1,3 @@
-
 package swp391.fa25.swp391.security;
 
 import io.jsonwebtoken.*;
@@ -10,58 +9,124 @@ import swp391.fa25.swp391.entity.Account;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
+/**
+ * ⭐ Cấp / đọc JWT
+ *
+ * Token mang claim gọn để dựng {@link AuthenticatedPrincipal} không cần DB:
+ * aid (account id), role, did (driver), eid (employee), adm (admin), fid (facility của employee), tv (token version).
+ * jti (UUID) để logout thu hồi riêng 1 token qua {@link TokenDenylist}.
+ * Token cũ không có aid bị từ chối → đăng nhập lại để nhận token mới.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtTokenProvider {
 
+    private static final String CLAIM_ACCOUNT_ID = "aid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_DRIVER_ID = "did";
+    private static final String CLAIM_EMPLOYEE_ID = "eid";
+    private static final String CLAIM_ADMIN_ID = "adm";
+    private static final String CLAIM_FACILITY_ID = "fid";
+    private static final String CLAIM_TOKEN_VERSION = "tv";
+
     private final JwtConfig jwtConfig;
+    private final PrincipalResolver principalResolver;
+
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
 
     public String generateToken(Account account) {
+        return generateToken(principalResolver.resolve(account));
+    }
+
+    public String generateToken(AuthenticatedPrincipal principal) {
         Date now = new Date();
         long expirationTimeMs = jwtConfig.getExpirationMs();
         Date expiryDate = new Date(now.getTime() + expirationTimeMs);
 
-        // Create a secure key with proper length for HS512
-        SecretKey key = Keys.hmacShaKeyFor(
-                jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8)
-        );
-
-        return Jwts.builder()
-                .setSubject(account.getUsername())
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(principal.getUsername())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(key, SignatureAlgorithm.HS512)
-                .compact();
+                .claim(CLAIM_ACCOUNT_ID, principal.getAccountId())
+                .claim(CLAIM_ROLE, principal.getRole())
+                .claim(CLAIM_TOKEN_VERSION, principal.getTokenVersion());
+        // Chỉ ghi id có giá trị để token ngắn
+        if (principal.getDriverId() != null) {
+            builder.claim(CLAIM_DRIVER_ID, principal.getDriverId());
+        }
+        if (principal.getEmployeeId() != null) {
+            builder.claim(CLAIM_EMPLOYEE_ID, principal.getEmployeeId());
+        }
+        if (principal.getAdminId() != null) {
+            builder.claim(CLAIM_ADMIN_ID, principal.getAdminId());
+        }
+        if (principal.getFacilityId() != null) {
+            builder.claim(CLAIM_FACILITY_ID, principal.getFacilityId());
+        }
+        return builder.signWith(signingKey(), SignatureAlgorithm.HS512).compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(
-                jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8)
-        );
+    /**
+     * Kiểm tra chữ ký + hạn và dựng principal từ claim (1 lần parse)
+     * @return rỗng nếu token sai / hết hạn / thiếu claim
+     */
+    public Optional<AuthenticatedPrincipal> parsePrincipal(String token) {
+        Claims claims;
+        try {
+            claims = parser().parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
 
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Integer accountId = claims.get(CLAIM_ACCOUNT_ID, Integer.class);
+        if (accountId == null || claims.getSubject() == null) {
+            return Optional.empty();
+        }
+        Integer tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        return Optional.of(AuthenticatedPrincipal.builder()
+                .accountId(accountId)
+                .username(claims.getSubject())
+                .role(claims.get(CLAIM_ROLE, String.class))
+                .driverId(claims.get(CLAIM_DRIVER_ID, Integer.class))
+                .employeeId(claims.get(CLAIM_EMPLOYEE_ID, Integer.class))
+                .adminId(claims.get(CLAIM_ADMIN_ID, Integer.class))
+                .facilityId(claims.get(CLAIM_FACILITY_ID, Integer.class))
+                .tokenVersion(tokenVersion == null ? 0 : tokenVersion)
+                .tokenId(claims.getId())
+                .expiresAt(claims.getExpiration() == null ? null : claims.getExpiration().toInstant())
+                .build());
+    }
 
-        return claims.getSubject();
+    public String getUsernameFromToken(String token) {
+        return parser().parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(
-                    jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8)
-            );
-
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+            parser().parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // Key + parser dựng 1 lần thay vì mỗi request
+    private SecretKey signingKey() {
+        if (signingKey == null) {
+            signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+        }
+        return signingKey;
+    }
+
+    private JwtParser parser() {
+        if (parser == null) {
+            parser = Jwts.parserBuilder().setSigningKey(signingKey()).build();
+        }
+        return parser;
+    }
+}
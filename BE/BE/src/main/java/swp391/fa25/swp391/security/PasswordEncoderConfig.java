@@ -1,15 +1,52 @@
-
 package swp391.fa25.swp391.security;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+/**
+ * ⭐ BCrypt chạy trên pool riêng ({@link BoundedPasswordEncoder}), cost chọn theo latency mục tiêu
+ *
+ * Hash cũ có cost thấp hơn cost hiện tại được băm lại khi đăng nhập đúng
+ * (DaoAuthenticationProvider + {@link PasswordUpgradeService}).
+ */
+@Slf4j
 @Configuration
 public class PasswordEncoderConfig{
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        int strength = properties.getStrength() > 0 ? properties.getStrength() : calibrateStrength(properties);
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        Gauge.builder("password.hash.strength", () -> strength).register(meterRegistry);
+        log.info("Password hashing: BCrypt strength {}, {} threads, queue {}", strength, threads, properties.getQueueCapacity());
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads,
+                properties.getQueueCapacity(), properties.getWaitTimeoutMs(), meterRegistry);
+    }
+
+    /**
+     * Cost cao nhất có thời gian băm ≤ target-ms trên máy này.
+     * Mỗi bậc cost gấp đôi thời gian → dừng ngay khi vượt mục tiêu, tổng thời gian đo < 2 × target-ms.
+     */
+    private int calibrateStrength(PasswordHashingProperties properties) {
+        int chosen = properties.getMinStrength();
+        String sample = "calibration-password";
+        new BCryptPasswordEncoder(4).encode(sample); // warm-up JIT
+        for (int strength = properties.getMinStrength(); strength <= properties.getMaxStrength(); strength++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+            long start = System.nanoTime();
+            encoder.encode(sample);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMs > properties.getTargetMs()) {
+                break;
+            }
+            chosen = strength;
+        }
+        return chosen;
     }
-}
\ No newline at end of file
+}
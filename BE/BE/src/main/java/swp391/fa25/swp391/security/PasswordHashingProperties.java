@@ -0,0 +1,28 @@
+package swp391.fa25.swp391.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cấu hình băm mật khẩu (password.hashing.*)
+ *
+ * strength > 0 → dùng cố định; 0 → lúc khởi động đo BCrypt và chọn cost cao nhất còn băm được
+ * trong target-ms (giới hạn trong [min-strength, max-strength]).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "password.hashing")
+@Data
+public class PasswordHashingProperties {
+    private int strength = 0;
+    private long targetMs = 250;
+    private int minStrength = 10;
+    private int maxStrength = 14;
+
+    // 0 = một nửa số core: phần còn lại dành cho request khác khi login dồn dập
+    private int threads = 0;
+    private int queueCapacity = 64;
+
+    // Chờ quá lâu trong hàng đợi → từ chối thay vì giữ request thread
+    private long waitTimeoutMs = 5000;
+}
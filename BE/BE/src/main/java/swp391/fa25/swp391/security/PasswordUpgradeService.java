@@ -0,0 +1,35 @@
+package swp391.fa25.swp391.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import swp391.fa25.swp391.entity.Account;
+import swp391.fa25.swp391.repository.AccountRepository;
+
+/**
+ * ⭐ Lưu hash mới khi DaoAuthenticationProvider thấy hash cũ có cost thấp hơn cost hiện tại
+ *
+ * Chỉ chạy sau khi mật khẩu đã khớp → cùng mật khẩu, chỉ đổi hash: không tăng token version,
+ * token đang dùng vẫn hợp lệ.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PasswordUpgradeService implements UserDetailsPasswordService {
+
+    private final AccountRepository accountRepository;
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Account account = accountRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new IllegalStateException("Account not found: " + user.getUsername()));
+        account.setPassword(newPassword);
+        accountRepository.save(account);
+        log.info("Password hash upgraded for {}", user.getUsername());
+        return new CustomUserDetails(account);
+    }
+}
@@ -0,0 +1,165 @@
+package swp391.fa25.swp391.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.entity.RevokedToken;
+import swp391.fa25.swp391.repository.RevokedTokenRepository;
+import swp391.fa25.swp391.service.CacheInvalidationBus;
+import swp391.fa25.swp391.service.ClusterJobService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ⭐ Denylist các JWT bị thu hồi riêng lẻ (logout) - kiểm tra mỗi request không query DB
+ *
+ * - isRevoked: bloom filter trả "không có" cho gần như mọi token (vài chục ns, không cấp phát),
+ *   chỉ khi bloom báo "có thể có" mới tra tập chính xác jti → hạn
+ * - revoke: INSERT REVOKED_TOKEN; sau commit mới thêm vào denylist local + publish region REVOKED_TOKENS
+ *   (key jti@expiresAtMs) → node khác thêm vào denylist
+ * - khởi động: dựng lại từ các dòng REVOKED_TOKEN chưa hết hạn
+ * - định kỳ: bỏ jti đã hết hạn, dựng bloom filter mới (bloom không xóa được phần tử)
+ *
+ * Thu hồi toàn bộ token của 1 account (khóa, đổi mật khẩu, suspend, logout mọi thiết bị) dùng token version
+ * ({@link AccountStateCache}), không qua denylist.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenDenylist {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final ClusterJobService clusterJobService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.denylist.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${jwt.denylist.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private final Map<String, Long> expiresAtByJti = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        invalidationBus.subscribe(CacheRegions.REVOKED_TOKENS, event -> {
+            if (!event.wholeRegion()) {
+                addFromKey(event.key());
+            }
+        });
+
+        List<RevokedToken> rows = transactionTemplate.execute(status ->
+                revokedTokenRepository.findByExpiresAtAfter(Instant.now()));
+        if (rows != null) {
+            rows.forEach(row -> add(row.getJti(), row.getExpiresAt().toEpochMilli()));
+        }
+        Gauge.builder("auth.token.denylist.size", expiresAtByJti, Map::size).register(meterRegistry);
+        log.info("Token denylist loaded: {} revoked tokens", expiresAtByJti.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && filter.mightContain(jti) && expiresAtByJti.containsKey(jti);
+    }
+
+    /**
+     * Thu hồi token của request hiện tại (logout). Token không có jti / hạn thì bỏ qua.
+     */
+    @Transactional
+    public void revoke(AuthenticatedPrincipal principal) {
+        String jti = principal.getTokenId();
+        Instant expiresAt = principal.getExpiresAt();
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+
+        RevokedToken row = new RevokedToken();
+        row.setJti(jti);
+        row.setAccountId(principal.getAccountId());
+        row.setExpiresAt(expiresAt);
+        row.setRevokedAt(Instant.now());
+        revokedTokenRepository.save(row);
+
+        // Rollback thì token vẫn hợp lệ → chỉ chặn trên node này khi dòng REVOKED_TOKEN đã commit
+        long expiresAtMs = expiresAt.toEpochMilli();
+        afterCommit(() -> add(jti, expiresAtMs));
+        invalidationBus.publish(CacheRegions.REVOKED_TOKENS, jti + "@" + expiresAtMs);
+    }
+
+    /**
+     * Bỏ jti đã hết hạn khỏi bộ nhớ (mọi node) và xóa dòng hết hạn trong DB (1 node / lần)
+     */
+    @Scheduled(fixedDelayString = "${jwt.denylist.purge-interval-ms:600000}",
+            initialDelayString = "${jwt.denylist.purge-interval-ms:600000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        if (expiresAtByJti.values().removeIf(expiresAtMs -> expiresAtMs <= now)) {
+            rebuildFilter();
+        }
+
+        clusterJobService.runExclusive("token.denylist.purge", Duration.ofMinutes(5), Duration.ofMinutes(1), () -> {
+            Integer deleted = transactionTemplate.execute(status -> revokedTokenRepository.purgeExpired(Instant.now()));
+            if (deleted != null && deleted > 0) {
+                log.info("Token denylist purge: {} expired rows deleted", deleted);
+            }
+        });
+    }
+
+    private void addFromKey(String key) {
+        int separator = key.lastIndexOf('@');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            add(key.substring(0, separator), Long.parseLong(key.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed revoked token event: {}", key);
+        }
+    }
+
+    // Ghi (hiếm) đi qua lock để không lọt phần tử khi đang dựng filter mới; đọc không lock
+    private synchronized void add(String jti, long expiresAtMs) {
+        if (expiresAtMs <= System.currentTimeMillis()) {
+            return;
+        }
+        if (expiresAtByJti.put(jti, expiresAtMs) == null) {
+            filter.put(jti);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private synchronized void rebuildFilter() {
+        BloomFilter next = new BloomFilter(Math.max(expectedEntries, expiresAtByJti.size() * 2), falsePositiveRate);
+        expiresAtByJti.keySet().forEach(next::put);
+        filter = next;
+    }
+}
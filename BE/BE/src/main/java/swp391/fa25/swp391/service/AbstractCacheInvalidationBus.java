@@ -0,0 +1,138 @@
+package swp391.fa25.swp391.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * ⭐ Phần chung của các bus: đăng ký handler, phát sau commit, metric
+ *
+ * Metric:
+ * - cache.invalidation.events{region, direction=published|applied}
+ * - cache.invalidation.convergence{region, transport}: từ lúc node gốc publish tới lúc node này áp dụng
+ *   (dùng đồng hồ của 2 node - độ lệch đồng hồ cộng thẳng vào số đo)
+ */
+@Slf4j
+public abstract class AbstractCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final String nodeId;
+    private final String transport;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, List<Consumer<Event>>> handlers = new ConcurrentHashMap<>();
+
+    protected AbstractCacheInvalidationBus(String nodeId, String transport, MeterRegistry meterRegistry) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Gửi sự kiện cho các node khác
+     */
+    protected abstract void send(List<Event> events);
+
+    /**
+     * true: send() chạy trong transaction của caller (change log commit/rollback cùng dữ liệu)
+     * false: send() chạy sau commit
+     */
+    protected abstract boolean sendsWithinTransaction();
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(String region, String key) {
+        publishAll(List.of(new Event(region, key, nodeId, Instant.now(), false)));
+    }
+
+    @Override
+    public void publish(String region, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Event> events = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            events.add(new Event(region, key, nodeId, now, false));
+        }
+        publishAll(events);
+    }
+
+    @Override
+    public void subscribe(String region, Consumer<Event> handler) {
+        handlers.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    private void publishAll(List<Event> events) {
+        events.forEach(event -> counter(event.region(), "published").increment());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(events);
+            events.forEach(this::dispatch);
+            return;
+        }
+        if (sendsWithinTransaction()) {
+            send(events);
+        }
+        // Chỉ xóa cache local sau commit: xóa sớm hơn thì request khác kịp nạp lại dữ liệu cũ
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (!sendsWithinTransaction()) {
+                    send(events);
+                }
+                events.forEach(AbstractCacheInvalidationBus.this::dispatch);
+            }
+        });
+    }
+
+    /**
+     * Transport gọi khi nhận sự kiện từ node khác
+     */
+    protected void receive(Event event) {
+        if (nodeId.equals(event.originNode())) {
+            return;
+        }
+        Duration lag = Duration.between(event.publishedAt(), Instant.now());
+        Timer.builder("cache.invalidation.convergence")
+                .description("Thời gian từ lúc publish trên node gốc tới lúc node nhận áp dụng")
+                .tag("region", event.region())
+                .tag("transport", transport)
+                .register(meterRegistry)
+                .record(lag.isNegative() ? Duration.ZERO : lag);
+        counter(event.region(), "applied").increment();
+        dispatch(event.asRemote());
+    }
+
+    private void dispatch(Event event) {
+        for (Consumer<Event> handler : handlers.getOrDefault(event.region(), List.of())) {
+            try {
+                handler.accept(event);
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation handler failed for {} key {}", event.region(), event.key(), e);
+            }
+        }
+    }
+
+    private Counter counter(String region, String direction) {
+        return Counter.builder("cache.invalidation.events")
+                .description("Số sự kiện invalidation đã publish / đã áp dụng từ node khác")
+                .tag("region", region)
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
@@ -113,6 +113,7 @@ public class AccountService implements IAccountService {
         Account account = accountOpt.get();
         account.setIsDeleted(true);
         account.setDeletedAt(java.time.Instant.now());
+        account.revokeTokens();
         
         // Lấy username của người thực hiện xóa
         org.springframework.security.core.Authentication auth = 
@@ -137,6 +138,7 @@ public class AccountService implements IAccountService {
         Account account = accountOpt.get();
         account.setIsDeleted(true);
         account.setDeletedAt(java.time.Instant.now());
+        account.revokeTokens();
         
         // Lấy username của người thực hiện xóa
         org.springframework.security.core.Authentication auth = 
@@ -0,0 +1,398 @@
+package swp391.fa25.swp391.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ⭐ Analytics cube in-memory, lưu theo cột (column vectors)
+ *
+ * Mỗi cell = 1 tổ hợp (facility, station, day, plan, status), các dimension và measure
+ * được lưu trong mảng primitive song song, index bởi số thứ tự cell.
+ * Status được mã hóa qua dictionary (String → int). Day = epochDay của startTime.
+ * kWh / revenue / penalty lưu dạng long theo đơn vị 0.01 (cùng scale với cột DB) để cộng trừ không lệch.
+ *
+ * Idempotent theo session: bitset {@code counted} / {@code billed} (index = session id) đảm bảo 1 session
+ * chỉ được cộng 1 lần và chỉ chuyển plan 1 lần, dù đến từ replay, catch-up hay delta sau commit.
+ * {@code replayFromEnd}: mọi session có endTime trước mốc này đã commit và đã nằm trong cube → replay chỉ cần đọc
+ * session có endTime >= mốc (theo thời điểm kết thúc, không theo id: sequence pooled cấp id không theo thứ tự commit).
+ *
+ * Thread-safe: ghi lấy write lock, query/snapshot lấy read lock.
+ * Không phải Spring bean - được quản lý bởi {@link AnalyticsCubeService}.
+ */
+public class AnalyticsCube {
+
+    public enum Dimension { FACILITY, STATION, DAY, PLAN, STATUS }
+
+    public static final int UNBILLED_PLAN = 0;
+
+    /**
+     * Điều kiện slice/dice (null = không lọc)
+     */
+    public record Filter(Integer facilityId, Integer stationId, Integer planId, String status,
+                         LocalDate from, LocalDate to) {
+    }
+
+    /**
+     * 1 dòng kết quả sau roll-up: dims chỉ chứa các dimension được group
+     */
+    public record Row(Map<Dimension, Object> dims, long sessions, BigDecimal kwh, BigDecimal revenue,
+                      BigDecimal penalty, double avgDurationSeconds) {
+    }
+
+    /**
+     * 1 session đã kết thúc; kwh / revenue / penalty theo đơn vị 0.01
+     */
+    public record Fact(int sessionId, int facilityId, int stationId, LocalDate day, String status,
+                       long kwh, long revenue, long penalty, long durationSeconds) {
+    }
+
+    private record CellKey(int facility, int station, int day, int plan, int status) {
+    }
+
+    private static final int SNAPSHOT_MAGIC = 0x45564342; // "EVCB"
+    private static final int SNAPSHOT_VERSION = 3;
+    private static final int MEASURE_SCALE = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<CellKey, Integer> cellIndex = new HashMap<>();
+    private final List<String> statusDictionary = new ArrayList<>();
+    private final Map<String, Integer> statusCodes = new HashMap<>();
+
+    private int size;
+    // Dimension columns
+    private int[] facility = new int[INITIAL_CAPACITY];
+    private int[] station = new int[INITIAL_CAPACITY];
+    private int[] day = new int[INITIAL_CAPACITY];
+    private int[] plan = new int[INITIAL_CAPACITY];
+    private int[] status = new int[INITIAL_CAPACITY];
+    // Measure columns
+    private long[] sessions = new long[INITIAL_CAPACITY];
+    private long[] durationSeconds = new long[INITIAL_CAPACITY];
+    private long[] kwh = new long[INITIAL_CAPACITY];
+    private long[] revenue = new long[INITIAL_CAPACITY];
+    private long[] penalty = new long[INITIAL_CAPACITY];
+
+    // Session đã được cộng / đã chuyển sang plan của invoice
+    private final BitSet counted = new BitSet();
+    private final BitSet billed = new BitSet();
+    // Replay sau khi load snapshot đọc lại các session có endTime >= mốc này (null = chưa load lần nào)
+    private LocalDateTime replayFromEnd;
+
+    // ==================== WRITE ====================
+
+    /**
+     * Cộng session đã kết thúc vào cell của planId. Trả về false nếu session đã được cộng trước đó
+     */
+    public boolean addSession(Fact fact, int planId) {
+        lock.writeLock().lock();
+        try {
+            if (counted.get(fact.sessionId())) {
+                return false;
+            }
+            add(fact, planId, 1);
+            counted.set(fact.sessionId());
+            if (planId != UNBILLED_PLAN) {
+                billed.set(fact.sessionId());
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Chuyển session từ plan 0 (chưa bill) sang planId. Bỏ qua nếu session chưa được cộng
+     * (replay / catch-up sau sẽ cộng thẳng vào plan đúng) hoặc đã được chuyển rồi
+     */
+    public boolean billSession(Fact fact, int planId) {
+        lock.writeLock().lock();
+        try {
+            if (planId == UNBILLED_PLAN || !counted.get(fact.sessionId()) || billed.get(fact.sessionId())) {
+                return false;
+            }
+            add(fact, UNBILLED_PLAN, -1);
+            add(fact, planId, 1);
+            billed.set(fact.sessionId());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public LocalDateTime getReplayFromEnd() {
+        lock.readLock().lock();
+        try {
+            return replayFromEnd;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gọi sau khi đã đọc hết session có endTime >= replayFromEnd: mọi session kết thúc trước nextEnd đã nằm trong cube
+     */
+    public void advanceReplayFromEnd(LocalDateTime nextEnd) {
+        lock.writeLock().lock();
+        try {
+            if (replayFromEnd == null || nextEnd.isAfter(replayFromEnd)) {
+                replayFromEnd = nextEnd;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int cellCount() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== QUERY (slice / dice / roll-up) ====================
+
+    public List<Row> query(Filter filter, Set<Dimension> groupBy) {
+        EnumSet<Dimension> dims = groupBy.isEmpty() ? EnumSet.noneOf(Dimension.class) : EnumSet.copyOf(groupBy);
+
+        lock.readLock().lock();
+        try {
+            Integer statusCode = null;
+            if (filter.status() != null) {
+                statusCode = statusCodes.get(filter.status().toLowerCase());
+                if (statusCode == null) {
+                    return List.of();
+                }
+            }
+            int fromDay = filter.from() != null ? (int) filter.from().toEpochDay() : Integer.MIN_VALUE;
+            int toDay = filter.to() != null ? (int) filter.to().toEpochDay() : Integer.MAX_VALUE;
+
+            // Accumulator: [sessions, durationSeconds, kwh, revenue, penalty]
+            Map<List<Integer>, long[]> sums = new LinkedHashMap<>();
+
+            for (int i = 0; i < size; i++) {
+                if (filter.facilityId() != null && facility[i] != filter.facilityId()) continue;
+                if (filter.stationId() != null && station[i] != filter.stationId()) continue;
+                if (filter.planId() != null && plan[i] != filter.planId()) continue;
+                if (statusCode != null && status[i] != statusCode) continue;
+                if (day[i] < fromDay || day[i] > toDay) continue;
+
+                List<Integer> key = groupKey(i, dims);
+                long[] s = sums.computeIfAbsent(key, k -> new long[5]);
+                s[0] += sessions[i];
+                s[1] += durationSeconds[i];
+                s[2] += kwh[i];
+                s[3] += revenue[i];
+                s[4] += penalty[i];
+            }
+
+            List<Row> rows = new ArrayList<>(sums.size());
+            for (Map.Entry<List<Integer>, long[]> entry : sums.entrySet()) {
+                long[] s = entry.getValue();
+                rows.add(new Row(decodeKey(entry.getKey(), dims), s[0], fromUnits(s[2]), fromUnits(s[3]),
+                        fromUnits(s[4]), s[0] > 0 ? (double) s[1] / s[0] : 0.0));
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeBoolean(replayFromEnd != null);
+            if (replayFromEnd != null) {
+                out.writeLong(replayFromEnd.toEpochSecond(ZoneOffset.UTC));
+            }
+            writeBits(out, counted);
+            writeBits(out, billed);
+
+            out.writeInt(statusDictionary.size());
+            for (String value : statusDictionary) {
+                out.writeUTF(value);
+            }
+
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(facility[i]);
+                out.writeInt(station[i]);
+                out.writeInt(day[i]);
+                out.writeInt(plan[i]);
+                out.writeInt(status[i]);
+                out.writeLong(sessions[i]);
+                out.writeLong(durationSeconds[i]);
+                out.writeLong(kwh[i]);
+                out.writeLong(revenue[i]);
+                out.writeLong(penalty[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static AnalyticsCube readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported analytics cube snapshot");
+        }
+        AnalyticsCube cube = new AnalyticsCube();
+
+        if (in.readBoolean()) {
+            cube.replayFromEnd = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+        }
+        cube.counted.or(readBits(in));
+        cube.billed.or(readBits(in));
+
+        int dictionarySize = in.readInt();
+        for (int i = 0; i < dictionarySize; i++) {
+            cube.encodeStatus(in.readUTF());
+        }
+
+        int cells = in.readInt();
+        for (int i = 0; i < cells; i++) {
+            int cell = cube.cellFor(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            cube.sessions[cell] = in.readLong();
+            cube.durationSeconds[cell] = in.readLong();
+            cube.kwh[cell] = in.readLong();
+            cube.revenue[cell] = in.readLong();
+            cube.penalty[cell] = in.readLong();
+        }
+        return cube;
+    }
+
+    private static void writeBits(DataOutputStream out, BitSet bits) throws IOException {
+        long[] words = bits.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    private static BitSet readBits(DataInputStream in) throws IOException {
+        long[] words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        return BitSet.valueOf(words);
+    }
+
+    // ==================== MEASURE UNITS ====================
+
+    /**
+     * BigDecimal → số nguyên đơn vị 0.01 (null = 0)
+     */
+    public static long toUnits(BigDecimal value) {
+        return value != null ? value.setScale(MEASURE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0L;
+    }
+
+    private static BigDecimal fromUnits(long units) {
+        return BigDecimal.valueOf(units, MEASURE_SCALE);
+    }
+
+    // ==================== HELPERS (gọi khi đang giữ write lock) ====================
+
+    private void add(Fact fact, int planId, int sign) {
+        int cell = cellFor(fact.facilityId(), fact.stationId(), (int) fact.day().toEpochDay(), planId,
+                encodeStatus(fact.status()));
+        sessions[cell] += sign;
+        kwh[cell] += sign * fact.kwh();
+        revenue[cell] += sign * fact.revenue();
+        penalty[cell] += sign * fact.penalty();
+        durationSeconds[cell] += sign * fact.durationSeconds();
+    }
+
+    private int cellFor(int facilityId, int stationId, int epochDay, int planId, int statusCode) {
+        CellKey key = new CellKey(facilityId, stationId, epochDay, planId, statusCode);
+        Integer existing = cellIndex.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == facility.length) {
+            grow();
+        }
+        int cell = size++;
+        facility[cell] = facilityId;
+        station[cell] = stationId;
+        day[cell] = epochDay;
+        plan[cell] = planId;
+        status[cell] = statusCode;
+        cellIndex.put(key, cell);
+        return cell;
+    }
+
+    private int encodeStatus(String value) {
+        String normalized = value == null ? "unknown" : value.toLowerCase();
+        Integer code = statusCodes.get(normalized);
+        if (code == null) {
+            code = statusDictionary.size();
+            statusDictionary.add(normalized);
+            statusCodes.put(normalized, code);
+        }
+        return code;
+    }
+
+    private void grow() {
+        int capacity = facility.length * 2;
+        facility = Arrays.copyOf(facility, capacity);
+        station = Arrays.copyOf(station, capacity);
+        day = Arrays.copyOf(day, capacity);
+        plan = Arrays.copyOf(plan, capacity);
+        status = Arrays.copyOf(status, capacity);
+        sessions = Arrays.copyOf(sessions, capacity);
+        durationSeconds = Arrays.copyOf(durationSeconds, capacity);
+        kwh = Arrays.copyOf(kwh, capacity);
+        revenue = Arrays.copyOf(revenue, capacity);
+        penalty = Arrays.copyOf(penalty, capacity);
+    }
+
+    private List<Integer> groupKey(int cell, Set<Dimension> dims) {
+        List<Integer> key = new ArrayList<>(dims.size());
+        for (Dimension dimension : dims) {
+            key.add(switch (dimension) {
+                case FACILITY -> facility[cell];
+                case STATION -> station[cell];
+                case DAY -> day[cell];
+                case PLAN -> plan[cell];
+                case STATUS -> status[cell];
+            });
+        }
+        return key;
+    }
+
+    private Map<Dimension, Object> decodeKey(List<Integer> key, Set<Dimension> dims) {
+        Map<Dimension, Object> decoded = new LinkedHashMap<>();
+        int position = 0;
+        for (Dimension dimension : dims) {
+            int value = key.get(position++);
+            decoded.put(dimension, switch (dimension) {
+                case DAY -> LocalDate.ofEpochDay(value);
+                case STATUS -> statusDictionary.get(value);
+                default -> value;
+            });
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,289 @@
+package swp391.fa25.swp391.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import swp391.fa25.swp391.entity.ChargingPoint;
+import swp391.fa25.swp391.entity.ChargingSession;
+import swp391.fa25.swp391.entity.Invoice;
+import swp391.fa25.swp391.repository.ChargingSessionArchiveRepository;
+import swp391.fa25.swp391.repository.ChargingSessionRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * ⭐ Quản lý vòng đời analytics cube
+ *
+ * - Khởi động: load snapshot từ đĩa rồi replay các session có endTime >= replayFromEnd của snapshot
+ *   (mốc = thời điểm đọc trừ replay-margin: session kết thúc trước mốc nhưng commit trễ vẫn được đọc lại;
+ *   không theo id vì sequence pooled mỗi node 1 block → id commit không theo thứ tự);
+ *   không có snapshot thì rebuild từ DB.
+ * - Cập nhật tăng dần SAU KHI transaction commit: session kết thúc (plan = 0, chưa bill),
+ *   invoice được tạo (chuyển các session từ plan 0 sang planAtBilling).
+ *   Cube idempotent theo session id nên replay / catch-up / delta chồng lên nhau không bị cộng 2 lần.
+ * - Trong lúc rebuild / load, delta vẫn vào cube cũ và được ghi lại để áp lên cube mới trước khi swap.
+ * - Snapshot định kỳ (catch-up từ DB trước khi ghi), rebuild toàn bộ mỗi đêm để sửa lệch
+ *   (vd: invoice tạo trên node khác cho session cũ đã nằm trong snapshot).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsCubeService {
+
+    public static final int UNBILLED_PLAN = AnalyticsCube.UNBILLED_PLAN;
+    private static final int UNKNOWN_LOCATION = 0;
+
+    private final ChargingSessionRepository sessionRepository;
+    private final ChargingSessionArchiveRepository sessionArchiveRepository;
+
+    @Value("${analytics.cube.snapshot-path:data/analytics-cube.bin}")
+    private String snapshotPath;
+
+    // Lùi mốc replay: phải lớn hơn (thời gian từ lúc set endTime tới commit) + lệch đồng hồ giữa các node
+    @Value("${analytics.cube.replay-margin-ms:600000}")
+    private long replayMarginMs;
+
+    private volatile AnalyticsCube cube = new AnalyticsCube();
+
+    // Delta nhận được trong lúc đang build cube mới (null = không build), guarded by deltaLock
+    private final Object deltaLock = new Object();
+    private List<Consumer<AnalyticsCube>> pendingDeltas;
+
+    // ==================== LIFECYCLE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialize() {
+        Path path = Paths.get(snapshotPath);
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                AnalyticsCube loaded = AnalyticsCube.readFrom(in);
+                long replayed = install(loaded, loaded.getReplayFromEnd());
+                log.info("Analytics cube loaded from snapshot ({} cells, {} sessions replayed)",
+                        loaded.cellCount(), replayed);
+                return;
+            } catch (IOException e) {
+                log.warn("Failed to load analytics cube snapshot {}: {}. Rebuilding from DB.", path, e.getMessage());
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Rebuild toàn bộ cube từ DB (chạy mỗi đêm lúc 03:30)
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        AnalyticsCube fresh = new AnalyticsCube();
+        long loaded = install(fresh, null);
+        log.info("Analytics cube rebuilt from {} sessions ({} cells)", loaded, fresh.cellCount());
+        snapshot();
+    }
+
+    /**
+     * Catch-up từ DB (session kết thúc trên node khác / commit trễ) rồi ghi snapshot ra đĩa
+     * (ghi file tạm rồi move để không bao giờ để lại file hỏng)
+     */
+    @Scheduled(fixedDelayString = "${analytics.cube.snapshot-interval-ms:600000}",
+            initialDelayString = "${analytics.cube.snapshot-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public void snapshot() {
+        AnalyticsCube current = cube;
+        long caughtUp = load(current, current.getReplayFromEnd());
+        log.debug("Analytics cube caught up {} sessions before snapshot", caughtUp);
+
+        Path path = Paths.get(snapshotPath);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                current.writeTo(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Analytics cube snapshot written to {}", path);
+        } catch (IOException e) {
+            log.error("Failed to write analytics cube snapshot: {}", e.getMessage());
+        }
+    }
+
+    // ==================== EVENTS ====================
+
+    /**
+     * Session vừa kết thúc (stop / emergency stop)
+     */
+    public void onSessionCompleted(ChargingSession session) {
+        if (session.getId() == null || session.getStartTime() == null || session.getEndTime() == null) {
+            return;
+        }
+        AnalyticsCube.Fact fact = toFact(session);
+        afterCommit(() -> applyDelta(target -> target.addSession(fact, UNBILLED_PLAN)));
+    }
+
+    /**
+     * Invoice vừa được tạo: các session chuyển từ plan 0 (chưa bill) sang planAtBilling
+     */
+    public void onInvoiceCreated(Invoice invoice, List<ChargingSession> sessions) {
+        int planId = invoice.getPlanAtBilling() != null ? invoice.getPlanAtBilling().getId() : UNBILLED_PLAN;
+        if (planId == UNBILLED_PLAN) {
+            return;
+        }
+        List<AnalyticsCube.Fact> facts = new ArrayList<>(sessions.size());
+        for (ChargingSession session : sessions) {
+            if (session.getId() != null && session.getStartTime() != null && session.getEndTime() != null) {
+                facts.add(toFact(session));
+            }
+        }
+        afterCommit(() -> applyDelta(target -> facts.forEach(fact -> target.billSession(fact, planId))));
+    }
+
+    // ==================== QUERY ====================
+
+    public List<AnalyticsCube.Row> query(AnalyticsCube.Filter filter, Set<AnalyticsCube.Dimension> groupBy) {
+        return cube.query(filter, groupBy);
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Load target từ DB rồi thay cube hiện tại. Delta đến trong lúc load vừa vào cube cũ vừa được giữ lại,
+     * áp lên target trước khi swap (idempotent nên không sợ trùng với những gì load đã đọc)
+     */
+    private long install(AnalyticsCube target, LocalDateTime fromEnd) {
+        synchronized (deltaLock) {
+            pendingDeltas = new ArrayList<>();
+        }
+        try {
+            long count = load(target, fromEnd);
+            synchronized (deltaLock) {
+                pendingDeltas.forEach(delta -> delta.accept(target));
+                cube = target;
+            }
+            return count;
+        } finally {
+            synchronized (deltaLock) {
+                pendingDeltas = null;
+            }
+        }
+    }
+
+    private void applyDelta(Consumer<AnalyticsCube> delta) {
+        synchronized (deltaLock) {
+            delta.accept(cube);
+            if (pendingDeltas != null) {
+                pendingDeltas.add(delta);
+            }
+        }
+    }
+
+    /**
+     * fromEnd = null (rebuild / snapshot chưa có mốc) → đọc cả archive; replay sau snapshot chỉ cần bảng live
+     * vì session chỉ được archive sau horizon (lâu hơn nhiều so với chu kỳ snapshot).
+     * Mốc replay kế tiếp lấy TRƯỚC khi đọc và lùi replay-margin: session kết thúc trước mốc đã commit
+     * trước lần đọc này nên chắc chắn nằm trong đó. Đọc chồng lên lần trước là an toàn (cube idempotent).
+     */
+    private long load(AnalyticsCube target, LocalDateTime fromEnd) {
+        LocalDateTime nextReplayFromEnd = LocalDateTime.now().minus(Duration.ofMillis(replayMarginMs));
+
+        long count = 0;
+        if (fromEnd == null) {
+            try (Stream<Object[]> facts = sessionArchiveRepository.streamCubeFacts()) {
+                count += applyAll(target, facts);
+            }
+        }
+        try (Stream<Object[]> facts = sessionRepository.streamCubeFacts(fromEnd)) {
+            count += applyAll(target, facts);
+        }
+        target.advanceReplayFromEnd(nextReplayFromEnd);
+        return count;
+    }
+
+    /**
+     * Session chưa có trong cube → cộng thẳng vào plan hiện tại; đã có nhưng vừa được bill → chuyển plan
+     */
+    private long applyAll(AnalyticsCube target, Stream<Object[]> facts) {
+        long count = 0;
+        var iterator = facts.iterator();
+        while (iterator.hasNext()) {
+            Object[] row = iterator.next();
+            LocalDateTime start = (LocalDateTime) row[2];
+            LocalDateTime end = (LocalDateTime) row[3];
+            if (start == null || end == null) {
+                continue;
+            }
+            AnalyticsCube.Fact fact = new AnalyticsCube.Fact((Integer) row[9],
+                    row[0] != null ? (Integer) row[0] : UNKNOWN_LOCATION,
+                    row[1] != null ? (Integer) row[1] : UNKNOWN_LOCATION,
+                    start.toLocalDate(), (String) row[4],
+                    AnalyticsCube.toUnits((BigDecimal) row[5]),
+                    AnalyticsCube.toUnits((BigDecimal) row[6]),
+                    AnalyticsCube.toUnits((BigDecimal) row[7]),
+                    durationSeconds(start, end));
+            int planId = row[8] != null ? (Integer) row[8] : UNBILLED_PLAN;
+            if (target.addSession(fact, planId) || target.billSession(fact, planId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private AnalyticsCube.Fact toFact(ChargingSession session) {
+        ChargingPoint point = session.getCharger() != null ? session.getCharger().getChargingPoint() : null;
+        Integer stationId = point != null && point.getStation() != null ? point.getStation().getId() : null;
+        Integer facilityId = point != null && point.getStation() != null && point.getStation().getFacility() != null
+                ? point.getStation().getFacility().getId() : null;
+        return new AnalyticsCube.Fact(session.getId(),
+                facilityId != null ? facilityId : UNKNOWN_LOCATION,
+                stationId != null ? stationId : UNKNOWN_LOCATION,
+                session.getStartTime().toLocalDate(), session.getStatus(),
+                AnalyticsCube.toUnits(session.getKwhUsed()),
+                AnalyticsCube.toUnits(session.getCost()),
+                AnalyticsCube.toUnits(session.getOverusePenalty()),
+                durationSeconds(session.getStartTime(), session.getEndTime()));
+    }
+
+    private long durationSeconds(LocalDateTime start, LocalDateTime end) {
+        return Math.max(0L, Duration.between(start, end).getSeconds());
+    }
+
+    /**
+     * Chỉ cập nhật cube khi transaction commit thành công (rollback thì bỏ qua)
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
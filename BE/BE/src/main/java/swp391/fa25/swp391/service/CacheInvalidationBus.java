@@ -0,0 +1,50 @@
+package swp391.fa25.swp391.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * ⭐ Bus báo "dữ liệu đã đổi" giữa các node backend
+ *
+ * Mỗi node giữ cache riêng trong JVM (L2 cache Hibernate, unread count, principal...). Khi 1 node ghi,
+ * publish() lưu sự kiện và chỉ phát SAU KHI transaction commit; các node khác nhận và xóa entry tương ứng.
+ * Handler chạy cho cả sự kiện của chính node (remote = false) và từ node khác (remote = true).
+ *
+ * Triển khai chọn bằng cache.bus.type:
+ * - db (mặc định): {@link DbChangeLogInvalidationBus} - ghi bảng CACHE_CHANGE_LOG, các node poll
+ * - local: {@link LocalMulticastInvalidationBus} - phát trong cùng JVM, dùng cho test nhiều node
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * @param region xem CacheRegions
+     * @param key    id / username của entry đã đổi, null = cả region
+     * @param remote true nếu sự kiện đến từ node khác
+     */
+    record Event(String region, String key, String originNode, Instant publishedAt, boolean remote) {
+
+        public boolean wholeRegion() {
+            return key == null;
+        }
+
+        Event asRemote() {
+            return new Event(region, key, originNode, publishedAt, true);
+        }
+    }
+
+    void publish(String region, String key);
+
+    void publish(String region, Collection<String> keys);
+
+    /**
+     * Xóa cả region (bulk UPDATE / DELETE không đi qua entity listener)
+     */
+    default void publishRegion(String region) {
+        publish(region, (String) null);
+    }
+
+    void subscribe(String region, Consumer<Event> handler);
+
+    String getNodeId();
+}
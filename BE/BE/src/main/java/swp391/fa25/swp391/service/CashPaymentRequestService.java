@@ -27,6 +27,7 @@ public class CashPaymentRequestService {
     private final SubscriptionPlanRepository subscriptionPlanRepository;
     private final PlanRegistrationRepository planRegistrationRepository;
     private final EmailService emailService;
+    private final RevenueLedgerService revenueLedgerService;
 
     /**
      * Create a new cash payment request for invoice
@@ -125,10 +126,12 @@ public class CashPaymentRequestService {
         if ("INVOICE".equals(request.getRequestType())) {
             Invoice invoice = invoiceRepository.findById(request.getReferenceId())
                     .orElseThrow(() -> new RuntimeException("Invoice not found"));
+            String oldInvoiceStatus = invoice.getStatus();
             invoice.setStatus(PaymentStatus.INVOICE_PAID);
             invoice.setPaymentMethod(PaymentStatus.PAYMENT_METHOD_CASH);
             invoice.setPaidDate(LocalDateTime.now().toInstant(java.time.ZoneOffset.UTC));
             invoiceRepository.save(invoice);
+            revenueLedgerService.recordStatusChange(invoice, oldInvoiceStatus);
             
             // Send payment confirmation email
             String driverEmail = request.getDriver().getAccount().getEmail();
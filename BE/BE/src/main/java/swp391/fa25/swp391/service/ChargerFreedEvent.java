@@ -0,0 +1,10 @@
+package swp391.fa25.swp391.service;
+
+/**
+ * ⭐ Charger / charging point của trạm vừa rảnh (kết thúc sạc, reservation hủy / hết hạn, hết giữ chỗ hàng chờ)
+ *
+ * Publish trong transaction đổi trạng thái; {@link StationWaitlistService} nhận SAU KHI commit
+ * và offer charger cho lượt chờ kế tiếp của trạm. chargerId null = chỉ biết point rảnh.
+ */
+public record ChargerFreedEvent(Integer stationId, Integer chargerId) {
+}
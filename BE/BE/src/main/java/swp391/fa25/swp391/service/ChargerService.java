@@ -1,14 +1,18 @@
 package swp391.fa25.swp391.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import swp391.fa25.swp391.constants.ChargerStatus;
+import swp391.fa25.swp391.constants.ChargerStatusCause;
 import swp391.fa25.swp391.entity.Charger;
 import swp391.fa25.swp391.entity.ChargingPoint;
 import swp391.fa25.swp391.repository.ChargerRepository;
 import swp391.fa25.swp391.service.IService.IChargerService;
 import swp391.fa25.swp391.service.IService.IChargingPointService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +22,9 @@ public class ChargerService implements IChargerService {
 
     private final ChargerRepository chargerRepository;
     private final IChargingPointService chargingPointService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChargerStateMachine stateMachine;
+    private final ReservationCalendar reservationCalendar;
 
     // Status constants
     private static final String STATUS_ACTIVE = "active";      // Charger đang hoạt động bình thường
@@ -32,7 +39,12 @@ public class ChargerService implements IChargerService {
         if (charger.getStatus() == null) {
             charger.setStatus(STATUS_ACTIVE);
         }
-        return chargerRepository.save(charger);
+        boolean created = charger.getId() == null;
+        Charger saved = chargerRepository.save(charger);
+        if (created) {
+            stateMachine.initialize(saved, ChargerStatusCause.CREATED);
+        }
+        return saved;
     }
 
     @Override
@@ -116,7 +128,7 @@ public class ChargerService implements IChargerService {
             throw new IllegalStateException("Cannot set charger to inactive while it is in use or booked");
         }
 
-        charger.setStatus(newStatus);
+        stateMachine.transition(charger, ChargerStatus.fromCode(newStatus), ChargerStatusCause.ADMIN, null);
         chargerRepository.save(charger);
 
         // Update charging point status if needed
@@ -156,8 +168,16 @@ public class ChargerService implements IChargerService {
             );
         }
 
+        // Sạc vãng lai (charger ACTIVE, không qua reservation): point có lịch đặt trong khung check-in thì nhường
+        if (STATUS_ACTIVE.equals(charger.getStatus())) {
+            LocalDateTime now = LocalDateTime.now();
+            if (!reservationCalendar.isFree(chargingPoint.getId(), now, now.plus(ReservationService.EARLY_CHECK_IN))) {
+                throw new IllegalStateException("Charging point is reserved for an upcoming booking");
+            }
+        }
+
         // Set charger to using
-        charger.setStatus(STATUS_USING);
+        stateMachine.transition(charger, ChargerStatus.USING, ChargerStatusCause.SESSION, null);
         chargerRepository.save(charger);
 
         // Update charging point status
@@ -180,13 +200,18 @@ public class ChargerService implements IChargerService {
         }
 
         // Set charger back to active
-        charger.setStatus(STATUS_ACTIVE);
+        stateMachine.transition(charger, ChargerStatus.ACTIVE, ChargerStatusCause.SESSION, null);
         chargerRepository.save(charger);
 
         // Update charging point status
         ChargingPoint chargingPoint = charger.getChargingPoint();
         if (chargingPoint != null) {
             updateChargingPointStatusBasedOnChargers(chargingPoint);
+
+            // ⭐ Charger rảnh → sau commit offer cho hàng chờ của trạm
+            if (chargingPoint.getStation() != null) {
+                eventPublisher.publishEvent(new ChargerFreedEvent(chargingPoint.getStation().getId(), charger.getId()));
+            }
         }
     }
 
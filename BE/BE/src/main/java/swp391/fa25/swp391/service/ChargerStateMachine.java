@@ -0,0 +1,318 @@
+package swp391.fa25.swp391.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.constants.ChargerStatus;
+import swp391.fa25.swp391.constants.ChargerStatusCause;
+import swp391.fa25.swp391.dto.response.ChargerStatusAtResponse;
+import swp391.fa25.swp391.dto.response.ChargerStatusEventResponse;
+import swp391.fa25.swp391.entity.Charger;
+import swp391.fa25.swp391.entity.ChargerStatusEvent;
+import swp391.fa25.swp391.repository.ChargerRepository;
+import swp391.fa25.swp391.repository.ChargerStatusEventRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ⭐ Máy trạng thái Charger: mọi lần đổi CHARGER.STATUS đi qua đây
+ *
+ * - transition(): kiểm tra bước chuyển theo {@link ChargerStatus}, đổi status trên entity (caller vẫn save)
+ *   và append 1 dòng CHARGER_STATUS_EVENT trong cùng transaction → log và status commit / rollback cùng nhau
+ * - Snapshot trong bộ nhớ (chargerId → trạng thái) cho đọc O(1); sau commit region CHARGER_STATUS
+ *   (key chargerId@status) cập nhật snapshot trên mọi node, reconcile định kỳ đọc lại cả bảng
+ *   để bắt các lần ghi không đi qua máy trạng thái
+ * - Replay (lịch sử 1 charger) và time-travel (trạng thái tại thời điểm t) đọc từ log sự kiện
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChargerStateMachine {
+
+    private static final int QUERY_CHUNK_SIZE = 1000; // SQL Server giới hạn 2100 tham số / câu lệnh
+
+    private final ChargerStatusEventRepository eventRepository;
+    private final ChargerRepository chargerRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final ClusterJobService clusterJobService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${charger.status-events.retention-days:180}")
+    private int retentionDays;
+
+    private final Map<Integer, ChargerStatus> snapshot = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(CacheRegions.CHARGER_STATUS, event -> {
+            if (event.wholeRegion()) {
+                reconcile();
+                return;
+            }
+            int separator = event.key().indexOf('@');
+            ChargerStatus status = ChargerStatus.fromCode(event.key().substring(separator + 1));
+            if (status != null) {
+                snapshot.put(Integer.valueOf(event.key().substring(0, separator)), status);
+            }
+        });
+    }
+
+    // ==================== WRITE (trong transaction của caller) ====================
+
+    /**
+     * Đổi trạng thái charger; bước chuyển không hợp lệ → IllegalStateException (rollback cả thao tác)
+     *
+     * @param refId reservation / waitlist entry / incident report id tùy cause, có thể null
+     * @return false nếu charger đã ở trạng thái đích (không ghi sự kiện)
+     */
+    public boolean transition(Charger charger, ChargerStatus target, ChargerStatusCause cause, Long refId) {
+        ChargerStatus current = ChargerStatus.fromCode(charger.getStatus());
+        if (current == target) {
+            return false;
+        }
+        if (current == null) {
+            // Dữ liệu cũ có status lạ → cho phép đưa về trạng thái chuẩn, log lại để dọn
+            log.warn("Charger {} has unknown status '{}', moving to {}", charger.getId(), charger.getStatus(), target.getCode());
+        } else if (!current.canTransitionTo(target)) {
+            throw new IllegalStateException(String.format("Invalid charger status transition: %s → %s",
+                    current.getCode(), target.getCode()));
+        }
+        charger.setStatus(target.getCode());
+        append(charger.getId(), current, target, cause, refId);
+        return true;
+    }
+
+    /**
+     * Ghi sự kiện tạo charger (gọi sau khi save để có id); charger mới không thể đang booked / using
+     */
+    public void initialize(Charger charger, ChargerStatusCause cause) {
+        ChargerStatus status = ChargerStatus.fromCode(charger.getStatus());
+        if (status == null || status == ChargerStatus.BOOKED || status == ChargerStatus.USING) {
+            throw new IllegalStateException("New charger must start as 'active', 'inactive' or 'maintenance'");
+        }
+        charger.setStatus(status.getCode());
+        append(charger.getId(), null, status, cause, null);
+    }
+
+    /**
+     * Ghi sự kiện cho bulk UPDATE đã đổi from → to. Caller phải khóa các dòng khi chọn id (PESSIMISTIC_WRITE)
+     * và kiểm tra số dòng UPDATE bằng số id, để không log sự kiện cho charger mà UPDATE không đổi
+     *
+     * @param refIds chargerId → ref id (có thể thiếu)
+     */
+    public void recordBulk(Collection<Integer> chargerIds, ChargerStatus from, ChargerStatus to,
+                           ChargerStatusCause cause, Map<Integer, Long> refIds) {
+        if (chargerIds.isEmpty()) {
+            return;
+        }
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalStateException(String.format("Invalid charger status transition: %s → %s",
+                    from.getCode(), to.getCode()));
+        }
+        Instant now = Instant.now();
+        List<ChargerStatusEvent> events = new ArrayList<>(chargerIds.size());
+        for (Integer chargerId : chargerIds) {
+            events.add(newEvent(chargerId, from, to, cause, refIds.get(chargerId), now));
+        }
+        // Sequence allocationSize 50 → JDBC batch insert, không round-trip lấy id từng dòng
+        eventRepository.saveAll(events);
+        invalidationBus.publish(CacheRegions.CHARGER_STATUS,
+                chargerIds.stream().map(id -> id + "@" + to.getCode()).toList());
+    }
+
+    private void append(Integer chargerId, ChargerStatus from, ChargerStatus to, ChargerStatusCause cause, Long refId) {
+        eventRepository.save(newEvent(chargerId, from, to, cause, refId, Instant.now()));
+        invalidationBus.publish(CacheRegions.CHARGER_STATUS, chargerId + "@" + to.getCode());
+    }
+
+    private static ChargerStatusEvent newEvent(Integer chargerId, ChargerStatus from, ChargerStatus to,
+                                               ChargerStatusCause cause, Long refId, Instant occurredAt) {
+        ChargerStatusEvent event = new ChargerStatusEvent();
+        event.setChargerId(chargerId);
+        event.setFromStatus(from);
+        event.setToStatus(to);
+        event.setCause(cause);
+        event.setRefId(refId);
+        event.setOccurredAt(occurredAt);
+        return event;
+    }
+
+    // ==================== READ ====================
+
+    /**
+     * Trạng thái hiện tại theo snapshot (null nếu charger không tồn tại)
+     */
+    public ChargerStatus current(Integer chargerId) {
+        ChargerStatus status = snapshot.get(chargerId);
+        if (status == null) {
+            status = chargerRepository.findByIdNotDeleted(chargerId)
+                    .map(charger -> ChargerStatus.fromCode(charger.getStatus()))
+                    .orElse(null);
+            if (status != null) {
+                snapshot.put(chargerId, status);
+            }
+        }
+        return status;
+    }
+
+    public Map<Integer, ChargerStatus> currentAll() {
+        return Map.copyOf(snapshot);
+    }
+
+    /**
+     * Replay: các lần đổi trạng thái của 1 charger trong [from, to)
+     */
+    public List<ChargerStatusEventResponse> replay(Integer chargerId, LocalDateTime from, LocalDateTime to) {
+        return eventRepository.findHistory(chargerId, toInstant(from), toInstant(to)).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Time-travel: trạng thái các charger (của trạm, null = tất cả) tại thời điểm at
+     *
+     * Trạng thái = TO_STATUS của sự kiện cuối ≤ at; chưa có sự kiện nào ≤ at thì lấy FROM_STATUS của sự kiện
+     * đầu tiên sau at (FROM_STATUS null = charger chưa được tạo → bỏ qua); không có sự kiện nào → trạng thái hiện tại
+     */
+    public ChargerStatusAtResponse statesAt(LocalDateTime at, Integer stationId) {
+        Instant instant = toInstant(at);
+        if (instant.isBefore(Instant.now().minus(Duration.ofDays(retentionDays)))) {
+            throw new IllegalArgumentException("Status history is only kept for " + retentionDays + " days");
+        }
+
+        List<Integer> chargerIds = chargerRepository.findChargerScopeNotDeleted(stationId, null).stream()
+                .map(row -> (Integer) row[0])
+                .sorted()
+                .toList();
+
+        Map<Integer, ChargerStatus> states = new HashMap<>();
+        Set<Integer> notCreated = new HashSet<>();
+        for (int i = 0; i < chargerIds.size(); i += QUERY_CHUNK_SIZE) {
+            List<Integer> chunk = chargerIds.subList(i, Math.min(i + QUERY_CHUNK_SIZE, chargerIds.size()));
+            lastOf(eventRepository.findLastAtOrBefore(chunk, instant), true)
+                    .forEach((id, event) -> states.put(id, event.getToStatus()));
+
+            List<Integer> withoutPrior = chunk.stream().filter(id -> !states.containsKey(id)).toList();
+            if (!withoutPrior.isEmpty()) {
+                lastOf(eventRepository.findFirstAfter(withoutPrior, instant), false).forEach((id, event) -> {
+                    if (event.getFromStatus() == null) {
+                        notCreated.add(id);
+                    } else {
+                        states.put(id, event.getFromStatus());
+                    }
+                });
+            }
+        }
+
+        List<ChargerStatusAtResponse.ChargerState> chargers = new ArrayList<>();
+        List<Integer> available = new ArrayList<>();
+        for (Integer chargerId : chargerIds) {
+            ChargerStatus status = states.containsKey(chargerId) ? states.get(chargerId)
+                    : notCreated.contains(chargerId) ? null : current(chargerId);
+            if (status == null) {
+                continue;
+            }
+            chargers.add(ChargerStatusAtResponse.ChargerState.builder()
+                    .chargerId(chargerId)
+                    .status(status.getCode())
+                    .build());
+            if (status == ChargerStatus.ACTIVE) {
+                available.add(chargerId);
+            }
+        }
+        return ChargerStatusAtResponse.builder()
+                .at(at)
+                .stationId(stationId)
+                .availableChargerIds(available)
+                .chargers(chargers)
+                .build();
+    }
+
+    /**
+     * Mỗi charger 1 sự kiện; trùng OCCURRED_AT thì chọn theo id
+     * (id từ sequence chỉ tăng dần trong 1 node, chỉ dùng để phân xử khi cùng thời điểm)
+     */
+    private static Map<Integer, ChargerStatusEvent> lastOf(List<ChargerStatusEvent> events, boolean latest) {
+        Map<Integer, ChargerStatusEvent> result = new HashMap<>();
+        for (ChargerStatusEvent event : events) {
+            result.merge(event.getChargerId(), event, (a, b) ->
+                    (a.getId() > b.getId()) == latest ? a : b);
+        }
+        return result;
+    }
+
+    private ChargerStatusEventResponse toResponse(ChargerStatusEvent event) {
+        return ChargerStatusEventResponse.builder()
+                .id(event.getId())
+                .chargerId(event.getChargerId())
+                .fromStatus(event.getFromStatus() != null ? event.getFromStatus().getCode() : null)
+                .toStatus(event.getToStatus().getCode())
+                .cause(event.getCause().name())
+                .refId(event.getRefId())
+                .occurredAt(LocalDateTime.ofInstant(event.getOccurredAt(), ZoneId.systemDefault()))
+                .build();
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Đọc lại snapshot từ bảng CHARGER (chạy ngay khi khởi động, sau đó định kỳ)
+     */
+    @Scheduled(fixedDelayString = "${charger.status-snapshot.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        List<Object[]> rows = transactionTemplate.execute(status -> chargerRepository.findAllIdAndStatus());
+        if (rows == null) {
+            return;
+        }
+        Map<Integer, ChargerStatus> fresh = new HashMap<>();
+        for (Object[] row : rows) {
+            ChargerStatus status = ChargerStatus.fromCode((String) row[1]);
+            if (status != null) {
+                fresh.put((Integer) row[0], status);
+            }
+        }
+        int drifted = 0;
+        for (Map.Entry<Integer, ChargerStatus> entry : fresh.entrySet()) {
+            ChargerStatus previous = snapshot.put(entry.getKey(), entry.getValue());
+            if (previous != null && previous != entry.getValue()) {
+                drifted++;
+            }
+        }
+        snapshot.keySet().retainAll(fresh.keySet());
+        if (drifted > 0) {
+            log.warn("Charger status snapshot reconciled: {} chargers drifted from the database", drifted);
+        }
+    }
+
+    /**
+     * Xóa sự kiện quá hạn giữ (1 node / lần)
+     */
+    @Scheduled(cron = "0 45 3 * * ?")
+    public void purgeExpiredEvents() {
+        clusterJobService.runExclusive("charger.status-events.purge", Duration.ofMinutes(30), Duration.ofMinutes(5), () -> {
+            Instant cutoff = Instant.now().minus(Duration.ofDays(retentionDays));
+            Integer deleted = transactionTemplate.execute(status -> eventRepository.purgeBefore(cutoff));
+            log.info("Charger status event purge: {} events older than {} deleted", deleted, cutoff);
+        });
+    }
+}
@@ -0,0 +1,314 @@
+package swp391.fa25.swp391.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.dto.response.ChargerUtilizationResponse;
+import swp391.fa25.swp391.dto.response.UtilizationHeatmapCell;
+import swp391.fa25.swp391.entity.Charger;
+import swp391.fa25.swp391.entity.ChargerUtilizationHourly;
+import swp391.fa25.swp391.entity.ChargingPoint;
+import swp391.fa25.swp391.entity.ChargingSession;
+import swp391.fa25.swp391.entity.ChargingSessionArchive;
+import swp391.fa25.swp391.repository.ChargerRepository;
+import swp391.fa25.swp391.repository.ChargerUtilizationHourlyRepository;
+import swp391.fa25.swp391.repository.ChargingSessionArchiveRepository;
+import swp391.fa25.swp391.repository.ChargingSessionRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ⭐ Rollup mức sử dụng charger theo giờ
+ *
+ * Khi session kết thúc, thời gian [startTime, endTime] được chia vào các bucket giờ:
+ * - occupancy = thời gian xe chiếm charger trong giờ đó
+ * - charging  = phần đầu session (đang sạc), idle = phần cuối (overusedTime, đậu sau khi đầy)
+ * - kWh chia theo tỉ lệ charging seconds, revenue chia theo tỉ lệ occupancy seconds
+ * - Bucket chưa có: tạo dòng 0 trong transaction riêng rồi UPDATE lại → 2 session cùng kết thúc trong 1 giờ
+ *   mới của cùng charger không làm rollback transaction stop session vì trùng UX_CHARGER_UTIL_BUCKET
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChargerUtilizationService {
+
+    private static final String STATUS_COMPLETED = "completed";
+    private static final int BACKFILL_PAGE_SIZE = 500;
+    private static final long SECONDS_PER_HOUR = 3600L;
+
+    private final ChargerUtilizationHourlyRepository utilizationRepository;
+    private final ChargingSessionRepository sessionRepository;
+    private final ChargingSessionArchiveRepository sessionArchiveRepository;
+    private final ChargerRepository chargerRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate pageTx;   // backfill: 1 trang = 1 transaction
+    private TransactionTemplate bucketTx; // REQUIRES_NEW: tạo bucket rỗng, commit ngay
+
+    @PostConstruct
+    void init() {
+        pageTx = new TransactionTemplate(transactionManager);
+        bucketTx = new TransactionTemplate(transactionManager);
+        bucketTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ==================== WRITE SIDE ====================
+
+    /**
+     * Cộng 1 session đã kết thúc vào các bucket giờ của charger
+     * Gọi trong transaction của stop/emergency-stop
+     */
+    @Transactional
+    public void recordSession(ChargingSession session) {
+        Charger charger = session.getCharger();
+        LocalDateTime start = session.getStartTime();
+        LocalDateTime end = session.getEndTime();
+        if (charger == null || start == null || end == null || !end.isAfter(start)) {
+            return;
+        }
+
+        ChargingPoint point = charger.getChargingPoint();
+        Integer pointId = point != null ? point.getId() : null;
+        Integer stationId = point != null && point.getStation() != null ? point.getStation().getId() : null;
+
+        long totalSeconds = Duration.between(start, end).getSeconds();
+        long idleSeconds = session.getOverusedTime() != null
+                ? session.getOverusedTime().multiply(BigDecimal.valueOf(60)).longValue()
+                : 0L;
+        idleSeconds = Math.max(0L, Math.min(idleSeconds, totalSeconds));
+        long chargingSeconds = totalSeconds - idleSeconds;
+        LocalDateTime chargingEnd = start.plusSeconds(chargingSeconds);
+
+        BigDecimal kwh = session.getKwhUsed() != null ? session.getKwhUsed() : BigDecimal.ZERO;
+        BigDecimal revenue = session.getCost() != null ? session.getCost() : BigDecimal.ZERO;
+        BigDecimal kwhAllocated = BigDecimal.ZERO;
+        BigDecimal revenueAllocated = BigDecimal.ZERO;
+
+        LocalDateTime bucket = start.truncatedTo(ChronoUnit.HOURS);
+        boolean first = true;
+        while (bucket.isBefore(end)) {
+            LocalDateTime next = bucket.plusHours(1);
+            LocalDateTime segStart = start.isAfter(bucket) ? start : bucket;
+            LocalDateTime segEnd = end.isBefore(next) ? end : next;
+            boolean last = !next.isBefore(end);
+
+            long occupancy = Duration.between(segStart, segEnd).getSeconds();
+            long charging = overlapSeconds(segStart, segEnd, start, chargingEnd);
+            long idle = occupancy - charging;
+
+            BigDecimal kwhShare;
+            BigDecimal revenueShare;
+            if (last) {
+                // Bucket cuối nhận phần dư để tổng luôn khớp session
+                kwhShare = kwh.subtract(kwhAllocated);
+                revenueShare = revenue.subtract(revenueAllocated);
+            } else {
+                kwhShare = chargingSeconds > 0
+                        ? kwh.multiply(BigDecimal.valueOf(charging))
+                                .divide(BigDecimal.valueOf(chargingSeconds), 4, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO;
+                revenueShare = revenue.multiply(BigDecimal.valueOf(occupancy))
+                        .divide(BigDecimal.valueOf(totalSeconds), 2, RoundingMode.HALF_UP);
+            }
+            kwhAllocated = kwhAllocated.add(kwhShare);
+            revenueAllocated = revenueAllocated.add(revenueShare);
+
+            upsert(bucket, charger.getId(), pointId, stationId,
+                    occupancy, charging, idle, kwhShare, revenueShare, first ? 1 : 0);
+
+            first = false;
+            bucket = next;
+        }
+    }
+
+    /**
+     * Dựng lại toàn bộ rollup từ các session đã hoàn thành (cả bảng live và archive)
+     * Mỗi trang (keyset theo id) là 1 transaction riêng → không giữ khóa / log trên toàn bộ lịch sử.
+     * Chỉ lấy session kết thúc trước lúc bắt đầu backfill; session kết thúc sau đó đã được recordSession ghi.
+     * Nên chạy lúc ít traffic
+     */
+    public long backfill() {
+        log.info("========== BACKFILLING CHARGER UTILIZATION ==========");
+        LocalDateTime cutoff = LocalDateTime.now();
+        pageTx.executeWithoutResult(status -> utilizationRepository.deleteAllInBatch());
+
+        long processed = 0;
+        List<Integer> ids;
+        Integer lastId = 0;
+        do {
+            Integer afterId = lastId;
+            ids = pageTx.execute(status -> {
+                List<ChargingSession> page = sessionRepository.findByStatusAndEndTimeBeforeAndIdGreaterThanOrderByIdAsc(
+                        STATUS_COMPLETED, cutoff, afterId, PageRequest.of(0, BACKFILL_PAGE_SIZE));
+                page.forEach(this::recordSession);
+                entityManager.flush();
+                entityManager.clear();
+                return page.stream().map(ChargingSession::getId).toList();
+            });
+            processed += ids.size();
+            lastId = ids.isEmpty() ? lastId : ids.get(ids.size() - 1);
+        } while (ids.size() == BACKFILL_PAGE_SIZE);
+
+        lastId = 0;
+        do {
+            Integer afterId = lastId;
+            ids = pageTx.execute(status -> {
+                List<ChargingSessionArchive> page = sessionArchiveRepository.findByEndTimeBeforeAndIdGreaterThanOrderByIdAsc(
+                        cutoff, afterId, PageRequest.of(0, BACKFILL_PAGE_SIZE));
+                page.forEach(archived -> recordSession(archived.toSession()));
+                entityManager.flush();
+                entityManager.clear();
+                return page.stream().map(ChargingSessionArchive::getId).toList();
+            });
+            processed += ids.size();
+            lastId = ids.isEmpty() ? lastId : ids.get(ids.size() - 1);
+        } while (ids.size() == BACKFILL_PAGE_SIZE);
+
+        log.info("Charger utilization backfilled from {} sessions", processed);
+        return processed;
+    }
+
+    // ==================== READ SIDE ====================
+
+    /**
+     * Heatmap theo giờ trong khoảng [fromMillis, toMillis)
+     */
+    @Transactional(readOnly = true)
+    public List<UtilizationHeatmapCell> getHeatmap(long fromMillis, long toMillis,
+                                                   Integer stationId, Integer pointId, Integer chargerId) {
+        LocalDateTime from = toBucketStart(fromMillis);
+        LocalDateTime to = toLocalDateTime(toMillis);
+
+        long chargerCount = chargerId != null
+                ? 1
+                : chargerRepository.findChargerScopeNotDeleted(stationId, pointId).size();
+        double capacityPerHour = Math.max(1L, chargerCount) * (double) SECONDS_PER_HOUR;
+
+        List<UtilizationHeatmapCell> cells = new ArrayList<>();
+        for (Object[] row : utilizationRepository.sumByHour(from, to, stationId, pointId, chargerId)) {
+            long occupancy = ((Number) row[1]).longValue();
+            cells.add(UtilizationHeatmapCell.builder()
+                    .bucketStart((LocalDateTime) row[0])
+                    .occupancySeconds(occupancy)
+                    .chargingSeconds(((Number) row[2]).longValue())
+                    .idleSeconds(((Number) row[3]).longValue())
+                    .kwh((BigDecimal) row[4])
+                    .revenue((BigDecimal) row[5])
+                    .sessionCount(((Number) row[6]).longValue())
+                    .utilization(round(occupancy / capacityPerHour))
+                    .build());
+        }
+        return cells;
+    }
+
+    /**
+     * Top-N (mostUsed = true) hoặc bottom-N charger theo occupancy trong khoảng [fromMillis, toMillis)
+     * Bottom-N bao gồm cả charger không có session nào (occupancy = 0)
+     */
+    @Transactional(readOnly = true)
+    public List<ChargerUtilizationResponse> getRanking(long fromMillis, long toMillis,
+                                                       Integer stationId, Integer pointId,
+                                                       int limit, boolean mostUsed) {
+        LocalDateTime from = toBucketStart(fromMillis);
+        LocalDateTime to = toLocalDateTime(toMillis);
+        double rangeSeconds = Math.max(1L, Duration.between(from, to).getSeconds());
+
+        Map<Integer, Object[]> totals = new HashMap<>();
+        for (Object[] row : utilizationRepository.sumByCharger(from, to, stationId, pointId)) {
+            totals.put((Integer) row[0], row);
+        }
+
+        List<ChargerUtilizationResponse> results = new ArrayList<>();
+        for (Object[] scope : chargerRepository.findChargerScopeNotDeleted(stationId, pointId)) {
+            Integer chargerId = (Integer) scope[0];
+            Object[] row = totals.get(chargerId);
+            long occupancy = row != null ? ((Number) row[1]).longValue() : 0L;
+            results.add(ChargerUtilizationResponse.builder()
+                    .chargerId(chargerId)
+                    .chargingPointId((Integer) scope[1])
+                    .stationId((Integer) scope[2])
+                    .occupancySeconds(occupancy)
+                    .chargingSeconds(row != null ? ((Number) row[2]).longValue() : 0L)
+                    .idleSeconds(row != null ? ((Number) row[3]).longValue() : 0L)
+                    .kwh(row != null ? (BigDecimal) row[4] : BigDecimal.ZERO)
+                    .revenue(row != null ? (BigDecimal) row[5] : BigDecimal.ZERO)
+                    .sessionCount(row != null ? ((Number) row[6]).longValue() : 0L)
+                    .utilization(round(occupancy / rangeSeconds))
+                    .build());
+        }
+
+        Comparator<ChargerUtilizationResponse> byOccupancy =
+                Comparator.comparing(ChargerUtilizationResponse::getOccupancySeconds);
+        results.sort(mostUsed ? byOccupancy.reversed() : byOccupancy);
+        return results.subList(0, Math.min(limit, results.size()));
+    }
+
+    // ==================== HELPERS ====================
+
+    private void upsert(LocalDateTime bucket, Integer chargerId, Integer pointId, Integer stationId,
+                        long occupancy, long charging, long idle,
+                        BigDecimal kwh, BigDecimal revenue, int sessions) {
+        int updated = utilizationRepository.addToBucket(
+                bucket, chargerId, occupancy, charging, idle, kwh, revenue, sessions);
+        if (updated == 0) {
+            createEmptyBucket(bucket, chargerId, pointId, stationId);
+            utilizationRepository.addToBucket(bucket, chargerId, occupancy, charging, idle, kwh, revenue, sessions);
+        }
+    }
+
+    private void createEmptyBucket(LocalDateTime bucket, Integer chargerId, Integer pointId, Integer stationId) {
+        ChargerUtilizationHourly row = new ChargerUtilizationHourly();
+        row.setBucketStart(bucket);
+        row.setChargerId(chargerId);
+        row.setPointId(pointId);
+        row.setStationId(stationId); // các cột số liệu mặc định 0
+        try {
+            bucketTx.executeWithoutResult(tx -> utilizationRepository.saveAndFlush(row));
+        } catch (DataIntegrityViolationException e) {
+            // Session khác vừa tạo cùng bucket (UX_CHARGER_UTIL_BUCKET)
+            log.debug("Utilization bucket {} / charger {} created concurrently", bucket, chargerId);
+        }
+    }
+
+    private long overlapSeconds(LocalDateTime aStart, LocalDateTime aEnd,
+                                LocalDateTime bStart, LocalDateTime bEnd) {
+        LocalDateTime start = aStart.isAfter(bStart) ? aStart : bStart;
+        LocalDateTime end = aEnd.isBefore(bEnd) ? aEnd : bEnd;
+        return end.isAfter(start) ? Duration.between(start, end).getSeconds() : 0L;
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private LocalDateTime toBucketStart(long epochMillis) {
+        return toLocalDateTime(epochMillis).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private double round(double value) {
+        return Math.round(value * 10000.0) / 10000.0;
+    }
+}
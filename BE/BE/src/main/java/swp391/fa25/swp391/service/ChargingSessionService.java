@@ -3,13 +3,18 @@ package swp391.fa25.swp391.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import swp391.fa25.swp391.constants.SessionStatus;
 import swp391.fa25.swp391.dto.request.StartChargingSessionRequest;
 import swp391.fa25.swp391.dto.request.StopChargingSessionRequest;
+import swp391.fa25.swp391.dto.request.KeysetCursor;
 import swp391.fa25.swp391.dto.request.SystemReportRequest;
+import swp391.fa25.swp391.dto.response.CursorPage;
 import swp391.fa25.swp391.entity.*;
+import swp391.fa25.swp391.repository.ChargingSessionArchiveRepository;
 import swp391.fa25.swp391.repository.ChargingSessionRepository;
 import swp391.fa25.swp391.repository.PlanRegistrationRepository;
 import swp391.fa25.swp391.service.IService.IChargingPointService;
@@ -22,6 +27,8 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,7 +38,13 @@ import java.util.Optional;
 @Transactional
 public class ChargingSessionService implements IChargingSessionService {
 
+    // Thứ tự keyset (startTime DESC, id DESC) dùng khi gộp bảng live + archive
+    private static final Comparator<ChargingSession> NEWEST_FIRST = Comparator
+            .comparing(ChargingSession::getStartTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ChargingSession::getId, Comparator.reverseOrder());
+
     private final ChargingSessionRepository chargingSessionRepository;
+    private final ChargingSessionArchiveRepository chargingSessionArchiveRepository;
     private final PlanRegistrationRepository planRegistrationRepository;
     private final IDriverService driverService;
     private final IVehicleService vehicleService;
@@ -40,6 +53,8 @@ public class ChargingSessionService implements IChargingSessionService {
     private final ReservationService reservationService;
     private final IncidentReportService incidentReportService;
     private final EmergencyNotificationService emergencyNotificationService; // NEW
+    private final ChargerUtilizationService chargerUtilizationService;
+    private final AnalyticsCubeService analyticsCubeService;
 
     // Hằng số cấu hình - REAL EV CHARGING SYSTEM
     private static final BigDecimal START_FEE = new BigDecimal("5000"); // Phí khởi động phiên sạc (connection fee)
@@ -51,8 +66,8 @@ public class ChargingSessionService implements IChargingSessionService {
     private static final BigDecimal DEFAULT_PRICE_PER_KWH = new BigDecimal("3500"); // 3500 VNĐ/kWh
 
     // ChargingSession Status Constants
-    private static final String STATUS_CHARGING = "charging";      // Đang sạc
-    private static final String STATUS_COMPLETED = "completed";    // Hoàn thành
+    private static final String STATUS_CHARGING = SessionStatus.CHARGING.getCode();      // Đang sạc
+    private static final String STATUS_COMPLETED = SessionStatus.COMPLETED.getCode();    // Hoàn thành
 
     @Override
     public ChargingSession startChargingSession(StartChargingSessionRequest request) {
@@ -273,6 +288,8 @@ public class ChargingSessionService implements IChargingSessionService {
         session.setStatus(STATUS_COMPLETED);
 
         ChargingSession updatedSession = chargingSessionRepository.save(session);
+        chargerUtilizationService.recordSession(updatedSession);
+        analyticsCubeService.onSessionCompleted(updatedSession);
 
         // Giải phóng charger
         chargerService.stopUsingCharger(session.getCharger().getId());
@@ -350,6 +367,8 @@ public class ChargingSessionService implements IChargingSessionService {
         session.setStatus(STATUS_COMPLETED); // ⭐ Đánh dấu là completed để tính tiền
 
         ChargingSession updatedSession = chargingSessionRepository.save(session);
+        chargerUtilizationService.recordSession(updatedSession);
+        analyticsCubeService.onSessionCompleted(updatedSession);
 
         // Giải phóng charger
         chargerService.stopUsingCharger(session.getCharger().getId());
@@ -494,6 +513,7 @@ public class ChargingSessionService implements IChargingSessionService {
     @Transactional(readOnly = true)
     public ChargingSession getSessionById(Integer id) {
         return chargingSessionRepository.findById(id)
+                .or(() -> chargingSessionArchiveRepository.findById(id).map(ChargingSessionArchive::toSession))
                 .orElseThrow(() -> new RuntimeException("Charging session not found"));
     }
 
@@ -512,7 +532,11 @@ public class ChargingSessionService implements IChargingSessionService {
     @Override
     @Transactional(readOnly = true)
     public List<ChargingSession> findByDriverId(Integer driverId) {
-        return chargingSessionRepository.findByDriverIdOrderByStartTimeDesc(driverId);
+        List<ChargingSession> sessions = new ArrayList<>(chargingSessionRepository.findByDriverIdOrderByStartTimeDesc(driverId));
+        chargingSessionArchiveRepository.findByDriverIdOrderByStartTimeDesc(driverId)
+                .forEach(archived -> sessions.add(archived.toSession()));
+        sessions.sort(NEWEST_FIRST);
+        return sessions;
     }
 
     @Override
@@ -539,4 +563,52 @@ public class ChargingSessionService implements IChargingSessionService {
         return chargingSessionRepository.findByDriverIdOrderByStartTimeDesc(driverId, pageable);
     }
 
+    /**
+     * ⭐ Keyset pagination theo (startTime DESC, id DESC), không chạy COUNT
+     * driverId = null → tất cả sessions
+     * Đọc cả bảng live và archive (mỗi bên tối đa size + 1 dòng) rồi merge theo cùng thứ tự
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ChargingSession> findSessionsKeyset(Integer driverId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1); // Lấy dư 1 dòng để biết còn trang sau
+
+        List<ChargingSession> rows;
+        List<ChargingSessionArchive> archived;
+        if (driverId == null) {
+            rows = after == null
+                    ? chargingSessionRepository.findFirstKeysetPage(limit)
+                    : chargingSessionRepository.findKeysetPageAfter(after.asLocalDateTime(), after.getId(), limit);
+            archived = after == null
+                    ? chargingSessionArchiveRepository.findFirstKeysetPage(limit)
+                    : chargingSessionArchiveRepository.findKeysetPageAfter(after.asLocalDateTime(), after.getId(), limit);
+        } else {
+            rows = after == null
+                    ? chargingSessionRepository.findFirstKeysetPageByDriver(driverId, limit)
+                    : chargingSessionRepository.findKeysetPageByDriverAfter(
+                            driverId, after.asLocalDateTime(), after.getId(), limit);
+            archived = after == null
+                    ? chargingSessionArchiveRepository.findFirstKeysetPageByDriver(driverId, limit)
+                    : chargingSessionArchiveRepository.findKeysetPageByDriverAfter(
+                            driverId, after.asLocalDateTime(), after.getId(), limit);
+        }
+        if (!archived.isEmpty()) {
+            List<ChargingSession> merged = new ArrayList<>(rows);
+            archived.forEach(a -> merged.add(a.toSession()));
+            merged.sort(NEWEST_FIRST);
+            rows = merged.size() > size + 1 ? merged.subList(0, size + 1) : merged;
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<ChargingSession> items = hasMore ? rows.subList(0, size) : rows;
+        ChargingSession last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        return CursorPage.<ChargingSession>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? KeysetCursor.encode(last.getStartTime(), last.getId()) : null)
+                .build();
+    }
+
 }
\ No newline at end of file
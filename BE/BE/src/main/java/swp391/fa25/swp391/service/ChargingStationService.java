@@ -1,22 +1,33 @@
 package swp391.fa25.swp391.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import swp391.fa25.swp391.constants.CacheRegions;
 import swp391.fa25.swp391.entity.ChargingStation;
+import swp391.fa25.swp391.repository.ChargerRepository;
+import swp391.fa25.swp391.repository.ChargingPointRepository;
 import swp391.fa25.swp391.repository.ChargingStationRepository;
 import swp391.fa25.swp391.service.IService.IChargingStationService;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ChargingStationService implements IChargingStationService {
 
     private final ChargingStationRepository chargingStationRepository;
+    private final ChargingPointRepository chargingPointRepository;
+    private final ChargerRepository chargerRepository;
     private final FacilityService facilityService; // ⭐ THÊM dependency
+    private final CacheInvalidationBus invalidationBus;
 
     // Status constants
     private static final String STATUS_ACTIVE = "active";
@@ -38,46 +49,25 @@ public class ChargingStationService implements IChargingStationService {
         return chargingStationRepository.save(chargingStation);
     }
 
+    /**
+     * ⭐ SOFT DELETE station + cascade xuống points, chargers bằng set-based UPDATE theo station id
+     */
     @Override
     @Transactional
     public void deleteChargingStation(Integer id) {
-        // SOFT DELETE: Cascade xuống points và chargers
-        ChargingStation station = chargingStationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Charging station not found with id: " + id));
-        
-        java.time.Instant now = java.time.Instant.now();
-        String deletedBy = null;
-        
-        // Lấy username của người thực hiện xóa
-        org.springframework.security.core.Authentication auth = 
-            org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.getName() != null) {
-            deletedBy = auth.getName();
+        if (!chargingStationRepository.existsById(id)) {
+            throw new RuntimeException("Charging station not found with id: " + id);
         }
-        
-        // Cascade soft delete xuống tất cả charging points
-        if (station.getChargingPoints() != null) {
-            for (swp391.fa25.swp391.entity.ChargingPoint point : station.getChargingPoints()) {
-                point.setIsDeleted(true);
-                point.setDeletedAt(now);
-                point.setDeletedBy(deletedBy);
-                
-                // Cascade soft delete xuống tất cả chargers
-                if (point.getChargers() != null) {
-                    for (swp391.fa25.swp391.entity.Charger charger : point.getChargers()) {
-                        charger.setIsDeleted(true);
-                        charger.setDeletedAt(now);
-                        charger.setDeletedBy(deletedBy);
-                    }
-                }
-            }
-        }
-        
-        station.setIsDeleted(true);
-        station.setDeletedAt(now);
-        station.setDeletedBy(deletedBy);
-        
-        chargingStationRepository.save(station);
+
+        Instant now = Instant.now();
+        String deletedBy = currentUsername();
+
+        int chargers = chargerRepository.softDeleteByStationId(id, now, deletedBy);
+        int points = chargingPointRepository.softDeleteByStationId(id, now, deletedBy);
+        chargingStationRepository.softDeleteById(id, now, deletedBy);
+        invalidationBus.publishRegion(CacheRegions.TOPOLOGY); // bulk UPDATE không qua entity listener
+
+        log.info("Soft deleted station {} ({} points, {} chargers) by {}", id, points, chargers, deletedBy);
     }
 
     @Override
@@ -197,4 +187,12 @@ public class ChargingStationService implements IChargingStationService {
         return station.getChargingPoints().stream()
                 .anyMatch(point -> "booked".equals(point.getStatus()));
     }
-}
\ No newline at end of file
+
+    /**
+     * Username của người thực hiện (ghi vào DELETED_BY)
+     */
+    private String currentUsername() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : null;
+    }
+}
@@ -0,0 +1,292 @@
+package swp391.fa25.swp391.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.entity.JobLease;
+import swp391.fa25.swp391.repository.JobLeaseRepository;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * ⭐ Chạy scheduled job an toàn khi backend scale ra nhiều node (lease trong bảng JOB_LEASE)
+ *
+ * - runExclusive: job chạy thường xuyên (vd expire reservation mỗi phút) - mỗi lần tick chỉ 1 node chạy
+ * - register + trigger: job theo lịch (invoice cuối tháng, reminder...) - mỗi kỳ lịch (ngày / tháng) chạy đúng 1 lần
+ *   dù cron các node lệch nhau vài phút, chia thành N shard (theo id % N) để nhiều node xử lý song song.
+ *   Node chết giữa chừng → lease hết hạn, sweep() trên node khác nhận lại shard chưa xong.
+ *
+ * Lease dùng đồng hồ của từng node: lockAtLeastFor phải lớn hơn độ lệch đồng hồ giữa các node.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClusterJobService {
+
+    private static final DateTimeFormatter MANUAL_RUN_KEY = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    /**
+     * Kỳ của job theo lịch: run key = kỳ chứa thời điểm kích hoạt ("2026-10-19" / "2026-10")
+     */
+    public enum RunPeriod {
+        DAILY("yyyy-MM-dd"),
+        MONTHLY("yyyy-MM");
+
+        private final DateTimeFormatter format;
+
+        RunPeriod(String pattern) {
+            this.format = DateTimeFormatter.ofPattern(pattern);
+        }
+
+        public String runKey(LocalDateTime at) {
+            return at.format(format);
+        }
+    }
+
+    /**
+     * 1 shard của job: xử lý các id có id % count == index
+     */
+    public record Shard(int index, int count) {
+    }
+
+    @FunctionalInterface
+    public interface ShardTask {
+        void run(Shard shard, String runKey);
+    }
+
+    private record ClusterJob(String name, int shards, Duration lockAtMostFor, ShardTask task) {
+        String leaseName(int shard) {
+            return shards == 1 ? name : name + "#" + shard;
+        }
+
+        List<String> leaseNames() {
+            List<String> names = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                names.add(leaseName(shard));
+            }
+            return names;
+        }
+    }
+
+    private final JobLeaseRepository leaseRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<String, ClusterJob> jobs = new ConcurrentHashMap<>();
+    private final Set<String> knownLeases = ConcurrentHashMap.newKeySet();
+
+    @Value("${cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${cluster.jobs.retry-delay-ms:300000}")
+    private long retryDelayMs;
+
+    private String nodeId;
+    private TransactionTemplate leaseTx; // REQUIRES_NEW: lease commit ngay, không dính transaction của caller
+    private TransactionTemplate taskTx; // 1 shard = 1 transaction, đánh dấu run xong trong CÙNG transaction
+
+    @PostConstruct
+    void init() {
+        nodeId = configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+        leaseTx = new TransactionTemplate(transactionManager);
+        leaseTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        taskTx = new TransactionTemplate(transactionManager);
+        log.info("Cluster job node id: {}", nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // ==================== EXCLUSIVE (1 node / tick) ====================
+
+    /**
+     * Chạy task nếu lấy được lease. Task tự quản lý transaction (vd archive commit theo từng batch).
+     * @param lockAtMostFor lease tự hết hạn sau khoảng này nếu node chết giữa chừng
+     * @param lockAtLeastFor giữ lease ít nhất khoảng này kể cả khi task xong sớm (chặn node lệch giờ chạy lại)
+     * @return false nếu node khác đang giữ lease
+     */
+    public boolean runExclusive(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable task) {
+        ensureLeases(List.of(name));
+        Instant lockedAt = Instant.now();
+        JobLease lease = acquire(name, lockedAt, lockAtMostFor, false);
+        if (lease == null) {
+            log.debug("Job {} is running on another node, skipping", name);
+            return false;
+        }
+        Long token = lease.getFencingToken();
+        try {
+            task.run();
+        } finally {
+            Instant releaseAt = maxInstant(Instant.now(), lockedAt.plus(lockAtLeastFor));
+            leaseTx.executeWithoutResult(status -> leaseRepository.unlock(name, nodeId, token, releaseAt));
+        }
+        return true;
+    }
+
+    // ==================== SHARDED RUNS (1 lần / run key) ====================
+
+    /**
+     * Đăng ký job chia shard - gọi lúc khởi động trên MỌI node để node nào cũng nhận lại được shard khi failover
+     */
+    public void register(String name, int shards, Duration lockAtMostFor, ShardTask task) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Job " + name + " needs at least 1 shard");
+        }
+        jobs.put(name, new ClusterJob(name, shards, lockAtMostFor, task));
+    }
+
+    /**
+     * Từ @Scheduled: run key = kỳ lịch của job, các node trong cùng kỳ (kể cả cron lệch giờ) ra cùng key
+     * → chỉ chạy 1 lần / kỳ
+     */
+    public void trigger(String name, RunPeriod period) {
+        trigger(name, period, LocalDateTime.now());
+    }
+
+    void trigger(String name, RunPeriod period, LocalDateTime at) {
+        String runKey = period.runKey(at);
+        start(name, runKey, leaseNames -> leaseRepository.openScheduledRun(leaseNames, runKey));
+    }
+
+    /**
+     * Admin chạy tay: run key tới giây, luôn mới hơn run đã qua. Không tính là run theo lịch của kỳ
+     * → chạy tay giữa tháng không làm job cuối tháng bị bỏ qua
+     */
+    public void triggerNow(String name) {
+        String runKey = LocalDateTime.now().format(MANUAL_RUN_KEY);
+        start(name, runKey, leaseNames -> leaseRepository.openRun(leaseNames, runKey));
+    }
+
+    /**
+     * Failover: nhận các shard đã được yêu cầu nhưng chưa xong và lease đã hết hạn
+     */
+    @Scheduled(fixedDelayString = "${cluster.jobs.sweep-interval-ms:30000}",
+            initialDelayString = "${cluster.jobs.sweep-interval-ms:30000}")
+    public void sweep() {
+        jobs.values().forEach(this::drain);
+    }
+
+    public List<JobLease> getLeases() {
+        return leaseRepository.findAllByOrderByNameAsc();
+    }
+
+    private void start(String name, String runKey, Function<List<String>, Integer> openRun) {
+        ClusterJob job = jobs.get(name);
+        if (job == null) {
+            throw new IllegalStateException("Cluster job not registered: " + name);
+        }
+        List<String> leaseNames = job.leaseNames();
+        ensureLeases(leaseNames);
+        Integer opened = leaseTx.execute(status -> openRun.apply(leaseNames));
+        log.info("Job {} run {} requested ({} of {} shards opened by {})",
+                name, runKey, opened, job.shards(), nodeId);
+        drain(job);
+    }
+
+    /**
+     * Xử lý mọi shard còn việc mà node này lấy được lease. Bắt đầu từ shard lệch theo node id
+     * để các node cùng trigger chia nhau shard thay vì tranh nhau shard 0.
+     *
+     * completeRun (so fencing token) chạy trong transaction của shard: lease đã hết hạn và bị node khác
+     * lấy mất thì UPDATE trả 0 dòng → rollback toàn bộ việc của shard thay vì commit chồng lên node mới.
+     * UPDATE đó cũng giữ row lock trên lease tới khi commit nên node khác không chen vào giữa.
+     */
+    private void drain(ClusterJob job) {
+        int offset = Math.floorMod(nodeId.hashCode(), job.shards());
+        for (int i = 0; i < job.shards(); i++) {
+            int shard = (offset + i) % job.shards();
+            String leaseName = job.leaseName(shard);
+            JobLease lease = acquire(leaseName, Instant.now(), job.lockAtMostFor(), true);
+            if (lease == null) {
+                continue;
+            }
+
+            Long token = lease.getFencingToken();
+            String runKey = lease.getPendingRun();
+            try {
+                log.info("Job {} shard {}/{} run {} started on {}", job.name(), shard, job.shards(), runKey, nodeId);
+                taskTx.executeWithoutResult(status -> {
+                    job.task().run(new Shard(shard, job.shards()), runKey);
+                    if (leaseRepository.completeRun(leaseName, nodeId, token, runKey, Instant.now()) == 0) {
+                        throw new IllegalStateException("Lease " + leaseName + " (token " + token
+                                + ") was taken over by another node, rolling back run " + runKey);
+                    }
+                });
+                log.info("Job {} shard {}/{} run {} completed", job.name(), shard, job.shards(), runKey);
+            } catch (RuntimeException e) {
+                // Giữ lease thêm retry delay rồi sweep (trên node bất kỳ) thử lại
+                Instant retryAt = Instant.now().plusMillis(retryDelayMs);
+                leaseTx.executeWithoutResult(status -> leaseRepository.unlock(leaseName, nodeId, token, retryAt));
+                log.error("Job {} shard {}/{} run {} failed, retry after {}",
+                        job.name(), shard, job.shards(), runKey, retryAt, e);
+            }
+        }
+    }
+
+    /**
+     * @return dòng lease (fencing token, pending run) đọc lại trong cùng transaction, null nếu node khác đang giữ
+     */
+    private JobLease acquire(String leaseName, Instant now, Duration lockAtMostFor, boolean pendingRunOnly) {
+        Instant until = now.plus(lockAtMostFor);
+        return leaseTx.execute(status -> {
+            int locked = pendingRunOnly
+                    ? leaseRepository.tryLockPendingRun(leaseName, nodeId, now, until)
+                    : leaseRepository.tryLock(leaseName, nodeId, now, until);
+            if (locked == 0) {
+                return null;
+            }
+            return leaseRepository.findById(leaseName).orElseThrow();
+        });
+    }
+
+    private void ensureLeases(List<String> leaseNames) {
+        for (String leaseName : leaseNames) {
+            if (knownLeases.contains(leaseName)) {
+                continue;
+            }
+            try {
+                leaseTx.executeWithoutResult(status -> {
+                    if (!leaseRepository.existsById(leaseName)) {
+                        leaseRepository.saveAndFlush(new JobLease(leaseName));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Node khác vừa tạo cùng dòng
+                log.debug("Lease {} created concurrently", leaseName);
+            }
+            knownLeases.add(leaseName);
+        }
+    }
+
+    private static Instant maxInstant(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,137 @@
+package swp391.fa25.swp391.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * ⭐ Bus qua bảng CACHE_CHANGE_LOG (cache.bus.type=db, mặc định)
+ *
+ * - publish: INSERT trong transaction của caller → chỉ thấy được khi dữ liệu đã commit
+ * - poll: mỗi cache.bus.poll-interval-ms đọc các dòng có id > id lớn nhất đã thấy, kèm theo dõi "lỗ":
+ *   IDENTITY cấp lúc INSERT chứ không lúc commit, nên id bị nhảy qua có thể là transaction dài chưa commit.
+ *   Lỗ được đọc lại ở mỗi lần poll tới khi dòng xuất hiện hoặc quá cache.bus.gap-timeout-ms
+ *   (transaction đã rollback / IDENTITY nhảy số). Không phụ thuộc đồng hồ của node publish.
+ *
+ * Gap timeout phải lớn hơn transaction ghi dài nhất.
+ * JdbcTemplate không có transaction readOnly → luôn đọc primary, không bị replica lag.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.bus.type", havingValue = "db", matchIfMissing = true)
+public class DbChangeLogInvalidationBus extends AbstractCacheInvalidationBus {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO CACHE_CHANGE_LOG (REGION, ENTITY_KEY, ORIGIN_NODE, PUBLISHED_AT_MS) VALUES (?, ?, ?, ?)";
+    // Đọc cả dòng của chính node này: id của chúng cũng phải được đánh dấu đã thấy, không thì thành lỗ
+    private static final String POLL_SQL =
+            "SELECT ID, REGION, ENTITY_KEY, ORIGIN_NODE, PUBLISHED_AT_MS FROM CACHE_CHANGE_LOG " +
+            "WHERE ID > ? ORDER BY ID";
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(ID), 0) FROM CACHE_CHANGE_LOG";
+
+    private record Row(long id, Event event) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClusterJobService clusterJobService;
+    // Chỉ thread của @Scheduled poll() đụng vào (guarded by this)
+    private long lastSeenId = -1; // -1 = chưa khởi tạo
+    private final TreeMap<Long, Long> gaps = new TreeMap<>(); // id chưa thấy → lúc phát hiện (ms)
+
+    @Value("${cache.bus.gap-timeout-ms:60000}")
+    private long gapTimeoutMs;
+
+    @Value("${cache.bus.retention-minutes:60}")
+    private long retentionMinutes;
+
+    public DbChangeLogInvalidationBus(JdbcTemplate jdbcTemplate,
+                                      ClusterJobService clusterJobService,
+                                      MeterRegistry meterRegistry) {
+        super(clusterJobService.getNodeId(), "db", meterRegistry);
+        this.jdbcTemplate = jdbcTemplate;
+        this.clusterJobService = clusterJobService;
+    }
+
+    @Override
+    protected boolean sendsWithinTransaction() {
+        return true;
+    }
+
+    @Override
+    protected void send(List<Event> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.region());
+            ps.setString(2, event.key());
+            ps.setString(3, event.originNode());
+            ps.setLong(4, event.publishedAt().toEpochMilli());
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${cache.bus.poll-interval-ms:1000}",
+            initialDelayString = "${cache.bus.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        long now = System.currentTimeMillis();
+        List<Row> rows;
+        try {
+            if (lastSeenId < 0) {
+                // Lần đầu: bỏ qua lịch sử, cache của node mới khởi động đang trống
+                Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+                lastSeenId = maxId != null ? maxId : 0;
+                return;
+            }
+            long after = gaps.isEmpty() ? lastSeenId : gaps.firstKey() - 1;
+            rows = jdbcTemplate.query(POLL_SQL, (rs, rowNum) -> new Row(
+                    rs.getLong("ID"),
+                    new Event(rs.getString("REGION"),
+                            rs.getString("ENTITY_KEY"),
+                            rs.getString("ORIGIN_NODE"),
+                            Instant.ofEpochMilli(rs.getLong("PUBLISHED_AT_MS")),
+                            true)), after);
+        } catch (RuntimeException e) {
+            log.warn("Cache change log poll failed: {}", e.getMessage());
+            return;
+        }
+
+        for (Row row : rows) {
+            long id = row.id();
+            if (id <= lastSeenId) {
+                if (gaps.remove(id) == null) {
+                    continue; // đã áp dụng ở lần poll trước
+                }
+            } else {
+                for (long missing = lastSeenId + 1; missing < id; missing++) {
+                    gaps.put(missing, now);
+                }
+                lastSeenId = id;
+            }
+            if (!getNodeId().equals(row.event().originNode())) {
+                receive(row.event());
+            }
+        }
+
+        long expiredBefore = now - gapTimeoutMs;
+        gaps.values().removeIf(detectedAt -> detectedAt < expiredBefore);
+    }
+
+    /**
+     * Xóa change log cũ - 1 node / lần
+     */
+    @Scheduled(fixedDelayString = "${cache.bus.cleanup-interval-ms:600000}",
+            initialDelayString = "${cache.bus.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        clusterJobService.runExclusive("cache.changelog.cleanup", Duration.ofMinutes(5), Duration.ofMinutes(1), () -> {
+            long cutoff = System.currentTimeMillis() - Duration.ofMinutes(retentionMinutes).toMillis();
+            int deleted = jdbcTemplate.update("DELETE FROM CACHE_CHANGE_LOG WHERE PUBLISHED_AT_MS < ?", cutoff);
+            log.info("Cache change log cleanup: {} rows deleted", deleted);
+        });
+    }
+}
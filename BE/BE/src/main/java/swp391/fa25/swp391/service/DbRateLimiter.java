@@ -0,0 +1,99 @@
+package swp391.fa25.swp391.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import swp391.fa25.swp391.config.RateLimitProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * ⭐ Token bucket trong bảng RATE_LIMIT_BUCKET (rate-limit.store=db) - giới hạn chung cho cả cluster
+ *
+ * Mỗi request: 1 câu UPDATE tự tính token hồi + trừ 1 token nếu còn (điều kiện trong WHERE → nguyên tử,
+ * không cần đọc trước). Không update được mới SELECT để phân biệt bucket rỗng / chưa có (→ INSERT).
+ * Chạy ngoài transaction (autocommit) nên không giữ lock lâu. Thời gian theo đồng hồ node: lệch vài giây giữa
+ * các node chỉ làm token hồi sớm / muộn tương ứng.
+ * DB lỗi → cho qua (fail open): rate limit không được làm sập đăng nhập.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "db")
+public class DbRateLimiter implements RateLimiter {
+
+    private static final String ELAPSED =
+            "(CASE WHEN :now > UPDATED_AT_MS THEN :now - UPDATED_AT_MS ELSE 0 END)";
+    private static final String AVAILABLE =
+            "(CASE WHEN TOKENS + " + ELAPSED + " * :rate > :capacity THEN :capacity " +
+            "ELSE TOKENS + " + ELAPSED + " * :rate END)";
+    private static final String CONSUME_SQL =
+            "UPDATE RATE_LIMIT_BUCKET SET TOKENS = " + AVAILABLE + " - 1, " +
+            "UPDATED_AT_MS = CASE WHEN :now > UPDATED_AT_MS THEN :now ELSE UPDATED_AT_MS END " +
+            "WHERE BUCKET_KEY = :key AND " + AVAILABLE + " >= 1";
+    private static final String AVAILABLE_SQL =
+            "SELECT " + AVAILABLE + " FROM RATE_LIMIT_BUCKET WHERE BUCKET_KEY = :key";
+    private static final String INSERT_SQL =
+            "INSERT INTO RATE_LIMIT_BUCKET (BUCKET_KEY, TOKENS, UPDATED_AT_MS) VALUES (:key, :tokens, :now)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ClusterJobService clusterJobService;
+    private final RateLimitProperties properties;
+
+    @Override
+    public Decision tryAcquire(String key, RateLimitProperties.Limit limit) {
+        double rate = limit.tokensPerMilli();
+        try {
+            // Lần 2 chỉ chạy khi node khác vừa INSERT cùng key
+            for (int attempt = 0; attempt < 2; attempt++) {
+                MapSqlParameterSource params = new MapSqlParameterSource()
+                        .addValue("key", key)
+                        .addValue("now", System.currentTimeMillis())
+                        .addValue("rate", rate)
+                        .addValue("capacity", (double) limit.getCapacity());
+                if (jdbcTemplate.update(CONSUME_SQL, params) > 0) {
+                    return Decision.ALLOWED;
+                }
+
+                List<Double> available = jdbcTemplate.queryForList(AVAILABLE_SQL, params, Double.class);
+                if (!available.isEmpty()) {
+                    double missing = 1 - available.get(0);
+                    return Decision.rejected(Duration.ofMillis((long) Math.ceil(Math.max(0, missing) / rate)));
+                }
+
+                try {
+                    jdbcTemplate.update(INSERT_SQL, params.addValue("tokens", limit.getCapacity() - 1d));
+                    return Decision.ALLOWED;
+                } catch (DuplicateKeyException e) {
+                    // Node khác tạo bucket trước → thử lại UPDATE
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Rate limit check failed for {}, allowing request: {}", key, e.getMessage());
+        }
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * Xóa bucket nhàn rỗi lâu hơn thời gian hồi đầy dài nhất - 1 node / lần
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}",
+            initialDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        clusterJobService.runExclusive("rate-limit.bucket.sweep", Duration.ofMinutes(5), Duration.ofSeconds(30), () -> {
+            long cutoff = System.currentTimeMillis() - properties.maxMillisToFull();
+            int deleted = jdbcTemplate.update("DELETE FROM RATE_LIMIT_BUCKET WHERE UPDATED_AT_MS < :cutoff",
+                    new MapSqlParameterSource("cutoff", cutoff));
+            if (deleted > 0) {
+                log.info("Rate limit bucket sweep: {} idle buckets deleted", deleted);
+            }
+        });
+    }
+}
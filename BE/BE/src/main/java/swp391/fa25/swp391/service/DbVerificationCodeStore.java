@@ -0,0 +1,132 @@
+package swp391.fa25.swp391.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.constants.VerificationPurpose;
+import swp391.fa25.swp391.entity.VerificationCode;
+import swp391.fa25.swp391.repository.VerificationCodeRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * ⭐ Kho mã trong bảng VERIFICATION_CODE (verification.store=db, mặc định)
+ *
+ * Còn sau restart và mọi node thấy cùng 1 mã (gửi mã ở node A, xác thực ở node B).
+ * consume là 1 câu DELETE có điều kiện mã + hạn → 2 request cùng mã chỉ 1 request thắng.
+ * Các method tham gia transaction của caller: xác thực email thất bại giữa chừng thì mã không bị mất.
+ * Riêng INSERT lần đầu của issue chạy REQUIRES_NEW: 2 request phát mã cùng lúc cho subject mới đụng
+ * UX_VERIFICATION_CODE_PURPOSE_SUBJECT thì request thua bắt lỗi rồi phát lại bằng UPDATE.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "verification.store", havingValue = "db", matchIfMissing = true)
+public class DbVerificationCodeStore implements VerificationCodeStore {
+
+    private final VerificationCodeRepository repository;
+    private final ClusterJobService clusterJobService;
+    private final TransactionTemplate transactionTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate insertTx; // REQUIRES_NEW: lỗi unique không làm rollback-only transaction của caller
+
+    @PostConstruct
+    void init() {
+        insertTx = new TransactionTemplate(transactionManager);
+        insertTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    @Transactional
+    public void issue(VerificationPurpose purpose, String subject, String code, Duration ttl) {
+        String normalized = VerificationCodeStore.normalizeSubject(subject);
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        if (repository.reissue(purpose, normalized, code, expiresAt, now) > 0) {
+            return;
+        }
+        VerificationCode row = new VerificationCode();
+        row.setPurpose(purpose);
+        row.setSubject(normalized);
+        row.setCode(code);
+        row.setExpiresAt(expiresAt);
+        row.setCreatedAt(now);
+        try {
+            insertTx.executeWithoutResult(status -> repository.saveAndFlush(row));
+            return;
+        } catch (DataIntegrityViolationException e) {
+            // Request khác vừa INSERT cùng (purpose, subject) → dòng đã có, phát lại mã lên dòng đó
+            log.debug("Verification code {} / {} inserted concurrently, reissuing", purpose, normalized);
+        }
+        if (repository.reissue(purpose, normalized, code, expiresAt, now) == 0) {
+            throw new IllegalStateException("Could not issue verification code for " + purpose + " / " + normalized);
+        }
+    }
+
+    @Override
+    @Transactional
+    public Result check(VerificationPurpose purpose, String subject, String code) {
+        // read-write transaction → primary: mã vừa phát có thể chưa sang replica
+        Optional<VerificationCode> row = repository.findByPurposeAndSubject(
+                purpose, VerificationCodeStore.normalizeSubject(subject));
+        if (row.isEmpty()) {
+            return Result.NOT_FOUND;
+        }
+        if (!row.get().getExpiresAt().isAfter(Instant.now())) {
+            return Result.EXPIRED;
+        }
+        return row.get().getCode().equals(code) ? Result.VALID : Result.MISMATCH;
+    }
+
+    @Override
+    @Transactional
+    public Result consume(VerificationPurpose purpose, String subject, String code) {
+        String normalized = VerificationCodeStore.normalizeSubject(subject);
+        if (repository.consume(purpose, normalized, code, Instant.now()) > 0) {
+            return Result.VALID;
+        }
+        // Không consume được: phân biệt lý do để báo lỗi rõ ràng
+        Result result = check(purpose, normalized, code);
+        if (result == Result.EXPIRED) {
+            repository.invalidate(purpose, normalized);
+        }
+        // VALID ở lần đọc lại chỉ xảy ra khi mã vừa được phát lại giữa 2 câu lệnh → yêu cầu thử lại
+        return result == Result.VALID ? Result.NOT_FOUND : result;
+    }
+
+    @Override
+    @Transactional
+    public void invalidate(VerificationPurpose purpose, String subject) {
+        repository.invalidate(purpose, VerificationCodeStore.normalizeSubject(subject));
+    }
+
+    @Override
+    @Transactional
+    public int purgeExpired() {
+        return repository.purgeExpired(Instant.now());
+    }
+
+    /**
+     * Dọn mã hết hạn - 1 node / lần
+     */
+    @Scheduled(fixedDelayString = "${verification.store.sweep-interval-ms:60000}")
+    public void sweep() {
+        clusterJobService.runExclusive("verification.code.sweep", Duration.ofMinutes(5), Duration.ofSeconds(30), () -> {
+            Integer removed = transactionTemplate.execute(status -> repository.purgeExpired(Instant.now()));
+            if (removed != null && removed > 0) {
+                log.info("Verification code sweep: {} expired codes removed", removed);
+            }
+        });
+    }
+}
@@ -30,4 +30,8 @@ public class DriverService implements IDriverService {
     public Driver save(Driver driver) {
         return driverRepository.save(driver);
     }
+    @Override
+    public Driver getReference(Integer driverId) {
+        return driverRepository.getReferenceById(driverId);
+    }
 }
@@ -8,6 +8,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import swp391.fa25.swp391.entity.ChargingSession;
+import swp391.fa25.swp391.repository.ChargingSessionArchiveRepository;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Service email đa dụng, hỗ trợ HTML và tên người gửi
@@ -19,6 +24,7 @@ import org.springframework.stereotype.Service;
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final ChargingSessionArchiveRepository sessionArchiveRepository;
 
     @Value("${mail.from.address}")
     private String fromAddress;
@@ -94,6 +100,7 @@ public class EmailService {
      * Build HTML template for invoice email
      */
     private String buildInvoiceEmailTemplate(swp391.fa25.swp391.entity.Invoice invoice) {
+        List<ChargingSession> sessions = invoiceSessions(invoice);
         String driverName = invoice.getDriver().getAccount().getFullName();
         if (driverName == null || driverName.isEmpty()) {
             driverName = invoice.getDriver().getAccount().getUsername();
@@ -194,8 +201,8 @@ public class EmailService {
             driverName,
             invoice.getBillingStartDate(),
             invoice.getBillingEndDate(),
-            invoice.getSessions() != null ? invoice.getSessions().size() : 0,
-            calculateTotalKwh(invoice),
+            sessions.size(),
+            calculateTotalKwh(sessions),
             0, // Service fee (not in entity)
             invoice.getTotalCost() != null ? invoice.getTotalCost().intValue() : 0,
             invoice.getStatus() != null ? invoice.getStatus().toLowerCase() : "unpaid",
@@ -205,13 +212,25 @@ public class EmailService {
     }
 
     /**
-     * Calculate total kWh from sessions
+     * Session của invoice: bảng live + archive (invoice cũ có thể đã chuyển session sang archive)
      */
-    private double calculateTotalKwh(swp391.fa25.swp391.entity.Invoice invoice) {
-        if (invoice.getSessions() == null || invoice.getSessions().isEmpty()) {
-            return 0.0;
+    private List<ChargingSession> invoiceSessions(swp391.fa25.swp391.entity.Invoice invoice) {
+        List<ChargingSession> sessions = new ArrayList<>();
+        if (invoice.getSessions() != null) {
+            sessions.addAll(invoice.getSessions());
         }
-        return invoice.getSessions().stream()
+        if (invoice.getId() != null) {
+            sessionArchiveRepository.findByInvoiceIdIn(List.of(invoice.getId()))
+                    .forEach(archived -> sessions.add(archived.toSession()));
+        }
+        return sessions;
+    }
+
+    /**
+     * Calculate total kWh from sessions
+     */
+    private double calculateTotalKwh(List<ChargingSession> sessions) {
+        return sessions.stream()
                 .mapToDouble(session -> session.getKwhUsed() != null ? session.getKwhUsed().doubleValue() : 0.0)
                 .sum();
     }
@@ -372,6 +391,7 @@ public class EmailService {
      * ⭐ Build HTML template for invoice payment confirmation email
      */
     private String buildInvoicePaymentConfirmationTemplate(swp391.fa25.swp391.entity.Invoice invoice, String paymentMethod) {
+        List<ChargingSession> sessions = invoiceSessions(invoice);
         String driverName = invoice.getDriver().getAccount().getFullName();
         if (driverName == null || driverName.isEmpty()) {
             driverName = invoice.getDriver().getAccount().getUsername();
@@ -479,8 +499,8 @@ public class EmailService {
             driverName,
             invoice.getBillingStartDate(),
             invoice.getBillingEndDate(),
-            invoice.getSessions() != null ? invoice.getSessions().size() : 0,
-            calculateTotalKwh(invoice),
+            sessions.size(),
+            calculateTotalKwh(sessions),
             paymentMethodDisplay,
             invoice.getPaidDate() != null ? 
                 java.time.LocalDateTime.ofInstant(invoice.getPaidDate(), java.time.ZoneOffset.UTC).format(
@@ -4,14 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import swp391.fa25.swp391.constants.VerificationPurpose;
 import swp391.fa25.swp391.entity.Account;
 import swp391.fa25.swp391.repository.AccountRepository;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.time.Duration;
 
 @Service
 @RequiredArgsConstructor
@@ -21,8 +18,8 @@ public class EmailVerificationService {
     private final AccountRepository accountRepository;
     private final EmailService emailService;
     
-    // Store verification codes in memory (for production, use Redis or database)
-    private final Map<String, VerificationData> verificationCodes = new HashMap<>();
+    // Mã dùng chung kho với OTP đổi mật khẩu (VerificationCodeStore: bảng hoặc bộ nhớ, có dọn mã hết hạn)
+    private final VerificationCodeStore codeStore;
     
     private static final int CODE_LENGTH = 6;
     private static final int CODE_EXPIRY_MINUTES = 15;
@@ -42,11 +39,10 @@ public class EmailVerificationService {
         }
         
         // Generate 6-digit code
-        String code = generateVerificationCode();
+        String code = VerificationCodeStore.randomDigits(CODE_LENGTH);
         
-        // Store code with expiry time
-        VerificationData data = new VerificationData(code, Instant.now().plus(CODE_EXPIRY_MINUTES, ChronoUnit.MINUTES));
-        verificationCodes.put(email, data);
+        // Store code with expiry time (thay mã cũ nếu có)
+        codeStore.issue(VerificationPurpose.EMAIL_VERIFICATION, email, code, Duration.ofMinutes(CODE_EXPIRY_MINUTES));
         
         // Send email
         String htmlContent = buildVerificationEmailTemplate(account.getUsername(), code);
@@ -60,21 +56,13 @@ public class EmailVerificationService {
      */
     @Transactional
     public void verifyEmail(String email, String code) {
-        // Check if code exists
-        VerificationData data = verificationCodes.get(email);
-        if (data == null) {
-            throw new RuntimeException("No verification code found. Please request a new code.");
-        }
-        
-        // Check if code expired
-        if (Instant.now().isAfter(data.getExpiryTime())) {
-            verificationCodes.remove(email);
-            throw new RuntimeException("Verification code expired. Please request a new code.");
-        }
-        
-        // Check if code matches
-        if (!data.getCode().equals(code)) {
-            throw new RuntimeException("Invalid verification code");
+        // Kiểm tra và dùng mã (1 lần), mã hết hạn bị xóa luôn
+        switch (codeStore.consume(VerificationPurpose.EMAIL_VERIFICATION, email, code)) {
+            case NOT_FOUND -> throw new RuntimeException("No verification code found. Please request a new code.");
+            case EXPIRED -> throw new RuntimeException("Verification code expired. Please request a new code.");
+            case MISMATCH -> throw new RuntimeException("Invalid verification code");
+            case VALID -> {
+            }
         }
         
         // Update account status to active
@@ -84,9 +72,6 @@ public class EmailVerificationService {
         account.setStatus("active");
         accountRepository.save(account);
         
-        // Remove code after successful verification
-        verificationCodes.remove(email);
-        
         log.info("✅ Email verified successfully: {}", email);
     }
     
@@ -103,22 +88,10 @@ public class EmailVerificationService {
             throw new RuntimeException("Email already verified");
         }
         
-        // Remove old code if exists
-        verificationCodes.remove(email);
-        
-        // Send new code
+        // Send new code (thay mã cũ)
         sendVerificationCode(email);
     }
     
-    /**
-     * Generate random 6-digit verification code
-     */
-    private String generateVerificationCode() {
-        Random random = new Random();
-        int code = 100000 + random.nextInt(900000); // 6-digit number
-        return String.valueOf(code);
-    }
-    
     /**
      * Build HTML template for verification email
      */
@@ -202,25 +175,4 @@ public class EmailVerificationService {
             CODE_EXPIRY_MINUTES
         );
     }
-    
-    /**
-     * Inner class to store verification data
-     */
-    private static class VerificationData {
-        private final String code;
-        private final Instant expiryTime;
-        
-        public VerificationData(String code, Instant expiryTime) {
-            this.code = code;
-            this.expiryTime = expiryTime;
-        }
-        
-        public String getCode() {
-            return code;
-        }
-        
-        public Instant getExpiryTime() {
-            return expiryTime;
-        }
-    }
 }
@@ -2,21 +2,39 @@ package swp391.fa25.swp391.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import swp391.fa25.swp391.dto.request.KeysetCursor;
+import swp391.fa25.swp391.dto.response.CursorPage;
+import swp391.fa25.swp391.dto.response.NotificationInboxItem;
 import swp391.fa25.swp391.entity.ChargingSession;
 import swp391.fa25.swp391.entity.Notification;
+import swp391.fa25.swp391.entity.NotificationRecipient;
+import swp391.fa25.swp391.repository.NotificationRecipientRepository;
 import swp391.fa25.swp391.repository.NotificationRepository;
+import swp391.fa25.swp391.repository.StationEmployeeRepository;
+import swp391.fa25.swp391.security.AuthenticatedPrincipal;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * ⭐ Notification cho employee, gửi theo facility / employee
+ *
+ * Lúc tạo, notification được fan-out thành 1 dòng NotificationRecipient cho mỗi employee nhận
+ * (saveAll → JDBC batch insert). Mọi thao tác đọc / mark read đều theo employee đang đăng nhập.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmergencyNotificationService {
     
     private final NotificationRepository notificationRepository;
+    private final NotificationRecipientRepository recipientRepository;
+    private final StationEmployeeRepository stationEmployeeRepository;
+    private final UnreadNotificationCounter unreadCounter;
 
     /**
      * Tạo thông báo emergency stop cho employee
@@ -46,64 +64,109 @@ public class EmergencyNotificationService {
                 .relatedSessionId(session.getId().longValue())
                 .relatedChargerId(session.getCharger().getId().longValue())
                 .relatedDriverId(session.getDriver().getId().longValue())
+                .facilityId(session.getCharger().getChargingPoint().getStation().getFacility().getId())
                 .isRead(false)
                 .build();
 
-        Notification saved = notificationRepository.save(notification);
+        Notification saved = send(notification);
         log.info("[NOTIFICATION] Emergency stop notification created with ID: {}", saved.getId());
         
         return saved;
     }
 
     /**
-     * Lấy tất cả thông báo chưa đọc
+     * ⭐ Lưu notification và fan-out cho người nhận:
+     * employeeId != null → 1 employee, facilityId != null → mọi employee của facility, cả 2 null → mọi employee
      */
-    public List<Notification> getUnreadNotifications() {
-        return notificationRepository.findByIsReadFalseOrderByCreatedAtDesc();
+    @Transactional
+    public Notification send(Notification notification) {
+        Notification saved = notificationRepository.save(notification);
+
+        List<Integer> employeeIds;
+        if (saved.getEmployeeId() != null) {
+            employeeIds = List.of(saved.getEmployeeId());
+        } else if (saved.getFacilityId() != null) {
+            employeeIds = stationEmployeeRepository.findIdsByFacilityIdNotDeleted(saved.getFacilityId());
+        } else {
+            employeeIds = stationEmployeeRepository.findAllIdsNotDeleted();
+        }
+
+        recipientRepository.saveAll(employeeIds.stream()
+                .map(employeeId -> new NotificationRecipient(saved, employeeId))
+                .toList());
+        unreadCounter.invalidate(employeeIds);
+
+        log.debug("[NOTIFICATION] Notification {} delivered to {} employees", saved.getId(), employeeIds.size());
+        return saved;
     }
 
     /**
-     * Lấy tất cả thông báo
+     * Inbox của employee đang đăng nhập, keyset pagination theo (createdAt, id)
+     * @param unreadOnly true = chỉ thông báo chưa đọc
+     * @param cursor nextCursor của trang trước, null = trang đầu
      */
-    public List<Notification> getAllNotifications() {
-        return notificationRepository.findAllByOrderByCreatedAtDesc();
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationInboxItem> getInbox(boolean unreadOnly, String cursor, int size) {
+        Integer employeeId = currentEmployeeId();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1); // Lấy dư 1 dòng để biết còn trang sau
+
+        List<NotificationInboxItem> rows = after == null
+                ? recipientRepository.findFirstInboxPage(employeeId, unreadOnly, limit)
+                : recipientRepository.findInboxPageAfter(employeeId, unreadOnly,
+                        after.asLocalDateTime(), after.getId(), limit);
+
+        boolean hasMore = rows.size() > size;
+        List<NotificationInboxItem> items = hasMore ? rows.subList(0, size) : rows;
+        NotificationInboxItem last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        return CursorPage.<NotificationInboxItem>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? KeysetCursor.encode(last.getCreatedAt(), last.getRecipientId()) : null)
+                .build();
     }
 
     /**
-     * Đánh dấu thông báo đã đọc
+     * Đánh dấu thông báo đã đọc (chỉ với employee đang đăng nhập)
      */
     @Transactional
     public void markAsRead(Long notificationId) {
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new RuntimeException("Notification not found"));
-        
-        notification.setIsRead(true);
-        notification.setReadAt(LocalDateTime.now());
-        notificationRepository.save(notification);
+        Integer employeeId = currentEmployeeId();
+        int updated = recipientRepository.markRead(notificationId, employeeId, LocalDateTime.now());
+        if (updated == 0 && !recipientRepository.existsByNotificationIdAndEmployeeId(notificationId, employeeId)) {
+            throw new RuntimeException("Notification not found");
+        }
+        unreadCounter.invalidate(employeeId);
         
-        log.info("[NOTIFICATION] Marked notification {} as read", notificationId);
+        log.info("[NOTIFICATION] Employee {} marked notification {} as read", employeeId, notificationId);
     }
 
     /**
-     * Đánh dấu tất cả thông báo đã đọc
+     * Đánh dấu tất cả thông báo đã đọc - 1 câu UPDATE
      */
     @Transactional
     public void markAllAsRead() {
-        List<Notification> unreadNotifications = notificationRepository.findByIsReadFalseOrderByCreatedAtDesc();
-        
-        unreadNotifications.forEach(notification -> {
-            notification.setIsRead(true);
-            notification.setReadAt(LocalDateTime.now());
-        });
-        
-        notificationRepository.saveAll(unreadNotifications);
-        log.info("[NOTIFICATION] Marked {} notifications as read", unreadNotifications.size());
+        Integer employeeId = currentEmployeeId();
+        int updated = recipientRepository.markAllRead(employeeId, LocalDateTime.now());
+        unreadCounter.invalidate(employeeId);
+
+        log.info("[NOTIFICATION] Employee {} marked {} notifications as read", employeeId, updated);
     }
 
     /**
-     * Đếm số thông báo chưa đọc
+     * Đếm số thông báo chưa đọc (đọc từ cache)
      */
     public long getUnreadCount() {
-        return notificationRepository.countByIsReadFalse();
+        return unreadCounter.get(currentEmployeeId());
+    }
+
+    /**
+     * employeeId lấy từ JWT claim của request hiện tại
+     */
+    private Integer currentEmployeeId() {
+        return AuthenticatedPrincipal.current()
+                .map(AuthenticatedPrincipal::getEmployeeId)
+                .orElseThrow(() -> new RuntimeException("Current user is not a station employee"));
     }
 }
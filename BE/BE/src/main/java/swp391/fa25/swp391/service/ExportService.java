@@ -0,0 +1,161 @@
+package swp391.fa25.swp391.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import swp391.fa25.swp391.dto.response.InvoiceExportRow;
+import swp391.fa25.swp391.dto.response.SessionExportRow;
+import swp391.fa25.swp391.repository.ChargingSessionArchiveRepository;
+import swp391.fa25.swp391.repository.ChargingSessionRepository;
+import swp391.fa25.swp391.repository.InvoiceRepository;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * ⭐ Export lịch sử session / invoice dạng CSV hoặc NDJSON
+ *
+ * Đọc qua forward-only cursor (Stream + fetch size) và ghi thẳng từng dòng ra Writer,
+ * nên bộ nhớ không phụ thuộc số dòng export.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final List<String> SESSION_HEADER = List.of(
+            "sessionId", "startTime", "endTime", "status", "driverId", "vehicleId", "chargerId", "chargerCode",
+            "chargingPointId", "stationId", "facilityId", "startPercentage", "endPercentage",
+            "kwhUsed", "startFee", "overusePenalty", "cost", "invoiceId");
+
+    private static final List<String> INVOICE_HEADER = List.of(
+            "invoiceId", "driverId", "issueDate", "dueDate", "paidDate", "billingStartDate", "billingEndDate",
+            "totalCost", "status", "paymentMethod", "paymentReference", "planId");
+
+    private final ChargingSessionRepository sessionRepository;
+    private final ChargingSessionArchiveRepository sessionArchiveRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Export sessions có startTime trong [from, to] (theo ngày, to bao gồm cả ngày cuối)
+     * Đọc archive trước rồi tới bảng live (session archive luôn cũ hơn); cursor thứ 2 chỉ mở
+     * sau khi cursor thứ nhất đã đóng để driver không phải buffer result set còn dở
+     */
+    @Transactional(readOnly = true)
+    public long exportSessions(LocalDate from, LocalDate to, Integer facilityId, String status,
+                               String format, Writer writer) throws IOException {
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        return write(List.of(
+                () -> sessionArchiveRepository.streamForExport(fromTime, toTime, facilityId, status),
+                () -> sessionRepository.streamForExport(fromTime, toTime, facilityId, status)),
+                SESSION_HEADER, (SessionExportRow row) -> new Object[]{
+                    row.getSessionId(), row.getStartTime(), row.getEndTime(), row.getStatus(),
+                    row.getDriverId(), row.getVehicleId(), row.getChargerId(), row.getChargerCode(),
+                    row.getChargingPointId(), row.getStationId(), row.getFacilityId(),
+                    row.getStartPercentage(), row.getEndPercentage(),
+                    row.getKwhUsed(), row.getStartFee(), row.getOverusePenalty(), row.getCost(),
+                    row.getInvoiceId()
+            }, format, writer);
+    }
+
+    /**
+     * Export invoices có issueDate trong [from, to] (theo ngày, to bao gồm cả ngày cuối)
+     */
+    @Transactional(readOnly = true)
+    public long exportInvoices(LocalDate from, LocalDate to, Integer facilityId, String status,
+                               String format, Writer writer) throws IOException {
+        return write(List.of(() -> invoiceRepository.streamForExport(
+                toInstant(from),
+                to != null ? toInstant(to.plusDays(1)) : null,
+                facilityId,
+                status)), INVOICE_HEADER, (InvoiceExportRow row) -> new Object[]{
+                    row.getInvoiceId(), row.getDriverId(), row.getIssueDate(), row.getDueDate(),
+                    row.getPaidDate(), row.getBillingStartDate(), row.getBillingEndDate(),
+                    row.getTotalCost(), row.getStatus(), row.getPaymentMethod(),
+                    row.getPaymentReference(), row.getPlanId()
+            }, format, writer);
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return FORMAT_CSV.equalsIgnoreCase(format) || FORMAT_NDJSON.equalsIgnoreCase(format);
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Ghi lần lượt từng nguồn (mỗi nguồn mở cursor khi tới lượt và đóng ngay khi đọc xong)
+     */
+    private <T> long write(List<Supplier<Stream<T>>> sources, List<String> header, Function<T, Object[]> columns,
+                           String format, Writer writer) throws IOException {
+        boolean csv = FORMAT_CSV.equalsIgnoreCase(format);
+        if (csv) {
+            writer.write(String.join(",", header));
+            writer.write('\n');
+        }
+
+        long count = 0;
+        for (Supplier<Stream<T>> source : sources) {
+            try (Stream<T> rows = source.get()) {
+                var iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    T row = iterator.next();
+                    if (csv) {
+                        writeCsvLine(columns.apply(row), writer);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                    if (++count % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+        }
+        writer.flush();
+
+        log.info("Exported {} rows as {}", count, csv ? FORMAT_CSV : FORMAT_NDJSON);
+        return count;
+    }
+
+    private void writeCsvLine(Object[] values, Writer writer) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    private String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private Instant toInstant(LocalDate date) {
+        return date != null ? date.atStartOfDay(ZoneId.systemDefault()).toInstant() : null;
+    }
+}
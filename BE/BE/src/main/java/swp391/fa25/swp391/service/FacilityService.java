@@ -1,22 +1,34 @@
 package swp391.fa25.swp391.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import swp391.fa25.swp391.entity.ChargingStation;
+import swp391.fa25.swp391.constants.CacheRegions;
 import swp391.fa25.swp391.entity.Facility;
+import swp391.fa25.swp391.repository.ChargerRepository;
+import swp391.fa25.swp391.repository.ChargingPointRepository;
+import swp391.fa25.swp391.repository.ChargingStationRepository;
 import swp391.fa25.swp391.repository.FacilityRepository;
 import swp391.fa25.swp391.service.IService.IFacilityService;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FacilityService implements IFacilityService {
 
     private final FacilityRepository facilityRepository;
+    private final ChargingStationRepository chargingStationRepository;
+    private final ChargingPointRepository chargingPointRepository;
+    private final ChargerRepository chargerRepository;
+    private final CacheInvalidationBus invalidationBus;
 
     // Status constants
     private static final String STATUS_ACTIVE = "active";
@@ -32,56 +44,30 @@ public class FacilityService implements IFacilityService {
         return facilityRepository.save(facility);
     }
 
+    /**
+     * ⭐ SOFT DELETE facility + cascade xuống stations, points, chargers
+     * Mỗi tầng là 1 câu UPDATE theo facility id (từ dưới lên, để subquery còn thấy cha chưa xóa),
+     * không load cây entity vào persistence context. Bulk UPDATE tự evict cache topology trên node này,
+     * node khác nhận qua bus (không đi qua entity listener nên publish cả region).
+     */
     @Override
     @Transactional
     public void deleteFacility(Integer id) {
-        // SOFT DELETE: Cascade xuống stations, points và chargers
-        Facility facility = facilityRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Facility not found with id: " + id));
-        
-        java.time.Instant now = java.time.Instant.now();
-        String deletedBy = null;
-        
-        // Lấy username của người thực hiện xóa
-        org.springframework.security.core.Authentication auth = 
-            org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.getName() != null) {
-            deletedBy = auth.getName();
-        }
-        
-        // Cascade soft delete xuống tất cả stations và points
-        if (facility.getChargingStations() != null) {
-            for (ChargingStation station : facility.getChargingStations()) {
-                station.setIsDeleted(true);
-                station.setDeletedAt(now);
-                station.setDeletedBy(deletedBy);
-                
-                // Cascade soft delete xuống tất cả charging points
-                if (station.getChargingPoints() != null) {
-                    for (swp391.fa25.swp391.entity.ChargingPoint point : station.getChargingPoints()) {
-                        point.setIsDeleted(true);
-                        point.setDeletedAt(now);
-                        point.setDeletedBy(deletedBy);
-                        
-                        // Cascade soft delete xuống tất cả chargers
-                        if (point.getChargers() != null) {
-                            for (swp391.fa25.swp391.entity.Charger charger : point.getChargers()) {
-                                charger.setIsDeleted(true);
-                                charger.setDeletedAt(now);
-                                charger.setDeletedBy(deletedBy);
-                            }
-                        }
-                    }
-                }
-            }
+        if (!facilityRepository.existsById(id)) {
+            throw new RuntimeException("Facility not found with id: " + id);
         }
-        
-        // Soft delete facility
-        facility.setIsDeleted(true);
-        facility.setDeletedAt(now);
-        facility.setDeletedBy(deletedBy);
-        
-        facilityRepository.save(facility);
+
+        Instant now = Instant.now();
+        String deletedBy = currentUsername();
+
+        int chargers = chargerRepository.softDeleteByFacilityId(id, now, deletedBy);
+        int points = chargingPointRepository.softDeleteByFacilityId(id, now, deletedBy);
+        int stations = chargingStationRepository.softDeleteByFacilityId(id, now, deletedBy);
+        facilityRepository.softDeleteById(id, now, deletedBy);
+        invalidationBus.publishRegion(CacheRegions.TOPOLOGY);
+
+        log.info("Soft deleted facility {} ({} stations, {} points, {} chargers) by {}",
+                id, stations, points, chargers, deletedBy);
     }
 
     @Override
@@ -180,4 +166,12 @@ public class FacilityService implements IFacilityService {
             facilityRepository.save(facility);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Username của người thực hiện (ghi vào DELETED_BY)
+     */
+    private String currentUsername() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : null;
+    }
+}
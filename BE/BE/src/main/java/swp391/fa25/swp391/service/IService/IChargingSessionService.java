@@ -4,6 +4,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import swp391.fa25.swp391.dto.request.StartChargingSessionRequest;
 import swp391.fa25.swp391.dto.request.StopChargingSessionRequest;
+import swp391.fa25.swp391.dto.response.CursorPage;
 import swp391.fa25.swp391.entity.ChargingSession;
 
 import java.math.BigDecimal;
@@ -34,4 +35,7 @@ public interface IChargingSessionService {
 
     // Pagination
     Page<ChargingSession> findByDriverId(Integer driverId, Pageable pageable);
+
+    // Keyset pagination (startTime DESC, id DESC) - driverId null = tất cả
+    CursorPage<ChargingSession> findSessionsKeyset(Integer driverId, String cursor, int size);
 }
\ No newline at end of file
@@ -8,4 +8,9 @@ public interface IDriverService {
     Optional<Driver> findById(Integer userId);
     Optional<Driver> findByUsername(String username);
     Driver save(Driver driver);
+
+    /**
+     * Tham chiếu Driver theo id (driverId từ JWT) để gán quan hệ, không SELECT
+     */
+    Driver getReference(Integer driverId);
 }
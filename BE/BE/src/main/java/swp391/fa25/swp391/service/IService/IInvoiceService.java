@@ -1,5 +1,6 @@
 package swp391.fa25.swp391.service.IService;
 
+import swp391.fa25.swp391.dto.response.CursorPage;
 import swp391.fa25.swp391.entity.Invoice;
 
 import java.math.BigDecimal;
@@ -26,6 +27,9 @@ public interface IInvoiceService {
 
     BigDecimal getTotalRevenueByDriverAndStatus(Integer driverId, String status);
 
+    // Keyset pagination (issueDate DESC, id DESC) - driverId null = tất cả
+    CursorPage<Invoice> findInvoicesKeyset(Integer driverId, String cursor, int size);
+
     void deleteById(Integer id);
 
     List<Invoice> findDriverInvoicesByDateRange(Integer driverId, Instant startDate, Instant endDate);
@@ -0,0 +1,88 @@
+package swp391.fa25.swp391.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import swp391.fa25.swp391.config.RateLimitProperties;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ⭐ Token bucket trong bộ nhớ (rate-limit.store=memory, mặc định) - mỗi node giới hạn riêng
+ *
+ * Trạng thái bucket (số token, thời điểm hồi) là 1 record bất biến đổi bằng compareAndSet → không lock.
+ * Token hồi lười khi có request, không có thread nào tick từng bucket.
+ * Bucket đã hồi đầy tương đương bucket mới → sweep xóa khỏi map, map chỉ giữ key đang bị dùng gần đây.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private record State(double tokens, long refilledAtNanos) {
+    }
+
+    private static final class Bucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private final AtomicReference<State> state;
+
+        private Bucket(RateLimitProperties.Limit limit, long now) {
+            this.capacity = limit.getCapacity();
+            this.tokensPerNano = limit.tokensPerMilli() / 1_000_000d;
+            this.state = new AtomicReference<>(new State(capacity, now));
+        }
+
+        private Decision tryAcquire(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = tokensAt(current, now);
+                if (tokens < 1) {
+                    return Decision.rejected(Duration.ofNanos((long) Math.ceil((1 - tokens) / tokensPerNano)));
+                }
+                // Không lùi mốc hồi khi thread đọc now sớm hơn CAS sau thread khác
+                State next = new State(tokens - 1, Math.max(now, current.refilledAtNanos()));
+                if (state.compareAndSet(current, next)) {
+                    return Decision.ALLOWED;
+                }
+            }
+        }
+
+        private boolean isFull(long now) {
+            return tokensAt(state.get(), now) >= capacity;
+        }
+
+        private double tokensAt(State current, long now) {
+            long elapsed = Math.max(0, now - current.refilledAtNanos());
+            return Math.min(capacity, current.tokens() + elapsed * tokensPerNano);
+        }
+    }
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public Decision tryAcquire(String key, RateLimitProperties.Limit limit) {
+        long now = System.nanoTime();
+        return buckets.computeIfAbsent(key, k -> new Bucket(limit, now)).tryAcquire(now);
+    }
+
+    /**
+     * Xóa bucket đã hồi đầy. Request đang giữ bucket vừa bị xóa tiêu token trên bản cũ
+     * (lệch tối đa vài token đúng lúc sweep), request sau nhận bucket đầy mới.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        if (before > 0) {
+            log.debug("Rate limit sweep: {} idle buckets removed, {} remaining", before - buckets.size(), buckets.size());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package swp391.fa25.swp391.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import swp391.fa25.swp391.constants.VerificationPurpose;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ⭐ Kho mã trong bộ nhớ (verification.store=memory) - chỉ đúng khi chạy 1 node
+ *
+ * - codes: ConcurrentHashMap theo (purpose, subject) → tra cứu O(1), consume nguyên tử qua computeIfPresent
+ * - expiryOrder: các mã sắp theo thời điểm hết hạn → sweep chỉ duyệt phần đầu đã hết hạn
+ * - giới hạn verification.store.max-entries: đầy thì dọn mã hết hạn, còn đầy thì bỏ mã sắp hết hạn nhất
+ *
+ * Mã bị thay (phát lại) vẫn còn trong expiryOrder tới lúc hết hạn; seq giúp sweep không xóa nhầm mã mới.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "verification.store", havingValue = "memory")
+public class InMemoryVerificationCodeStore implements VerificationCodeStore {
+
+    private record Key(VerificationPurpose purpose, String subject) {
+    }
+
+    private record Entry(String code, Instant expiresAt, long seq) {
+    }
+
+    private record Expiry(Instant expiresAt, long seq, Key key) {
+    }
+
+    private final Map<Key, Entry> codes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Expiry> expiryOrder = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Expiry::expiresAt).thenComparingLong(Expiry::seq));
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Value("${verification.store.max-entries:100000}")
+    private int maxEntries;
+
+    @Override
+    public void issue(VerificationPurpose purpose, String subject, String code, Duration ttl) {
+        Key key = key(purpose, subject);
+        if (codes.size() >= maxEntries && !codes.containsKey(key)) {
+            makeRoom();
+        }
+        long seq = sequence.incrementAndGet();
+        Instant expiresAt = Instant.now().plus(ttl);
+        codes.put(key, new Entry(code, expiresAt, seq));
+        expiryOrder.add(new Expiry(expiresAt, seq, key));
+    }
+
+    @Override
+    public Result check(VerificationPurpose purpose, String subject, String code) {
+        Entry entry = codes.get(key(purpose, subject));
+        if (entry == null) {
+            return Result.NOT_FOUND;
+        }
+        if (!entry.expiresAt().isAfter(Instant.now())) {
+            return Result.EXPIRED;
+        }
+        return entry.code().equals(code) ? Result.VALID : Result.MISMATCH;
+    }
+
+    @Override
+    public Result consume(VerificationPurpose purpose, String subject, String code) {
+        AtomicReference<Result> result = new AtomicReference<>(Result.NOT_FOUND);
+        Instant now = Instant.now();
+        codes.computeIfPresent(key(purpose, subject), (key, entry) -> {
+            if (!entry.expiresAt().isAfter(now)) {
+                result.set(Result.EXPIRED);
+                return null;
+            }
+            if (!entry.code().equals(code)) {
+                result.set(Result.MISMATCH);
+                return entry;
+            }
+            result.set(Result.VALID);
+            return null;
+        });
+        return result.get();
+    }
+
+    @Override
+    public void invalidate(VerificationPurpose purpose, String subject) {
+        codes.remove(key(purpose, subject));
+    }
+
+    @Override
+    public int purgeExpired() {
+        Instant now = Instant.now();
+        int removed = 0;
+        Expiry head;
+        while ((head = expiryOrder.pollFirst()) != null) {
+            if (head.expiresAt().isAfter(now)) {
+                expiryOrder.add(head);
+                break;
+            }
+            if (removeIfCurrent(head)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Scheduled(fixedDelayString = "${verification.store.sweep-interval-ms:60000}")
+    public void sweep() {
+        int removed = purgeExpired();
+        if (removed > 0) {
+            log.debug("Verification code sweep: {} expired codes removed", removed);
+        }
+    }
+
+    private void makeRoom() {
+        purgeExpired();
+        Expiry head;
+        while (codes.size() >= maxEntries && (head = expiryOrder.pollFirst()) != null) {
+            if (removeIfCurrent(head)) {
+                log.warn("Verification code store full ({} entries), dropped code for {}", maxEntries, head.key().subject());
+            }
+        }
+    }
+
+    /**
+     * Xóa mã nếu đúng là lần phát ứng với mục expiry này (chưa bị phát lại / consume)
+     */
+    private boolean removeIfCurrent(Expiry expiry) {
+        AtomicBoolean removed = new AtomicBoolean();
+        codes.computeIfPresent(expiry.key(), (key, entry) -> {
+            if (entry.seq() != expiry.seq()) {
+                return entry;
+            }
+            removed.set(true);
+            return null;
+        });
+        return removed.get();
+    }
+
+    private static Key key(VerificationPurpose purpose, String subject) {
+        return new Key(purpose, VerificationCodeStore.normalizeSubject(subject));
+    }
+}
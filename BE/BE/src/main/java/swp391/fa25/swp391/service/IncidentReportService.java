@@ -3,6 +3,8 @@ package swp391.fa25.swp391.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // Quan trọng
+import swp391.fa25.swp391.constants.ChargerStatus;
+import swp391.fa25.swp391.constants.ChargerStatusCause;
 import swp391.fa25.swp391.dto.request.*;
 import swp391.fa25.swp391.entity.Charger; // NEW
 import swp391.fa25.swp391.entity.ChargingPoint;
@@ -15,6 +17,7 @@ import swp391.fa25.swp391.repository.StationEmployeeRepository;
 import swp391.fa25.swp391.service.IService.IIncidentReportService;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -25,6 +28,7 @@ public class IncidentReportService implements IIncidentReportService {
     private final ChargingPointRepository chargingPointRepository;
     private final ChargerRepository chargerRepository; // NEW
     private final StationEmployeeRepository stationEmployeeRepository;
+    private final ChargerStateMachine chargerStateMachine;
 
     @Override
     @Transactional
@@ -141,7 +145,7 @@ public class IncidentReportService implements IIncidentReportService {
         
         if (charger != null) {
             // Nếu report là cho charger cụ thể → chỉ đổi status charger về active
-            charger.setStatus("active");
+            chargerStateMachine.transition(charger, ChargerStatus.ACTIVE, ChargerStatusCause.INCIDENT, reportId.longValue());
             chargerRepository.save(charger);
         } else if (point != null) {
             // Nếu report là cho charging point → đổi status point + tất cả chargers về active
@@ -150,7 +154,7 @@ public class IncidentReportService implements IIncidentReportService {
             
             List<Charger> chargers = chargerRepository.findByChargingPointId(point.getId());
             for (Charger c : chargers) {
-                c.setStatus("active"); // lowercase
+                chargerStateMachine.transition(c, ChargerStatus.ACTIVE, ChargerStatusCause.INCIDENT, reportId.longValue());
                 chargerRepository.save(c);
             }
         }
@@ -218,6 +222,7 @@ public class IncidentReportService implements IIncidentReportService {
 
         // NEW: Xử lý thay đổi status dựa trên reportTarget
         String reportTarget = request.getReportTarget();
+        List<Charger> toMaintenance = new ArrayList<>();
         
         if ("CHARGING_POINT".equalsIgnoreCase(reportTarget)) {
             // Báo cáo sự cố của Charging Point → Đổi status Point + tất cả Chargers
@@ -225,11 +230,7 @@ public class IncidentReportService implements IIncidentReportService {
             chargingPointRepository.save(point);
             
             // Đổi status tất cả chargers thuộc point này
-            List<Charger> chargers = chargerRepository.findByChargingPointId(point.getId());
-            for (Charger charger : chargers) {
-                charger.setStatus("maintenance"); // lowercase
-                chargerRepository.save(charger);
-            }
+            toMaintenance.addAll(chargerRepository.findByChargingPointId(point.getId()));
             
             report.setTitle("Charging Point Issue: " + point.getPointName());
             
@@ -238,8 +239,7 @@ public class IncidentReportService implements IIncidentReportService {
             Charger charger = chargerRepository.findById(request.getChargerId())
                     .orElseThrow(() -> new RuntimeException("Charger not found with id: " + request.getChargerId()));
             
-            charger.setStatus("maintenance"); // lowercase
-            chargerRepository.save(charger);
+            toMaintenance.add(charger);
             
             report.setCharger(charger);
             report.setTitle("Charger Issue: Charger #" + charger.getChargerCode());
@@ -249,7 +249,14 @@ public class IncidentReportService implements IIncidentReportService {
             report.setTitle("Incident Report");
         }
 
-        return incidentReportRepository.save(report);
+        // Lưu report trước để sự kiện đổi trạng thái charger trỏ được tới report id
+        IncidentReport savedReport = incidentReportRepository.save(report);
+        for (Charger charger : toMaintenance) {
+            chargerStateMachine.transition(charger, ChargerStatus.MAINTENANCE, ChargerStatusCause.INCIDENT,
+                    savedReport.getId().longValue());
+            chargerRepository.save(charger);
+        }
+        return savedReport;
     }
 
     @Override
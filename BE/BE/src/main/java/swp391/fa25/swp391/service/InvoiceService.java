@@ -1,18 +1,29 @@
 package swp391.fa25.swp391.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import swp391.fa25.swp391.dto.request.KeysetCursor;
+import swp391.fa25.swp391.dto.response.CursorPage;
 import swp391.fa25.swp391.entity.*;
 import swp391.fa25.swp391.repository.*;
 import swp391.fa25.swp391.service.IService.IInvoiceService;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 
@@ -24,18 +35,59 @@ public class InvoiceService implements IInvoiceService {
 
     private final InvoiceRepository invoiceRepository;
     private final ChargingSessionRepository sessionRepository;
+    private final ChargingSessionArchiveRepository sessionArchiveRepository;
     private final DriverRepository driverRepository;
     private final PlanRegistrationRepository planRegistrationRepository;
     private final SubscriptionPlanRepository planRepository;
     private final AccountRepository accountRepository;
     private final NotificationService notificationService;
     private final EmailService emailService;
+    private final RevenueLedgerService revenueLedgerService;
+    private final AnalyticsCubeService analyticsCubeService;
+    private final ClusterJobService clusterJobService;
 
     // ==================== CONFIGURATION ====================
     private static final int DAYS_TO_DUE_DATE = 7; // Invoice → Due date: 7 ngày
     private static final int DAYS_GRACE_PERIOD = 7; // Due date → Suspend: 7 ngày
     private static final int DAYS_BEFORE_DUE_REMINDER = 3; // Gửi reminder trước due date 3 ngày
 
+    private static final Comparator<ChargingSession> OLDEST_FIRST = Comparator
+            .comparing(ChargingSession::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ChargingSession::getId);
+
+    // ==================== CLUSTER JOBS ====================
+    public static final String JOB_MONTHLY_INVOICES = "invoice.monthly";
+    public static final String JOB_PAYMENT_REMINDERS = "invoice.reminders";
+    public static final String JOB_OVERDUE_CHECK = "invoice.overdue";
+    public static final String JOB_ACCOUNT_SUSPENSION = "invoice.suspension";
+
+    @Value("${cluster.jobs.invoice-shards:8}")
+    private int invoiceShards;
+
+    /**
+     * ⭐ Đăng ký job với ClusterJobService: mỗi job chạy đúng 1 lần / lịch dù có nhiều node.
+     * Tạo invoice cuối tháng chia shard theo driver id để nhiều node chạy song song.
+     */
+    @PostConstruct
+    void registerClusterJobs() {
+        clusterJobService.register(JOB_MONTHLY_INVOICES, invoiceShards, Duration.ofHours(2),
+                this::generateMonthlyInvoicesForShard);
+        clusterJobService.register(JOB_PAYMENT_REMINDERS, 1, Duration.ofMinutes(30),
+                (shard, runKey) -> sendPaymentRemindersNow());
+        clusterJobService.register(JOB_OVERDUE_CHECK, 1, Duration.ofMinutes(30),
+                (shard, runKey) -> checkOverdueInvoicesNow());
+        clusterJobService.register(JOB_ACCOUNT_SUSPENSION, 1, Duration.ofMinutes(30),
+                (shard, runKey) -> suspendOverdueAccountsNow());
+    }
+
+    /**
+     * Admin chạy tay 1 job (vẫn qua lease: không chạy trùng với node khác)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void runJobNow(String job) {
+        clusterJobService.triggerNow(job);
+    }
+
     // ==================== EXISTING METHODS (giữ nguyên) ====================
 
     @Override
@@ -49,6 +101,33 @@ public class InvoiceService implements IInvoiceService {
         return invoiceRepository.findById(id);
     }
 
+    /**
+     * ⭐ Session của 1 invoice: bảng live + archive (invoice.getSessions() chỉ đọc bảng live)
+     */
+    @Transactional(readOnly = true)
+    public List<ChargingSession> findInvoiceSessions(Invoice invoice) {
+        return findSessionsByInvoices(List.of(invoice)).get(invoice.getId());
+    }
+
+    /**
+     * ⭐ Session của nhiều invoice, theo invoice id - archive đọc 1 query cho cả trang
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, List<ChargingSession>> findSessionsByInvoices(Collection<Invoice> invoices) {
+        Map<Integer, List<ChargingSession>> sessions = new HashMap<>();
+        for (Invoice invoice : invoices) {
+            sessions.put(invoice.getId(), invoice.getSessions() != null
+                    ? new ArrayList<>(invoice.getSessions())
+                    : new ArrayList<>());
+        }
+        if (!sessions.isEmpty()) {
+            sessionArchiveRepository.findByInvoiceIdIn(sessions.keySet())
+                    .forEach(archived -> sessions.get(archived.getInvoiceId()).add(archived.toSession()));
+        }
+        sessions.values().forEach(list -> list.sort(OLDEST_FIRST));
+        return sessions;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Invoice> findAll() {
@@ -82,7 +161,8 @@ public class InvoiceService implements IInvoiceService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getTotalRevenueByStatus(String status) {
-        BigDecimal result = invoiceRepository.getTotalRevenueByStatus(status);
+        // ⭐ Đọc từ revenue ledger (vài dòng tổng hợp sẵn) thay vì SUM toàn bảng INVOICE
+        BigDecimal result = revenueLedgerService.getTotalRevenueByStatus(status);
         return result != null ? result : BigDecimal.ZERO;
     }
 
@@ -93,6 +173,38 @@ public class InvoiceService implements IInvoiceService {
         return result != null ? result : BigDecimal.ZERO;
     }
 
+    /**
+     * ⭐ Keyset pagination theo (issueDate DESC, id DESC), không chạy COUNT
+     * driverId = null → tất cả invoices
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Invoice> findInvoicesKeyset(Integer driverId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.of(0, size + 1); // Lấy dư 1 dòng để biết còn trang sau
+
+        List<Invoice> rows;
+        if (driverId == null) {
+            rows = after == null
+                    ? invoiceRepository.findFirstKeysetPage(limit)
+                    : invoiceRepository.findKeysetPageAfter(after.asInstant(), after.getId(), limit);
+        } else {
+            rows = after == null
+                    ? invoiceRepository.findFirstKeysetPageByDriver(driverId, limit)
+                    : invoiceRepository.findKeysetPageByDriverAfter(driverId, after.asInstant(), after.getId(), limit);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<Invoice> items = hasMore ? rows.subList(0, size) : rows;
+        Invoice last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        return CursorPage.<Invoice>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? KeysetCursor.encode(last.getIssueDate(), last.getId()) : null)
+                .build();
+    }
+
     @Override
     public void deleteById(Integer id) {
         invoiceRepository.deleteById(id);
@@ -111,15 +223,24 @@ public class InvoiceService implements IInvoiceService {
      * Chạy lúc 00:00 ngày cuối tháng
      */
     @Scheduled(cron = "0 0 0 L * ?")
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void generateMonthlyInvoices() {
-        log.info("========== STARTING MONTHLY INVOICE GENERATION ==========");
+        clusterJobService.trigger(JOB_MONTHLY_INVOICES, ClusterJobService.RunPeriod.MONTHLY);
+    }
 
-        LocalDate today = LocalDate.now();
-        LocalDate startOfMonth = today.withDayOfMonth(1);
-        LocalDate endOfMonth = today.withDayOfMonth(today.lengthOfMonth());
+    /**
+     * 1 shard của job tạo invoice: driver có id % shard.count == shard.index
+     * Tháng lấy từ run key (yyyy-MM...), không từ đồng hồ lúc chạy: shard được nhận lại sau nửa đêm vẫn đúng tháng.
+     */
+    private void generateMonthlyInvoicesForShard(ClusterJobService.Shard shard, String runKey) {
+        log.info("========== STARTING MONTHLY INVOICE GENERATION (shard {}/{}) ==========",
+                shard.index(), shard.count());
+
+        YearMonth month = YearMonth.parse(runKey.substring(0, 7));
+        LocalDate startOfMonth = month.atDay(1);
+        LocalDate endOfMonth = month.atEndOfMonth();
 
-        List<Driver> allDrivers = driverRepository.findAllWithActivePlan();
+        List<Driver> allDrivers = driverRepository.findAllWithActivePlanInShard(shard.count(), shard.index());
         log.info("Found {} drivers with active plans", allDrivers.size());
 
         int successCount = 0;
@@ -132,12 +253,8 @@ public class InvoiceService implements IInvoiceService {
                 if (invoice != null) {
                     successCount++;
 
-                    // GỬI NOTIFICATION
-                    try {
-                        notificationService.sendInvoiceCreatedNotification(invoice);
-                    } catch (Exception e) {
-                        log.error("Failed to send notification for invoice {}", invoice.getId(), e);
-                    }
+                    // GỬI NOTIFICATION (sau khi transaction của shard commit)
+                    sendInvoiceCreatedNotificationAfterCommit(invoice);
 
                     log.info("Generated invoice {} for driver {}", invoice.getId(), driver.getId());
                 } else {
@@ -219,12 +336,12 @@ public class InvoiceService implements IInvoiceService {
         // Lưu invoice trước để có ID
         Invoice savedInvoice = invoiceRepository.save(invoice);
 
-        // Cập nhật invoice reference cho các sessions
-        for (ChargingSession session : sessions) {
-            session.setInvoice(savedInvoice);
-            sessionRepository.save(session);
-        }
+        // Cập nhật invoice reference cho các sessions (1 lần saveAll → flush thành JDBC batch UPDATE)
+        sessions.forEach(session -> session.setInvoice(savedInvoice));
+        sessionRepository.saveAll(sessions);
         savedInvoice.setSessions(sessions);
+        revenueLedgerService.recordInvoiceCreated(savedInvoice);
+        analyticsCubeService.onInvoiceCreated(savedInvoice, sessions);
 
         log.info("Created invoice {} for driver {}, amount: {}, due date: {}, sessions: {}",
                 savedInvoice.getId(), driver.getId(), totalCost, dueDate, sessions.size());
@@ -307,11 +424,7 @@ public class InvoiceService implements IInvoiceService {
 
         // Gửi notification
         if (invoice != null) {
-            try {
-                notificationService.sendInvoiceCreatedNotification(invoice);
-            } catch (Exception e) {
-                log.error("Failed to send notification", e);
-            }
+            sendInvoiceCreatedNotificationAfterCommit(invoice);
         }
 
         return invoice;
@@ -374,30 +487,28 @@ public class InvoiceService implements IInvoiceService {
         // 4. Lưu invoice
         Invoice savedInvoice = invoiceRepository.save(invoice);
 
-        // 5. Cập nhật invoice reference cho các sessions
-        for (ChargingSession session : unbilledSessions) {
-            session.setInvoice(savedInvoice);
-            sessionRepository.save(session);
-        }
+        // 5. Cập nhật invoice reference cho các sessions (flush thành JDBC batch UPDATE)
+        unbilledSessions.forEach(session -> session.setInvoice(savedInvoice));
+        sessionRepository.saveAll(unbilledSessions);
         savedInvoice.setSessions(unbilledSessions);
+        revenueLedgerService.recordInvoiceCreated(savedInvoice);
+        analyticsCubeService.onInvoiceCreated(savedInvoice, unbilledSessions);
 
-        // Send invoice email notification
-        try {
-            String driverEmail = driver.getAccount().getEmail();
-            if (driverEmail != null && !driverEmail.isEmpty()) {
-                emailService.sendInvoiceEmail(driverEmail, savedInvoice);
-                log.info("Unbilled sessions invoice email sent to driver {} at {}", driver.getId(), driverEmail);
+        // Send invoice email notification (sau khi commit)
+        String driverEmail = driver.getAccount() != null ? driver.getAccount().getEmail() : null;
+        afterCommit(() -> {
+            try {
+                if (driverEmail != null && !driverEmail.isEmpty()) {
+                    emailService.sendInvoiceEmail(driverEmail, savedInvoice);
+                    log.info("Unbilled sessions invoice email sent to driver {} at {}", driver.getId(), driverEmail);
+                }
+            } catch (Exception e) {
+                log.error("Failed to send unbilled invoice email to driver {}: {}", driver.getId(), e.getMessage());
             }
-        } catch (Exception e) {
-            log.error("Failed to send unbilled invoice email to driver {}: {}", driver.getId(), e.getMessage());
-        }
+        });
 
         // 6. Gửi notification
-        try {
-            notificationService.sendInvoiceCreatedNotification(savedInvoice);
-        } catch (Exception e) {
-            log.error("Failed to send notification", e);
-        }
+        sendInvoiceCreatedNotificationAfterCommit(savedInvoice);
 
         log.info("Created consolidated invoice {} for driver {}, amount: {}, sessions: {}, due date: {}",
                 savedInvoice.getId(), driver.getId(), totalSessionsCost, 
@@ -414,8 +525,12 @@ public class InvoiceService implements IInvoiceService {
      * Gửi cho invoices sắp đến hạn (3 ngày trước due date)
      */
     @Scheduled(cron = "0 0 9 * * ?")
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void sendPaymentReminders() {
+        clusterJobService.trigger(JOB_PAYMENT_REMINDERS, ClusterJobService.RunPeriod.DAILY);
+    }
+
+    private void sendPaymentRemindersNow() {
         log.info("========== CHECKING INVOICES FOR REMINDERS ==========");
 
         Instant now = Instant.now();
@@ -446,8 +561,12 @@ public class InvoiceService implements IInvoiceService {
      * Chạy mỗi ngày lúc 01:00 AM
      */
     @Scheduled(cron = "0 0 1 * * ?")
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void checkOverdueInvoices() {
+        clusterJobService.trigger(JOB_OVERDUE_CHECK, ClusterJobService.RunPeriod.DAILY);
+    }
+
+    private void checkOverdueInvoicesNow() {
         log.info("========== CHECKING OVERDUE INVOICES ==========");
 
         Instant now = Instant.now();
@@ -460,6 +579,7 @@ public class InvoiceService implements IInvoiceService {
                 // Update invoice status
                 invoice.setStatus("overdue");
                 invoiceRepository.save(invoice);
+                revenueLedgerService.recordStatusChange(invoice, "unpaid");
 
                 // Gửi warning notification
                 notificationService.sendOverdueWarningNotification(invoice);
@@ -479,8 +599,12 @@ public class InvoiceService implements IInvoiceService {
      * Chạy mỗi ngày lúc 02:00 AM
      */
     @Scheduled(cron = "0 0 2 * * ?")
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void suspendOverdueAccounts() {
+        clusterJobService.trigger(JOB_ACCOUNT_SUSPENSION, ClusterJobService.RunPeriod.DAILY);
+    }
+
+    private void suspendOverdueAccountsNow() {
         log.info("========== CHECKING ACCOUNTS FOR SUSPENSION ==========");
 
         Instant now = Instant.now();
@@ -501,6 +625,8 @@ public class InvoiceService implements IInvoiceService {
                 // Chỉ suspend nếu chưa bị suspend
                 if ("active".equalsIgnoreCase(account.getStatus())) {
                     account.setStatus("suspended");
+                    // Token đang dùng hết hiệu lực ngay → đăng nhập lại và thấy trạng thái suspended
+                    account.revokeTokens();
                     accountRepository.save(account);
 
                     // Gửi notification
@@ -534,4 +660,31 @@ public class InvoiceService implements IInvoiceService {
         return driverRepository.findById(driverId)
                 .orElseThrow(() -> new RuntimeException("Driver not found"));
     }
+
+    /**
+     * Email / notification chỉ gửi khi invoice đã commit: shard rollback (vd mất lease) thì driver không nhận
+     * thông báo cho invoice không tồn tại, và SMTP chậm không kéo dài transaction
+     */
+    private void sendInvoiceCreatedNotificationAfterCommit(Invoice invoice) {
+        afterCommit(() -> {
+            try {
+                notificationService.sendInvoiceCreatedNotification(invoice);
+            } catch (Exception e) {
+                log.error("Failed to send notification for invoice {}", invoice.getId(), e);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
\ No newline at end of file
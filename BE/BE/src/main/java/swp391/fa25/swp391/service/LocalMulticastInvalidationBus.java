@@ -0,0 +1,56 @@
+package swp391.fa25.swp391.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ⭐ Bus trong cùng JVM (cache.bus.type=local)
+ *
+ * Mọi instance trong JVM là 1 "node": sự kiện gửi thẳng tới các instance khác sau commit.
+ * Dùng cho test chạy nhiều application context / nhiều bus trong 1 process, không dùng khi deploy nhiều máy.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.bus.type", havingValue = "local")
+public class LocalMulticastInvalidationBus extends AbstractCacheInvalidationBus {
+
+    private static final Set<LocalMulticastInvalidationBus> MEMBERS = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public LocalMulticastInvalidationBus(ClusterJobService clusterJobService, MeterRegistry meterRegistry) {
+        this(clusterJobService.getNodeId(), meterRegistry);
+    }
+
+    public LocalMulticastInvalidationBus(String nodeId, MeterRegistry meterRegistry) {
+        super(nodeId, "local", meterRegistry);
+        MEMBERS.add(this);
+    }
+
+    /**
+     * Rời nhóm (context đóng / test xong)
+     */
+    @PreDestroy
+    public void close() {
+        MEMBERS.remove(this);
+    }
+
+    @Override
+    protected boolean sendsWithinTransaction() {
+        return false;
+    }
+
+    @Override
+    protected void send(List<Event> events) {
+        for (LocalMulticastInvalidationBus member : MEMBERS) {
+            if (member != this) {
+                events.forEach(member::receive);
+            }
+        }
+    }
+}
@@ -209,6 +209,36 @@ public class NotificationService {
                 driver.getId(), invoice.getId());
     }
 
+    // ==================== WAITLIST NOTIFICATIONS ====================
+
+    /**
+     * Báo driver trong hàng chờ: đã có charger được giữ cho bạn đến expiresAt
+     */
+    public void sendWaitlistOfferNotification(Driver driver, String stationName, String chargerCode, Instant expiresAt) {
+        if (driver == null || driver.getAccount() == null) {
+            log.warn("Cannot send waitlist offer: Driver or Account is null");
+            return;
+        }
+        String email = driver.getAccount().getEmail();
+        String driverName = driver.getAccount().getFullName();
+
+        String message = String.format(
+                "Xin chào %s,\n\n" +
+                        "Đã có trụ sạc trống tại trạm %s.\n" +
+                        "Trụ sạc: %s\n" +
+                        "Chúng tôi giữ trụ này cho bạn đến: %s\n\n" +
+                        "Vui lòng xác nhận trong ứng dụng trước thời hạn, sau đó trụ sẽ được chuyển cho người kế tiếp.\n\n" +
+                        "Trân trọng,\nEV Charging System",
+                driverName,
+                stationName,
+                chargerCode != null ? chargerCode : "N/A",
+                formatInstant(expiresAt)
+        );
+        sendEmail(email, "Có trụ sạc trống - EV Charging", message);
+
+        log.info("Sent waitlist offer notification to driver {} (charger {})", driver.getId(), chargerCode);
+    }
+
     // ==================== LOW-LEVEL SEND METHODS ====================
     /**
      * Gửi Email (Đã tích hợp EmailService)
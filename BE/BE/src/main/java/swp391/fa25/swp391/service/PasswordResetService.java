@@ -6,21 +6,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import swp391.fa25.swp391.constants.VerificationPurpose;
 import swp391.fa25.swp391.entity.Account;
-import swp391.fa25.swp391.entity.PasswordResetToken;
-import swp391.fa25.swp391.repository.PasswordResetTokenRepository;
 import swp391.fa25.swp391.service.IService.IAccountService;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.List;
-import java.util.Random;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PasswordResetService {
 
-    private final PasswordResetTokenRepository tokenRepository;
+    private final VerificationCodeStore codeStore;
     private final IAccountService accountService;
     private final OtpService emailService;
     private final PasswordEncoder passwordEncoder;
@@ -39,33 +37,19 @@ public class PasswordResetService {
             throw new RuntimeException("Email not found");
         }
 
-        // Xóa các OTP cũ của email này
-        tokenRepository.deleteByEmail(email);
-
-        // Generate OTP
-        String otp = generateOtp();
-
-        // Lưu OTP vào database
-        PasswordResetToken token = new PasswordResetToken();
-        token.setEmail(email);
-        token.setOtp(otp);
-        token.setExpiryTime(LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES));
-        token.setUsed(false);
-        tokenRepository.save(token);
+        // Generate OTP, lưu vào kho mã (thay OTP cũ của email này)
+        String otp = VerificationCodeStore.randomDigits(OTP_LENGTH);
+        codeStore.issue(VerificationPurpose.PASSWORD_RESET, email, otp, Duration.ofMinutes(OTP_EXPIRY_MINUTES));
 
         // Gửi email
         emailService.sendOtpEmail(email, otp);
     }
 
     /**
-     * Verify OTP
+     * Verify OTP (không dùng mã - bước nhập mật khẩu mới còn cần)
      */
     public boolean verifyOtp(String email, String otp) {
-        return tokenRepository.findByEmailAndOtpAndUsedFalseAndExpiryTimeAfter(
-                email,
-                otp,
-                LocalDateTime.now()
-        ).isPresent();
+        return codeStore.check(VerificationPurpose.PASSWORD_RESET, email, otp) == VerificationCodeStore.Result.VALID;
     }
 
     /**
@@ -73,10 +57,10 @@ public class PasswordResetService {
      */
     @Transactional
     public void resetPassword(String email, String otp, String newPassword) {
-        // Tìm token
-        PasswordResetToken token = tokenRepository
-                .findByEmailAndOtpAndUsedFalseAndExpiryTimeAfter(email, otp, LocalDateTime.now())
-                .orElseThrow(() -> new RuntimeException("Invalid or expired OTP"));
+        // Dùng OTP (1 lần) - cùng transaction với đổi mật khẩu
+        if (codeStore.consume(VerificationPurpose.PASSWORD_RESET, email, otp) != VerificationCodeStore.Result.VALID) {
+            throw new RuntimeException("Invalid or expired OTP");
+        }
 
         // Tìm account
         List<Account> accounts = accountService.findByEmail(email);
@@ -88,30 +72,14 @@ public class PasswordResetService {
 
         // Cập nhật password
         account.setPassword(passwordEncoder.encode(newPassword));
+        account.revokeTokens();
         accountService.save(account);
-
-        // Đánh dấu token đã dùng
-        token.setUsed(true);
-        tokenRepository.save(token);
-    }
-
-    /**
-     * Generate random OTP
-     */
-    private String generateOtp() {
-        Random random = new Random();
-        StringBuilder otp = new StringBuilder();
-        for (int i = 0; i < OTP_LENGTH; i++) {
-            otp.append(random.nextInt(10));
-        }
-        return otp.toString();
     }
 
     /**
-     * Cleanup expired tokens (có thể chạy scheduled)
+     * Cleanup expired OTP (kho mã cũng tự dọn định kỳ)
      */
-    @Transactional
     public void cleanupExpiredTokens() {
-        tokenRepository.deleteByExpiryTimeBefore(LocalDateTime.now());
+        codeStore.purgeExpired();
     }
-}
\ No newline at end of file
+}
@@ -23,6 +23,7 @@ public class PaymentService {
     private final InvoiceRepository invoiceRepository;
     private final AccountRepository accountRepository;
     private final NotificationService notificationService;
+    private final RevenueLedgerService revenueLedgerService;
 
     /**
      * ⭐ Thanh toán invoice (Updated với Notification)
@@ -40,12 +41,14 @@ public class PaymentService {
         }
 
         // Update invoice
+        String oldStatus = invoice.getStatus();
         invoice.setStatus("paid");
         invoice.setPaidDate(Instant.now());
         invoice.setPaymentMethod(paymentMethod);
         invoice.setPaymentReference("PAY-" + System.currentTimeMillis());
 
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        revenueLedgerService.recordStatusChange(savedInvoice, oldStatus);
 
         // ⭐ Reactivate account nếu bị suspend
         Account account = invoice.getDriver().getAccount();
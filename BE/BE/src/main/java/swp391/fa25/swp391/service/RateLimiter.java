@@ -0,0 +1,28 @@
+package swp391.fa25.swp391.service;
+
+import swp391.fa25.swp391.config.RateLimitProperties;
+
+import java.time.Duration;
+
+/**
+ * ⭐ Token bucket theo key
+ *
+ * - {@link InMemoryRateLimiter}: rate-limit.store=memory (mặc định), bucket trong JVM, không query nào
+ * - {@link DbRateLimiter}: rate-limit.store=db, bucket trong bảng RATE_LIMIT_BUCKET dùng chung giữa các node
+ */
+public interface RateLimiter {
+
+    record Decision(boolean allowed, Duration retryAfter) {
+        public static final Decision ALLOWED = new Decision(true, Duration.ZERO);
+
+        public static Decision rejected(Duration retryAfter) {
+            return new Decision(false, retryAfter);
+        }
+    }
+
+    /**
+     * Lấy 1 token từ bucket của key (tạo bucket đầy nếu chưa có)
+     * @return rejected kèm thời gian tới khi có token kế tiếp nếu bucket rỗng
+     */
+    Decision tryAcquire(String key, RateLimitProperties.Limit limit);
+}
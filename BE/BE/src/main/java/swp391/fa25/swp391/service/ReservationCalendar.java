@@ -0,0 +1,228 @@
+package swp391.fa25.swp391.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.constants.ReservationStatus;
+import swp391.fa25.swp391.entity.Reservation;
+import swp391.fa25.swp391.entity.ReservationCalendarDay;
+import swp391.fa25.swp391.repository.ReservationCalendarDayRepository;
+import swp391.fa25.swp391.repository.ReservationRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ⭐ Lịch đặt chỗ theo (charging point, ngày) dạng {@link SlotBitmap}
+ *
+ * - Đọc (availability, kiểm tra trước khi đặt): bitmap cache trong bộ nhớ, miss thì đọc dòng RESERVATION_CALENDAR_DAY
+ *   (chưa có dòng → dựng từ reservation active / fulfilled của ngày đó, dùng cho dữ liệu cũ)
+ * - Ghi (reserve / release): trong transaction của booking, khóa dòng của từng ngày → kiểm tra → ghi lại đúng dòng đó.
+ *   Đây là kiểm tra trùng có hiệu lực, cache chỉ để hiển thị / lọc sớm
+ * - Sau commit: region RESERVATION_CALENDAR (key pointId@ngày) xóa bitmap cũ trên mọi node
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationCalendar {
+
+    private static final List<String> OCCUPYING_STATUSES = List.of(
+            ReservationStatus.ACTIVE.getCode(), ReservationStatus.FULFILLED.getCode());
+
+    private record Key(Integer pointId, LocalDate day) {
+        String asEventKey() {
+            return pointId + "@" + day;
+        }
+    }
+
+    private final ReservationCalendarDayRepository calendarRepository;
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final ClusterJobService clusterJobService;
+
+    private final Map<Key, long[]> bitmaps = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(CacheRegions.RESERVATION_CALENDAR, event -> {
+            if (event.wholeRegion()) {
+                bitmaps.clear();
+                return;
+            }
+            int separator = event.key().indexOf('@');
+            bitmaps.remove(new Key(Integer.valueOf(event.key().substring(0, separator)),
+                    LocalDate.parse(event.key().substring(separator + 1))));
+        });
+    }
+
+    // ==================== READ ====================
+
+    /**
+     * Bitmap slot đã đặt của các point trong 1 ngày (mảng dùng chung - không được sửa)
+     */
+    public Map<Integer, long[]> occupied(Collection<Integer> pointIds, LocalDate day) {
+        Map<Integer, long[]> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer pointId : pointIds) {
+            long[] cached = bitmaps.get(new Key(pointId, day));
+            if (cached != null) {
+                result.put(pointId, cached);
+            } else {
+                missing.add(pointId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            // Transaction read-write → primary: vừa đặt xong không đọc bitmap cũ từ replica
+            Map<Integer, long[]> loaded = transactionTemplate.execute(status -> load(missing, day));
+            if (loaded != null) {
+                loaded.forEach((pointId, bits) -> bitmaps.putIfAbsent(new Key(pointId, day), bits));
+                result.putAll(loaded);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Khung [start, end) của point còn trống theo cache (kiểm tra nhanh, booking vẫn kiểm tra lại khi khóa dòng)
+     */
+    public boolean isFree(Integer pointId, LocalDateTime start, LocalDateTime end) {
+        for (LocalDate day : days(start, end)) {
+            long[] bits = occupied(List.of(pointId), day).get(pointId);
+            if (!SlotBitmap.isFree(bits, SlotBitmap.slotFrom(day, start), SlotBitmap.slotTo(day, end))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ==================== WRITE (trong transaction booking) ====================
+
+    /**
+     * Đánh dấu [start, end) đã đặt; trùng slot đã đặt → RuntimeException (rollback cả booking)
+     */
+    @Transactional
+    public void reserve(Integer pointId, LocalDateTime start, LocalDateTime end) {
+        update(pointId, start, end, true);
+    }
+
+    /**
+     * Nhả [start, end) (hủy reservation)
+     */
+    @Transactional
+    public void release(Integer pointId, LocalDateTime start, LocalDateTime end) {
+        update(pointId, start, end, false);
+    }
+
+    private void update(Integer pointId, LocalDateTime start, LocalDateTime end, boolean reserve) {
+        List<String> changed = new ArrayList<>();
+        // Khóa theo thứ tự ngày tăng dần → 2 booking nhiều ngày không deadlock lẫn nhau
+        for (LocalDate day : days(start, end)) {
+            int from = SlotBitmap.slotFrom(day, start);
+            int to = SlotBitmap.slotTo(day, end);
+            if (from >= to) {
+                continue;
+            }
+
+            // PESSIMISTIC_WRITE trên SQL Server = UPDLOCK + HOLDLOCK: dòng chưa có cũng bị khóa khoảng khóa
+            // → booking đầu tiên của ngày không bị booking song song INSERT trùng
+            ReservationCalendarDay row = calendarRepository.findForUpdate(pointId, day)
+                    .orElseGet(() -> newRow(pointId, day));
+            long[] bits = SlotBitmap.fromBytes(row.getSlots());
+            if (reserve) {
+                if (!SlotBitmap.isFree(bits, from, to)) {
+                    throw new RuntimeException("Charging point is already reserved for this time slot");
+                }
+                bits = SlotBitmap.set(bits, from, to);
+            } else {
+                bits = SlotBitmap.clear(bits, from, to);
+            }
+            row.setSlots(SlotBitmap.toBytes(bits));
+            calendarRepository.save(row);
+            changed.add(new Key(pointId, day).asEventKey());
+        }
+        if (!changed.isEmpty()) {
+            invalidationBus.publish(CacheRegions.RESERVATION_CALENDAR, changed);
+        }
+    }
+
+    private ReservationCalendarDay newRow(Integer pointId, LocalDate day) {
+        ReservationCalendarDay row = new ReservationCalendarDay();
+        row.setChargingPointId(pointId);
+        row.setDay(day);
+        row.setSlots(SlotBitmap.toBytes(buildFromReservations(List.of(pointId), day).get(pointId)));
+        return row;
+    }
+
+    // ==================== LOAD ====================
+
+    private Map<Integer, long[]> load(List<Integer> pointIds, LocalDate day) {
+        Map<Integer, long[]> result = new HashMap<>();
+        for (ReservationCalendarDay row : calendarRepository.findByChargingPointIdInAndDay(pointIds, day)) {
+            result.put(row.getChargingPointId(), SlotBitmap.fromBytes(row.getSlots()));
+        }
+        List<Integer> withoutRow = pointIds.stream().filter(id -> !result.containsKey(id)).toList();
+        if (!withoutRow.isEmpty()) {
+            result.putAll(buildFromReservations(withoutRow, day));
+        }
+        return result;
+    }
+
+    /**
+     * Bitmap từ reservation còn giữ chỗ (ngày chưa có dòng calendar: chưa ai đặt qua calendar, hoặc dữ liệu cũ)
+     */
+    private Map<Integer, long[]> buildFromReservations(List<Integer> pointIds, LocalDate day) {
+        Map<Integer, long[]> result = new HashMap<>();
+        pointIds.forEach(id -> result.put(id, SlotBitmap.empty()));
+        List<Reservation> reservations = reservationRepository.findOverlappingForPoints(
+                pointIds, day.atStartOfDay(), day.plusDays(1).atStartOfDay(), OCCUPYING_STATUSES);
+        for (Reservation reservation : reservations) {
+            Integer pointId = reservation.getChargingPoint().getId();
+            int from = SlotBitmap.slotFrom(day, reservation.getStartTime());
+            int to = SlotBitmap.slotTo(day, reservation.getEndTime());
+            if (from < to) {
+                result.put(pointId, SlotBitmap.set(result.get(pointId), from, to));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Các ngày mà [start, end) chạm tới
+     */
+    static List<LocalDate> days(LocalDateTime start, LocalDateTime end) {
+        List<LocalDate> days = new ArrayList<>();
+        LocalDate last = end.minusNanos(1).toLocalDate();
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            days.add(day);
+        }
+        return days;
+    }
+
+    // ==================== CLEANUP ====================
+
+    /**
+     * Bỏ bitmap của ngày đã qua: cache mọi node, dòng DB 1 node / lần
+     */
+    @Scheduled(cron = "0 15 0 * * ?")
+    public void purgePastDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        bitmaps.keySet().removeIf(key -> key.day().isBefore(yesterday));
+        clusterJobService.runExclusive("reservation.calendar.purge", Duration.ofMinutes(10), Duration.ofMinutes(5), () -> {
+            Integer deleted = transactionTemplate.execute(status -> calendarRepository.deleteByDayBefore(yesterday));
+            log.info("Reservation calendar purge: {} past day rows deleted", deleted);
+        });
+    }
+}
@@ -2,19 +2,39 @@ package swp391.fa25.swp391.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.constants.ChargerStatus;
+import swp391.fa25.swp391.constants.ChargerStatusCause;
+import swp391.fa25.swp391.constants.ReservationStatus;
+import swp391.fa25.swp391.constants.WaitlistStatus;
+import swp391.fa25.swp391.dto.response.AvailableSlotResponse;
+import swp391.fa25.swp391.dto.response.StationAvailabilityResponse;
 import swp391.fa25.swp391.entity.Charger;
 import swp391.fa25.swp391.entity.ChargingPoint;
 import swp391.fa25.swp391.entity.Reservation;
+import swp391.fa25.swp391.entity.listener.CacheInvalidationListener;
 import swp391.fa25.swp391.repository.ChargerRepository;
 import swp391.fa25.swp391.repository.ChargingPointRepository;
 import swp391.fa25.swp391.repository.ReservationRepository;
 import swp391.fa25.swp391.service.IService.IReservationService;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -24,17 +44,42 @@ public class ReservationService implements IReservationService {
     private final ReservationRepository reservationRepository;
     private final ChargingPointRepository chargingPointRepository;
     private final ChargerRepository chargerRepository; // NEW
+    private final ClusterJobService clusterJobService;
+    private final TransactionTemplate transactionTemplate;
+    private final ReservationCalendar reservationCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheInvalidationBus invalidationBus;
+    private final ChargerStateMachine chargerStateMachine;
+
+    private static final String JOB_RESERVATION_EXPIRY = "reservation.expiry";
+
+    // ⭐ Đặt trước: startTime cách hiện tại ít nhất 1 slot mới tính là đặt trước, tối đa horizon-days ngày tới
+    private static final Duration ADVANCE_MIN_LEAD = Duration.ofMinutes(SlotBitmap.SLOT_MINUTES);
+    // Được bắt đầu sạc sớm hơn giờ đặt tối đa; đặt trước giữ charger / point (BOOKED) từ lúc này,
+    // sạc vãng lai (ChargerService) không được chiếm point có lịch đặt trong khoảng này
+    static final Duration EARLY_CHECK_IN = Duration.ofMinutes(15);
+
+    @Value("${reservation.calendar.horizon-days:14}")
+    private int horizonDays;
 
     // Reservation Status Constants
-    private static final String STATUS_ACTIVE = "active";         // Đã đặt chỗ (point = booked)
-    private static final String STATUS_FULFILLED = "fulfilled";   // Đã quét QR, đang sạc (point = using)
-    private static final String STATUS_CANCELLED = "cancelled";   // User hủy
-    private static final String STATUS_EXPIRED = "expired";       // Hết giờ chưa sử dụng
+    private static final String STATUS_ACTIVE = ReservationStatus.ACTIVE.getCode();         // Đã đặt chỗ (point = booked)
+    private static final String STATUS_FULFILLED = ReservationStatus.FULFILLED.getCode();   // Đã quét QR, đang sạc (point = using)
+    private static final String STATUS_CANCELLED = ReservationStatus.CANCELLED.getCode();   // User hủy
+    private static final String STATUS_EXPIRED = ReservationStatus.EXPIRED.getCode();       // Hết giờ chưa sử dụng
 
     // ChargingPoint Status Constants
     private static final String POINT_STATUS_ACTIVE = "active";
     private static final String POINT_STATUS_BOOKED = "booked";
     private static final String POINT_STATUS_USING = "using";
+    private static final String POINT_STATUS_INACTIVE = "inactive";
+    private static final String POINT_STATUS_MAINTENANCE = "maintenance";
+
+    private static final String CHARGER_STATUS_ACTIVE = "active";
+    private static final String CHARGER_STATUS_BOOKED = "booked";
+
+    // Số id mỗi lệnh UPDATE ... IN (SQL Server giới hạn 2100 tham số / lệnh)
+    private static final int EXPIRY_BATCH_SIZE = 1000;
 
     // ==================== CRUD Operations ====================
 
@@ -42,9 +87,15 @@ public class ReservationService implements IReservationService {
     public Reservation createReservation(Reservation reservation) {
         ChargingPoint chargingPoint = reservation.getChargingPoint();
         Charger charger = reservation.getCharger();
-        
-        // NEW: Validate charger if provided
-        if (charger != null) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // ⭐ Đặt trước: driver chọn startTime ở tương lai → chỉ giữ slot trên lịch, charger / point chưa bị BOOKED
+        boolean advance = reservation.getStartTime() != null
+                && reservation.getStartTime().isAfter(now.plus(ADVANCE_MIN_LEAD));
+
+        if (advance) {
+            validateAdvanceReservation(reservation, now);
+        } else if (charger != null) {
             // Kiểm tra charger có available không
             if (!"active".equalsIgnoreCase(charger.getStatus())) {
                 throw new RuntimeException("Charger is not available for reservation");
@@ -61,39 +112,37 @@ public class ReservationService implements IReservationService {
             }
         }
         
-        // Set start_time = NOW, end_time = start_time + duration
-        LocalDateTime now = LocalDateTime.now();
-        reservation.setStartTime(now);
-        // end_time được set từ request (ví dụ: now + 1 hour)
-        
-        // Kiểm tra trùng lịch
-        List<Reservation> existingReservations = reservationRepository
-                .findByChargingPointIdAndStatusNot(chargingPoint.getId(), STATUS_CANCELLED);
-
-        for (Reservation existing : existingReservations) {
-            // Chỉ kiểm tra những reservation chưa expired/fulfilled
-            if ((STATUS_ACTIVE.equals(existing.getStatus())) &&
-                isTimeOverlap(reservation.getStartTime(), reservation.getEndTime(),
-                              existing.getStartTime(), existing.getEndTime())) {
-                throw new RuntimeException("Charging point is already reserved for this time slot");
-            }
+        if (!advance) {
+            // Giữ chỗ ngay: start_time = NOW, end_time được set từ request
+            reservation.setStartTime(now);
+        }
+        if (reservation.getEndTime() == null || !reservation.getEndTime().isAfter(reservation.getStartTime())) {
+            throw new RuntimeException("Reservation end time must be after start time");
         }
+        
+        // Kiểm tra trùng lịch + giữ slot: bitmap ngày của point (khóa dòng lịch, không quét reservation)
+        reservationCalendar.reserve(chargingPoint.getId(), reservation.getStartTime(), reservation.getEndTime());
 
         // Lưu reservation với status ACTIVE ngay lập tức
         reservation.setStatus(STATUS_ACTIVE);
+        reservation.setStatusHeld(!advance);
         Reservation savedReservation = reservationRepository.save(reservation);
         
-        // NEW: Đánh dấu charger là BOOKED (nếu có)
-        if (charger != null) {
-            reserveCharger(charger);
+        if (!advance) {
+            // NEW: Đánh dấu charger là BOOKED (nếu có)
+            if (charger != null) {
+                reserveCharger(charger, savedReservation.getId());
+            }
+
+            // Đánh dấu charging point là BOOKED
+            reserveChargingPointOnly(chargingPoint);
         }
         
-        // Đánh dấu charging point là BOOKED
-        reserveChargingPointOnly(chargingPoint);
-        
-        log.info("Created reservation {} with status ACTIVE for driver {}, valid until {}", 
+        log.info("Created {} reservation {} with status ACTIVE for driver {}, {} - {}",
+                advance ? "advance" : "immediate",
                 savedReservation.getId(),
                 savedReservation.getDriver().getId(),
+                savedReservation.getStartTime(),
                 savedReservation.getEndTime());
         
         // FIX: Refresh entity để lấy ChargingPoint đã updated (tránh detached entity)
@@ -101,11 +150,18 @@ public class ReservationService implements IReservationService {
                 .orElse(savedReservation);
     }
 
+    /**
+     * Mỗi phút trên mọi node, nhưng lease "reservation.expiry" đảm bảo chỉ 1 node xử lý mỗi lần tick:
+     * hết hạn reservation quá giờ, rồi giữ charger cho đặt trước tới giờ check-in
+     */
     @Override
     @Scheduled(fixedRate = 60000)
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processReservations() {
-        processExpiredReservations();
+        clusterJobService.runExclusive(JOB_RESERVATION_EXPIRY, Duration.ofMinutes(5), Duration.ofSeconds(30), () -> {
+            transactionTemplate.executeWithoutResult(status -> processExpiredReservations());
+            holdDueReservations();
+        });
     }
 
     @Override
@@ -153,7 +209,7 @@ public class ReservationService implements IReservationService {
     public Reservation cancelReservation(Long reservationId, Long driverId) {
         log.info("Attempting to cancel reservation {} by driver {}", reservationId, driverId);
         
-        Reservation reservation = reservationRepository.findById(reservationId)
+        Reservation reservation = reservationRepository.findByIdForUpdate(reservationId)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
 
         log.info("Found reservation - Status: {}, Driver: {}", 
@@ -178,13 +234,22 @@ public class ReservationService implements IReservationService {
         reservation.setStatus(STATUS_CANCELLED);
         Reservation savedReservation = reservationRepository.save(reservation);
         
-        // Nhả charger về ACTIVE (nếu có)
-        if (reservation.getCharger() != null) {
-            releaseCharger(reservation.getCharger());
+        // Chỉ nhả BOOKED do chính reservation này đặt (đặt trước chưa tới giờ check-in thì chưa giữ gì)
+        if (Boolean.TRUE.equals(reservation.getStatusHeld())) {
+            // Nhả charger về ACTIVE (nếu có)
+            if (reservation.getCharger() != null) {
+                releaseCharger(reservation.getCharger(), reservation.getId());
+            }
+
+            // Nhả charging point về ACTIVE
+            releaseChargingPointOnly(reservation.getChargingPoint());
+        }
+
+        // Nhả slot trên lịch đặt chỗ
+        if (reservation.getChargingPoint() != null) {
+            reservationCalendar.release(reservation.getChargingPoint().getId(),
+                    reservation.getStartTime(), reservation.getEndTime());
         }
-        
-        // Nhả charging point về ACTIVE
-        releaseChargingPointOnly(reservation.getChargingPoint());
         
         log.info("Successfully cancelled reservation {}", reservationId);
         return savedReservation;
@@ -206,6 +271,11 @@ public class ReservationService implements IReservationService {
         if (LocalDateTime.now().isAfter(reservation.getEndTime())) {
             throw new RuntimeException("Reservation has expired");
         }
+
+        // Đặt trước: chỉ được bắt đầu sạc từ EARLY_CHECK_IN trước giờ đặt
+        if (LocalDateTime.now().isBefore(reservation.getStartTime().minus(EARLY_CHECK_IN))) {
+            throw new RuntimeException("Reservation has not started yet. Start time: " + reservation.getStartTime());
+        }
         
         // Cập nhật thành FULFILLED
         reservation.setStatus(STATUS_FULFILLED);
@@ -214,55 +284,253 @@ public class ReservationService implements IReservationService {
         log.info("Fulfilled reservation {} - User started charging session", reservationId);
     }
 
+    /**
+     * Đặt trước tới giờ check-in (start_time - EARLY_CHECK_IN) → giữ charger / point như đặt ngay.
+     * Mỗi reservation 1 transaction ngắn; charger chưa rảnh (vd: phiên vãng lai chưa xong) thì lượt sau thử lại.
+     */
+    void holdDueReservations() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = reservationRepository.findIdsDueForHold(STATUS_ACTIVE, now.plus(EARLY_CHECK_IN), now);
+        for (Long reservationId : dueIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> holdReservation(reservationId));
+            } catch (Exception e) {
+                log.error("Failed to hold charger for reservation {}: {}", reservationId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void holdReservation(Long reservationId) {
+        Reservation reservation = reservationRepository.findByIdForUpdate(reservationId).orElse(null);
+        if (reservation == null || !STATUS_ACTIVE.equals(reservation.getStatus())
+                || Boolean.TRUE.equals(reservation.getStatusHeld())) {
+            return;
+        }
+        ChargingPoint chargingPoint = reservation.getChargingPoint();
+
+        // Đặt theo point: chọn charger ACTIVE đầu tiên lúc tới giờ
+        Charger charger = reservation.getCharger() != null
+                ? chargerRepository.findByIdForUpdate(reservation.getCharger().getId()).orElse(null)
+                : chargerRepository.findByChargingPointIdAndStatus(chargingPoint.getId(), CHARGER_STATUS_ACTIVE).stream()
+                        .findFirst()
+                        .flatMap(candidate -> chargerRepository.findByIdForUpdate(candidate.getId()))
+                        .orElse(null);
+        if (charger == null || !CHARGER_STATUS_ACTIVE.equals(charger.getStatus())) {
+            log.debug("Reservation {} is due but no active charger yet, retrying next tick", reservationId);
+            return;
+        }
+
+        reserveCharger(charger, reservationId);
+        if (POINT_STATUS_ACTIVE.equals(chargingPoint.getStatus())) {
+            reserveChargingPointOnly(chargingPoint);
+        }
+        reservation.setCharger(charger);
+        reservation.setStatusHeld(true);
+        reservationRepository.save(reservation);
+        log.info("Advance reservation {} reached check-in, holding charger {}", reservationId, charger.getId());
+    }
+
+    // ==================== Availability (lịch đặt chỗ) ====================
+
+    /**
+     * Khung [start, end) của point còn trống (lọc sớm trước khi đặt, booking vẫn kiểm tra lại khi khóa lịch)
+     */
+    public boolean isSlotFree(Integer chargingPointId, LocalDateTime start, LocalDateTime end) {
+        return reservationCalendar.isFree(chargingPointId, start, end);
+    }
+
+    /**
+     * Khung trống từng point của trạm trong 1 ngày (slot đã qua của hôm nay không tính)
+     */
+    public StationAvailabilityResponse getStationAvailability(Integer stationId, LocalDate date) {
+        List<ChargingPoint> points = findReservablePoints(stationId);
+        Map<Integer, long[]> occupied = reservationCalendar.occupied(
+                points.stream().map(ChargingPoint::getId).toList(), date);
+        int fromSlot = firstBookableSlot(date, LocalDateTime.now());
+
+        List<StationAvailabilityResponse.PointAvailability> pointAvailabilities = new ArrayList<>();
+        for (ChargingPoint point : points) {
+            long[] bits = occupied.get(point.getId());
+            long[] free = SlotBitmap.freeRunStarts(bits, 1);
+            List<StationAvailabilityResponse.TimeWindow> windows = new ArrayList<>();
+            for (int start = SlotBitmap.nextSetBit(free, fromSlot); start >= 0; ) {
+                int end = SlotBitmap.nextSetBit(bits, start);
+                if (end < 0) {
+                    end = SlotBitmap.SLOTS_PER_DAY;
+                }
+                windows.add(StationAvailabilityResponse.TimeWindow.builder()
+                        .start(SlotBitmap.slotStart(date, start))
+                        .end(SlotBitmap.slotStart(date, end))
+                        .build());
+                start = SlotBitmap.nextSetBit(free, end);
+            }
+            pointAvailabilities.add(StationAvailabilityResponse.PointAvailability.builder()
+                    .chargingPointId(point.getId())
+                    .chargingPointName(point.getPointName())
+                    .freeWindows(windows)
+                    .build());
+        }
+
+        return StationAvailabilityResponse.builder()
+                .stationId(stationId)
+                .date(date)
+                .slotMinutes(SlotBitmap.SLOT_MINUTES)
+                .points(pointAvailabilities)
+                .build();
+    }
+
+    /**
+     * Khung trống sớm nhất dài durationMinutes trên bất kỳ point nào của trạm, từ thời điểm from,
+     * trong horizon-days ngày tới. Khung không vắt qua nửa đêm.
+     */
+    public Optional<AvailableSlotResponse> findFirstAvailable(Integer stationId, LocalDateTime from, int durationMinutes) {
+        int length = (durationMinutes + SlotBitmap.SLOT_MINUTES - 1) / SlotBitmap.SLOT_MINUTES;
+        if (length <= 0 || length > SlotBitmap.SLOTS_PER_DAY) {
+            throw new RuntimeException("Duration must be between 1 minute and 24 hours");
+        }
+        List<ChargingPoint> points = findReservablePoints(stationId);
+        if (points.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Integer> pointIds = points.stream().map(ChargingPoint::getId).toList();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime earliest = from == null || from.isBefore(now) ? now : from;
+        LocalDate lastDay = now.toLocalDate().plusDays(horizonDays);
+        for (LocalDate day = earliest.toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            Map<Integer, long[]> occupied = reservationCalendar.occupied(pointIds, day);
+            int fromSlot = day.equals(earliest.toLocalDate()) ? SlotBitmap.slotTo(day, earliest) : 0;
+
+            ChargingPoint bestPoint = null;
+            int bestSlot = -1;
+            for (ChargingPoint point : points) {
+                int slot = SlotBitmap.nextSetBit(SlotBitmap.freeRunStarts(occupied.get(point.getId()), length), fromSlot);
+                if (slot >= 0 && (bestSlot < 0 || slot < bestSlot)) {
+                    bestSlot = slot;
+                    bestPoint = point;
+                }
+            }
+            if (bestPoint != null) {
+                return Optional.of(AvailableSlotResponse.builder()
+                        .stationId(stationId)
+                        .chargingPointId(bestPoint.getId())
+                        .chargingPointName(bestPoint.getPointName())
+                        .startTime(SlotBitmap.slotStart(day, bestSlot))
+                        .endTime(SlotBitmap.slotStart(day, bestSlot + length))
+                        .build());
+            }
+        }
+        return Optional.empty();
+    }
+
     // ==================== Scheduled Tasks ====================
 
     /**
      * Chạy mỗi 1 phút để kiểm tra reservations đã hết hạn
+     * ⭐ Set-based: 1 SELECT id, rồi mỗi lô EXPIRY_BATCH_SIZE reservation vài UPDATE có điều kiện
+     * (reservation → expired, charger / point còn BOOKED → active) thay vì load + save từng reservation / charger / point
+     *
+     * @return id các reservation vừa chuyển sang EXPIRED
      */
     @Transactional
-    public void processExpiredReservations() {
+    public List<Long> processExpiredReservations() {
         LocalDateTime now = LocalDateTime.now();
         
         log.debug("Checking for expired reservations at {}", now);
         
-        // Tìm reservations ACTIVE đã hết hạn (end_time < now)
-        List<Reservation> expiredReservations = reservationRepository
-                .findExpiredReservations(now, List.of(STATUS_ACTIVE));
+        // [reservationId, chargerId, pointId, stationId] của reservation ACTIVE đã hết hạn (end_time < now)
+        List<Object[]> targets = reservationRepository.findExpiredTargets(now, STATUS_ACTIVE);
         
-        if (expiredReservations.isEmpty()) {
-            return;
+        if (targets.isEmpty()) {
+            return List.of();
         }
         
-        log.info("Found {} expired reservations", expiredReservations.size());
+        List<Long> expiredIds = new ArrayList<>(targets.size());
+        for (int from = 0; from < targets.size(); from += EXPIRY_BATCH_SIZE) {
+            expiredIds.addAll(expireBatch(targets.subList(from, Math.min(from + EXPIRY_BATCH_SIZE, targets.size())), now));
+        }
         
-        for (Reservation reservation : expiredReservations) {
-            try {
-                log.info("Processing expired reservation ID: {}, EndTime: {}", 
-                        reservation.getId(), 
-                        reservation.getEndTime());
-                
-                // Cập nhật status thành EXPIRED
-                reservation.setStatus(STATUS_EXPIRED);
-                reservationRepository.save(reservation);
-                
-                // ⭐ NEW: Nhả charger về ACTIVE (nếu có)
-                if (reservation.getCharger() != null) {
-                    releaseCharger(reservation.getCharger());
-                }
-                
-                // Nhả charging point về ACTIVE
-                ChargingPoint chargingPoint = reservation.getChargingPoint();
-                if (chargingPoint != null) {
-                    releaseChargingPointOnly(chargingPoint);
-                }
-                
-                log.info("Successfully expired reservation {}", reservation.getId());
-                        
-            } catch (Exception e) {
-                log.error("Error processing expired reservation {}: {}",
-                        reservation.getId(), e.getMessage(), e);
+        log.info("Expired {} reservations: {}", expiredIds.size(), expiredIds);
+        return expiredIds;
+    }
+
+    private List<Long> expireBatch(List<Object[]> batch, LocalDateTime now) {
+        List<Long> ids = batch.stream().map(row -> (Long) row[0]).toList();
+        int updated = reservationRepository.expireByIds(ids, STATUS_ACTIVE, STATUS_EXPIRED, now);
+        if (updated == 0) {
+            return List.of();
+        }
+        // Thường đổi đủ cả lô; thiếu = có reservation vừa bị hủy / fulfill song song → đọc lại đúng các id đã đổi
+        Set<Long> expired = new HashSet<>(updated == ids.size()
+                ? ids
+                : reservationRepository.findIdsByIdInAndStatus(ids, STATUS_EXPIRED));
+
+        Map<Integer, Integer> stationByCharger = new HashMap<>();
+        Map<Integer, Long> reservationByCharger = new HashMap<>();
+        Map<Integer, Integer> stationByPoint = new HashMap<>();
+        for (Object[] row : batch) {
+            // Chỉ nhả BOOKED do chính reservation này đặt
+            if (!expired.contains((Long) row[0]) || !Boolean.TRUE.equals(row[4])) {
+                continue;
+            }
+            if (row[1] != null) {
+                stationByCharger.put((Integer) row[1], (Integer) row[3]);
+                reservationByCharger.put((Integer) row[1], (Long) row[0]);
+            }
+            if (row[2] != null) {
+                stationByPoint.put((Integer) row[2], (Integer) row[3]);
             }
         }
+
+        // Chỉ nhả về ACTIVE những charger / point còn BOOKED (đang sạc / bảo trì thì giữ nguyên)
+        // + không còn reservation ACTIVE khác / offer hàng chờ đang giữ; UPDATE lặp lại điều kiện, lệch số dòng → rollback
+        List<Integer> releasedChargers = stationByCharger.isEmpty()
+                ? List.of()
+                : chargerRepository.findReleasableIdsForUpdate(stationByCharger.keySet(), CHARGER_STATUS_BOOKED,
+                        STATUS_ACTIVE, WaitlistStatus.OFFERED);
+        if (!releasedChargers.isEmpty()) {
+            int updatedChargers = chargerRepository.releaseByIdIn(releasedChargers, CHARGER_STATUS_BOOKED,
+                    CHARGER_STATUS_ACTIVE, STATUS_ACTIVE, WaitlistStatus.OFFERED);
+            requireAllUpdated("chargers", releasedChargers.size(), updatedChargers);
+            // Dòng đã khóa + đủ số dòng đổi → log đúng các charger vừa BOOKED → ACTIVE
+            chargerStateMachine.recordBulk(releasedChargers, ChargerStatus.BOOKED, ChargerStatus.ACTIVE,
+                    ChargerStatusCause.RESERVATION_EXPIRY, reservationByCharger);
+        }
+        List<Integer> releasedPoints = stationByPoint.isEmpty()
+                ? List.of()
+                : chargingPointRepository.findReleasableIdsForUpdate(stationByPoint.keySet(), POINT_STATUS_BOOKED,
+                        STATUS_ACTIVE);
+        if (!releasedPoints.isEmpty()) {
+            int updatedPoints = chargingPointRepository.releaseByIdIn(releasedPoints, POINT_STATUS_BOOKED,
+                    POINT_STATUS_ACTIVE, STATUS_ACTIVE);
+            requireAllUpdated("charging points", releasedPoints.size(), updatedPoints);
+        }
+
+        // Bulk UPDATE không qua entity listener → tự báo cache topology các node khác + hàng chờ của trạm
+        publishTopology("ChargingPoint", releasedPoints);
+        releasedChargers.forEach(id -> eventPublisher.publishEvent(new ChargerFreedEvent(stationByCharger.get(id), id)));
+        releasedPoints.forEach(id -> eventPublisher.publishEvent(new ChargerFreedEvent(stationByPoint.get(id), null)));
+
+        log.info("Expiry batch: {} reservations expired, released {} chargers and {} charging points",
+                expired.size(), releasedChargers.size(), releasedPoints.size());
+        return ids.stream().filter(expired::contains).toList();
+    }
+
+    /**
+     * Bulk UPDATE phải đổi đúng các dòng vừa chọn; thiếu = dòng bị đổi song song → rollback cả lượt, tick sau chạy lại
+     */
+    private static void requireAllUpdated(String what, int expected, int updated) {
+        if (updated != expected) {
+            throw new IllegalStateException(String.format(
+                    "Reservation expiry released %d of %d %s (concurrent change), rolling back", updated, expected, what));
+        }
+    }
+
+    private void publishTopology(String entityName, List<Integer> ids) {
+        if (!ids.isEmpty()) {
+            invalidationBus.publish(CacheRegions.TOPOLOGY,
+                    ids.stream().map(id -> CacheInvalidationListener.entityKey(entityName, id)).toList());
+        }
     }
 
     // ==================== Helper Methods ====================
@@ -270,10 +538,10 @@ public class ReservationService implements IReservationService {
     /**
      * ⭐ NEW: Đánh dấu Charger thành BOOKED (khi tạo reservation ACTIVE)
      */
-    private void reserveCharger(Charger charger) {
+    private void reserveCharger(Charger charger, Long reservationId) {
         if (charger == null) return;
         
-        charger.setStatus("booked");
+        chargerStateMachine.transition(charger, ChargerStatus.BOOKED, ChargerStatusCause.RESERVATION, reservationId);
         chargerRepository.save(charger);
         log.info("Set Charger {} to booked", charger.getId());
     }
@@ -281,16 +549,17 @@ public class ReservationService implements IReservationService {
     /**
      * ⭐ NEW: Nhả Charger về ACTIVE (khi reservation EXPIRED/CANCELLED)
      */
-    private void releaseCharger(Charger charger) {
+    private void releaseCharger(Charger charger, Long reservationId) {
         if (charger == null) return;
         
         log.info("Releasing Charger {}, current status: {}", charger.getId(), charger.getStatus());
         
         // Chỉ nhả về ACTIVE nếu đang ở trạng thái BOOKED
         if ("booked".equalsIgnoreCase(charger.getStatus())) {
-            charger.setStatus("active");
+            chargerStateMachine.transition(charger, ChargerStatus.ACTIVE, ChargerStatusCause.RESERVATION, reservationId);
             chargerRepository.save(charger);
             log.info("Released Charger {} to active", charger.getId());
+            publishFreed(charger.getChargingPoint(), charger.getId());
         }
     }
 
@@ -320,11 +589,59 @@ public class ReservationService implements IReservationService {
             chargingPoint.setStatus(POINT_STATUS_ACTIVE);
             chargingPointRepository.save(chargingPoint);
             log.info("Released ChargingPoint {} to {}", chargingPoint.getId(), POINT_STATUS_ACTIVE);
+            publishFreed(chargingPoint, null);
+        }
+    }
+
+    /**
+     * Charger / point vừa rảnh → sau commit offer cho hàng chờ của trạm
+     */
+    private void publishFreed(ChargingPoint chargingPoint, Integer chargerId) {
+        if (chargingPoint != null && chargingPoint.getStation() != null) {
+            eventPublisher.publishEvent(new ChargerFreedEvent(chargingPoint.getStation().getId(), chargerId));
+        }
+    }
+
+    /**
+     * Đặt trước: khung hợp lệ, trong horizon, point / charger không ngưng hoạt động
+     * (đang using / booked lúc này vẫn đặt được - lịch đặt chỗ quyết định có trùng hay không)
+     */
+    private void validateAdvanceReservation(Reservation reservation, LocalDateTime now) {
+        if (reservation.getStartTime().isAfter(now.plusDays(horizonDays))) {
+            throw new RuntimeException("Reservations can be made at most " + horizonDays + " days in advance");
+        }
+        ChargingPoint chargingPoint = reservation.getChargingPoint();
+        if (!isReservable(chargingPoint.getStatus())) {
+            throw new RuntimeException("Charging point is not available");
+        }
+        Charger charger = reservation.getCharger();
+        if (charger != null) {
+            if (!charger.getChargingPoint().getId().equals(chargingPoint.getId())) {
+                throw new RuntimeException("Charger does not belong to this charging point");
+            }
+            if (!isReservable(charger.getStatus())) {
+                throw new RuntimeException("Charger is not available for reservation");
+            }
         }
     }
 
-    private boolean isTimeOverlap(LocalDateTime start1, LocalDateTime end1,
-                                   LocalDateTime start2, LocalDateTime end2) {
-        return start1.isBefore(end2) && start2.isBefore(end1);
+    private List<ChargingPoint> findReservablePoints(Integer stationId) {
+        return chargingPointRepository.findByStationIdNotDeleted(stationId).stream()
+                .filter(point -> isReservable(point.getStatus()))
+                .toList();
+    }
+
+    private static boolean isReservable(String status) {
+        return !POINT_STATUS_INACTIVE.equalsIgnoreCase(status) && !POINT_STATUS_MAINTENANCE.equalsIgnoreCase(status);
+    }
+
+    /**
+     * Slot đầu tiên còn đặt được trong ngày: hôm nay → slot sau thời điểm hiện tại, ngày đã qua → không còn slot
+     */
+    private static int firstBookableSlot(LocalDate date, LocalDateTime now) {
+        if (date.isBefore(now.toLocalDate())) {
+            return SlotBitmap.SLOTS_PER_DAY;
+        }
+        return date.equals(now.toLocalDate()) ? SlotBitmap.slotTo(date, now) : 0;
     }
 }
\ No newline at end of file
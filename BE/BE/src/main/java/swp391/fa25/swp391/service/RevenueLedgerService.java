@@ -0,0 +1,256 @@
+package swp391.fa25.swp391.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.entity.Invoice;
+import swp391.fa25.swp391.entity.RevenueLedger;
+import swp391.fa25.swp391.repository.ChargingSessionArchiveRepository;
+import swp391.fa25.swp391.repository.ChargingSessionRepository;
+import swp391.fa25.swp391.repository.InvoiceRepository;
+import swp391.fa25.swp391.repository.RevenueLedgerRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ⭐ Service quản lý revenue ledger (doanh thu tổng hợp sẵn theo ngày/facility/plan/status)
+ *
+ * - Invoice được ghi vào bucket theo NGÀY PHÁT HÀNH (issueDate), nên khi đổi status
+ *   chỉ chuyển tiền từ bucket status cũ sang bucket status mới của cùng ngày.
+ * - Tiền session được phân bổ theo facility của charger; phần còn lại (phí gói tháng)
+ *   ghi vào FACILITY_ID = 0.
+ * - INVOICE_COUNT chỉ cộng vào 1 bucket (facility được phân bổ nhiều tiền nhất) → invoice
+ *   trải nhiều facility vẫn chỉ đếm 1 lần khi SUM(INVOICE_COUNT).
+ * - Mọi hàm record* chạy trong transaction của caller (REQUIRED).
+ * - Bucket chưa có: tạo dòng 0 trong transaction riêng (2 writer đầu tiên cùng bucket → 1 bên trùng key,
+ *   bỏ qua) rồi UPDATE lại trong transaction của caller → lỗi trùng key không rollback invoice.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RevenueLedgerService {
+
+    public static final Integer UNATTRIBUTED_FACILITY = 0;
+    public static final Integer NO_PLAN = 0;
+
+    private final RevenueLedgerRepository ledgerRepository;
+    private final ChargingSessionRepository sessionRepository;
+    private final ChargingSessionArchiveRepository sessionArchiveRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate bucketTx; // REQUIRES_NEW: tạo bucket rỗng, commit ngay
+
+    @PostConstruct
+    void init() {
+        bucketTx = new TransactionTemplate(transactionManager);
+        bucketTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ==================== WRITE SIDE ====================
+
+    /**
+     * Ghi invoice mới tạo vào ledger
+     * Gọi SAU khi đã gán invoice cho các sessions
+     */
+    @Transactional
+    public void recordInvoiceCreated(Invoice invoice) {
+        apply(invoice, invoice.getStatus(), 1, false);
+    }
+
+    /**
+     * Chuyển doanh thu của invoice từ bucket status cũ sang status hiện tại
+     */
+    @Transactional
+    public void recordStatusChange(Invoice invoice, String oldStatus) {
+        if (normalizeStatus(oldStatus).equals(normalizeStatus(invoice.getStatus()))) {
+            return;
+        }
+        apply(invoice, oldStatus, -1, false);
+        apply(invoice, invoice.getStatus(), 1, false);
+        log.debug("Ledger: invoice {} moved {} -> {}", invoice.getId(), oldStatus, invoice.getStatus());
+    }
+
+    /**
+     * Dựng lại toàn bộ ledger từ bảng INVOICE (backfill / sửa lệch)
+     */
+    @Transactional
+    public int rebuildFromInvoices() {
+        log.info("========== REBUILDING REVENUE LEDGER ==========");
+        ledgerRepository.deleteAllInBatch();
+
+        List<Invoice> invoices = invoiceRepository.findAll();
+        // Bảng vừa xóa trong chính transaction này → insert thẳng (transaction riêng sẽ chờ khóa của dòng đã xóa)
+        for (Invoice invoice : invoices) {
+            apply(invoice, invoice.getStatus(), 1, true);
+        }
+
+        log.info("Revenue ledger rebuilt from {} invoices", invoices.size());
+        return invoices.size();
+    }
+
+    /**
+     * Lần đầu deploy: ledger trống nhưng đã có invoice → backfill
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (ledgerRepository.count() == 0 && invoiceRepository.count() > 0) {
+            rebuildFromInvoices();
+        }
+    }
+
+    // ==================== READ SIDE ====================
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalRevenueByStatus(String status) {
+        return ledgerRepository.sumByStatus(normalizeStatus(status));
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalRevenueByStatus(String status, LocalDate from, LocalDate to) {
+        return ledgerRepository.sumByStatusAndDateRange(normalizeStatus(status), from, to);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RevenueLedger> getLedger(LocalDate from, LocalDate to, Integer facilityId) {
+        if (facilityId != null) {
+            return ledgerRepository.findByFacilityIdAndLedgerDateBetweenOrderByLedgerDateAsc(facilityId, from, to);
+        }
+        return ledgerRepository.findByLedgerDateBetweenOrderByLedgerDateAsc(from, to);
+    }
+
+    // ==================== HELPERS ====================
+
+    private void apply(Invoice invoice, String status, int sign, boolean rebuilding) {
+        if (invoice.getIssueDate() == null) {
+            return;
+        }
+
+        LocalDate day = invoice.getIssueDate().atZone(ZoneId.systemDefault()).toLocalDate();
+        Integer planId = invoice.getPlanAtBilling() != null ? invoice.getPlanAtBilling().getId() : NO_PLAN;
+        String normalizedStatus = normalizeStatus(status);
+        BigDecimal signum = BigDecimal.valueOf(sign);
+        Instant now = Instant.now();
+
+        Map<Integer, BigDecimal> allocation = allocateByFacility(invoice);
+        Integer countedFacility = countedFacility(allocation);
+
+        for (Map.Entry<Integer, BigDecimal> entry : allocation.entrySet()) {
+            BigDecimal amount = entry.getValue().multiply(signum);
+            int count = entry.getKey().equals(countedFacility) ? sign : 0;
+            int updated = ledgerRepository.addToBucket(
+                    day, entry.getKey(), planId, normalizedStatus, amount, count, now);
+
+            if (updated == 0 && rebuilding) {
+                ledgerRepository.save(newBucket(day, entry.getKey(), planId, normalizedStatus, amount, count, now));
+            } else if (updated == 0) {
+                createEmptyBucket(day, entry.getKey(), planId, normalizedStatus, now);
+                ledgerRepository.addToBucket(day, entry.getKey(), planId, normalizedStatus, amount, count, now);
+            }
+        }
+    }
+
+    /**
+     * Facility nhận INVOICE_COUNT: phần phân bổ lớn nhất (bằng nhau → facility đầu tiên).
+     * Chỉ phụ thuộc vào invoice nên lần cộng (+1) và lần trừ (-1) khi đổi status rơi vào cùng bucket.
+     */
+    private static Integer countedFacility(Map<Integer, BigDecimal> allocation) {
+        Integer counted = null;
+        BigDecimal largest = null;
+        for (Map.Entry<Integer, BigDecimal> entry : allocation.entrySet()) {
+            if (largest == null || entry.getValue().compareTo(largest) > 0) {
+                counted = entry.getKey();
+                largest = entry.getValue();
+            }
+        }
+        return counted;
+    }
+
+    private void createEmptyBucket(LocalDate day, Integer facilityId, Integer planId, String status, Instant now) {
+        try {
+            bucketTx.executeWithoutResult(tx -> ledgerRepository.saveAndFlush(
+                    newBucket(day, facilityId, planId, status, BigDecimal.ZERO, 0, now)));
+        } catch (DataIntegrityViolationException e) {
+            // Writer khác vừa tạo cùng bucket (UX_REVENUE_LEDGER_BUCKET)
+            log.debug("Ledger bucket {} / {} / {} / {} created concurrently", day, facilityId, planId, status);
+        }
+    }
+
+    private static RevenueLedger newBucket(LocalDate day, Integer facilityId, Integer planId, String status,
+                                           BigDecimal amount, int count, Instant now) {
+        RevenueLedger row = new RevenueLedger();
+        row.setLedgerDate(day);
+        row.setFacilityId(facilityId);
+        row.setPlanId(planId);
+        row.setStatus(status);
+        row.setTotalAmount(amount);
+        row.setInvoiceCount(count);
+        row.setUpdatedAt(now);
+        return row;
+    }
+
+    /**
+     * Phân bổ totalCost của invoice theo facility.
+     * Nếu tổng cost session lớn hơn totalCost (session không có plan bị loại khỏi invoice)
+     * thì chia tỉ lệ để tổng ledger luôn khớp totalCost.
+     */
+    private Map<Integer, BigDecimal> allocateByFacility(Invoice invoice) {
+        BigDecimal total = invoice.getTotalCost() != null ? invoice.getTotalCost() : BigDecimal.ZERO;
+        Map<Integer, BigDecimal> allocation = new LinkedHashMap<>();
+
+        List<Object[]> rows = new ArrayList<>();
+        if (invoice.getId() != null) {
+            // Session của invoice có thể đã được chuyển sang archive (invoice paid/cancelled lâu ngày)
+            rows.addAll(sessionRepository.sumCostByFacilityForInvoice(invoice.getId()));
+            rows.addAll(sessionArchiveRepository.sumCostByFacilityForInvoice(invoice.getId()));
+        }
+
+        BigDecimal sessionsTotal = rows.stream()
+                .map(row -> (BigDecimal) row[1])
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        if (sessionsTotal.compareTo(total) <= 0) {
+            for (Object[] row : rows) {
+                allocation.merge((Integer) row[0], (BigDecimal) row[1], BigDecimal::add);
+            }
+            BigDecimal remainder = total.subtract(sessionsTotal);
+            if (remainder.signum() > 0 || allocation.isEmpty()) {
+                allocation.merge(UNATTRIBUTED_FACILITY, remainder, BigDecimal::add);
+            }
+            return allocation;
+        }
+
+        BigDecimal allocated = BigDecimal.ZERO;
+        for (int i = 0; i < rows.size(); i++) {
+            Integer facilityId = (Integer) rows.get(i)[0];
+            BigDecimal share = (i == rows.size() - 1)
+                    ? total.subtract(allocated)
+                    : ((BigDecimal) rows.get(i)[1]).multiply(total)
+                            .divide(sessionsTotal, 2, RoundingMode.HALF_UP);
+            allocated = allocated.add(share);
+            allocation.merge(facilityId, share, BigDecimal::add);
+        }
+        return allocation;
+    }
+
+    private String normalizeStatus(String status) {
+        return status == null ? "unknown" : status.trim().toLowerCase();
+    }
+}
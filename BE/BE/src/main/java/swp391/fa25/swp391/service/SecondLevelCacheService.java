@@ -0,0 +1,134 @@
+package swp391.fa25.swp391.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.entity.ChargingPoint;
+import swp391.fa25.swp391.entity.ChargingStation;
+import swp391.fa25.swp391.entity.Facility;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ⭐ Quản lý Hibernate second-level cache (topology + subscription plans)
+ *
+ * Ghi qua Hibernate tự invalidate entry/query liên quan; service này chỉ dùng để
+ * xem hit/miss theo region và evict tay khi dữ liệu bị sửa trực tiếp trong DB.
+ * Metrics tổng hợp có ở actuator: hibernate.second.level.cache.requests{region, result}.
+ *
+ * Cache nằm trong JVM của từng node: thay đổi từ node khác đến qua {@link CacheInvalidationBus}
+ * (key "ChargingPoint#12" → evict đúng entity + collection cache của entity cha, key null → cả region)
+ * kèm query region tương ứng.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SecondLevelCacheService {
+
+    private static final List<String> REGIONS = List.of(
+            CacheRegions.TOPOLOGY, CacheRegions.SUBSCRIPTION_PLANS,
+            CacheRegions.TOPOLOGY_QUERIES, CacheRegions.SUBSCRIPTION_PLAN_QUERIES);
+
+    // Entity đổi (thêm / xóa mềm / chuyển cha) → collection cache của cha chứa nó đã cũ.
+    // Không biết cha cũ / mới là ai nên evict cả role.
+    private static final Map<Class<?>, List<String>> PARENT_COLLECTIONS = Map.of(
+            ChargingStation.class, List.of(Facility.class.getName() + ".chargingStations"),
+            ChargingPoint.class, List.of(ChargingStation.class.getName() + ".chargingPoints"));
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBus invalidationBus;
+
+    @PostConstruct
+    void subscribeRemoteChanges() {
+        invalidationBus.subscribe(CacheRegions.TOPOLOGY,
+                event -> applyRemoteChange(event, CacheRegions.TOPOLOGY_QUERIES));
+        invalidationBus.subscribe(CacheRegions.SUBSCRIPTION_PLANS,
+                event -> applyRemoteChange(event, CacheRegions.SUBSCRIPTION_PLAN_QUERIES));
+    }
+
+    /**
+     * Hit / miss / put của từng region
+     */
+    public Map<String, Map<String, Long>> getRegionStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String region : REGIONS) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats == null) {
+                continue;
+            }
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("hits", regionStats.getHitCount());
+            values.put("misses", regionStats.getMissCount());
+            values.put("puts", regionStats.getPutCount());
+            values.put("elementsInMemory", regionStats.getElementCountInMemory());
+            result.put(region, values);
+        }
+        return result;
+    }
+
+    /**
+     * Evict 1 region (null = toàn bộ second-level cache)
+     */
+    public void evict(String region) {
+        if (region == null) {
+            sessionFactory().getCache().evictAllRegions();
+            log.info("Second-level cache: evicted all regions");
+            return;
+        }
+        if (!REGIONS.contains(region)) {
+            throw new IllegalArgumentException("Unknown cache region: " + region);
+        }
+        sessionFactory().getCache().evictRegion(region);
+        log.info("Second-level cache: evicted region {}", region);
+    }
+
+    /**
+     * Node này ghi qua Hibernate thì cache local đã tự cập nhật, chỉ xử lý sự kiện từ node khác
+     */
+    private void applyRemoteChange(CacheInvalidationBus.Event event, String queryRegion) {
+        if (!event.remote()) {
+            return;
+        }
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        Class<?> entityClass = event.wholeRegion() ? null : entityClass(event.key());
+        if (entityClass == null) {
+            cache.evictRegion(event.region());
+        } else {
+            cache.evictEntityData(entityClass, Integer.valueOf(event.key().substring(event.key().indexOf('#') + 1)));
+            PARENT_COLLECTIONS.getOrDefault(entityClass, List.of()).forEach(cache::evictCollectionData);
+        }
+        cache.evictRegion(queryRegion);
+        log.debug("Second-level cache: applied remote change {} {} from {}",
+                event.region(), event.key(), event.originNode());
+    }
+
+    /**
+     * "ChargingPoint#12" → ChargingPoint.class (null nếu key không đúng dạng)
+     */
+    private Class<?> entityClass(String key) {
+        int separator = key.indexOf('#');
+        if (separator < 0) {
+            return null;
+        }
+        String entityName = key.substring(0, separator);
+        return entityManagerFactory.getMetamodel().getEntities().stream()
+                .filter(entity -> entity.getName().equals(entityName))
+                .map(EntityType::getJavaType)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
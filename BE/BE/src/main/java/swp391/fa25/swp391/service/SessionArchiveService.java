@@ -0,0 +1,134 @@
+package swp391.fa25.swp391.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.config.SoftDeleteFilter;
+import swp391.fa25.swp391.constants.InvoiceStatus;
+import swp391.fa25.swp391.constants.SessionStatus;
+import swp391.fa25.swp391.repository.ChargingSessionArchiveRepository;
+import swp391.fa25.swp391.repository.ChargingSessionRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ⭐ Chuyển session cũ từ charging_session (hot) sang CHARGING_SESSION_ARCHIVE (cold)
+ *
+ * Điều kiện: completed, invoice đã paid/cancelled, END_TIME cũ hơn horizon, không bị incident tham chiếu.
+ * Mỗi batch là 1 transaction ngắn: INSERT ... SELECT theo id rồi DELETE các id đã copy,
+ * nên lock chỉ giữ trên vài trăm dòng và job có thể dừng / chạy lại bất kỳ lúc nào.
+ * Các API đọc lịch sử (driver history, keyset list, export, analytics, ledger) đọc gộp cả 2 tier.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionArchiveService {
+
+    private static final List<String> SETTLED_INVOICE_STATUSES = List.of(
+            InvoiceStatus.PAID.getCode(), InvoiceStatus.CANCELLED.getCode());
+
+    private final ChargingSessionRepository sessionRepository;
+    private final ChargingSessionArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SoftDeleteFilter softDeleteFilter;
+    private final ClusterJobService clusterJobService;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${archive.sessions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.sessions.horizon-days:180}")
+    private int horizonDays;
+
+    @Value("${archive.sessions.batch-size:500}")
+    private int batchSize;
+
+    @Value("${archive.sessions.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    /**
+     * Chạy mỗi đêm (mặc định 04:00), sau rebuild analytics cube - chỉ 1 node chạy (lease "session.archive")
+     */
+    @Scheduled(cron = "${archive.sessions.cron:0 0 4 * * ?}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        clusterJobService.runExclusive("session.archive", Duration.ofHours(3), Duration.ofMinutes(5),
+                this::archiveOldSessions);
+    }
+
+    /**
+     * Archive theo batch tới khi hết session đủ điều kiện hoặc chạm max-batches-per-run
+     * @return số session đã chuyển sang archive
+     */
+    public long archiveOldSessions() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Session archival already running, skipping");
+            return 0;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(horizonDays);
+            log.info("========== ARCHIVING SESSIONS ENDED BEFORE {} ==========", cutoff);
+
+            long archived = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                // Incident report đã soft delete vẫn giữ FK tới session → NOT EXISTS phải thấy cả dòng đã xóa
+                Integer moved = transactionTemplate.execute(status ->
+                        softDeleteFilter.includingDeleted(() -> archiveBatch(cutoff)));
+                int count = moved != null ? moved : 0;
+                archived += count;
+                if (count < batchSize) {
+                    break;
+                }
+            }
+
+            log.info("Archived {} charging sessions", archived);
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Số dòng ở mỗi tier và cấu hình hiện tại
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hotSessions", sessionRepository.count());
+        stats.put("archivedSessions", archiveRepository.count());
+        stats.put("horizonDays", horizonDays);
+        stats.put("batchSize", batchSize);
+        stats.put("running", running.get());
+        return stats;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Integer> ids = sessionRepository.findArchivableIds(
+                SessionStatus.COMPLETED.getCode(), cutoff, SETTLED_INVOICE_STATUSES, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        int copied = archiveRepository.copyFromLive(ids, LocalDateTime.now());
+        int deleted = sessionRepository.deleteArchivedByIds(ids);
+        if (copied != ids.size() || deleted != ids.size()) {
+            // Rollback cả batch: session bị sửa / xóa giữa chừng, lần chạy sau sẽ chọn lại
+            throw new IllegalStateException("Session archive batch mismatch: selected " + ids.size()
+                    + ", copied " + copied + ", deleted " + deleted);
+        }
+
+        log.debug("Archived session batch {}..{} ({} rows)", ids.get(0), ids.get(ids.size() - 1), ids.size());
+        return ids.size();
+    }
+}
@@ -0,0 +1,218 @@
+package swp391.fa25.swp391.service;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * ⭐ Bitmap slot 5 phút của 1 charging point trong 1 ngày: bit i = 1 ↔ slot i đã có người đặt
+ *
+ * 288 slot / ngày = 5 long. Kiểm tra trùng, đặt, nhả đều là AND / OR theo từng word (tối đa 5 phép),
+ * tìm cửa sổ trống dài L slot dùng phép "co" bitmap: free & (free >> 1) & ... → bit i còn 1 ↔ slot i..i+L-1 trống,
+ * chỉ tốn O(log L) lượt dịch mỗi word.
+ *
+ * Mảng được coi là bất biến khi đã chia sẻ (cache trong {@link ReservationCalendar}) → hàm ghi trả về bản mới.
+ */
+public final class SlotBitmap {
+
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int WORDS = (SLOTS_PER_DAY + 63) / 64;
+
+    private SlotBitmap() {
+    }
+
+    public static long[] empty() {
+        return new long[WORDS];
+    }
+
+    // ==================== SLOT ↔ THỜI GIAN ====================
+
+    /**
+     * Slot chứa thời điểm start (làm tròn xuống), tính trong ngày day (trước ngày → slot 0)
+     */
+    public static int slotFrom(LocalDate day, LocalDateTime start) {
+        if (start.toLocalDate().isBefore(day)) {
+            return 0;
+        }
+        if (start.toLocalDate().isAfter(day)) {
+            return SLOTS_PER_DAY;
+        }
+        return minuteOfDay(start) / SLOT_MINUTES;
+    }
+
+    /**
+     * Slot đầu tiên sau thời điểm end (làm tròn lên, exclusive), tính trong ngày day (sau ngày → hết ngày)
+     */
+    public static int slotTo(LocalDate day, LocalDateTime end) {
+        if (end.toLocalDate().isAfter(day)) {
+            return SLOTS_PER_DAY;
+        }
+        if (end.toLocalDate().isBefore(day)) {
+            return 0;
+        }
+        int minute = minuteOfDay(end);
+        boolean partial = end.getSecond() > 0 || end.getNano() > 0;
+        return (minute + (partial ? 1 : 0) + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    public static LocalDateTime slotStart(LocalDate day, int slot) {
+        return slot >= SLOTS_PER_DAY
+                ? day.plusDays(1).atStartOfDay()
+                : day.atTime(LocalTime.MIN.plusMinutes((long) slot * SLOT_MINUTES));
+    }
+
+    private static int minuteOfDay(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    // ==================== WORD-LEVEL OPERATIONS ====================
+
+    /**
+     * Slot [from, to) đều trống
+     */
+    public static boolean isFree(long[] bits, int from, int to) {
+        for (int word = from >>> 6; from < to; word++) {
+            long mask = rangeMask(word, from, to);
+            if ((bits[word] & mask) != 0) {
+                return false;
+            }
+            from = (word + 1) << 6;
+        }
+        return true;
+    }
+
+    /**
+     * Bản sao có slot [from, to) được đánh dấu đã đặt
+     */
+    public static long[] set(long[] bits, int from, int to) {
+        long[] result = bits.clone();
+        for (int word = from >>> 6; from < to; word++) {
+            result[word] |= rangeMask(word, from, to);
+            from = (word + 1) << 6;
+        }
+        return result;
+    }
+
+    /**
+     * Bản sao có slot [from, to) được nhả
+     */
+    public static long[] clear(long[] bits, int from, int to) {
+        long[] result = bits.clone();
+        for (int word = from >>> 6; from < to; word++) {
+            result[word] &= ~rangeMask(word, from, to);
+            from = (word + 1) << 6;
+        }
+        return result;
+    }
+
+    /**
+     * Bit i = 1 ↔ slot i .. i+length-1 đều trống và nằm trọn trong ngày
+     */
+    public static long[] freeRunStarts(long[] bits, int length) {
+        long[] runs = new long[WORDS];
+        for (int word = 0; word < WORDS; word++) {
+            runs[word] = ~bits[word];
+        }
+        // Bit ngoài ngày (word cuối) coi như đã đặt → cửa sổ không tràn qua nửa đêm
+        int tail = SLOTS_PER_DAY & 63;
+        if (tail != 0) {
+            runs[WORDS - 1] &= (1L << tail) - 1;
+        }
+
+        // Co dần: sau mỗi bước, bit i = 1 ↔ covered slot liên tiếp từ i đều trống
+        int covered = 1;
+        while (covered < length) {
+            int shift = Math.min(covered, length - covered);
+            runs = and(runs, shiftDown(runs, shift));
+            covered += shift;
+        }
+        return runs;
+    }
+
+    /**
+     * Bit 1 đầu tiên có chỉ số ≥ from, -1 nếu không có
+     */
+    public static int nextSetBit(long[] bits, int from) {
+        if (from >= SLOTS_PER_DAY) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(current);
+                return slot < SLOTS_PER_DAY ? slot : -1;
+            }
+            if (++word == WORDS) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+
+    public static long[] or(long[] a, long[] b) {
+        long[] result = new long[WORDS];
+        for (int word = 0; word < WORDS; word++) {
+            result[word] = a[word] | b[word];
+        }
+        return result;
+    }
+
+    private static long[] and(long[] a, long[] b) {
+        long[] result = new long[WORDS];
+        for (int word = 0; word < WORDS; word++) {
+            result[word] = a[word] & b[word];
+        }
+        return result;
+    }
+
+    /**
+     * result bit i = bits bit (i + shift); bit vượt cuối mảng = 0
+     */
+    private static long[] shiftDown(long[] bits, int shift) {
+        long[] result = new long[WORDS];
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int word = 0; word + wordShift < WORDS; word++) {
+            long low = bits[word + wordShift] >>> bitShift;
+            long high = bitShift == 0 || word + wordShift + 1 >= WORDS
+                    ? 0
+                    : bits[word + wordShift + 1] << (64 - bitShift);
+            result[word] = low | high;
+        }
+        return result;
+    }
+
+    // Bit [from, to) thuộc word này
+    private static long rangeMask(int word, int from, int to) {
+        int wordStart = word << 6;
+        int lo = from - wordStart;
+        int hi = Math.min(to - wordStart, 64);
+        long upper = hi == 64 ? -1L : (1L << hi) - 1;
+        return upper & (-1L << lo);
+    }
+
+    // ==================== PERSISTENCE ====================
+
+    public static byte[] toBytes(long[] bits) {
+        ByteBuffer buffer = ByteBuffer.allocate(WORDS * Long.BYTES);
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    public static long[] fromBytes(byte[] bytes) {
+        long[] bits = new long[WORDS];
+        if (bytes == null) {
+            return bits;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int word = 0; word < WORDS && buffer.remaining() >= Long.BYTES; word++) {
+            bits[word] = buffer.getLong();
+        }
+        return bits;
+    }
+}
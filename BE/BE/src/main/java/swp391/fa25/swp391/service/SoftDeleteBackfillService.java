@@ -0,0 +1,48 @@
+package swp391.fa25.swp391.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import swp391.fa25.swp391.config.SoftDeleteFilter;
+import swp391.fa25.swp391.repository.ChargerRepository;
+import swp391.fa25.swp391.repository.ChargingPointRepository;
+import swp391.fa25.swp391.repository.ChargingStationRepository;
+import swp391.fa25.swp391.repository.FacilityRepository;
+import swp391.fa25.swp391.repository.IncidentReportRepository;
+
+/**
+ * ⭐ Đảm bảo IS_DELETED không NULL trên các bảng có filter soft delete
+ *
+ * Filter chỉ so sánh IS_DELETED = 0, dòng cũ có IS_DELETED NULL sẽ bị ẩn nếu không backfill.
+ * Chạy mỗi lần khởi động (idempotent, 0 dòng sau lần đầu); NOT NULL + filtered index
+ * nằm trong resources/sql/soft_delete_filtered_indexes.sql.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SoftDeleteBackfillService {
+
+    private final SoftDeleteFilter softDeleteFilter;
+    private final FacilityRepository facilityRepository;
+    private final ChargingStationRepository stationRepository;
+    private final ChargingPointRepository pointRepository;
+    private final ChargerRepository chargerRepository;
+    private final IncidentReportRepository incidentReportRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIsDeleted() {
+        int updated = softDeleteFilter.includingDeleted(() ->
+                facilityRepository.backfillIsDeleted()
+                        + stationRepository.backfillIsDeleted()
+                        + pointRepository.backfillIsDeleted()
+                        + chargerRepository.backfillIsDeleted()
+                        + incidentReportRepository.backfillIsDeleted());
+        if (updated > 0) {
+            log.info("Backfilled IS_DELETED = 0 on {} rows", updated);
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package swp391.fa25.swp391.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.constants.ChargerStatus;
+import swp391.fa25.swp391.constants.ChargerStatusCause;
+import swp391.fa25.swp391.constants.WaitlistStatus;
+import swp391.fa25.swp391.dto.response.WaitlistEntryResponse;
+import swp391.fa25.swp391.entity.Charger;
+import swp391.fa25.swp391.entity.Driver;
+import swp391.fa25.swp391.entity.Reservation;
+import swp391.fa25.swp391.entity.StationWaitlistEntry;
+import swp391.fa25.swp391.entity.Vehicle;
+import swp391.fa25.swp391.repository.ChargerRepository;
+import swp391.fa25.swp391.repository.ChargingPointRepository;
+import swp391.fa25.swp391.repository.DriverRepository;
+import swp391.fa25.swp391.repository.PlanRegistrationRepository;
+import swp391.fa25.swp391.repository.StationWaitlistRepository;
+import swp391.fa25.swp391.repository.VehicleRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ⭐ Hàng chờ sạc theo trạm khi mọi charger đang using / booked
+ *
+ * - Charger rảnh (kết thúc sạc, reservation hủy / hết hạn, offer bị từ chối / hết hạn) → {@link ChargerFreedEvent}
+ *   → sau commit: offer ngay cho đầu hàng chờ (priority, rồi FIFO), không poll
+ * - Offer = giữ charger (BOOKED) trong offer-hold-seconds; driver nhận → reservation ngay trên charger đó,
+ *   từ chối / hết hạn → nhả charger → offer cho người kế tiếp
+ * - Hết hạn: timer của node đã offer; node chết thì job sweep (1 node / lần) dọn offer quá hạn + hàng chờ bị bỏ sót
+ * - Mọi chuyển trạng thái là UPDATE có điều kiện + khóa dòng charger → nhiều node cùng chạy không offer trùng
+ * - Dispatch + timer hết hạn chạy trên scheduler riêng (waitlist.dispatch-threads), email offer trên 1 thread gửi mail
+ *   riêng → SMTP chậm không chặn dispatch, cả hai không chiếm pool @Scheduled dùng chung
+ *
+ * Metrics: waitlist.wait.duration (vào hàng → được offer), waitlist.offer.response (offer → nhận / từ chối / hết hạn),
+ * waitlist.offers{outcome} (tỉ lệ nhận = accepted / offered)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StationWaitlistService {
+
+    private static final String CHARGER_STATUS_ACTIVE = "active";
+    private static final String CHARGER_STATUS_BOOKED = "booked";
+    private static final String POINT_STATUS_INACTIVE = "inactive";
+    private static final String POINT_STATUS_MAINTENANCE = "maintenance";
+
+    private static final List<WaitlistStatus> OPEN_STATUSES = List.of(WaitlistStatus.WAITING, WaitlistStatus.OFFERED);
+
+    // Driver có gói trả phí (không phải gói mặc định) được ưu tiên trong hàng chờ
+    private static final int PRIORITY_SUBSCRIBER = 1;
+    private static final int PRIORITY_DEFAULT = 0;
+
+    // Giới hạn offer liên tiếp trong 1 lần dispatch (mỗi vòng 1 transaction ngắn)
+    private static final int MAX_OFFERS_PER_DISPATCH = 20;
+
+    // Email offer chờ gửi tối đa; đầy thì bỏ email (offer vẫn hiện trong app)
+    private static final int MAIL_QUEUE_CAPACITY = 1000;
+
+    private final StationWaitlistRepository waitlistRepository;
+    private final ChargerRepository chargerRepository;
+    private final ChargingPointRepository chargingPointRepository;
+    private final DriverRepository driverRepository;
+    private final VehicleRepository vehicleRepository;
+    private final PlanRegistrationRepository planRegistrationRepository;
+    private final ReservationService reservationService;
+    private final ReservationCalendar reservationCalendar;
+    private final ChargerStateMachine chargerStateMachine;
+    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterJobService clusterJobService;
+    private final MeterRegistry meterRegistry;
+
+    // Trạm đã có dispatch chờ chạy trên node này → gộp nhiều sự kiện rảnh (vd: job expiry nhả hàng loạt) thành 1 lượt
+    private final Set<Integer> pendingDispatches = ConcurrentHashMap.newKeySet();
+
+    @Value("${waitlist.offer-hold-seconds:120}")
+    private long offerHoldSeconds;
+
+    @Value("${waitlist.reservation-minutes:15}")
+    private long reservationMinutes;
+
+    @Value("${waitlist.dispatch-threads:2}")
+    private int dispatchThreads;
+
+    private ThreadPoolTaskScheduler waitlistScheduler;
+    private ThreadPoolExecutor mailExecutor;
+
+    @PostConstruct
+    void startExecutors() {
+        waitlistScheduler = new ThreadPoolTaskScheduler();
+        waitlistScheduler.setPoolSize(dispatchThreads);
+        waitlistScheduler.setThreadNamePrefix("waitlist-");
+        waitlistScheduler.setDaemon(true);
+        waitlistScheduler.initialize();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        mailExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAIL_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "waitlist-mail-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> {
+                    counter("mail_dropped").increment();
+                    log.warn("Waitlist mail queue full, dropping offer email");
+                });
+    }
+
+    @PreDestroy
+    void stopExecutors() {
+        waitlistScheduler.shutdown();
+        mailExecutor.shutdown();
+    }
+
+    // ==================== DRIVER ACTIONS ====================
+
+    /**
+     * Vào hàng chờ của trạm. Nếu đang có charger rảnh thì được offer ngay sau commit.
+     */
+    @Transactional
+    public WaitlistEntryResponse join(Integer stationId, Integer driverId, Integer vehicleId) {
+        Driver driver = driverRepository.findById(driverId)
+                .orElseThrow(() -> new RuntimeException("Driver not found"));
+        Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                .orElseThrow(() -> new RuntimeException("Vehicle not found"));
+        if (vehicle.getDriver() == null || !vehicle.getDriver().getId().equals(driverId)) {
+            throw new RuntimeException("Vehicle does not belong to this driver");
+        }
+        if (chargingPointRepository.findByStationIdNotDeleted(stationId).isEmpty()) {
+            throw new RuntimeException("Charging station not found or has no charging points");
+        }
+        if (waitlistRepository.existsByDriverIdAndStationIdAndStatusIn(driverId, stationId, OPEN_STATUSES)) {
+            throw new RuntimeException("Driver is already in the waitlist of this station");
+        }
+
+        StationWaitlistEntry entry = new StationWaitlistEntry();
+        entry.setStationId(stationId);
+        entry.setDriverId(driver.getId());
+        entry.setVehicleId(vehicle.getId());
+        entry.setPriority(priorityOf(driverId));
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setJoinedAt(Instant.now());
+        waitlistRepository.save(entry);
+        counter("joined").increment();
+
+        afterCommit(() -> scheduleDispatch(stationId));
+        log.info("Driver {} joined waitlist of station {} (priority {})", driverId, stationId, entry.getPriority());
+        return toResponse(entry);
+    }
+
+    /**
+     * Nhận charger đang được giữ → tạo reservation trên đúng charger đó
+     */
+    @Transactional
+    public WaitlistEntryResponse accept(Long entryId, Integer driverId) {
+        StationWaitlistEntry entry = findOwned(entryId, driverId);
+        if (entry.getStatus() != WaitlistStatus.OFFERED) {
+            throw new RuntimeException("No pending offer for this waitlist entry. Current status: " + entry.getStatus());
+        }
+        Instant now = Instant.now();
+        if (!entry.getOfferExpiresAt().isAfter(now)
+                || waitlistRepository.transition(entryId, WaitlistStatus.OFFERED, WaitlistStatus.ACCEPTED, now) == 0) {
+            throw new RuntimeException("Offer has expired");
+        }
+
+        // Nhả giữ chỗ của hàng chờ rồi đặt reservation thật (service kiểm tra charger ACTIVE + lịch đặt chỗ)
+        Charger charger = chargerRepository.findByIdForUpdate(entry.getOfferedChargerId())
+                .orElseThrow(() -> new RuntimeException("Charger not found"));
+        if (CHARGER_STATUS_BOOKED.equals(charger.getStatus())) {
+            chargerStateMachine.transition(charger, ChargerStatus.ACTIVE, ChargerStatusCause.WAITLIST, entryId);
+        }
+
+        Reservation reservation = new Reservation();
+        reservation.setDriver(driverRepository.getReferenceById(entry.getDriverId()));
+        reservation.setVehicle(vehicleRepository.getReferenceById(entry.getVehicleId()));
+        reservation.setChargingPoint(charger.getChargingPoint());
+        reservation.setCharger(charger);
+        LocalDateTime start = LocalDateTime.now();
+        reservation.setStartTime(start);
+        reservation.setEndTime(start.plusMinutes(reservationMinutes));
+        Reservation saved = reservationService.createReservation(reservation);
+
+        StationWaitlistEntry accepted = waitlistRepository.findById(entryId).orElseThrow();
+        accepted.setReservationId(saved.getId());
+        waitlistRepository.save(accepted);
+
+        recordResponse(entry, now, "accepted");
+        log.info("Waitlist entry {} accepted charger {} → reservation {}", entryId, charger.getId(), saved.getId());
+        return toResponse(accepted);
+    }
+
+    /**
+     * Từ chối offer → charger chuyển ngay cho lượt kế tiếp
+     */
+    @Transactional
+    public WaitlistEntryResponse decline(Long entryId, Integer driverId) {
+        StationWaitlistEntry entry = findOwned(entryId, driverId);
+        Instant now = Instant.now();
+        if (waitlistRepository.transition(entryId, WaitlistStatus.OFFERED, WaitlistStatus.DECLINED, now) == 0) {
+            throw new RuntimeException("No pending offer for this waitlist entry");
+        }
+        releaseHold(entry);
+        recordResponse(entry, now, "declined");
+        log.info("Waitlist entry {} declined charger {}", entryId, entry.getOfferedChargerId());
+        return toResponse(waitlistRepository.findById(entryId).orElseThrow());
+    }
+
+    /**
+     * Rời hàng chờ (đang chờ hoặc đang được giữ charger)
+     */
+    @Transactional
+    public WaitlistEntryResponse leave(Long entryId, Integer driverId) {
+        StationWaitlistEntry entry = findOwned(entryId, driverId);
+        Instant now = Instant.now();
+        if (waitlistRepository.transition(entryId, WaitlistStatus.WAITING, WaitlistStatus.CANCELLED, now) == 1) {
+            counter("cancelled").increment();
+        } else if (waitlistRepository.transition(entryId, WaitlistStatus.OFFERED, WaitlistStatus.CANCELLED, now) == 1) {
+            releaseHold(entry);
+            recordResponse(entry, now, "cancelled");
+        } else {
+            throw new RuntimeException("Waitlist entry is already closed. Current status: " + entry.getStatus());
+        }
+        log.info("Waitlist entry {} left by driver {}", entryId, driverId);
+        return toResponse(waitlistRepository.findById(entryId).orElseThrow());
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntryResponse> getOpenEntries(Integer driverId) {
+        return waitlistRepository.findByDriverIdAndStatusInOrderByJoinedAtDesc(driverId, OPEN_STATUSES).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    // ==================== EVENT-DRIVEN DISPATCH ====================
+
+    /**
+     * Charger rảnh đã commit → offer cho đầu hàng chờ của trạm (chạy trên scheduler hàng chờ, không chặn request)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChargerFreed(ChargerFreedEvent event) {
+        if (event.stationId() != null) {
+            scheduleDispatch(event.stationId());
+        }
+    }
+
+    private void scheduleDispatch(Integer stationId) {
+        if (pendingDispatches.add(stationId)) {
+            waitlistScheduler.execute(() -> {
+                pendingDispatches.remove(stationId);
+                dispatch(stationId);
+            });
+        }
+    }
+
+    /**
+     * Offer lần lượt cho tới khi hết lượt chờ hoặc hết charger rảnh
+     */
+    void dispatch(Integer stationId) {
+        try {
+            for (int i = 0; i < MAX_OFFERS_PER_DISPATCH; i++) {
+                if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> offerNext(stationId)))) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            // Sweep định kỳ sẽ thử lại
+            log.error("Waitlist dispatch failed for station {}: {}", stationId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return true nếu còn nên thử tiếp (vừa offer, hoặc thua node khác ở lượt đầu hàng)
+     */
+    private boolean offerNext(Integer stationId) {
+        Optional<StationWaitlistEntry> head = waitlistRepository
+                .findFirstByStationIdAndStatusOrderByPriorityDescJoinedAtAsc(stationId, WaitlistStatus.WAITING);
+        if (head.isEmpty()) {
+            return false;
+        }
+        StationWaitlistEntry entry = head.get();
+
+        Instant now = Instant.now();
+        Charger charger = lockFreeCharger(stationId);
+        if (charger == null) {
+            return false;
+        }
+        Instant expiresAt = now.plusSeconds(offerHoldSeconds);
+        if (waitlistRepository.claimOffer(entry.getId(), charger.getId(), now, expiresAt) == 0) {
+            return true;
+        }
+        // claimOffer clear persistence context → đọc lại charger (dòng vẫn đang do transaction này khóa)
+        charger = chargerRepository.findByIdForUpdate(charger.getId()).orElseThrow();
+        chargerStateMachine.transition(charger, ChargerStatus.BOOKED, ChargerStatusCause.WAITLIST, entry.getId());
+        chargerRepository.save(charger);
+
+        Timer.builder("waitlist.wait.duration").register(meterRegistry)
+                .record(Duration.between(entry.getJoinedAt(), now));
+        counter("offered").increment();
+
+        Long entryId = entry.getId();
+        Integer driverId = entry.getDriverId();
+        String chargerCode = charger.getChargerCode();
+        String stationName = charger.getChargingPoint().getStation() != null
+                ? charger.getChargingPoint().getStation().getStationName()
+                : String.valueOf(stationId);
+        afterCommit(() -> {
+            waitlistScheduler.schedule(() -> expire(entryId), expiresAt);
+            mailExecutor.execute(() -> sendOfferNotification(driverId, stationName, chargerCode, expiresAt));
+        });
+        log.info("Offered charger {} to waitlist entry {} (driver {}) until {}",
+                charger.getId(), entryId, driverId, expiresAt);
+        return true;
+    }
+
+    /**
+     * Chọn 1 charger ACTIVE của trạm mà point còn nhận đặt chỗ và lịch trống cho khung reservation, rồi chỉ khóa
+     * charger đó (kiểm tra lại ACTIVE sau khi khóa, node khác vừa lấy thì thử charger kế); null nếu không có
+     */
+    private Charger lockFreeCharger(Integer stationId) {
+        LocalDateTime start = LocalDateTime.now();
+        LocalDateTime end = start.plusMinutes(reservationMinutes);
+        for (Object[] candidate : chargerRepository.findCandidatesByStationIdAndStatus(stationId, CHARGER_STATUS_ACTIVE)) {
+            Integer chargerId = (Integer) candidate[0];
+            Integer pointId = (Integer) candidate[1];
+            String pointStatus = (String) candidate[2];
+            if (POINT_STATUS_INACTIVE.equalsIgnoreCase(pointStatus)
+                    || POINT_STATUS_MAINTENANCE.equalsIgnoreCase(pointStatus)
+                    || !reservationCalendar.isFree(pointId, start, end)) {
+                continue;
+            }
+            Charger charger = chargerRepository.findByIdForUpdate(chargerId).orElse(null);
+            if (charger != null && CHARGER_STATUS_ACTIVE.equals(charger.getStatus())) {
+                return charger;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hết hạn giữ chỗ (timer / sweep) → nhả charger cho lượt kế tiếp
+     */
+    void expire(Long entryId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Instant now = Instant.now();
+                if (waitlistRepository.expireOffer(entryId, now) == 0) {
+                    return;
+                }
+                StationWaitlistEntry entry = waitlistRepository.findById(entryId).orElseThrow();
+                releaseHold(entry);
+                recordResponse(entry, now, "expired");
+                log.info("Waitlist offer {} expired, releasing charger {}", entryId, entry.getOfferedChargerId());
+            });
+        } catch (Exception e) {
+            log.error("Failed to expire waitlist offer {}: {}", entryId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lưới an toàn khi node giữ timer bị tắt / sự kiện bị mất: offer quá hạn + trạm còn lượt chờ
+     */
+    @Scheduled(fixedDelayString = "${waitlist.sweep-interval-ms:60000}",
+            initialDelayString = "${waitlist.sweep-interval-ms:60000}")
+    public void sweep() {
+        clusterJobService.runExclusive("waitlist.sweep", Duration.ofMinutes(2), Duration.ofSeconds(30), () -> {
+            List<Long> expired = waitlistRepository.findIdsOfferExpiredBefore(WaitlistStatus.OFFERED, Instant.now());
+            expired.forEach(this::expire);
+            waitlistRepository.findStationIdsWithStatus(WaitlistStatus.WAITING).forEach(this::scheduleDispatch);
+        });
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Charger đang giữ cho lượt này về ACTIVE (chỉ khi vẫn BOOKED) → sự kiện rảnh → offer người kế tiếp
+     */
+    private void releaseHold(StationWaitlistEntry entry) {
+        if (entry.getOfferedChargerId() == null) {
+            return;
+        }
+        chargerRepository.findByIdForUpdate(entry.getOfferedChargerId()).ifPresent(charger -> {
+            if (CHARGER_STATUS_BOOKED.equals(charger.getStatus())) {
+                chargerStateMachine.transition(charger, ChargerStatus.ACTIVE, ChargerStatusCause.WAITLIST, entry.getId());
+                chargerRepository.save(charger);
+            }
+        });
+        eventPublisher.publishEvent(new ChargerFreedEvent(entry.getStationId(), entry.getOfferedChargerId()));
+    }
+
+    private void sendOfferNotification(Integer driverId, String stationName, String chargerCode, Instant expiresAt) {
+        try {
+            driverRepository.findById(driverId).ifPresent(driver ->
+                    notificationService.sendWaitlistOfferNotification(driver, stationName, chargerCode, expiresAt));
+        } catch (Exception e) {
+            log.error("Failed to send waitlist offer email to driver {}: {}", driverId, e.getMessage(), e);
+        }
+    }
+
+    private StationWaitlistEntry findOwned(Long entryId, Integer driverId) {
+        StationWaitlistEntry entry = waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new RuntimeException("Waitlist entry not found"));
+        if (!entry.getDriverId().equals(driverId)) {
+            throw new RuntimeException("You are not authorized to modify this waitlist entry");
+        }
+        return entry;
+    }
+
+    private int priorityOf(Integer driverId) {
+        return planRegistrationRepository.findActiveByDriverId(driverId, LocalDate.now())
+                .filter(registration -> registration.getPlan() != null
+                        && !Boolean.TRUE.equals(registration.getPlan().getIsDefault()))
+                .map(registration -> PRIORITY_SUBSCRIBER)
+                .orElse(PRIORITY_DEFAULT);
+    }
+
+    private void recordResponse(StationWaitlistEntry entry, Instant closedAt, String outcome) {
+        if (entry.getOfferedAt() != null) {
+            Timer.builder("waitlist.offer.response").tag("outcome", outcome).register(meterRegistry)
+                    .record(Duration.between(entry.getOfferedAt(), closedAt));
+        }
+        counter(outcome).increment();
+    }
+
+    private Counter counter(String outcome) {
+        return meterRegistry.counter("waitlist.offers", "outcome", outcome);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private WaitlistEntryResponse toResponse(StationWaitlistEntry entry) {
+        Long position = entry.getStatus() == WaitlistStatus.WAITING
+                ? waitlistRepository.countAhead(entry.getStationId(), WaitlistStatus.WAITING,
+                        entry.getPriority(), entry.getJoinedAt())
+                : null;
+        return WaitlistEntryResponse.builder()
+                .entryId(entry.getId())
+                .stationId(entry.getStationId())
+                .driverId(entry.getDriverId())
+                .vehicleId(entry.getVehicleId())
+                .status(entry.getStatus().name())
+                .priority(entry.getPriority())
+                .position(position)
+                .joinedAt(entry.getJoinedAt())
+                .offeredChargerId(entry.getOfferedChargerId())
+                .offerExpiresAt(entry.getOfferExpiresAt())
+                .reservationId(entry.getReservationId())
+                .build();
+    }
+}
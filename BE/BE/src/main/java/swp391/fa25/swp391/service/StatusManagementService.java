@@ -6,7 +6,7 @@ import org.springframework.transaction.annotation.Transactional;
 import swp391.fa25.swp391.entity.ChargingPoint;
 import swp391.fa25.swp391.entity.ChargingStation;
 import swp391.fa25.swp391.entity.Facility;
-import swp391.fa25.swp391.security.CustomUserDetails;
+import swp391.fa25.swp391.security.AuthenticatedPrincipal;
 import swp391.fa25.swp391.service.IService.IChargingPointService;
 import swp391.fa25.swp391.service.IService.IChargingStationService;
 import swp391.fa25.swp391.service.IService.IFacilityService;
@@ -31,7 +31,7 @@ public class StatusManagementService {
     /**
      * Admin only: Update facility status
      */
-    public void updateFacilityStatus(Integer facilityId, String newStatus, CustomUserDetails userDetails) {
+    public void updateFacilityStatus(Integer facilityId, String newStatus, AuthenticatedPrincipal principal) {
         Facility facility = facilityService.findById(facilityId);
         if (facility == null) {
             throw new IllegalArgumentException("Facility not found");
@@ -54,7 +54,7 @@ public class StatusManagementService {
     /**
      * Admin only: Update station status
      */
-    public void updateStationStatus(Integer stationId, String newStatus, CustomUserDetails userDetails) {
+    public void updateStationStatus(Integer stationId, String newStatus, AuthenticatedPrincipal principal) {
         ChargingStation station = stationService.findById(stationId)
                 .orElseThrow(() -> new IllegalArgumentException("Station not found"));
 
@@ -80,7 +80,7 @@ public class StatusManagementService {
     /**
      * Admin only: Update point status
      */
-    public void updatePointStatus(Integer pointId, String newStatus, CustomUserDetails userDetails) {
+    public void updatePointStatus(Integer pointId, String newStatus, AuthenticatedPrincipal principal) {
         ChargingPoint point = pointService.findById(pointId)
                 .orElseThrow(() -> new IllegalArgumentException("Charging point not found"));
 
@@ -104,7 +104,7 @@ public class StatusManagementService {
     /**
      * User: Start using a charging point (booking)
      */
-    public void startUsingPoint(Integer pointId, CustomUserDetails userDetails) {
+    public void startUsingPoint(Integer pointId, AuthenticatedPrincipal principal) {
         ChargingPoint point = pointService.findById(pointId)
                 .orElseThrow(() -> new IllegalArgumentException("Charging point not found"));
 
@@ -136,7 +136,7 @@ public class StatusManagementService {
     /**
      * User: Stop using a charging point (complete charging session)
      */
-    public void stopUsingPoint(Integer pointId, CustomUserDetails userDetails) {
+    public void stopUsingPoint(Integer pointId, AuthenticatedPrincipal principal) {
         ChargingPoint point = pointService.findById(pointId)
                 .orElseThrow(() -> new IllegalArgumentException("Charging point not found"));
 
@@ -0,0 +1,62 @@
+package swp391.fa25.swp391.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.repository.NotificationRecipientRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ⭐ Cache số notification chưa đọc theo employee
+ *
+ * NotificationBell poll /count mỗi 30 giây: trạng thái ổn định chỉ tốn 1 lần đọc map.
+ * Mỗi thay đổi (fan-out, mark read) chỉ xóa entry SAU KHI transaction commit,
+ * lần poll kế tiếp đếm lại bằng 1 câu COUNT trên index (EMPLOYEE_ID, IS_READ).
+ * Xóa đi qua {@link CacheInvalidationBus} nên node khác (employee đang poll ở node khác) cũng xóa theo.
+ */
+@Component
+@RequiredArgsConstructor
+public class UnreadNotificationCounter {
+
+    private final NotificationRecipientRepository recipientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Map<Integer, Long> unreadByEmployee = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(CacheRegions.NOTIFICATION_UNREAD, event -> {
+            if (event.wholeRegion()) {
+                unreadByEmployee.clear();
+            } else {
+                unreadByEmployee.remove(Integer.valueOf(event.key()));
+            }
+        });
+    }
+
+    public long get(Integer employeeId) {
+        // Cache miss đếm trong transaction read-write → primary: số đếm từ replica còn lag sẽ bị cache tới lần đổi sau
+        return unreadByEmployee.computeIfAbsent(employeeId, id ->
+                transactionTemplate.execute(status -> recipientRepository.countByEmployeeIdAndIsReadFalse(id)));
+    }
+
+    public void invalidate(Integer employeeId) {
+        invalidate(List.of(employeeId));
+    }
+
+    /**
+     * Xóa cache của các employee sau khi transaction hiện tại commit (ngay lập tức nếu không có transaction),
+     * để không có request nào kịp đếm lại từ dữ liệu chưa commit rồi giữ số cũ trong cache
+     */
+    public void invalidate(Collection<Integer> employeeIds) {
+        invalidationBus.publish(CacheRegions.NOTIFICATION_UNREAD,
+                employeeIds.stream().map(String::valueOf).toList());
+    }
+}
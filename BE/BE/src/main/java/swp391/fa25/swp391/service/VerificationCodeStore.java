@@ -0,0 +1,60 @@
+package swp391.fa25.swp391.service;
+
+import swp391.fa25.swp391.constants.VerificationPurpose;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * ⭐ Kho mã xác thực có hạn dùng chung cho xác thực email và OTP đổi mật khẩu
+ *
+ * Mỗi (purpose, subject) giữ tối đa 1 mã, phát mã mới thay mã cũ. Tra cứu O(1) theo khóa,
+ * mã hết hạn bị dọn định kỳ theo thứ tự hết hạn. Subject (email) được so khớp không phân biệt hoa thường.
+ *
+ * Triển khai chọn bằng verification.store:
+ * - db (mặc định): {@link DbVerificationCodeStore} - bảng VERIFICATION_CODE, còn sau restart, dùng được nhiều node
+ * - memory: {@link InMemoryVerificationCodeStore} - 1 node, giới hạn số mã giữ trong bộ nhớ
+ */
+public interface VerificationCodeStore {
+
+    enum Result { VALID, NOT_FOUND, EXPIRED, MISMATCH }
+
+    /**
+     * Lưu mã mới cho subject (thay mã cũ nếu có)
+     */
+    void issue(VerificationPurpose purpose, String subject, String code, Duration ttl);
+
+    /**
+     * Kiểm tra mã, không xóa
+     */
+    Result check(VerificationPurpose purpose, String subject, String code);
+
+    /**
+     * Kiểm tra và xóa mã nếu đúng - mỗi mã chỉ dùng được 1 lần kể cả khi 2 request đến cùng lúc
+     */
+    Result consume(VerificationPurpose purpose, String subject, String code);
+
+    void invalidate(VerificationPurpose purpose, String subject);
+
+    /**
+     * @return số mã hết hạn đã xóa
+     */
+    int purgeExpired();
+
+    /**
+     * Mã gồm length chữ số (SecureRandom - mã xác thực / OTP không được đoán trước)
+     */
+    static String randomDigits(int length) {
+        SecureRandom random = new SecureRandom();
+        StringBuilder code = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            code.append(random.nextInt(10));
+        }
+        return code.toString();
+    }
+
+    static String normalizeSubject(String subject) {
+        return subject == null ? "" : subject.trim().toLowerCase(Locale.ROOT);
+    }
+}
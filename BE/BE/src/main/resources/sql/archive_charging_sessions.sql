@@ -0,0 +1,43 @@
+-- Cold tier cho charging_session (SQL Server)
+-- Hibernate ddl-auto=update tạo bảng / index từ entity ChargingSessionArchive; script này cho môi trường
+-- quản lý schema bằng tay. Việc chuyển dữ liệu do SessionArchiveService chạy theo batch mỗi đêm.
+
+IF OBJECT_ID('CHARGING_SESSION_ARCHIVE') IS NULL
+CREATE TABLE CHARGING_SESSION_ARCHIVE (
+    SESSION_ID             INT            NOT NULL PRIMARY KEY,
+    START_TIME             DATETIME2(6)   NULL,
+    END_TIME               DATETIME2(6)   NULL,
+    OVERUSEDTIME           NUMERIC(10, 2) NULL,
+    KWH_USED               NUMERIC(18, 2) NULL,
+    COST                   NUMERIC(18, 2) NULL,
+    START_FEE              NUMERIC(18, 2) NULL,
+    OVERUSE_PENALTY        NUMERIC(18, 2) NULL,
+    STATUS                 NVARCHAR(50)   NULL,
+    START_PERCENTAGE       INT            NULL,
+    END_PERCENTAGE         INT            NULL,
+    DRIVER_ID              INT            NULL,
+    VEHICLE_ID             INT            NULL,
+    CHARGER_ID             INT            NULL,
+    INVOICE_ID             INT            NULL,
+    RESERVATION_ID         BIGINT         NULL,
+    STARTED_BY_EMPLOYEE_ID INT            NULL,
+    ENDED_BY_EMPLOYEE_ID   INT            NULL,
+    ARCHIVED_AT            DATETIME2(6)   NOT NULL,
+    ARCHIVE_MONTH          INT            NOT NULL
+);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_SESSION_ARCHIVE_DRIVER_START_ID' AND object_id = OBJECT_ID('CHARGING_SESSION_ARCHIVE'))
+    CREATE INDEX IX_SESSION_ARCHIVE_DRIVER_START_ID ON CHARGING_SESSION_ARCHIVE (DRIVER_ID, START_TIME DESC, SESSION_ID DESC);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_SESSION_ARCHIVE_START_ID' AND object_id = OBJECT_ID('CHARGING_SESSION_ARCHIVE'))
+    CREATE INDEX IX_SESSION_ARCHIVE_START_ID ON CHARGING_SESSION_ARCHIVE (START_TIME DESC, SESSION_ID DESC);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_SESSION_ARCHIVE_INVOICE' AND object_id = OBJECT_ID('CHARGING_SESSION_ARCHIVE'))
+    CREATE INDEX IX_SESSION_ARCHIVE_INVOICE ON CHARGING_SESSION_ARCHIVE (INVOICE_ID);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_SESSION_ARCHIVE_MONTH' AND object_id = OBJECT_ID('CHARGING_SESSION_ARCHIVE'))
+    CREATE INDEX IX_SESSION_ARCHIVE_MONTH ON CHARGING_SESSION_ARCHIVE (ARCHIVE_MONTH);
+
+-- Index hỗ trợ job chọn batch trên bảng live
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_SESSION_STATUS_END' AND object_id = OBJECT_ID('charging_session'))
+    CREATE INDEX IX_SESSION_STATUS_END ON charging_session (STATUS, END_TIME) INCLUDE (INVOICE_ID);
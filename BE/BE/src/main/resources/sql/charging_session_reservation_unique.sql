@@ -0,0 +1,19 @@
+-- 1 reservation → tối đa 1 charging session (SQL Server)
+-- ChargingSession.reservation trước đây là @OneToOne nên Hibernate ddl-auto tạo UNIQUE (RESERVATION_ID):
+-- SQL Server coi NULL là 1 giá trị nên chỉ cho phép 1 session walk-in. Bỏ constraint đó và thay bằng
+-- filtered unique index chỉ trên dòng có RESERVATION_ID. Script idempotent: chạy lại không đổi gì.
+
+DECLARE @constraint SYSNAME;
+SELECT @constraint = kc.name
+FROM sys.key_constraints kc
+JOIN sys.index_columns ic ON ic.object_id = kc.parent_object_id AND ic.index_id = kc.unique_index_id
+JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id
+WHERE kc.parent_object_id = OBJECT_ID('charging_session') AND kc.type = 'UQ' AND c.name = 'RESERVATION_ID'
+  AND (SELECT COUNT(*) FROM sys.index_columns x
+       WHERE x.object_id = kc.parent_object_id AND x.index_id = kc.unique_index_id) = 1;
+
+IF @constraint IS NOT NULL
+    EXEC('ALTER TABLE charging_session DROP CONSTRAINT [' + @constraint + ']');
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'UX_SESSION_RESERVATION' AND object_id = OBJECT_ID('charging_session'))
+    CREATE UNIQUE INDEX UX_SESSION_RESERVATION ON charging_session (RESERVATION_ID) WHERE RESERVATION_ID IS NOT NULL;
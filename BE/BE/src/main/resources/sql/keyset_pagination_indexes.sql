@@ -0,0 +1,15 @@
+-- Composite indexes cho keyset pagination (SQL Server)
+-- Hibernate ddl-auto=update cũng tạo các index này từ @Table(indexes = ...),
+-- script này dùng cho môi trường tắt ddl-auto.
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_SESSION_START_ID' AND object_id = OBJECT_ID('charging_session'))
+    CREATE INDEX IX_SESSION_START_ID ON charging_session (START_TIME DESC, SESSION_ID DESC);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_SESSION_DRIVER_START_ID' AND object_id = OBJECT_ID('charging_session'))
+    CREATE INDEX IX_SESSION_DRIVER_START_ID ON charging_session (DRIVER_ID, START_TIME DESC, SESSION_ID DESC);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_INVOICE_ISSUE_ID' AND object_id = OBJECT_ID('INVOICE'))
+    CREATE INDEX IX_INVOICE_ISSUE_ID ON INVOICE (ISSUE_DATE DESC, INVOICE_ID DESC);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_INVOICE_DRIVER_ISSUE_ID' AND object_id = OBJECT_ID('INVOICE'))
+    CREATE INDEX IX_INVOICE_DRIVER_ISSUE_ID ON INVOICE (DRIVER_ID, ISSUE_DATE DESC, INVOICE_ID DESC);
@@ -0,0 +1,68 @@
+-- Chuẩn hóa cột STATUS về mã của enum (constants/*Status) - chạy 1 lần (SQL Server)
+-- Sau khi chạy, repository so sánh status = 'x' (không còn LOWER(status)) và dùng được index seek.
+-- Script idempotent: chạy lại không đổi gì.
+
+BEGIN TRANSACTION;
+
+-- ========== CHARGING SESSION ==========
+UPDATE charging_session SET STATUS = LOWER(LTRIM(RTRIM(STATUS)))
+WHERE STATUS IS NOT NULL AND STATUS COLLATE Latin1_General_BIN <> LOWER(LTRIM(RTRIM(STATUS)));
+UPDATE charging_session SET STATUS = 'charging' WHERE STATUS IN ('using', 'active');
+UPDATE charging_session SET STATUS = 'completed' WHERE STATUS IN ('inactive', 'stopped');
+
+-- ========== RESERVATION ==========
+UPDATE RESERVATION SET status = LOWER(LTRIM(RTRIM(status)))
+WHERE status IS NOT NULL AND status COLLATE Latin1_General_BIN <> LOWER(LTRIM(RTRIM(status)));
+UPDATE RESERVATION SET status = 'active' WHERE status IN ('confirmed', 'booked');
+UPDATE RESERVATION SET status = 'fulfilled' WHERE status = 'completed';
+UPDATE RESERVATION SET status = 'cancelled' WHERE status = 'canceled';
+
+-- ========== PLAN REGISTRATION ==========
+UPDATE PLAN_REGISTRATION SET STATUS = LOWER(LTRIM(RTRIM(STATUS)))
+WHERE STATUS IS NOT NULL AND STATUS COLLATE Latin1_General_BIN <> LOWER(LTRIM(RTRIM(STATUS)));
+UPDATE PLAN_REGISTRATION SET STATUS = 'cancelled' WHERE STATUS = 'canceled';
+
+-- ========== INVOICE ==========
+UPDATE INVOICE SET STATUS = LOWER(LTRIM(RTRIM(STATUS)))
+WHERE STATUS IS NOT NULL AND STATUS COLLATE Latin1_General_BIN <> LOWER(LTRIM(RTRIM(STATUS)));
+UPDATE INVOICE SET STATUS = 'cancelled' WHERE STATUS = 'canceled';
+
+-- ========== INCIDENT REPORT ==========
+UPDATE INCIDENT_REPORT SET STATUS = LOWER(LTRIM(RTRIM(STATUS)))
+WHERE STATUS IS NOT NULL AND STATUS COLLATE Latin1_General_BIN <> LOWER(LTRIM(RTRIM(STATUS)));
+UPDATE INCIDENT_REPORT SET STATUS = 'in_progress' WHERE STATUS IN ('in-progress', 'processing');
+
+COMMIT;
+
+-- ========== COMPOSITE INDEXES (owner, status, time) ==========
+-- Hibernate ddl-auto=update cũng tạo các index này từ @Table(indexes = ...)
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_SESSION_DRIVER_STATUS_START' AND object_id = OBJECT_ID('charging_session'))
+    CREATE INDEX IX_SESSION_DRIVER_STATUS_START ON charging_session (DRIVER_ID, STATUS, START_TIME);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_SESSION_CHARGER_STATUS' AND object_id = OBJECT_ID('charging_session'))
+    CREATE INDEX IX_SESSION_CHARGER_STATUS ON charging_session (CHARGER_ID, STATUS);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_RESERVATION_DRIVER_STATUS_START' AND object_id = OBJECT_ID('RESERVATION'))
+    CREATE INDEX IX_RESERVATION_DRIVER_STATUS_START ON RESERVATION (driver_id, status, start_time);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_RESERVATION_POINT_STATUS_START' AND object_id = OBJECT_ID('RESERVATION'))
+    CREATE INDEX IX_RESERVATION_POINT_STATUS_START ON RESERVATION (charging_point_id, status, start_time);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_RESERVATION_STATUS_END' AND object_id = OBJECT_ID('RESERVATION'))
+    CREATE INDEX IX_RESERVATION_STATUS_END ON RESERVATION (status, end_time);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_PLAN_REG_DRIVER_STATUS_END' AND object_id = OBJECT_ID('PLAN_REGISTRATION'))
+    CREATE INDEX IX_PLAN_REG_DRIVER_STATUS_END ON PLAN_REGISTRATION (DRIVER_ID, STATUS, END_DATE);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_PLAN_REG_STATUS_END' AND object_id = OBJECT_ID('PLAN_REGISTRATION'))
+    CREATE INDEX IX_PLAN_REG_STATUS_END ON PLAN_REGISTRATION (STATUS, END_DATE);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_INVOICE_DRIVER_STATUS_ISSUE' AND object_id = OBJECT_ID('INVOICE'))
+    CREATE INDEX IX_INVOICE_DRIVER_STATUS_ISSUE ON INVOICE (DRIVER_ID, STATUS, ISSUE_DATE);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_INVOICE_STATUS_DUE' AND object_id = OBJECT_ID('INVOICE'))
+    CREATE INDEX IX_INVOICE_STATUS_DUE ON INVOICE (STATUS, DUE_DATE);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_INCIDENT_STATUS_DATE' AND object_id = OBJECT_ID('INCIDENT_REPORT'))
+    CREATE INDEX IX_INCIDENT_STATUS_DATE ON INCIDENT_REPORT (STATUS, REPORT_DATE);
@@ -0,0 +1,23 @@
+-- Inbox notification theo employee (SQL Server) - chạy 1 lần sau lần khởi động đầu tiên có NOTIFICATION_RECIPIENT
+-- (Hibernate ddl-auto=update tạo bảng + notification_recipient_seq).
+-- Notification cũ là global → fan-out cho mọi employee còn hoạt động, giữ nguyên is_read / read_at cũ.
+-- Script idempotent: cặp (notification, employee) đã có thì bỏ qua.
+
+BEGIN TRANSACTION;
+
+-- NEXT VALUE FOR cấp từng giá trị (bước 50) nên không trùng block id mà pooled optimizer của Hibernate đang giữ
+INSERT INTO NOTIFICATION_RECIPIENT (ID, NOTIFICATION_ID, EMPLOYEE_ID, IS_READ, READ_AT, CREATED_AT)
+SELECT NEXT VALUE FOR notification_recipient_seq, n.id, e.EMPLOYEE_ID, n.is_read, n.read_at, n.created_at
+FROM notifications n
+CROSS JOIN STATION_EMPLOYEE e
+WHERE (e.IS_DELETED = 0 OR e.IS_DELETED IS NULL)
+  AND NOT EXISTS (SELECT 1 FROM NOTIFICATION_RECIPIENT r
+                  WHERE r.NOTIFICATION_ID = n.id AND r.EMPLOYEE_ID = e.EMPLOYEE_ID);
+
+COMMIT;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_NOTIF_RECIPIENT_EMP_CREATED_ID' AND object_id = OBJECT_ID('NOTIFICATION_RECIPIENT'))
+    CREATE INDEX IX_NOTIF_RECIPIENT_EMP_CREATED_ID ON NOTIFICATION_RECIPIENT (EMPLOYEE_ID, CREATED_AT DESC, ID DESC);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_NOTIF_RECIPIENT_EMP_READ' AND object_id = OBJECT_ID('NOTIFICATION_RECIPIENT'))
+    CREATE INDEX IX_NOTIF_RECIPIENT_EMP_READ ON NOTIFICATION_RECIPIENT (EMPLOYEE_ID, IS_READ);
@@ -0,0 +1,18 @@
+-- Đặt chỗ trước (SQL Server) - chạy trước khi khởi động bản có RESERVATION.status_held / CALENDAR_DAY.
+-- Script idempotent: chạy lại không đổi gì.
+
+-- 1. Cột ngày của RESERVATION_CALENDAR_DAY đổi từ DAY (từ khóa) sang CALENDAR_DAY. Các dòng chỉ là bitmap
+--    dựng từ RESERVATION (ReservationCalendar tự dựng lại khi thiếu dòng) → bỏ bảng cũ, Hibernate ddl-auto tạo lại.
+IF COL_LENGTH('RESERVATION_CALENDAR_DAY', 'DAY') IS NOT NULL
+    DROP TABLE RESERVATION_CALENDAR_DAY;
+
+-- 2. status_held = reservation đã tự chuyển charger / point sang BOOKED. Reservation active cũ đều là đặt ngay
+--    (đã giữ charger lúc tạo) → đánh dấu đã giữ để hủy / hết hạn vẫn nhả như trước; đặt trước chưa tới giờ
+--    để NULL, job reservation.expiry sẽ giữ charger khi tới giờ check-in.
+IF COL_LENGTH('reservation', 'status_held') IS NULL
+    ALTER TABLE reservation ADD status_held BIT NULL;
+GO
+
+UPDATE reservation
+SET status_held = 1
+WHERE status = 'active' AND status_held IS NULL AND start_time <= GETDATE();
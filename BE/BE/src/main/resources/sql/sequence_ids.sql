@@ -0,0 +1,232 @@
+-- Chuyển id của charging_session / notifications / RESERVATION / INVOICE từ IDENTITY sang SEQUENCE (SQL Server 2017+)
+-- Entity dùng @SequenceGenerator allocationSize = 50 (pooled optimizer): Hibernate lấy 1 giá trị sequence cho 50 id
+-- và gom INSERT thành JDBC batch (hibernate.jdbc.batch_size). Với IDENTITY Hibernate phải INSERT từng dòng ngay khi persist.
+--
+-- PHẢI chạy trước khi deploy bản dùng sequence, trong maintenance window.
+-- Script idempotent: bảng đã bỏ IDENTITY thì bỏ qua, sequence chỉ RESTART khi đang tụt sau MAX(id).
+-- Bỏ IDENTITY bằng ALTER TABLE ... SWITCH (chỉ đổi metadata, không copy dữ liệu) sang bảng cùng cột không IDENTITY;
+-- PK / UNIQUE / index / CHECK / DEFAULT / FK (cả FK từ bảng khác trỏ vào) được script lại trong CÙNG transaction.
+
+SET XACT_ABORT ON;
+GO
+
+-- ========== HELPERS ==========
+
+-- DDL của 1 index / PK / UNIQUE (rowstore) của @table, tạo trên bảng @target với tên @name
+CREATE PROCEDURE #index_ddl @table sysname, @indexId int, @target sysname, @name sysname, @ddl nvarchar(max) OUTPUT
+AS
+BEGIN
+    SET NOCOUNT ON;
+    DECLARE @objectId int = OBJECT_ID(@table);
+    DECLARE @keys nvarchar(max), @includes nvarchar(max);
+
+    SELECT @keys = STRING_AGG(CAST(QUOTENAME(c.name) + IIF(ic.is_descending_key = 1, N' DESC', N'') AS nvarchar(max)), N', ')
+                   WITHIN GROUP (ORDER BY ic.key_ordinal)
+    FROM sys.index_columns ic
+    JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id
+    WHERE ic.object_id = @objectId AND ic.index_id = @indexId AND ic.is_included_column = 0;
+
+    SELECT @includes = STRING_AGG(CAST(QUOTENAME(c.name) AS nvarchar(max)), N', ')
+    FROM sys.index_columns ic
+    JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id
+    WHERE ic.object_id = @objectId AND ic.index_id = @indexId AND ic.is_included_column = 1;
+
+    SELECT @ddl = CASE
+            WHEN i.is_primary_key = 1 OR i.is_unique_constraint = 1
+                THEN N'ALTER TABLE ' + QUOTENAME(@target) + N' ADD CONSTRAINT ' + QUOTENAME(@name)
+                    + IIF(i.is_primary_key = 1, N' PRIMARY KEY ', N' UNIQUE ') + i.type_desc + N' (' + @keys + N');'
+            ELSE N'CREATE ' + IIF(i.is_unique = 1, N'UNIQUE ', N'') + i.type_desc + N' INDEX ' + QUOTENAME(@name)
+                    + N' ON ' + QUOTENAME(@target) + N' (' + @keys + N')'
+                    + ISNULL(N' INCLUDE (' + @includes + N')', N'')
+                    + ISNULL(N' WHERE ' + i.filter_definition, N'') + N';'
+        END
+    FROM sys.indexes i
+    WHERE i.object_id = @objectId AND i.index_id = @indexId;
+END
+GO
+
+-- Bỏ IDENTITY của @column:
+-- 1. Script lại CHECK / DEFAULT / FK (của bảng và từ bảng khác trỏ vào) trước khi đụng vào bảng
+-- 2. Tạo @table_noident cùng cột (không IDENTITY) + đúng các index / PK / UNIQUE (SWITCH yêu cầu index giống hệt);
+--    constraint tạm mang hậu tố _noident vì tên constraint là duy nhất trong schema
+-- 3. Drop FK trỏ vào bảng (bảng bị FK tham chiếu không SWITCH được), SWITCH, DROP bảng cũ (đã rỗng), đổi tên
+-- 4. Đổi tên constraint về như cũ rồi chạy lại CHECK / DEFAULT / FK đã script ở bước 1
+CREATE PROCEDURE #drop_identity @table sysname, @column sysname
+AS
+BEGIN
+    SET NOCOUNT ON;
+    DECLARE @objectId int = OBJECT_ID(@table);
+    IF COLUMNPROPERTY(@objectId, @column, 'IsIdentity') <> 1
+        RETURN;
+    IF EXISTS (SELECT 1 FROM sys.columns WHERE object_id = @objectId AND is_computed = 1)
+            OR EXISTS (SELECT 1 FROM sys.triggers WHERE parent_id = @objectId)
+            OR EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = @objectId AND type NOT IN (0, 1, 2))
+    BEGIN
+        -- THROW (không phải RAISERROR) để XACT_ABORT rollback cả transaction của bảng
+        DECLARE @message nvarchar(2048) = @table + N': computed column / trigger / non-rowstore index - chuyển tay';
+        THROW 50000, @message, 1;
+    END
+
+    DECLARE @schema sysname = OBJECT_SCHEMA_NAME(@objectId);
+    DECLARE @tmp sysname = @table + N'_noident';
+    DECLARE @sql nvarchar(max);
+    DECLARE @ddl nvarchar(max);
+    DECLARE @renames nvarchar(max) = N'';
+    DECLARE @constraints nvarchar(max) = N'';
+    DECLARE @foreignKeys nvarchar(max) = N'';
+    DECLARE @dropForeignKeys nvarchar(max) = N'';
+
+    -- ----- 1. Script CHECK / DEFAULT / FK -----
+    SELECT @constraints += N'ALTER TABLE ' + QUOTENAME(@table) + N' WITH ' + IIF(cc.is_not_trusted = 1, N'NOCHECK', N'CHECK')
+            + N' ADD CONSTRAINT ' + QUOTENAME(cc.name) + N' CHECK ' + cc.definition + N';'
+    FROM sys.check_constraints cc
+    WHERE cc.parent_object_id = @objectId;
+
+    SELECT @constraints += N'ALTER TABLE ' + QUOTENAME(@table) + N' ADD CONSTRAINT ' + QUOTENAME(dc.name)
+            + N' DEFAULT ' + dc.definition + N' FOR ' + QUOTENAME(c.name) + N';'
+    FROM sys.default_constraints dc
+    JOIN sys.columns c ON c.object_id = dc.parent_object_id AND c.column_id = dc.parent_column_id
+    WHERE dc.parent_object_id = @objectId;
+
+    SELECT @foreignKeys += N'ALTER TABLE ' + QUOTENAME(OBJECT_SCHEMA_NAME(fk.parent_object_id)) + N'.'
+                + QUOTENAME(OBJECT_NAME(fk.parent_object_id))
+                + N' WITH ' + IIF(fk.is_not_trusted = 1, N'NOCHECK', N'CHECK')
+                + N' ADD CONSTRAINT ' + QUOTENAME(fk.name) + N' FOREIGN KEY ('
+                + (SELECT STRING_AGG(CAST(QUOTENAME(COL_NAME(fkc.parent_object_id, fkc.parent_column_id)) AS nvarchar(max)), N', ')
+                          WITHIN GROUP (ORDER BY fkc.constraint_column_id)
+                   FROM sys.foreign_key_columns fkc WHERE fkc.constraint_object_id = fk.object_id)
+                + N') REFERENCES ' + QUOTENAME(OBJECT_SCHEMA_NAME(fk.referenced_object_id)) + N'.'
+                + QUOTENAME(OBJECT_NAME(fk.referenced_object_id)) + N' ('
+                + (SELECT STRING_AGG(CAST(QUOTENAME(COL_NAME(fkc.referenced_object_id, fkc.referenced_column_id)) AS nvarchar(max)), N', ')
+                          WITHIN GROUP (ORDER BY fkc.constraint_column_id)
+                   FROM sys.foreign_key_columns fkc WHERE fkc.constraint_object_id = fk.object_id)
+                + N') ON DELETE ' + REPLACE(fk.delete_referential_action_desc, N'_', N' ')
+                + N' ON UPDATE ' + REPLACE(fk.update_referential_action_desc, N'_', N' ') + N';'
+                + IIF(fk.is_disabled = 1, N'ALTER TABLE ' + QUOTENAME(OBJECT_SCHEMA_NAME(fk.parent_object_id)) + N'.'
+                        + QUOTENAME(OBJECT_NAME(fk.parent_object_id)) + N' NOCHECK CONSTRAINT ' + QUOTENAME(fk.name) + N';', N''),
+           @dropForeignKeys += IIF(fk.parent_object_id = @objectId, N'',
+                N'ALTER TABLE ' + QUOTENAME(OBJECT_SCHEMA_NAME(fk.parent_object_id)) + N'.'
+                + QUOTENAME(OBJECT_NAME(fk.parent_object_id)) + N' DROP CONSTRAINT ' + QUOTENAME(fk.name) + N';')
+    FROM sys.foreign_keys fk
+    WHERE fk.parent_object_id = @objectId OR fk.referenced_object_id = @objectId;
+
+    -- ----- 2. Bảng đích: cùng cột, không IDENTITY, cùng index -----
+    SELECT @sql = N'CREATE TABLE ' + QUOTENAME(@tmp) + N' ('
+            + STRING_AGG(CAST(QUOTENAME(c.name) + N' ' + t.name
+                + CASE
+                    WHEN t.name IN (N'varchar', N'char', N'varbinary', N'binary')
+                        THEN N'(' + IIF(c.max_length = -1, N'max', CAST(c.max_length AS nvarchar(10))) + N')'
+                    WHEN t.name IN (N'nvarchar', N'nchar')
+                        THEN N'(' + IIF(c.max_length = -1, N'max', CAST(c.max_length / 2 AS nvarchar(10))) + N')'
+                    WHEN t.name IN (N'decimal', N'numeric')
+                        THEN N'(' + CAST(c.precision AS nvarchar(10)) + N', ' + CAST(c.scale AS nvarchar(10)) + N')'
+                    WHEN t.name IN (N'datetime2', N'time', N'datetimeoffset')
+                        THEN N'(' + CAST(c.scale AS nvarchar(10)) + N')'
+                    ELSE N'' END
+                + ISNULL(N' COLLATE ' + c.collation_name, N'')
+                + IIF(c.is_nullable = 1, N' NULL', N' NOT NULL') AS nvarchar(max)), N', ')
+                WITHIN GROUP (ORDER BY c.column_id)
+            + N');'
+    FROM sys.columns c
+    JOIN sys.types t ON t.user_type_id = c.user_type_id
+    WHERE c.object_id = @objectId;
+
+    DECLARE @indexId int, @indexName sysname, @isConstraint bit, @targetName sysname;
+    DECLARE index_cursor CURSOR LOCAL FAST_FORWARD FOR
+        SELECT index_id, name, IIF(is_primary_key = 1 OR is_unique_constraint = 1, 1, 0)
+        FROM sys.indexes
+        WHERE object_id = @objectId AND type IN (1, 2)
+        ORDER BY index_id;
+    OPEN index_cursor;
+    FETCH NEXT FROM index_cursor INTO @indexId, @indexName, @isConstraint;
+    WHILE @@FETCH_STATUS = 0
+    BEGIN
+        SET @targetName = IIF(@isConstraint = 1, @indexName + N'_noident', @indexName);
+        EXEC #index_ddl @table, @indexId, @tmp, @targetName, @ddl OUTPUT;
+        SET @sql += @ddl;
+        IF @isConstraint = 1
+            SET @renames += N'EXEC sp_rename N'''
+                    + REPLACE(QUOTENAME(@schema) + N'.' + QUOTENAME(@targetName), N'''', N'''''')
+                    + N''', N''' + REPLACE(@indexName, N'''', N'''''') + N''', N''OBJECT'';';
+        FETCH NEXT FROM index_cursor INTO @indexId, @indexName, @isConstraint;
+    END
+    CLOSE index_cursor;
+    DEALLOCATE index_cursor;
+    EXEC sp_executesql @sql;
+
+    -- ----- 3. SWITCH (metadata) rồi bỏ bảng cũ -----
+    EXEC sp_executesql @dropForeignKeys;
+    SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' SWITCH TO ' + QUOTENAME(@tmp) + N';'
+            + N'DROP TABLE ' + QUOTENAME(@table) + N';';
+    EXEC sp_executesql @sql;
+    EXEC sp_rename @tmp, @table;
+
+    -- ----- 4. Tên constraint như cũ + CHECK / DEFAULT / FK -----
+    EXEC sp_executesql @renames;
+    EXEC sp_executesql @constraints;
+    EXEC sp_executesql @foreignKeys;
+END
+GO
+
+-- Tạo sequence (hoặc RESTART nếu đang tụt sau MAX(id)).
+-- Pooled optimizer dùng giá trị sequence làm cận trên của block → START = MAX(id) + 50 để id mới bắt đầu từ MAX(id) + 1
+CREATE PROCEDURE #ensure_sequence @sequence sysname, @type sysname, @maxId bigint
+AS
+BEGIN
+    SET NOCOUNT ON;
+    DECLARE @start nvarchar(20) = CAST(@maxId + 50 AS nvarchar(20));
+    DECLARE @current bigint = (SELECT CAST(current_value AS bigint) FROM sys.sequences WHERE name = @sequence);
+    DECLARE @sql nvarchar(max);
+
+    IF @current IS NULL
+        SET @sql = N'CREATE SEQUENCE ' + QUOTENAME(@sequence) + N' AS ' + @type
+                + N' START WITH ' + @start + N' INCREMENT BY 50;';
+    ELSE IF @current < @maxId + 50
+        SET @sql = N'ALTER SEQUENCE ' + QUOTENAME(@sequence) + N' RESTART WITH ' + @start + N' INCREMENT BY 50;';
+
+    IF @sql IS NOT NULL
+        EXEC sp_executesql @sql;
+END
+GO
+
+-- ========== CHARGING SESSION ==========
+-- Session đã archive giữ nguyên id gốc → sequence phải vượt cả MAX(id) của CHARGING_SESSION_ARCHIVE
+BEGIN TRANSACTION;
+EXEC #drop_identity 'charging_session', 'SESSION_ID';
+DECLARE @maxSession bigint = (SELECT ISNULL(MAX(id), 0) FROM (
+        SELECT MAX(SESSION_ID) AS id FROM charging_session
+        UNION ALL
+        SELECT MAX(SESSION_ID) FROM CHARGING_SESSION_ARCHIVE
+    ) ids);
+EXEC #ensure_sequence 'charging_session_seq', 'INT', @maxSession;
+COMMIT;
+GO
+
+-- ========== NOTIFICATIONS ==========
+BEGIN TRANSACTION;
+EXEC #drop_identity 'notifications', 'id';
+DECLARE @maxNotification bigint = (SELECT ISNULL(MAX(id), 0) FROM notifications);
+EXEC #ensure_sequence 'notifications_seq', 'BIGINT', @maxNotification;
+COMMIT;
+GO
+
+-- ========== RESERVATION ==========
+BEGIN TRANSACTION;
+EXEC #drop_identity 'RESERVATION', 'id';
+DECLARE @maxReservation bigint = (SELECT ISNULL(MAX(id), 0) FROM RESERVATION);
+EXEC #ensure_sequence 'reservation_seq', 'BIGINT', @maxReservation;
+COMMIT;
+GO
+
+-- ========== INVOICE ==========
+BEGIN TRANSACTION;
+EXEC #drop_identity 'INVOICE', 'INVOICE_ID';
+DECLARE @maxInvoice bigint = (SELECT ISNULL(MAX(INVOICE_ID), 0) FROM INVOICE);
+EXEC #ensure_sequence 'invoice_seq', 'INT', @maxInvoice;
+COMMIT;
+GO
+
+DROP PROCEDURE #drop_identity;
+DROP PROCEDURE #index_ddl;
+DROP PROCEDURE #ensure_sequence;
+GO
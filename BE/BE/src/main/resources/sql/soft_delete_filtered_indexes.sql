@@ -0,0 +1,48 @@
+-- Soft delete: IS_DELETED NOT NULL + filtered index trên dòng còn sống (SQL Server)
+-- Hibernate filter SoftDelete.FILTER thêm literal "IS_DELETED = 0" vào mọi query trên các bảng này,
+-- nên optimizer match được filtered index "WHERE IS_DELETED = 0" (không dùng được với tham số).
+-- Script idempotent: chạy lại không đổi gì.
+
+-- ========== BACKFILL + NOT NULL ==========
+UPDATE FACILITY SET IS_DELETED = 0 WHERE IS_DELETED IS NULL;
+UPDATE CHARGING_STATION SET IS_DELETED = 0 WHERE IS_DELETED IS NULL;
+UPDATE CHARGING_POINT SET IS_DELETED = 0 WHERE IS_DELETED IS NULL;
+UPDATE CHARGER SET IS_DELETED = 0 WHERE IS_DELETED IS NULL;
+UPDATE INCIDENT_REPORT SET IS_DELETED = 0 WHERE IS_DELETED IS NULL;
+
+ALTER TABLE FACILITY ALTER COLUMN IS_DELETED BIT NOT NULL;
+ALTER TABLE CHARGING_STATION ALTER COLUMN IS_DELETED BIT NOT NULL;
+ALTER TABLE CHARGING_POINT ALTER COLUMN IS_DELETED BIT NOT NULL;
+ALTER TABLE CHARGER ALTER COLUMN IS_DELETED BIT NOT NULL;
+ALTER TABLE INCIDENT_REPORT ALTER COLUMN IS_DELETED BIT NOT NULL;
+
+IF OBJECT_ID('DF_FACILITY_IS_DELETED') IS NULL
+    ALTER TABLE FACILITY ADD CONSTRAINT DF_FACILITY_IS_DELETED DEFAULT 0 FOR IS_DELETED;
+IF OBJECT_ID('DF_CHARGING_STATION_IS_DELETED') IS NULL
+    ALTER TABLE CHARGING_STATION ADD CONSTRAINT DF_CHARGING_STATION_IS_DELETED DEFAULT 0 FOR IS_DELETED;
+IF OBJECT_ID('DF_CHARGING_POINT_IS_DELETED') IS NULL
+    ALTER TABLE CHARGING_POINT ADD CONSTRAINT DF_CHARGING_POINT_IS_DELETED DEFAULT 0 FOR IS_DELETED;
+IF OBJECT_ID('DF_CHARGER_IS_DELETED') IS NULL
+    ALTER TABLE CHARGER ADD CONSTRAINT DF_CHARGER_IS_DELETED DEFAULT 0 FOR IS_DELETED;
+IF OBJECT_ID('DF_INCIDENT_REPORT_IS_DELETED') IS NULL
+    ALTER TABLE INCIDENT_REPORT ADD CONSTRAINT DF_INCIDENT_REPORT_IS_DELETED DEFAULT 0 FOR IS_DELETED;
+
+-- ========== FILTERED INDEXES (live rows) ==========
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_FACILITY_LIVE' AND object_id = OBJECT_ID('FACILITY'))
+    CREATE INDEX IX_FACILITY_LIVE ON FACILITY (FACILITY_ID) WHERE IS_DELETED = 0;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_STATION_FACILITY_LIVE' AND object_id = OBJECT_ID('CHARGING_STATION'))
+    CREATE INDEX IX_STATION_FACILITY_LIVE ON CHARGING_STATION (FACILITY_ID) WHERE IS_DELETED = 0;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_POINT_STATION_LIVE' AND object_id = OBJECT_ID('CHARGING_POINT'))
+    CREATE INDEX IX_POINT_STATION_LIVE ON CHARGING_POINT (STATION_ID) WHERE IS_DELETED = 0;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_CHARGER_POINT_LIVE' AND object_id = OBJECT_ID('CHARGER'))
+    CREATE INDEX IX_CHARGER_POINT_LIVE ON CHARGER (POINT_ID) INCLUDE (STATUS) WHERE IS_DELETED = 0;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_INCIDENT_POINT_LIVE' AND object_id = OBJECT_ID('INCIDENT_REPORT'))
+    CREATE INDEX IX_INCIDENT_POINT_LIVE ON INCIDENT_REPORT (POINT_ID) WHERE IS_DELETED = 0;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_INCIDENT_STATUS_DATE_LIVE' AND object_id = OBJECT_ID('INCIDENT_REPORT'))
+    CREATE INDEX IX_INCIDENT_STATUS_DATE_LIVE ON INCIDENT_REPORT (STATUS, REPORT_DATE) WHERE IS_DELETED = 0;
@@ -0,0 +1,10 @@
+-- Kho mã xác thực dùng chung (SQL Server) - chạy sau lần khởi động đầu tiên có VERIFICATION_CODE
+-- (Hibernate ddl-auto=update tạo bảng + unique (PURPOSE, SUBJECT) + index EXPIRES_AT).
+-- OTP đổi mật khẩu chuyển từ password_reset_tokens sang VERIFICATION_CODE (PURPOSE = 'PASSWORD_RESET').
+-- OTP chưa dùng chỉ sống 15 phút nên không copy dữ liệu cũ: bỏ bảng cũ sau khi deploy.
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_VERIFICATION_CODE_EXPIRES' AND object_id = OBJECT_ID('VERIFICATION_CODE'))
+    CREATE INDEX IX_VERIFICATION_CODE_EXPIRES ON VERIFICATION_CODE (EXPIRES_AT);
+
+IF OBJECT_ID('password_reset_tokens', 'U') IS NOT NULL
+    DROP TABLE password_reset_tokens;
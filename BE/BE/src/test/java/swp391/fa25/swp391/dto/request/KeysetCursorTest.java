@@ -0,0 +1,41 @@
+package swp391.fa25.swp391.dto.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ⭐ Cursor keyset: round-trip giá trị sort, sort key NULL, token hỏng
+ */
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsSortValueAndId() {
+        LocalDateTime start = LocalDateTime.of(2025, 11, 20, 18, 5, 30);
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode(start, 42));
+
+        assertEquals(start, cursor.asLocalDateTime());
+        assertEquals(42, cursor.getId());
+        assertEquals(Instant.EPOCH, KeysetCursor.decode(KeysetCursor.encode(Instant.EPOCH, 7)).asInstant());
+    }
+
+    @Test
+    void encodesNullSortKey() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode((LocalDateTime) null, 9));
+
+        assertNull(cursor.asLocalDateTime());
+        assertEquals(9, cursor.getId());
+        assertNull(KeysetCursor.decode(KeysetCursor.encode((Instant) null, 9)).asInstant());
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        assertNull(KeysetCursor.decode(" "));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+}
@@ -0,0 +1,45 @@
+package swp391.fa25.swp391.service;
+
+import org.junit.jupiter.api.Test;
+import swp391.fa25.swp391.constants.ChargerStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ⭐ Bước chuyển trạng thái charger: luồng đặt chỗ / sạc / bảo trì hợp lệ, các bước tắt bị chặn
+ */
+class ChargerStatusTransitionTest {
+
+    @Test
+    void allowsReservationAndSessionLifecycle() {
+        assertTrue(ChargerStatus.ACTIVE.canTransitionTo(ChargerStatus.BOOKED));
+        assertTrue(ChargerStatus.BOOKED.canTransitionTo(ChargerStatus.USING));
+        assertTrue(ChargerStatus.USING.canTransitionTo(ChargerStatus.ACTIVE));
+        assertTrue(ChargerStatus.BOOKED.canTransitionTo(ChargerStatus.ACTIVE));
+        // Sự cố có thể xảy ra ở bất kỳ trạng thái đang hoạt động nào
+        assertTrue(ChargerStatus.USING.canTransitionTo(ChargerStatus.MAINTENANCE));
+        assertTrue(ChargerStatus.INACTIVE.canTransitionTo(ChargerStatus.MAINTENANCE));
+    }
+
+    @Test
+    void rejectsShortcuts() {
+        assertFalse(ChargerStatus.USING.canTransitionTo(ChargerStatus.BOOKED));
+        assertFalse(ChargerStatus.USING.canTransitionTo(ChargerStatus.INACTIVE));
+        assertFalse(ChargerStatus.BOOKED.canTransitionTo(ChargerStatus.INACTIVE));
+        assertFalse(ChargerStatus.MAINTENANCE.canTransitionTo(ChargerStatus.BOOKED));
+        assertFalse(ChargerStatus.INACTIVE.canTransitionTo(ChargerStatus.USING));
+        assertFalse(ChargerStatus.ACTIVE.canTransitionTo(ChargerStatus.ACTIVE));
+    }
+
+    @Test
+    void parsesStoredCodesLeniently() {
+        assertEquals(ChargerStatus.ACTIVE, ChargerStatus.fromCode(" Active "));
+        assertEquals(ChargerStatus.BOOKED, ChargerStatus.fromCode("reserved"));
+        assertEquals(ChargerStatus.USING, ChargerStatus.fromCode("CHARGING"));
+        assertNull(ChargerStatus.fromCode("broken"));
+        assertNull(ChargerStatus.fromCode(null));
+    }
+}
@@ -0,0 +1,66 @@
+package swp391.fa25.swp391.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import swp391.fa25.swp391.repository.JobLeaseRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ⭐ 2 node dùng chung bảng JOB_LEASE: cron lệch nhau vài phút trong cùng kỳ chỉ chạy job 1 lần
+ */
+@SpringBootTest
+@ActiveProfiles("sqlcount")
+class ClusterJobServiceTest {
+
+    @Autowired
+    private JobLeaseRepository leaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void dailyJobTriggeredByTwoNodesAMinuteApartRunsOnce() {
+        AtomicInteger runs = new AtomicInteger();
+        ClusterJobService nodeA = node("node-a", "test.daily", runs);
+        ClusterJobService nodeB = node("node-b", "test.daily", runs);
+
+        LocalDateTime nine = LocalDateTime.of(2026, 10, 19, 9, 0);
+        nodeA.trigger("test.daily", ClusterJobService.RunPeriod.DAILY, nine);
+        nodeB.trigger("test.daily", ClusterJobService.RunPeriod.DAILY, nine.plusMinutes(1));
+        assertEquals(1, runs.get(), "Same day must run exactly once");
+
+        nodeB.trigger("test.daily", ClusterJobService.RunPeriod.DAILY, nine.plusDays(1));
+        nodeA.trigger("test.daily", ClusterJobService.RunPeriod.DAILY, nine.plusDays(1).plusMinutes(1));
+        assertEquals(2, runs.get(), "Next day must run again");
+    }
+
+    @Test
+    void manualRunDoesNotSkipScheduledMonthlyRun() {
+        AtomicInteger runs = new AtomicInteger();
+        ClusterJobService nodeA = node("node-a", "test.monthly", runs);
+        ClusterJobService nodeB = node("node-b", "test.monthly", runs);
+
+        nodeA.triggerNow("test.monthly");
+        nodeB.trigger("test.monthly", ClusterJobService.RunPeriod.MONTHLY, LocalDateTime.now());
+        nodeA.trigger("test.monthly", ClusterJobService.RunPeriod.MONTHLY, LocalDateTime.now().plusMinutes(1));
+        assertEquals(2, runs.get(), "Manual run + 1 scheduled run of the month");
+    }
+
+    private ClusterJobService node(String nodeId, String job, AtomicInteger runs) {
+        ClusterJobService service = new ClusterJobService(leaseRepository, transactionManager);
+        ReflectionTestUtils.setField(service, "configuredNodeId", nodeId);
+        ReflectionTestUtils.setField(service, "retryDelayMs", 300000L);
+        service.init();
+        service.register(job, 1, Duration.ofMinutes(5), (shard, runKey) -> runs.incrementAndGet());
+        return service;
+    }
+}
@@ -0,0 +1,50 @@
+package swp391.fa25.swp391.service;
+
+import org.junit.jupiter.api.Test;
+import swp391.fa25.swp391.config.RateLimitProperties;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ⭐ Token bucket trong bộ nhớ: hết token thì chặn kèm thời gian chờ, key độc lập nhau
+ */
+class InMemoryRateLimiterTest {
+
+    private final InMemoryRateLimiter rateLimiter = new InMemoryRateLimiter();
+
+    @Test
+    void rejectsAfterCapacityIsUsed() {
+        RateLimitProperties.Limit limit = limit(3, Duration.ofMinutes(3));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("login:ip:10.0.0.1", limit).allowed());
+        }
+        RateLimiter.Decision rejected = rateLimiter.tryAcquire("login:ip:10.0.0.1", limit);
+
+        assertFalse(rejected.allowed());
+        // 3 token / 3 phút → token kế tiếp sau tối đa 1 phút
+        assertTrue(rejected.retryAfter().compareTo(Duration.ZERO) > 0);
+        assertTrue(rejected.retryAfter().compareTo(Duration.ofMinutes(1)) <= 0);
+        assertTrue(rateLimiter.tryAcquire("login:ip:10.0.0.2", limit).allowed());
+    }
+
+    @Test
+    void sweepKeepsBucketsThatAreStillRefilling() {
+        RateLimitProperties.Limit limit = limit(1, Duration.ofHours(1));
+
+        assertTrue(rateLimiter.tryAcquire("email-send:subject:a@mail.com", limit).allowed());
+        rateLimiter.sweep();
+
+        assertFalse(rateLimiter.tryAcquire("email-send:subject:a@mail.com", limit).allowed());
+    }
+
+    private static RateLimitProperties.Limit limit(int capacity, Duration refillPeriod) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setRefillPeriod(refillPeriod);
+        return limit;
+    }
+}
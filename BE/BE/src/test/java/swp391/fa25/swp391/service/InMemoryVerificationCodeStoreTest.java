@@ -0,0 +1,78 @@
+package swp391.fa25.swp391.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import swp391.fa25.swp391.constants.VerificationPurpose;
+import swp391.fa25.swp391.service.VerificationCodeStore.Result;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * ⭐ Kho mã trong bộ nhớ: dùng 1 lần, hết hạn theo thứ tự, giới hạn số mã
+ */
+class InMemoryVerificationCodeStoreTest {
+
+    private static final VerificationPurpose EMAIL = VerificationPurpose.EMAIL_VERIFICATION;
+
+    private InMemoryVerificationCodeStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryVerificationCodeStore();
+        ReflectionTestUtils.setField(store, "maxEntries", 2);
+    }
+
+    @Test
+    void codeIsConsumedOnlyOnce() {
+        store.issue(EMAIL, "Driver@Mail.com", "123456", Duration.ofMinutes(15));
+
+        assertEquals(Result.MISMATCH, store.consume(EMAIL, "driver@mail.com", "000000"));
+        assertEquals(Result.VALID, store.check(EMAIL, "driver@mail.com", "123456"));
+        assertEquals(Result.VALID, store.consume(EMAIL, " driver@mail.com ", "123456"));
+        assertEquals(Result.NOT_FOUND, store.consume(EMAIL, "driver@mail.com", "123456"));
+    }
+
+    @Test
+    void purposesAreIndependent() {
+        store.issue(EMAIL, "a@mail.com", "111111", Duration.ofMinutes(15));
+        store.issue(VerificationPurpose.PASSWORD_RESET, "a@mail.com", "222222", Duration.ofMinutes(15));
+
+        assertEquals(Result.MISMATCH, store.check(EMAIL, "a@mail.com", "222222"));
+        assertEquals(Result.VALID, store.consume(VerificationPurpose.PASSWORD_RESET, "a@mail.com", "222222"));
+        assertEquals(Result.VALID, store.consume(EMAIL, "a@mail.com", "111111"));
+    }
+
+    @Test
+    void expiredCodesAreReportedAndSweptInExpiryOrder() {
+        store.issue(EMAIL, "old@mail.com", "111111", Duration.ofSeconds(-1));
+        store.issue(EMAIL, "new@mail.com", "222222", Duration.ofMinutes(15));
+
+        assertEquals(Result.EXPIRED, store.check(EMAIL, "old@mail.com", "111111"));
+        assertEquals(1, store.purgeExpired());
+        assertEquals(Result.NOT_FOUND, store.check(EMAIL, "old@mail.com", "111111"));
+        assertEquals(Result.VALID, store.check(EMAIL, "new@mail.com", "222222"));
+    }
+
+    @Test
+    void reissuedCodeIsNotRemovedByStaleExpiryEntry() {
+        store.issue(EMAIL, "a@mail.com", "111111", Duration.ofSeconds(-1));
+        store.issue(EMAIL, "a@mail.com", "222222", Duration.ofMinutes(15));
+
+        assertEquals(0, store.purgeExpired());
+        assertEquals(Result.VALID, store.check(EMAIL, "a@mail.com", "222222"));
+    }
+
+    @Test
+    void fullStoreDropsCodeClosestToExpiry() {
+        store.issue(EMAIL, "first@mail.com", "111111", Duration.ofMinutes(5));
+        store.issue(EMAIL, "second@mail.com", "222222", Duration.ofMinutes(10));
+        store.issue(EMAIL, "third@mail.com", "333333", Duration.ofMinutes(15));
+
+        assertEquals(Result.NOT_FOUND, store.check(EMAIL, "first@mail.com", "111111"));
+        assertEquals(Result.VALID, store.check(EMAIL, "second@mail.com", "222222"));
+        assertEquals(Result.VALID, store.check(EMAIL, "third@mail.com", "333333"));
+    }
+}
@@ -0,0 +1,71 @@
+package swp391.fa25.swp391.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import swp391.fa25.swp391.constants.CacheRegions;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ⭐ 2 "node" trong cùng JVM: thay đổi publish trên node A phải tới node B (remote) và được đo convergence
+ */
+class LocalMulticastInvalidationBusTest {
+
+    private final SimpleMeterRegistry registryA = new SimpleMeterRegistry();
+    private final SimpleMeterRegistry registryB = new SimpleMeterRegistry();
+    private final LocalMulticastInvalidationBus nodeA = new LocalMulticastInvalidationBus("node-a", registryA);
+    private final LocalMulticastInvalidationBus nodeB = new LocalMulticastInvalidationBus("node-b", registryB);
+
+    @AfterEach
+    void leave() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void changeOnOneNodeIsAppliedOnPeerAsRemote() {
+        List<CacheInvalidationBus.Event> onA = new CopyOnWriteArrayList<>();
+        List<CacheInvalidationBus.Event> onB = new CopyOnWriteArrayList<>();
+        nodeA.subscribe(CacheRegions.TOPOLOGY, onA::add);
+        nodeB.subscribe(CacheRegions.TOPOLOGY, onB::add);
+
+        nodeA.publish(CacheRegions.TOPOLOGY, "Charger#12");
+
+        assertEquals(1, onA.size());
+        assertFalse(onA.get(0).remote());
+        assertEquals(1, onB.size());
+        assertTrue(onB.get(0).remote());
+        assertEquals("Charger#12", onB.get(0).key());
+        assertEquals("node-a", onB.get(0).originNode());
+
+        Timer convergence = registryB.find("cache.invalidation.convergence")
+                .tags("region", CacheRegions.TOPOLOGY, "transport", "local")
+                .timer();
+        assertNotNull(convergence);
+        assertEquals(1, convergence.count());
+        assertNull(registryA.find("cache.invalidation.convergence").timer());
+    }
+
+    @Test
+    void regionWidePublishReachesOnlySubscribersOfThatRegion() {
+        List<CacheInvalidationBus.Event> topology = new CopyOnWriteArrayList<>();
+        List<CacheInvalidationBus.Event> accounts = new CopyOnWriteArrayList<>();
+        nodeB.subscribe(CacheRegions.TOPOLOGY, topology::add);
+        nodeB.subscribe(CacheRegions.ACCOUNTS, accounts::add);
+
+        nodeA.publishRegion(CacheRegions.TOPOLOGY);
+
+        assertEquals(1, topology.size());
+        assertTrue(topology.get(0).wholeRegion());
+        assertTrue(accounts.isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package swp391.fa25.swp391.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.entity.Invoice;
+import swp391.fa25.swp391.entity.RevenueLedger;
+import swp391.fa25.swp391.repository.ChargingSessionArchiveRepository;
+import swp391.fa25.swp391.repository.ChargingSessionRepository;
+import swp391.fa25.swp391.repository.InvoiceRepository;
+import swp391.fa25.swp391.repository.RevenueLedgerRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ⭐ Invoice có session ở nhiều facility: tiền chia theo facility, INVOICE_COUNT chỉ đếm 1 lần
+ */
+@SpringBootTest
+@ActiveProfiles("sqlcount")
+class RevenueLedgerServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2031, 3, 5);
+
+    @Autowired
+    private RevenueLedgerRepository ledgerRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void multiFacilityInvoiceIsCountedOnce() {
+        ChargingSessionRepository sessionRepository = mock(ChargingSessionRepository.class);
+        ChargingSessionArchiveRepository archiveRepository = mock(ChargingSessionArchiveRepository.class);
+        when(sessionRepository.sumCostByFacilityForInvoice(9001)).thenReturn(List.<Object[]>of(
+                new Object[]{11, new BigDecimal("40.00")},
+                new Object[]{12, new BigDecimal("70.00")}));
+        when(archiveRepository.sumCostByFacilityForInvoice(9001)).thenReturn(List.<Object[]>of(
+                new Object[]{13, new BigDecimal("20.00")}));
+
+        RevenueLedgerService service = new RevenueLedgerService(
+                ledgerRepository, sessionRepository, archiveRepository, invoiceRepository, transactionManager);
+        service.init();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        Invoice invoice = new Invoice();
+        invoice.setId(9001);
+        invoice.setIssueDate(DAY.atStartOfDay(ZoneId.systemDefault()).toInstant().plusSeconds(3600));
+        invoice.setTotalCost(new BigDecimal("150.00"));
+        invoice.setStatus("unpaid");
+        tx.executeWithoutResult(s -> service.recordInvoiceCreated(invoice));
+
+        List<RevenueLedger> unpaid = bucketsOf("unpaid");
+        assertEquals(4, unpaid.size(), "3 facility + phí gói tháng (facility 0)");
+        assertEquals(0, new BigDecimal("150.00").compareTo(sumAmount(unpaid)));
+        assertEquals(1, sumCount(unpaid), "Invoice nhiều facility chỉ đếm 1 lần");
+        assertEquals(1, countOf(unpaid, 12), "Đếm vào facility được phân bổ nhiều nhất");
+
+        invoice.setStatus("paid");
+        tx.executeWithoutResult(s -> service.recordStatusChange(invoice, "unpaid"));
+
+        assertEquals(0, sumCount(bucketsOf("unpaid")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(sumAmount(bucketsOf("unpaid"))));
+        assertEquals(1, sumCount(bucketsOf("paid")));
+        assertEquals(0, new BigDecimal("150.00").compareTo(sumAmount(bucketsOf("paid"))));
+    }
+
+    private List<RevenueLedger> bucketsOf(String status) {
+        return ledgerRepository.findByLedgerDateBetweenOrderByLedgerDateAsc(DAY, DAY).stream()
+                .filter(row -> status.equals(row.getStatus()))
+                .toList();
+    }
+
+    private static BigDecimal sumAmount(List<RevenueLedger> rows) {
+        return rows.stream().map(RevenueLedger::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static int sumCount(List<RevenueLedger> rows) {
+        return rows.stream().mapToInt(RevenueLedger::getInvoiceCount).sum();
+    }
+
+    private static int countOf(List<RevenueLedger> rows, int facilityId) {
+        return rows.stream()
+                .filter(row -> row.getFacilityId() == facilityId)
+                .mapToInt(RevenueLedger::getInvoiceCount)
+                .sum();
+    }
+}
@@ -0,0 +1,106 @@
+package swp391.fa25.swp391.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import swp391.fa25.swp391.constants.CacheRegions;
+import swp391.fa25.swp391.entity.Charger;
+import swp391.fa25.swp391.entity.ChargingPoint;
+import swp391.fa25.swp391.entity.ChargingStation;
+import swp391.fa25.swp391.entity.Facility;
+import swp391.fa25.swp391.repository.ChargerRepository;
+import swp391.fa25.swp391.repository.ChargingPointRepository;
+import swp391.fa25.swp391.repository.ChargingStationRepository;
+import swp391.fa25.swp391.repository.FacilityRepository;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ⭐ Khởi động app với second-level cache BẬT (profile sqlcount tắt cache)
+ *
+ * Bắt lỗi cấu hình JCache / ehcache.xml ngay lúc boot và kiểm tra region topology thực sự được dùng:
+ * Facility cache được, Charger (STATUS đổi liên tục) thì không.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:l2cache;MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"
+})
+@ActiveProfiles("sqlcount")
+class SecondLevelCacheBootTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FacilityRepository facilityRepository;
+    @Autowired
+    private ChargingStationRepository stationRepository;
+    @Autowired
+    private ChargingPointRepository pointRepository;
+    @Autowired
+    private ChargerRepository chargerRepository;
+
+    @Test
+    void topologyIsServedFromSecondLevelCache() {
+        Facility facility = new Facility();
+        facility.setName("L2 Facility");
+        facility.setCity("HCM");
+        facility.setStatus("active");
+        facility = facilityRepository.save(facility);
+
+        ChargingStation station = new ChargingStation();
+        station.setStationName("L2 Station");
+        station.setStatus("active");
+        station.setFacility(facility);
+        station = stationRepository.save(station);
+
+        ChargingPoint point = new ChargingPoint();
+        point.setPointName("L2 Point");
+        point.setStatus("available");
+        point.setPricePerKwh(new BigDecimal("3500"));
+        point.setStation(station);
+        point = pointRepository.save(point);
+
+        Charger charger = new Charger();
+        charger.setChargerCode("L2-1");
+        charger.setMaxPower(new BigDecimal("50"));
+        charger.setConnectorType("CCS2");
+        charger.setStatus("available");
+        charger.setChargingPoint(point);
+        charger = chargerRepository.save(charger);
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        CacheRegionStatistics topology = sessionFactory.getStatistics().getCacheRegionStatistics(CacheRegions.TOPOLOGY);
+        assertNotNull(topology, "Region " + CacheRegions.TOPOLOGY + " is not configured");
+        long hitsBefore = topology.getHitCount();
+
+        load(Facility.class, facility.getId());
+        load(Facility.class, facility.getId());
+        load(Charger.class, charger.getId());
+
+        assertTrue(topology.getHitCount() > hitsBefore, "Second load of Facility should hit the topology region");
+        assertTrue(sessionFactory.getCache().containsEntity(Facility.class, facility.getId()));
+        assertFalse(sessionFactory.getCache().containsEntity(Charger.class, charger.getId()),
+                "Charger must not be in the second-level cache");
+    }
+
+    private void load(Class<?> entityClass, Integer id) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            assertNotNull(entityManager.find(entityClass, id));
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package swp391.fa25.swp391.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ⭐ Bitmap slot 5 phút: làm tròn khung giờ, kiểm tra trùng qua ranh giới word, tìm khung trống đủ dài
+ */
+class SlotBitmapTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 20);
+
+    @Test
+    void roundsWindowOutwardToWholeSlots() {
+        assertEquals(122, SlotBitmap.slotFrom(DAY, DAY.atTime(10, 12, 30)));
+        assertEquals(123, SlotBitmap.slotTo(DAY, DAY.atTime(10, 12, 30)));
+        assertEquals(120, SlotBitmap.slotTo(DAY, DAY.atTime(10, 0)));
+        // Khung vắt qua nửa đêm: ngày sau tính từ slot 0, ngày trước tới hết ngày
+        assertEquals(0, SlotBitmap.slotFrom(DAY.plusDays(1), DAY.atTime(23, 0)));
+        assertEquals(SlotBitmap.SLOTS_PER_DAY, SlotBitmap.slotTo(DAY, DAY.plusDays(1).atTime(1, 0)));
+        assertEquals(DAY.plusDays(1).atStartOfDay(), SlotBitmap.slotStart(DAY, SlotBitmap.SLOTS_PER_DAY));
+    }
+
+    @Test
+    void detectsOverlapAcrossWordBoundary() {
+        long[] bits = SlotBitmap.set(SlotBitmap.empty(), 60, 70);
+
+        assertFalse(SlotBitmap.isFree(bits, 69, 80));
+        assertFalse(SlotBitmap.isFree(bits, 50, 61));
+        assertTrue(SlotBitmap.isFree(bits, 70, 200));
+        assertTrue(SlotBitmap.isFree(bits, 0, 60));
+        assertTrue(SlotBitmap.isFree(SlotBitmap.clear(bits, 60, 70), 0, SlotBitmap.SLOTS_PER_DAY));
+        // set / clear không sửa mảng dùng chung
+        assertTrue(SlotBitmap.isFree(SlotBitmap.empty(), 60, 70));
+    }
+
+    @Test
+    void findsFirstRunLongEnough() {
+        // Đặt 08:00-09:00 và 09:30-12:00 → khung 60 phút đầu tiên từ 08:00 là 12:00
+        long[] bits = SlotBitmap.set(SlotBitmap.empty(), 96, 108);
+        bits = SlotBitmap.set(bits, 114, 144);
+        long[] runs = SlotBitmap.freeRunStarts(bits, 12);
+
+        assertEquals(144, SlotBitmap.nextSetBit(runs, 96));
+        assertEquals(0, SlotBitmap.nextSetBit(runs, 0));
+        assertEquals(108, SlotBitmap.nextSetBit(SlotBitmap.freeRunStarts(bits, 6), 96));
+        // Khung không tràn qua nửa đêm
+        assertEquals(SlotBitmap.SLOTS_PER_DAY - 12, lastSetBit(runs));
+    }
+
+    @Test
+    void survivesPersistenceRoundTrip() {
+        long[] bits = SlotBitmap.set(SlotBitmap.empty(), 250, SlotBitmap.SLOTS_PER_DAY);
+
+        assertArrayEquals(bits, SlotBitmap.fromBytes(SlotBitmap.toBytes(bits)));
+        assertArrayEquals(SlotBitmap.empty(), SlotBitmap.fromBytes(null));
+        assertEquals(LocalDateTime.of(2025, 11, 20, 20, 50), SlotBitmap.slotStart(DAY, 250));
+    }
+
+    private static int lastSetBit(long[] bits) {
+        int last = -1;
+        for (int slot = SlotBitmap.nextSetBit(bits, 0); slot >= 0; slot = SlotBitmap.nextSetBit(bits, slot + 1)) {
+            last = slot;
+        }
+        return last;
+    }
+}
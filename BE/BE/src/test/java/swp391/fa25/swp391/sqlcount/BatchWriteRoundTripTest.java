@@ -0,0 +1,95 @@
+package swp391.fa25.swp391.sqlcount;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp391.fa25.swp391.entity.Notification;
+import swp391.fa25.swp391.repository.NotificationRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ⭐ Benchmark số round trip JDBC của luồng ghi hàng loạt (sequence pooled + hibernate.jdbc.batch_size)
+ *
+ * Cùng 1 luồng (INSERT rồi UPDATE ROWS notification) chạy 2 lần: batch size của session = 1 (như khi còn IDENTITY)
+ * và batch size cấu hình trong application.properties. Khi batch, Hibernate prepare 1 statement cho mỗi executeBatch
+ * nên số statement prepare ≈ số round trip.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("sqlcount")
+class BatchWriteRoundTripTest {
+
+    private static final int ROWS = 200;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    private SqlStatementCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new SqlStatementCounter(entityManagerFactory);
+        notificationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void batchedBulkWritesNeedFarFewerRoundTrips() throws Exception {
+        long unbatched = counter.count(() -> insertThenMarkRead(1));
+        long batched = counter.count(() -> insertThenMarkRead(null));
+
+        String report = String.format("%d notifications insert + update: %d statements unbatched, %d statements batched",
+                ROWS, unbatched, batched);
+        log.info("[sqlcount] {}", report);
+
+        assertTrue(unbatched >= 2L * ROWS, "Baseline should write row by row - " + report);
+        assertTrue(batched * 10 <= unbatched, "JDBC batching not effective - " + report);
+    }
+
+    /**
+     * @param jdbcBatchSize batch size cho session hiện tại, null = giữ cấu hình mặc định
+     */
+    private void insertThenMarkRead(Integer jdbcBatchSize) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+
+            List<Notification> notifications = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                notifications.add(Notification.builder()
+                        .type("system_alert")
+                        .title("Bulk " + i)
+                        .message("Round trip benchmark")
+                        .build());
+            }
+            notificationRepository.saveAll(notifications);
+            entityManager.flush();
+
+            LocalDateTime now = LocalDateTime.now();
+            notifications.forEach(notification -> {
+                notification.setIsRead(true);
+                notification.setReadAt(now);
+            });
+            entityManager.flush();
+        });
+    }
+}
@@ -0,0 +1,232 @@
+package swp391.fa25.swp391.sqlcount;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import swp391.fa25.swp391.entity.Account;
+import swp391.fa25.swp391.entity.Charger;
+import swp391.fa25.swp391.entity.ChargingPoint;
+import swp391.fa25.swp391.entity.ChargingSession;
+import swp391.fa25.swp391.entity.ChargingStation;
+import swp391.fa25.swp391.entity.Driver;
+import swp391.fa25.swp391.entity.Facility;
+import swp391.fa25.swp391.entity.IncidentReport;
+import swp391.fa25.swp391.entity.Vehicle;
+import swp391.fa25.swp391.repository.AccountRepository;
+import swp391.fa25.swp391.repository.ChargerRepository;
+import swp391.fa25.swp391.repository.ChargingPointRepository;
+import swp391.fa25.swp391.repository.ChargingSessionRepository;
+import swp391.fa25.swp391.repository.ChargingStationRepository;
+import swp391.fa25.swp391.repository.DriverRepository;
+import swp391.fa25.swp391.repository.FacilityRepository;
+import swp391.fa25.swp391.repository.IncidentReportRepository;
+import swp391.fa25.swp391.repository.VehicleRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ⭐ SQL statement budget cho các endpoint nóng
+ *
+ * Mỗi endpoint được gọi 2 lần: với SMALL_ROWS và LARGE_ROWS "đơn vị dữ liệu"
+ * (1 đơn vị = facility + station + point + charger + driver + vehicle + session + incident report).
+ * Số statement phải nằm trong budget = fixed + perRow × số đơn vị ở CẢ HAI kích thước,
+ * nên vừa chặn tổng số query vừa chặn N+1 mới (số query tăng theo số dòng).
+ *
+ * perRow > 0 là N+1 đã biết (ratchet): khi sửa endpoint thì hạ budget xuống, không bao giờ nâng lên.
+ */
+@Slf4j
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("sqlcount")
+class HotEndpointSqlBudgetTest {
+
+    private static final int SMALL_ROWS = 2;
+    private static final int LARGE_ROWS = 12;
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    record EndpointBudget(String url, int fixed, int perRow) {
+        long allowed(int rows) {
+            return fixed + (long) perRow * rows;
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+
+    static Stream<EndpointBudget> budgets() {
+        return Stream.of(
+                // Lazy chargingPoints + chargers mỗi station (convertToDto)
+                new EndpointBudget("/api/charging-stations", 1, 3),
+                // Mỗi driver: account/admin/employee (OneToOne), invoices, sessions chưa bill
+                new EndpointBudget("/api/invoices/admin/drivers-ready", 1, 8),
+                // EAGER point/station/charger + facility của station
+                new EndpointBudget("/api/incident-reports", 1, 1),
+                // Mỗi session: driver/account/vehicle/charger/point/station + plan đang active
+                // (+1 câu keyset trên CHARGING_SESSION_ARCHIVE)
+                new EndpointBudget("/api/charging-sessions", 2, 6)
+        );
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private DriverRepository driverRepository;
+    @Autowired
+    private VehicleRepository vehicleRepository;
+    @Autowired
+    private FacilityRepository facilityRepository;
+    @Autowired
+    private ChargingStationRepository stationRepository;
+    @Autowired
+    private ChargingPointRepository pointRepository;
+    @Autowired
+    private ChargerRepository chargerRepository;
+    @Autowired
+    private ChargingSessionRepository sessionRepository;
+    @Autowired
+    private IncidentReportRepository incidentReportRepository;
+
+    private SqlStatementCounter counter;
+
+    @BeforeEach
+    void resetDatabase() {
+        counter = new SqlStatementCounter(entityManagerFactory);
+
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES " +
+                        "WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_TYPE = 'BASE TABLE'",
+                String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            for (String table : tables) {
+                jdbcTemplate.execute("TRUNCATE TABLE \"" + table + "\"");
+            }
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("budgets")
+    void endpointStaysWithinStatementBudget(EndpointBudget budget) throws Exception {
+        seed(SMALL_ROWS);
+        long small = counter.count(() -> mockMvc.perform(get(budget.url())).andExpect(status().isOk()));
+
+        seed(LARGE_ROWS - SMALL_ROWS);
+        long large = counter.count(() -> mockMvc.perform(get(budget.url())).andExpect(status().isOk()));
+
+        String report = String.format("%s: %d statements @%d rows, %d statements @%d rows (budget %d + %d/row)",
+                budget.url(), small, SMALL_ROWS, large, LARGE_ROWS, budget.fixed(), budget.perRow());
+        log.info("[sqlcount] {}", report);
+
+        assertTrue(small <= budget.allowed(SMALL_ROWS), "SQL budget exceeded - " + report);
+        assertTrue(large <= budget.allowed(LARGE_ROWS), "SQL budget exceeded - " + report);
+    }
+
+    // ==================== FIXTURES ====================
+
+    private void seed(int units) {
+        for (int i = 0; i < units; i++) {
+            int n = SEQUENCE.incrementAndGet();
+
+            Account account = new Account();
+            account.setUsername("sqlcount_driver_" + n);
+            account.setPassword("not-used");
+            account.setFullName("Driver " + n);
+            account.setEmail("driver" + n + "@sqlcount.test");
+            account.setCreatedDate(Instant.now().minus(40, ChronoUnit.DAYS));
+            account.setStatus("active");
+            account.setAccountRole("Driver");
+            account = accountRepository.save(account);
+
+            Driver driver = new Driver();
+            driver.setAccount(account);
+            driver = driverRepository.save(driver);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setDriver(driver);
+            vehicle.setLicensePlate("51A-" + n);
+            vehicle.setBrand("VinFast");
+            vehicle.setModel("VF8");
+            vehicle = vehicleRepository.save(vehicle);
+
+            Facility facility = new Facility();
+            facility.setName("Facility " + n);
+            facility.setCity("HCM");
+            facility.setStatus("active");
+            facility = facilityRepository.save(facility);
+
+            ChargingStation station = new ChargingStation();
+            station.setStationName("Station " + n);
+            station.setStatus("active");
+            station.setFacility(facility);
+            station = stationRepository.save(station);
+
+            ChargingPoint point = new ChargingPoint();
+            point.setPointName("Point " + n);
+            point.setStatus("available");
+            point.setPricePerKwh(new BigDecimal("3500"));
+            point.setStation(station);
+            point = pointRepository.save(point);
+
+            Charger charger = new Charger();
+            charger.setChargerCode("SQLC-" + n);
+            charger.setMaxPower(new BigDecimal("50"));
+            charger.setConnectorType("CCS2");
+            charger.setStatus("available");
+            charger.setChargingPoint(point);
+            charger = chargerRepository.save(charger);
+
+            LocalDateTime start = LocalDateTime.now().minusDays(1).minusMinutes(n);
+            ChargingSession session = new ChargingSession();
+            session.setDriver(driver);
+            session.setVehicle(vehicle);
+            session.setCharger(charger);
+            session.setStartTime(start);
+            session.setEndTime(start.plusMinutes(45));
+            session.setKwhUsed(new BigDecimal("20.5"));
+            session.setCost(new BigDecimal("71750"));
+            session.setStatus("completed");
+            sessionRepository.save(session);
+
+            incidentReportRepository.save(IncidentReport.builder()
+                    .reportDate(Instant.now())
+                    .title("Incident " + n)
+                    .description("Connector damaged")
+                    .status("PENDING")
+                    .point(point)
+                    .station(station)
+                    .charger(charger)
+                    .isDeleted(false)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package swp391.fa25.swp391.sqlcount;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import swp391.fa25.swp391.repository.ChargingSessionRepository;
+import swp391.fa25.swp391.repository.InvoiceRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ⭐ Kiểm tra các keyset query nóng nhất dùng index
+ *
+ * Không viết tay SQL: gọi đúng method repository, lấy câu SQL Hibernate sinh ra
+ * (SqlStatementCounter.capture) rồi EXPLAIN câu đó → đổi JPQL / mapping là test thấy ngay.
+ * Plan là của DB nhúng (H2); trên SQL Server thật thì xem QueryPlanInspector.
+ * Test bỏ FK DRIVER_ID trong schema → @DirtiesContext để test class sau có schema sạch.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("sqlcount")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class IndexSeekPlanTest {
+
+    private static final int DRIVERS = 50;
+    private static final int ROWS_PER_DRIVER = 20;
+    // Driver / cursor không khớp dòng nào: chỉ cần câu SQL, không load entity (FK trỏ tới driver không tồn tại)
+    private static final Integer NO_DRIVER = DRIVERS + 1;
+    private static final Pageable PAGE = PageRequest.of(0, 50);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ChargingSessionRepository sessionRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    private QueryPlanInspector inspector;
+    private SqlStatementCounter counter;
+
+    @BeforeEach
+    void seedStatistics() {
+        inspector = new QueryPlanInspector(jdbcTemplate);
+        counter = new SqlStatementCounter(entityManagerFactory);
+        dropImplicitDriverIndexes();
+
+        // Chỉ cần đủ dòng để optimizer ưu tiên index - bỏ qua FK
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            jdbcTemplate.execute("TRUNCATE TABLE charging_session");
+            jdbcTemplate.execute("TRUNCATE TABLE INVOICE");
+            for (int driver = 1; driver <= DRIVERS; driver++) {
+                for (int i = 0; i < ROWS_PER_DRIVER; i++) {
+                    // Id do sequence cấp ở phía Hibernate nên insert JDBC phải tự điền
+                    int id = (driver - 1) * ROWS_PER_DRIVER + i + 1;
+                    jdbcTemplate.update(
+                            "INSERT INTO charging_session (SESSION_ID, DRIVER_ID, START_TIME, STATUS) " +
+                                    "VALUES (?, ?, DATEADD(MINUTE, ?, CURRENT_TIMESTAMP), 'completed')",
+                            id, driver, -i * 90);
+                    jdbcTemplate.update(
+                            "INSERT INTO INVOICE (INVOICE_ID, DRIVER_ID, ISSUE_DATE, STATUS) " +
+                                    "VALUES (?, ?, DATEADD(DAY, ?, CURRENT_TIMESTAMP), 'paid')",
+                            id, driver, -i * 30);
+                }
+            }
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void driverSessionHistoryUsesDriverStartIndex() throws Exception {
+        assertIndexUsed("IX_SESSION_DRIVER_START_ID",
+                () -> sessionRepository.findFirstKeysetPageByDriver(NO_DRIVER, PAGE));
+        assertIndexUsed("IX_SESSION_DRIVER_START_ID",
+                () -> sessionRepository.findKeysetPageByDriverAfter(NO_DRIVER, LocalDateTime.now(), 1, PAGE));
+    }
+
+    @Test
+    void sessionKeysetPageUsesStartIndex() throws Exception {
+        LocalDateTime beforeAll = LocalDateTime.now().minusYears(10);
+        assertIndexUsed("IX_SESSION_START_ID",
+                () -> sessionRepository.findKeysetPageAfter(beforeAll, 0, PAGE));
+    }
+
+    @Test
+    void driverInvoiceHistoryUsesDriverIssueIndex() throws Exception {
+        assertIndexUsed("IX_INVOICE_DRIVER_ISSUE_ID",
+                () -> invoiceRepository.findFirstKeysetPageByDriver(NO_DRIVER, PAGE));
+        assertIndexUsed("IX_INVOICE_DRIVER_ISSUE_ID",
+                () -> invoiceRepository.findKeysetPageByDriverAfter(NO_DRIVER, Instant.now(), 1, PAGE));
+    }
+
+    @Test
+    void invoiceKeysetPageUsesIssueIndex() throws Exception {
+        Instant beforeAll = Instant.now().minus(3650, ChronoUnit.DAYS);
+        assertIndexUsed("IX_INVOICE_ISSUE_ID",
+                () -> invoiceRepository.findKeysetPageAfter(beforeAll, 0, PAGE));
+    }
+
+    /**
+     * H2 tự tạo index riêng cho mỗi FK (SQL Server thì không) → với SELECT đủ cột, optimizer chọn
+     * FK_..._INDEX (chỉ DRIVER_ID) thay vì index keyset. Bỏ FK DRIVER_ID để tập index giống production.
+     */
+    private void dropImplicitDriverIndexes() {
+        for (String table : List.of("charging_session", "invoice")) {
+            List<String> foreignKeys = jdbcTemplate.queryForList(
+                    "SELECT tc.CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc " +
+                            "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE k ON k.CONSTRAINT_NAME = tc.CONSTRAINT_NAME " +
+                            "WHERE tc.CONSTRAINT_TYPE = 'FOREIGN KEY' AND LOWER(tc.TABLE_NAME) = ? " +
+                            "AND LOWER(k.COLUMN_NAME) = 'driver_id'",
+                    String.class, table);
+            for (String foreignKey : foreignKeys) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DROP CONSTRAINT \"" + foreignKey + "\"");
+            }
+        }
+    }
+
+    /**
+     * Câu đầu tiên action sinh ra là keyset query (không có dòng khớp nên không có lazy load theo sau)
+     */
+    private void assertIndexUsed(String indexName, SqlStatementCounter.ThrowingAction action) throws Exception {
+        List<String> statements = counter.capture(action);
+        String sql = statements.get(0);
+        String plan = inspector.explainGenerated(sql);
+        log.info("[sqlcount] {} plan:\n{}", indexName, plan);
+        assertTrue(inspector.usesIndex(plan, indexName),
+                "Expected " + indexName + " in plan of generated SQL:\n" + sql + "\n" + plan);
+    }
+}
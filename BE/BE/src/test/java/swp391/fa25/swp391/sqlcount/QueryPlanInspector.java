@@ -0,0 +1,73 @@
+package swp391.fa25.swp391.sqlcount;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ⭐ Lấy execution plan của 1 câu SQL qua EXPLAIN
+ *
+ * Dùng cú pháp EXPLAIN của DB nhúng (H2): plan là text, index được dùng xuất hiện dạng
+ * "PUBLIC.IX_...: COLUMN = ?". Trên SQL Server thật thì thay bằng SET SHOWPLAN_XML ON.
+ */
+public class QueryPlanInspector {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QueryPlanInspector(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String explain(String sql, Object... params) {
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, params);
+        return String.join("\n", lines);
+    }
+
+    /**
+     * EXPLAIN câu SQL Hibernate sinh ra (tham số ?, xem SqlStatementCounter.capture).
+     * Giá trị mẫu bind theo kiểu tham số DB suy ra - plan chỉ phụ thuộc predicate, không phụ thuộc giá trị.
+     */
+    public String explainGenerated(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                ParameterMetaData parameters = statement.getParameterMetaData();
+                for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                    bindSample(statement, i, parameters.getParameterType(i));
+                }
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                }
+                return String.join("\n", lines);
+            }
+        });
+    }
+
+    private static void bindSample(PreparedStatement statement, int index, int sqlType) throws java.sql.SQLException {
+        switch (sqlType) {
+            case Types.TIMESTAMP -> statement.setTimestamp(index, Timestamp.valueOf(LocalDateTime.now().minusDays(1)));
+            case Types.TIMESTAMP_WITH_TIMEZONE -> statement.setObject(index, OffsetDateTime.now().minusDays(1));
+            case Types.INTEGER, Types.BIGINT, Types.SMALLINT, Types.TINYINT, Types.NUMERIC, Types.DECIMAL ->
+                    statement.setInt(index, 7);
+            default -> statement.setNull(index, sqlType);
+        }
+    }
+
+    /**
+     * true nếu plan dùng index (seek) chứ không scan cả bảng
+     */
+    public boolean usesIndex(String plan, String indexName) {
+        return plan.toUpperCase().contains(indexName.toUpperCase());
+    }
+}
@@ -0,0 +1,57 @@
+package swp391.fa25.swp391.sqlcount;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.List;
+
+/**
+ * ⭐ Đếm số câu SQL Hibernate prepare trong 1 đoạn code
+ *
+ * Dựa trên Hibernate Statistics (cần hibernate.generate_statistics=true, đã bật trong profile sqlcount).
+ * Statistics là global theo SessionFactory nên các test dùng counter không được chạy song song.
+ * Nội dung câu SQL lấy qua SqlStatementRecorder (statement inspector của profile sqlcount).
+ */
+public class SqlStatementCounter {
+
+    @FunctionalInterface
+    public interface ThrowingAction {
+        void run() throws Exception;
+    }
+
+    private final Statistics statistics;
+
+    public SqlStatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            statistics.setStatisticsEnabled(true);
+        }
+    }
+
+    /**
+     * Chạy action và trả về số statement đã prepare (SELECT + INSERT/UPDATE/DELETE)
+     */
+    public long count(ThrowingAction action) throws Exception {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Chạy action và trả về các câu SQL Hibernate đã sinh, theo thứ tự
+     */
+    public List<String> capture(ThrowingAction action) throws Exception {
+        SqlStatementRecorder.start();
+        List<String> recorded;
+        try {
+            action.run();
+        } finally {
+            recorded = SqlStatementRecorder.stop();
+        }
+        if (recorded.isEmpty()) {
+            throw new IllegalStateException("No SQL recorded - is the sqlcount statement inspector registered?");
+        }
+        return recorded;
+    }
+}
@@ -0,0 +1,36 @@
+package swp391.fa25.swp391.sqlcount;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ⭐ Ghi lại câu SQL Hibernate sinh ra trên thread đang ghi
+ *
+ * Đăng ký qua hibernate.session_factory.statement_inspector trong profile sqlcount.
+ * Chỉ ghi khi thread đã gọi start() → scheduler chạy nền không chen vào kết quả.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> recorded = RECORDED.get();
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+        return sql;
+    }
+
+    public static void start() {
+        RECORDED.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> recorded = RECORDED.get();
+        RECORDED.remove();
+        return recorded != null ? recorded : List.of();
+    }
+}
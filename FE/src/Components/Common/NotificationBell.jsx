@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import { Badge, Dropdown, List, notification, Spin, Typography, Button } from 'antd';
 import { BellOutlined, CheckOutlined } from '@ant-design/icons';
 import api from '../../configs/config-axios';
@@ -11,14 +11,14 @@ const NotificationBell = () => {
   const [unreadCount, setUnreadCount] = useState(0);
   const [loading, setLoading] = useState(false);
   const [dropdownOpen, setDropdownOpen] = useState(false);
+  const lastCountRef = useRef(null);
 
-  // Fetch unread notifications
+  // Fetch unread notifications (trang đầu của inbox)
   const fetchNotifications = async () => {
     try {
       setLoading(true);
       const response = await api.get('/employee/notifications/unread');
-      setNotifications(response.data);
-      setUnreadCount(response.data.length);
+      setNotifications(response.data.items);
     } catch (error) {
       console.error('❌ [NotificationBell] Error fetching notifications:', error);
     } finally {
@@ -31,7 +31,7 @@ const NotificationBell = () => {
     try {
       await api.put(`/employee/notifications/${notificationId}/read`);
       // Refresh notifications
-      fetchNotifications();
+      pollUnreadCount();
     } catch (error) {
       console.error('❌ [NotificationBell] Error marking as read:', error);
     }
@@ -43,6 +43,7 @@ const NotificationBell = () => {
       await api.put('/employee/notifications/read-all');
       setNotifications([]);
       setUnreadCount(0);
+      lastCountRef.current = 0;
       notification.success({ message: 'Đã đánh dấu tất cả đã đọc' });
     } catch (error) {
       console.error('❌ [NotificationBell] Error marking all as read:', error);
@@ -50,10 +51,25 @@ const NotificationBell = () => {
     }
   };
 
-  // Poll for new notifications every 30 seconds
+  // Poll unread count (server cache) - chỉ tải lại danh sách khi số chưa đọc thay đổi
+  const pollUnreadCount = async () => {
+    try {
+      const response = await api.get('/employee/notifications/count');
+      const count = response.data.unreadCount;
+      setUnreadCount(count);
+      if (count !== lastCountRef.current) {
+        lastCountRef.current = count;
+        fetchNotifications();
+      }
+    } catch (error) {
+      console.error('❌ [NotificationBell] Error fetching unread count:', error);
+    }
+  };
+
+  // Poll every 30 seconds
   useEffect(() => {
-    fetchNotifications();
-    const interval = setInterval(fetchNotifications, 30000); // 30 seconds
+    pollUnreadCount();
+    const interval = setInterval(pollUnreadCount, 30000); // 30 seconds
     return () => clearInterval(interval);
   }, []);
 